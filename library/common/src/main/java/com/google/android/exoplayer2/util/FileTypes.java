@@ -90,6 +90,19 @@ public final class FileTypes {
   /** File type for the AVI format. */
   public static final int AVI = 16;
 
+  /**
+   * The number of bytes from the start of the media that {@link #inferFileTypeFromSignature} should
+   * be given in order to recognize all signatures.
+   */
+  public static final int SIGNATURE_LENGTH = 3 * 188 + 1;
+
+  /**
+   * The number of bytes from the start of the media that {@link #inferFileTypeFromSignature} should
+   * be given in order to recognize all signatures except the MPEG-TS one. More bytes are only
+   * useful if {@link #mayHaveLongSignature} returns true.
+   */
+  public static final int SHORT_SIGNATURE_LENGTH = 12;
+
   @VisibleForTesting /* package */ static final String HEADER_CONTENT_TYPE = "Content-Type";
 
   private static final String EXTENSION_AC3 = ".ac3";
@@ -126,6 +139,9 @@ public final class FileTypes {
   private static final String EXTENSION_JPEG = ".jpeg";
   private static final String EXTENSION_AVI = ".avi";
 
+  private static final int TS_PACKET_SIZE = 188;
+  private static final int TS_SYNC_BYTE = 0x47;
+
   private FileTypes() {}
 
   /** Returns the {@link Type} corresponding to the response headers provided. */
@@ -261,4 +277,104 @@ public final class FileTypes {
       return FileTypes.UNKNOWN;
     }
   }
+
+  /**
+   * Returns whether {@link #inferFileTypeFromSignature} may recognize the media starting with the
+   * given bytes if it's given more than {@link #SHORT_SIGNATURE_LENGTH} bytes.
+   *
+   * @param data The first bytes of the media.
+   * @param length The number of valid bytes in {@code data}.
+   */
+  public static boolean mayHaveLongSignature(byte[] data, int length) {
+    return length > 0 && (data[0] & 0xFF) == TS_SYNC_BYTE;
+  }
+
+  /**
+   * Returns the {@link Type} indicated by the signature (magic bytes) at the start of the media, or
+   * {@link #UNKNOWN} if the signature isn't recognized.
+   *
+   * <p>The inferred type is a hint for ordering extractors. It's cheap to compute, but it doesn't
+   * guarantee that the media can be read as the inferred type. Signatures that are shared by
+   * several types (for example an ID3 tag) result in {@link #UNKNOWN}.
+   *
+   * @param data The first bytes of the media. Should contain at least {@link #SIGNATURE_LENGTH}
+   *     bytes, unless the media is shorter or {@link #mayHaveLongSignature} returns false for its
+   *     first {@link #SHORT_SIGNATURE_LENGTH} bytes.
+   * @param length The number of valid bytes in {@code data}.
+   */
+  public static @FileTypes.Type int inferFileTypeFromSignature(byte[] data, int length) {
+    if (length >= 12 && matches(data, 0, 'R', 'I', 'F', 'F')) {
+      if (matches(data, 8, 'W', 'A', 'V', 'E')) {
+        return FileTypes.WAV;
+      } else if (matches(data, 8, 'A', 'V', 'I', ' ')) {
+        return FileTypes.AVI;
+      }
+      return FileTypes.UNKNOWN;
+    }
+    if (length >= 8
+        && (matches(data, 4, 'f', 't', 'y', 'p')
+            || matches(data, 4, 's', 't', 'y', 'p')
+            || matches(data, 4, 'm', 'o', 'o', 'v'))) {
+      return FileTypes.MP4;
+    }
+    if (length >= 5 && matches(data, 0, '#', '!', 'A', 'M', 'R')) {
+      return FileTypes.AMR;
+    }
+    if (length >= 4) {
+      if (matches(data, 0, 'f', 'L', 'a', 'C')) {
+        return FileTypes.FLAC;
+      } else if (matches(data, 0, 'O', 'g', 'g', 'S')) {
+        return FileTypes.OGG;
+      } else if (matches(data, 0, 'M', 'T', 'h', 'd')) {
+        return FileTypes.MIDI;
+      } else if (matches(data, 0, 'R', 'F', '6', '4')) {
+        return FileTypes.WAV;
+      } else if (matches(data, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+        return FileTypes.MATROSKA;
+      } else if (matches(data, 0, 0x00, 0x00, 0x01, 0xBA)) {
+        return FileTypes.PS;
+      }
+    }
+    if (length >= 3) {
+      if (matches(data, 0, 'F', 'L', 'V')) {
+        return FileTypes.FLV;
+      } else if (matches(data, 0, 'I', 'D', '3')) {
+        // Several formats may start with an ID3 tag.
+        return FileTypes.UNKNOWN;
+      } else if (matches(data, 0, 0xFF, 0xD8, 0xFF)) {
+        return FileTypes.JPEG;
+      }
+    }
+    if (length > 2 * TS_PACKET_SIZE
+        && (data[0] & 0xFF) == TS_SYNC_BYTE
+        && (data[TS_PACKET_SIZE] & 0xFF) == TS_SYNC_BYTE
+        && (data[2 * TS_PACKET_SIZE] & 0xFF) == TS_SYNC_BYTE) {
+      return FileTypes.TS;
+    }
+    if (length >= 2) {
+      int firstByte = data[0] & 0xFF;
+      int secondByte = data[1] & 0xFF;
+      if (firstByte == 0x0B && secondByte == 0x77) {
+        return FileTypes.AC3;
+      } else if (firstByte == 0xAC && (secondByte == 0x40 || secondByte == 0x41)) {
+        return FileTypes.AC4;
+      } else if (firstByte == 0xFF && (secondByte & 0xF6) == 0xF0) {
+        // 12 bit sync word followed by a layer of 0.
+        return FileTypes.ADTS;
+      } else if (firstByte == 0xFF && (secondByte & 0xE0) == 0xE0) {
+        // 11 bit MPEG audio sync word.
+        return FileTypes.MP3;
+      }
+    }
+    return FileTypes.UNKNOWN;
+  }
+
+  private static boolean matches(byte[] data, int offset, int... signature) {
+    for (int i = 0; i < signature.length; i++) {
+      if ((data[offset + i] & 0xFF) != signature[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
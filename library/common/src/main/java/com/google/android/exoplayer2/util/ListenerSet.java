@@ -23,8 +23,8 @@ import androidx.annotation.CheckResult;
 import androidx.annotation.GuardedBy;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayDeque;
-import java.util.concurrent.CopyOnWriteArraySet;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -36,6 +36,10 @@ import org.checkerframework.checker.nullness.qual.NonNull;
  * <p>Events are also guaranteed to be only sent to the listeners registered at the time the event
  * was enqueued and haven't been removed since.
  *
+ * <p>Queuing and flushing events doesn't allocate once the set reached a steady state: queued
+ * events are kept in reused records that refer to an immutable snapshot of the listeners, which
+ * is only replaced when listeners are added or removed.
+ *
  * <p>All methods must be called on the {@link Looper} passed to the constructor unless indicated
  * otherwise.
  *
@@ -82,9 +86,10 @@ public final class ListenerSet<T extends @NonNull Object> {
   private final Clock clock;
   private final HandlerWrapper handler;
   private final IterationFinishedEvent<T> iterationFinishedEvent;
-  private final CopyOnWriteArraySet<ListenerHolder<T>> listeners;
-  private final ArrayDeque<Runnable> flushingEvents;
-  private final ArrayDeque<Runnable> queuedEvents;
+  private final ListenerHolders<T> listeners;
+  private final ArrayDeque<QueuedEvent<T>> flushingEvents;
+  private final ArrayDeque<QueuedEvent<T>> queuedEvents;
+  private final ArrayDeque<QueuedEvent<T>> queuedEventPool;
   private final Object releasedLock;
 
   @GuardedBy("releasedLock")
@@ -103,7 +108,7 @@ public final class ListenerSet<T extends @NonNull Object> {
    */
   public ListenerSet(Looper looper, Clock clock, IterationFinishedEvent<T> iterationFinishedEvent) {
     this(
-        /* listeners= */ new CopyOnWriteArraySet<>(),
+        /* listeners= */ new ListenerHolders<>(),
         looper,
         clock,
         iterationFinishedEvent,
@@ -111,7 +116,7 @@ public final class ListenerSet<T extends @NonNull Object> {
   }
 
   private ListenerSet(
-      CopyOnWriteArraySet<ListenerHolder<T>> listeners,
+      ListenerHolders<T> listeners,
       Looper looper,
       Clock clock,
       IterationFinishedEvent<T> iterationFinishedEvent,
@@ -122,6 +127,7 @@ public final class ListenerSet<T extends @NonNull Object> {
     releasedLock = new Object();
     flushingEvents = new ArrayDeque<>();
     queuedEvents = new ArrayDeque<>();
+    queuedEventPool = new ArrayDeque<>();
     // It's safe to use "this" because we don't send a message before exiting the constructor.
     @SuppressWarnings("nullness:methodref.receiver.bound")
     HandlerWrapper handler = clock.createHandler(looper, this::handleMessage);
@@ -190,7 +196,9 @@ public final class ListenerSet<T extends @NonNull Object> {
    */
   public void remove(T listener) {
     verifyCurrentThread();
-    for (ListenerHolder<T> listenerHolder : listeners) {
+    ImmutableList<ListenerHolder<T>> listenerSnapshot = listeners.get();
+    for (int i = 0; i < listenerSnapshot.size(); i++) {
+      ListenerHolder<T> listenerHolder = listenerSnapshot.get(i);
       if (listenerHolder.listener.equals(listener)) {
         listenerHolder.release(iterationFinishedEvent);
         listeners.remove(listenerHolder);
@@ -207,7 +215,7 @@ public final class ListenerSet<T extends @NonNull Object> {
   /** Returns the number of added listeners. */
   public int size() {
     verifyCurrentThread();
-    return listeners.size();
+    return listeners.get().size();
   }
 
   /**
@@ -219,13 +227,17 @@ public final class ListenerSet<T extends @NonNull Object> {
    */
   public void queueEvent(int eventFlag, Event<T> event) {
     verifyCurrentThread();
-    CopyOnWriteArraySet<ListenerHolder<T>> listenerSnapshot = new CopyOnWriteArraySet<>(listeners);
-    queuedEvents.add(
-        () -> {
-          for (ListenerHolder<T> holder : listenerSnapshot) {
-            holder.invoke(eventFlag, event);
-          }
-        });
+    ImmutableList<ListenerHolder<T>> listenerSnapshot = listeners.get();
+    if (listenerSnapshot.isEmpty()) {
+      // Listeners added later must not receive this event, so there is nothing to send.
+      return;
+    }
+    @Nullable QueuedEvent<T> queuedEvent = queuedEventPool.pollFirst();
+    if (queuedEvent == null) {
+      queuedEvent = new QueuedEvent<>();
+    }
+    queuedEvent.set(listenerSnapshot, eventFlag, event);
+    queuedEvents.add(queuedEvent);
   }
 
   /** Notifies listeners of events previously enqueued with {@link #queueEvent(int, Event)}. */
@@ -245,8 +257,10 @@ public final class ListenerSet<T extends @NonNull Object> {
       return;
     }
     while (!flushingEvents.isEmpty()) {
-      flushingEvents.peekFirst().run();
-      flushingEvents.removeFirst();
+      flushingEvents.peekFirst().invoke();
+      QueuedEvent<T> flushedEvent = flushingEvents.removeFirst();
+      flushedEvent.clear();
+      queuedEventPool.addLast(flushedEvent);
     }
   }
 
@@ -273,8 +287,9 @@ public final class ListenerSet<T extends @NonNull Object> {
     synchronized (releasedLock) {
       released = true;
     }
-    for (ListenerHolder<T> listenerHolder : listeners) {
-      listenerHolder.release(iterationFinishedEvent);
+    ImmutableList<ListenerHolder<T>> listenerSnapshot = listeners.get();
+    for (int i = 0; i < listenerSnapshot.size(); i++) {
+      listenerSnapshot.get(i).release(iterationFinishedEvent);
     }
     listeners.clear();
   }
@@ -293,8 +308,9 @@ public final class ListenerSet<T extends @NonNull Object> {
   }
 
   private boolean handleMessage(Message message) {
-    for (ListenerHolder<T> holder : listeners) {
-      holder.iterationFinished(iterationFinishedEvent);
+    ImmutableList<ListenerHolder<T>> listenerSnapshot = listeners.get();
+    for (int i = 0; i < listenerSnapshot.size(); i++) {
+      listenerSnapshot.get(i).iterationFinished(iterationFinishedEvent);
       if (handler.hasMessages(MSG_ITERATION_FINISHED)) {
         // The invocation above triggered new events (and thus scheduled a new message). We need
         // to stop here because this new message will take care of informing every listener about
@@ -312,6 +328,77 @@ public final class ListenerSet<T extends @NonNull Object> {
     checkState(Thread.currentThread() == handler.getLooper().getThread());
   }
 
+  /**
+   * The listeners of one or more {@link ListenerSet} instances created with {@link #copy}, stored
+   * as an immutable list that is replaced on every change so that it can be used as a snapshot
+   * without copying.
+   */
+  private static final class ListenerHolders<T extends @NonNull Object> {
+
+    private volatile ImmutableList<ListenerHolder<T>> holders;
+
+    public ListenerHolders() {
+      holders = ImmutableList.of();
+    }
+
+    public ImmutableList<ListenerHolder<T>> get() {
+      return holders;
+    }
+
+    public synchronized void add(ListenerHolder<T> holder) {
+      if (holders.contains(holder)) {
+        return;
+      }
+      holders =
+          new ImmutableList.Builder<ListenerHolder<T>>().addAll(holders).add(holder).build();
+    }
+
+    public synchronized void remove(ListenerHolder<T> holder) {
+      ImmutableList.Builder<ListenerHolder<T>> newHolders = new ImmutableList.Builder<>();
+      for (int i = 0; i < holders.size(); i++) {
+        if (!holders.get(i).equals(holder)) {
+          newHolders.add(holders.get(i));
+        }
+      }
+      holders = newHolders.build();
+    }
+
+    public synchronized void clear() {
+      holders = ImmutableList.of();
+    }
+  }
+
+  /** A reusable record of an event queued for the listeners registered when it was queued. */
+  private static final class QueuedEvent<T extends @NonNull Object> {
+
+    private ImmutableList<ListenerHolder<T>> listeners;
+    private int eventFlag;
+    @Nullable private Event<T> event;
+
+    public QueuedEvent() {
+      listeners = ImmutableList.of();
+    }
+
+    public void set(ImmutableList<ListenerHolder<T>> listeners, int eventFlag, Event<T> event) {
+      this.listeners = listeners;
+      this.eventFlag = eventFlag;
+      this.event = event;
+    }
+
+    public void invoke() {
+      Event<T> event = Assertions.checkNotNull(this.event);
+      for (int i = 0; i < listeners.size(); i++) {
+        listeners.get(i).invoke(eventFlag, event);
+      }
+    }
+
+    public void clear() {
+      // Release references to allow garbage collection of the listeners and the event.
+      listeners = ImmutableList.of();
+      event = null;
+    }
+  }
+
   private static final class ListenerHolder<T extends @NonNull Object> {
 
     public final T listener;
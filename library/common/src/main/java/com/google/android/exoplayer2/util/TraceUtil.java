@@ -31,6 +31,22 @@ public final class TraceUtil {
 
   private TraceUtil() {}
 
+  /**
+   * Returns whether trace sections may currently be recorded. Can be used to avoid building section
+   * names that would be discarded.
+   *
+   * <p>Returns false if {@link ExoPlayerLibraryInfo#TRACE_ENABLED} is false or the API level is
+   * below 18, where {@link #beginSection} does nothing. Otherwise, returns the result of {@link
+   * android.os.Trace#isEnabled()} from API level 29, and true on API levels 18 to 28, where the
+   * tracing state can't be queried.
+   */
+  public static boolean isEnabled() {
+    if (!ExoPlayerLibraryInfo.TRACE_ENABLED || Util.SDK_INT < 18) {
+      return false;
+    }
+    return Util.SDK_INT < 29 || isEnabledV29();
+  }
+
   /**
    * Writes a trace message to indicate that a given section of code has begun.
    *
@@ -64,4 +80,9 @@ public final class TraceUtil {
   private static void endSectionV18() {
     android.os.Trace.endSection();
   }
+
+  @RequiresApi(29)
+  private static boolean isEnabledV29() {
+    return android.os.Trace.isEnabled();
+  }
 }
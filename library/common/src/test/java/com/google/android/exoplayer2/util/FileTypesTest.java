@@ -94,4 +94,53 @@ public class FileTypesTest {
   public void inferFileFormat_fromEmptyUri_returnsUnknownFormat() {
     assertThat(inferFileTypeFromUri(Uri.EMPTY)).isEqualTo(FileTypes.UNKNOWN);
   }
+
+  @Test
+  public void inferFileFormat_fromSignature_returnsExpectedFormat() {
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("000000206674797069736f6d")))
+        .isEqualTo(FileTypes.MP4);
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("1a45dfa3a342868101")))
+        .isEqualTo(FileTypes.MATROSKA);
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("52494646ce58010057415645")))
+        .isEqualTo(FileTypes.WAV);
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("52494646be1a050041564920")))
+        .isEqualTo(FileTypes.AVI);
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("fff1504003dffc")))
+        .isEqualTo(FileTypes.ADTS);
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("fffb9064")))
+        .isEqualTo(FileTypes.MP3);
+  }
+
+  @Test
+  public void inferFileFormat_fromTransportStreamSignature_returnsTs() {
+    byte[] data = new byte[FileTypes.SIGNATURE_LENGTH];
+    data[0] = 0x47;
+    data[188] = 0x47;
+    data[376] = 0x47;
+
+    assertThat(inferFileTypeFromSignature(data)).isEqualTo(FileTypes.TS);
+  }
+
+  @Test
+  public void inferFileFormat_fromAmbiguousOrShortSignature_returnsUnknownFormat() {
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("4944330400000000003f")))
+        .isEqualTo(FileTypes.UNKNOWN);
+    assertThat(inferFileTypeFromSignature(Util.getBytesFromHexString("4f67")))
+        .isEqualTo(FileTypes.UNKNOWN);
+    assertThat(inferFileTypeFromSignature(new byte[0])).isEqualTo(FileTypes.UNKNOWN);
+  }
+
+  @Test
+  public void mayHaveLongSignature_onlyReturnsTrueForPossibleTransportStream() {
+    byte[] mp4Data = Util.getBytesFromHexString("000000206674797069736f6d");
+    byte[] tsData = Util.getBytesFromHexString("474000100000b00d0001c100");
+
+    assertThat(FileTypes.mayHaveLongSignature(mp4Data, mp4Data.length)).isFalse();
+    assertThat(FileTypes.mayHaveLongSignature(tsData, tsData.length)).isTrue();
+    assertThat(FileTypes.mayHaveLongSignature(new byte[0], /* length= */ 0)).isFalse();
+  }
+
+  private static @FileTypes.Type int inferFileTypeFromSignature(byte[] data) {
+    return FileTypes.inferFileTypeFromSignature(data, data.length);
+  }
 }
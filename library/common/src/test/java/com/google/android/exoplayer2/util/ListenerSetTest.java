@@ -283,6 +283,37 @@ public class ListenerSetTest {
     inOrder.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void flushEvents_repeatedWithChangingListeners_sendsEventsOnlyToListenersWhenQueued() {
+    ListenerSet<TestListener> listenerSet =
+        new ListenerSet<>(Looper.myLooper(), Clock.DEFAULT, TestListener::iterationFinished);
+    TestListener listener1 = mock(TestListener.class);
+    TestListener listener2 = mock(TestListener.class);
+
+    // Queued events are reused after each flush and must not keep their previous listeners.
+    listenerSet.add(listener1);
+    listenerSet.queueEvent(EVENT_ID_1, TestListener::callback1);
+    listenerSet.queueEvent(EVENT_ID_2, TestListener::callback2);
+    listenerSet.flushEvents();
+    listenerSet.remove(listener1);
+    listenerSet.add(listener2);
+    listenerSet.queueEvent(EVENT_ID_3, TestListener::callback3);
+    listenerSet.queueEvent(EVENT_ID_1, TestListener::callback1);
+    listenerSet.queueEvent(EVENT_ID_2, TestListener::callback2);
+    listenerSet.flushEvents();
+    ShadowLooper.idleMainLooper();
+
+    InOrder inOrder = Mockito.inOrder(listener1, listener2);
+    inOrder.verify(listener1).callback1();
+    inOrder.verify(listener1).callback2();
+    inOrder.verify(listener1).iterationFinished(createFlagSet(EVENT_ID_1, EVENT_ID_2));
+    inOrder.verify(listener2).callback3();
+    inOrder.verify(listener2).callback1();
+    inOrder.verify(listener2).callback2();
+    inOrder.verify(listener2).iterationFinished(createFlagSet(EVENT_ID_1, EVENT_ID_2, EVENT_ID_3));
+    inOrder.verifyNoMoreInteractions();
+  }
+
   @Test
   public void remove_withRecursion_stopsReceivingEventsImmediately() {
     ListenerSet<TestListener> listenerSet =
@@ -111,6 +111,7 @@ public class DefaultLoadControl implements LoadControl {
   public static final class Builder {
 
     @Nullable private DefaultAllocator allocator;
+    @Nullable private SharedBufferBudget sharedBufferBudget;
     private int minBufferMs;
     private int maxBufferMs;
     private int bufferForPlaybackMs;
@@ -147,6 +148,24 @@ public class DefaultLoadControl implements LoadControl {
       return this;
     }
 
+    /**
+     * Sets a {@link SharedBufferBudget} that caps the target buffer size of this load control
+     * together with those of other players sharing the same budget.
+     *
+     * <p>The load control must not share its {@linkplain #setAllocator allocator} with other
+     * players.
+     *
+     * @param sharedBufferBudget The {@link SharedBufferBudget}, or {@code null} to not use one.
+     * @return This builder, for convenience.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setSharedBufferBudget(@Nullable SharedBufferBudget sharedBufferBudget) {
+      checkState(!buildCalled);
+      this.sharedBufferBudget = sharedBufferBudget;
+      return this;
+    }
+
     /**
      * Sets the buffer duration parameters.
      *
@@ -252,7 +271,8 @@ public class DefaultLoadControl implements LoadControl {
           targetBufferBytes,
           prioritizeTimeOverSizeThresholds,
           backBufferDurationMs,
-          retainBackBufferFromKeyframe);
+          retainBackBufferFromKeyframe,
+          sharedBufferBudget);
     }
   }
 
@@ -266,9 +286,12 @@ public class DefaultLoadControl implements LoadControl {
   private final boolean prioritizeTimeOverSizeThresholds;
   private final long backBufferDurationUs;
   private final boolean retainBackBufferFromKeyframe;
+  @Nullable private final SharedBufferBudget sharedBufferBudget;
 
-  private int targetBufferBytes;
+  private volatile int targetBufferBytes;
   private boolean isLoading;
+  private volatile int bufferBudgetShareBytes;
+  private volatile boolean isBufferBudgetPrioritized;
 
   /** Constructs a new instance, using the {@code DEFAULT_*} constants defined in this class. */
   public DefaultLoadControl() {
@@ -294,6 +317,30 @@ public class DefaultLoadControl implements LoadControl {
       boolean prioritizeTimeOverSizeThresholds,
       int backBufferDurationMs,
       boolean retainBackBufferFromKeyframe) {
+    this(
+        allocator,
+        minBufferMs,
+        maxBufferMs,
+        bufferForPlaybackMs,
+        bufferForPlaybackAfterRebufferMs,
+        targetBufferBytes,
+        prioritizeTimeOverSizeThresholds,
+        backBufferDurationMs,
+        retainBackBufferFromKeyframe,
+        /* sharedBufferBudget= */ null);
+  }
+
+  protected DefaultLoadControl(
+      DefaultAllocator allocator,
+      int minBufferMs,
+      int maxBufferMs,
+      int bufferForPlaybackMs,
+      int bufferForPlaybackAfterRebufferMs,
+      int targetBufferBytes,
+      boolean prioritizeTimeOverSizeThresholds,
+      int backBufferDurationMs,
+      boolean retainBackBufferFromKeyframe,
+      @Nullable SharedBufferBudget sharedBufferBudget) {
     assertGreaterOrEqual(bufferForPlaybackMs, 0, "bufferForPlaybackMs", "0");
     assertGreaterOrEqual(
         bufferForPlaybackAfterRebufferMs, 0, "bufferForPlaybackAfterRebufferMs", "0");
@@ -319,11 +366,32 @@ public class DefaultLoadControl implements LoadControl {
     this.prioritizeTimeOverSizeThresholds = prioritizeTimeOverSizeThresholds;
     this.backBufferDurationUs = Util.msToUs(backBufferDurationMs);
     this.retainBackBufferFromKeyframe = retainBackBufferFromKeyframe;
+    this.sharedBufferBudget = sharedBufferBudget;
+    bufferBudgetShareBytes = C.LENGTH_UNSET;
+  }
+
+  /**
+   * Sets whether this player is given a larger share of its {@link SharedBufferBudget} than the
+   * other players sharing it, for example because it is visible or playing. Has no effect if no
+   * budget was set.
+   *
+   * <p>May be called from any thread.
+   *
+   * @param prioritized Whether the player is prioritized.
+   */
+  public void setBufferBudgetPrioritized(boolean prioritized) {
+    isBufferBudgetPrioritized = prioritized;
+    if (sharedBufferBudget != null) {
+      sharedBufferBudget.onPriorityChanged(this);
+    }
   }
 
   @Override
   public void onPrepared() {
     reset(false);
+    if (sharedBufferBudget != null) {
+      sharedBufferBudget.register(this, targetBufferBytes);
+    }
   }
 
   @Override
@@ -337,16 +405,25 @@ public class DefaultLoadControl implements LoadControl {
         targetBufferBytesOverwrite == C.LENGTH_UNSET
             ? calculateTargetBufferBytes(renderers, trackSelections)
             : targetBufferBytesOverwrite;
-    allocator.setTargetBufferSize(targetBufferBytes);
+    allocator.setTargetBufferSize(getTargetBufferBytesWithinBudget());
+    if (sharedBufferBudget != null) {
+      sharedBufferBudget.setTargetBufferBytes(this, targetBufferBytes);
+    }
   }
 
   @Override
   public void onStopped() {
+    if (sharedBufferBudget != null) {
+      sharedBufferBudget.unregister(this);
+    }
     reset(true);
   }
 
   @Override
   public void onReleased() {
+    if (sharedBufferBudget != null) {
+      sharedBufferBudget.unregister(this);
+    }
     reset(true);
   }
 
@@ -368,7 +445,8 @@ public class DefaultLoadControl implements LoadControl {
   @Override
   public boolean shouldContinueLoading(
       long playbackPositionUs, long bufferedDurationUs, float playbackSpeed) {
-    boolean targetBufferSizeReached = allocator.getTotalBytesAllocated() >= targetBufferBytes;
+    boolean targetBufferSizeReached =
+        allocator.getTotalBytesAllocated() >= getTargetBufferBytesWithinBudget();
     long minBufferUs = this.minBufferUs;
     if (playbackSpeed > 1) {
       // The playback speed is faster than real time, so scale up the minimum required media
@@ -408,7 +486,21 @@ public class DefaultLoadControl implements LoadControl {
     return minBufferDurationUs <= 0
         || bufferedDurationUs >= minBufferDurationUs
         || (!prioritizeTimeOverSizeThresholds
-            && allocator.getTotalBytesAllocated() >= targetBufferBytes);
+            && allocator.getTotalBytesAllocated() >= getTargetBufferBytesWithinBudget());
+  }
+
+  /* package */ boolean isBufferBudgetPrioritized() {
+    return isBufferBudgetPrioritized;
+  }
+
+  /**
+   * Sets the share of the {@link SharedBufferBudget} given to this load control, or {@link
+   * C#LENGTH_UNSET} if the load control is not constrained by the budget.
+   */
+  /* package */ void setBufferBudgetShareBytes(int bufferBudgetShareBytes) {
+    this.bufferBudgetShareBytes = bufferBudgetShareBytes;
+    // Trim memory held by the allocator beyond the new share.
+    allocator.setTargetBufferSize(getTargetBufferBytesWithinBudget());
   }
 
   /**
@@ -430,6 +522,13 @@ public class DefaultLoadControl implements LoadControl {
     return max(DEFAULT_MIN_BUFFER_SIZE, targetBufferSize);
   }
 
+  private int getTargetBufferBytesWithinBudget() {
+    int bufferBudgetShareBytes = this.bufferBudgetShareBytes;
+    return bufferBudgetShareBytes == C.LENGTH_UNSET
+        ? targetBufferBytes
+        : min(targetBufferBytes, bufferBudgetShareBytes);
+  }
+
   private void reset(boolean resetAllocator) {
     targetBufferBytes =
         targetBufferBytesOverwrite == C.LENGTH_UNSET
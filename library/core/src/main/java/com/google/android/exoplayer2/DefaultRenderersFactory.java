@@ -30,6 +30,7 @@ import com.google.android.exoplayer2.audio.DefaultAudioSink;
 import com.google.android.exoplayer2.audio.MediaCodecAudioRenderer;
 import com.google.android.exoplayer2.mediacodec.DefaultMediaCodecAdapterFactory;
 import com.google.android.exoplayer2.mediacodec.MediaCodecAdapter;
+import com.google.android.exoplayer2.mediacodec.MediaCodecPool;
 import com.google.android.exoplayer2.mediacodec.MediaCodecSelector;
 import com.google.android.exoplayer2.metadata.MetadataOutput;
 import com.google.android.exoplayer2.metadata.MetadataRenderer;
@@ -181,6 +182,23 @@ public class DefaultRenderersFactory implements RenderersFactory {
     return this;
   }
 
+  /**
+   * Sets a {@link MediaCodecPool} shared with other players, from which the {@link
+   * com.google.android.exoplayer2.mediacodec.MediaCodecRenderer} instances take their codecs and to
+   * which they return them when they no longer need them.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param codecPool The {@link MediaCodecPool}, or null to create a new codec each time.
+   * @return This factory, for convenience.
+   */
+  @CanIgnoreReturnValue
+  public DefaultRenderersFactory experimentalSetMediaCodecPool(
+      @Nullable MediaCodecPool codecPool) {
+    codecAdapterFactory.experimentalSetMediaCodecPool(codecPool);
+    return this;
+  }
+
   /**
    * Sets whether to enable fallback to lower-priority decoders if decoder initialization fails.
    * This may result in using a decoder that is less efficient or slower than the primary decoder.
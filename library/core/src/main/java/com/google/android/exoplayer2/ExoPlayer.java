@@ -460,6 +460,8 @@ public interface ExoPlayer extends Player {
 
     /* package */ Clock clock;
     /* package */ long foregroundModeTimeoutMs;
+    /* package */ boolean dynamicSchedulingEnabled;
+    @Nullable /* package */ PlaybackLoopProfiler playbackLoopProfiler;
     /* package */ Supplier<RenderersFactory> renderersFactorySupplier;
     /* package */ Supplier<MediaSource.Factory> mediaSourceFactorySupplier;
     /* package */ Supplier<TrackSelector> trackSelectorSupplier;
@@ -701,6 +703,43 @@ public interface ExoPlayer extends Player {
       return this;
     }
 
+    /**
+     * Sets whether dynamic scheduling is enabled.
+     *
+     * <p>If enabled, the player schedules its rendering loop based on how long the renderers can
+     * wait before they need to be rendered again (see {@link
+     * Renderer#getDurationToProgressUs(long, long)}), instead of running it at a fixed interval
+     * while playing. This reduces the CPU usage of steady playback, for example when the audio
+     * output is fully buffered or the next video frame is not due yet.
+     *
+     * <p>This method is experimental, and will be renamed or removed in a future release.
+     *
+     * @param dynamicSchedulingEnabled Whether to enable dynamic scheduling.
+     */
+    @CanIgnoreReturnValue
+    public Builder experimentalSetDynamicSchedulingEnabled(boolean dynamicSchedulingEnabled) {
+      checkState(!buildCalled);
+      this.dynamicSchedulingEnabled = dynamicSchedulingEnabled;
+      return this;
+    }
+
+    /**
+     * Sets a {@link PlaybackLoopProfiler} that records how long the phases of the player's
+     * playback loop take.
+     *
+     * <p>This method is experimental, and will be renamed or removed in a future release.
+     *
+     * @param playbackLoopProfiler The {@link PlaybackLoopProfiler}, or {@code null} to disable
+     *     profiling.
+     */
+    @CanIgnoreReturnValue
+    public Builder experimentalSetPlaybackLoopProfiler(
+        @Nullable PlaybackLoopProfiler playbackLoopProfiler) {
+      checkState(!buildCalled);
+      this.playbackLoopProfiler = playbackLoopProfiler;
+      return this;
+    }
+
     /**
      * Sets the {@link RenderersFactory} that will be used by the player.
      *
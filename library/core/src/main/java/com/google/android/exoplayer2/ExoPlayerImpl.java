@@ -373,6 +373,12 @@ import java.util.concurrent.TimeoutException;
       if (builder.foregroundModeTimeoutMs > 0) {
         internalPlayer.experimentalSetForegroundModeTimeoutMs(builder.foregroundModeTimeoutMs);
       }
+      if (builder.dynamicSchedulingEnabled) {
+        internalPlayer.experimentalSetDynamicSchedulingEnabled(true);
+      }
+      if (builder.playbackLoopProfiler != null) {
+        internalPlayer.experimentalSetPlaybackLoopProfiler(builder.playbackLoopProfiler);
+      }
 
       audioBecomingNoisyManager =
           new AudioBecomingNoisyManager(builder.context, eventHandler, componentListener);
@@ -2339,14 +2345,15 @@ import java.util.concurrent.TimeoutException;
 
   private List<MediaSourceList.MediaSourceHolder> addMediaSourceHolders(
       int index, List<MediaSource> mediaSources) {
-    List<MediaSourceList.MediaSourceHolder> holders = new ArrayList<>();
+    List<MediaSourceList.MediaSourceHolder> holders = new ArrayList<>(mediaSources.size());
+    List<MediaSourceHolderSnapshot> snapshots = new ArrayList<>(mediaSources.size());
     for (int i = 0; i < mediaSources.size(); i++) {
       MediaSourceList.MediaSourceHolder holder =
           new MediaSourceList.MediaSourceHolder(mediaSources.get(i), useLazyPreparation);
       holders.add(holder);
-      mediaSourceHolderSnapshots.add(
-          i + index, new MediaSourceHolderSnapshot(holder.uid, holder.mediaSource.getTimeline()));
+      snapshots.add(new MediaSourceHolderSnapshot(holder.uid, holder.mediaSource.getTimeline()));
     }
+    mediaSourceHolderSnapshots.addAll(index, snapshots);
     shuffleOrder =
         shuffleOrder.cloneAndInsert(
             /* insertionIndex= */ index, /* insertionCount= */ holders.size());
@@ -2402,14 +2409,12 @@ import java.util.concurrent.TimeoutException;
   }
 
   private void removeMediaSourceHolders(int fromIndex, int toIndexExclusive) {
-    for (int i = toIndexExclusive - 1; i >= fromIndex; i--) {
-      mediaSourceHolderSnapshots.remove(i);
-    }
+    mediaSourceHolderSnapshots.subList(fromIndex, toIndexExclusive).clear();
     shuffleOrder = shuffleOrder.cloneAndRemove(fromIndex, toIndexExclusive);
   }
 
   private Timeline createMaskingTimeline() {
-    return new PlaylistTimeline(mediaSourceHolderSnapshots, shuffleOrder);
+    return new PlaylistTimeline(mediaSourceHolderSnapshots, shuffleOrder, playbackInfo.timeline);
   }
 
   private PlaybackInfo maskTimelineAndPosition(
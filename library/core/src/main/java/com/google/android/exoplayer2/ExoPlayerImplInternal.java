@@ -220,6 +220,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
   private boolean foregroundMode;
   private boolean requestForRendererSleep;
   private boolean offloadSchedulingEnabled;
+  private boolean dynamicSchedulingEnabled;
+  @Nullable private PlaybackLoopProfiler playbackLoopProfiler;
   private int enabledRendererCount;
   @Nullable private SeekPosition pendingInitialSeekPosition;
   private long rendererPositionUs;
@@ -311,6 +313,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
     this.setForegroundModeTimeoutMs = setForegroundModeTimeoutMs;
   }
 
+  public void experimentalSetDynamicSchedulingEnabled(boolean dynamicSchedulingEnabled) {
+    this.dynamicSchedulingEnabled = dynamicSchedulingEnabled;
+  }
+
+  public void experimentalSetPlaybackLoopProfiler(PlaybackLoopProfiler playbackLoopProfiler) {
+    playbackLoopProfiler.setRendererCount(renderers.length);
+    this.playbackLoopProfiler = playbackLoopProfiler;
+  }
+
   public void experimentalSetOffloadSchedulingEnabled(boolean offloadSchedulingEnabled) {
     handler
         .obtainMessage(
@@ -1010,12 +1021,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
     long operationStartTimeMs = clock.uptimeMillis();
     // Remove other pending DO_SOME_WORK requests that are handled by this invocation.
     handler.removeMessages(MSG_DO_SOME_WORK);
+    long profilingStartTimeNs = beginPhase("doSomeWork");
 
+    long updatePeriodsStartTimeNs = beginPhase("updatePeriods");
     updatePeriods();
+    endPhase(PlaybackLoopProfiler.PHASE_UPDATE_PERIODS, C.INDEX_UNSET, updatePeriodsStartTimeNs);
 
     if (playbackInfo.playbackState == Player.STATE_IDLE
         || playbackInfo.playbackState == Player.STATE_ENDED) {
       // Nothing to do. Prepare (in case of IDLE) or seek (in case of ENDED) will resume.
+      endPhase(PlaybackLoopProfiler.PHASE_DO_SOME_WORK, C.INDEX_UNSET, profilingStartTimeNs);
       return;
     }
 
@@ -1023,15 +1038,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
     if (playingPeriodHolder == null) {
       // We're still waiting until the playing period is available.
       scheduleNextWork(operationStartTimeMs, ACTIVE_INTERVAL_MS);
+      endPhase(PlaybackLoopProfiler.PHASE_DO_SOME_WORK, C.INDEX_UNSET, profilingStartTimeNs);
       return;
     }
 
-    TraceUtil.beginSection("doSomeWork");
-
     updatePlaybackPositions();
 
     boolean renderersEnded = true;
     boolean renderersAllowPlayback = true;
+    long durationToProgressUs = Long.MAX_VALUE;
     if (playingPeriodHolder.prepared) {
       long rendererPositionElapsedRealtimeUs = SystemClock.elapsedRealtime() * 1000;
       playingPeriodHolder.mediaPeriod.discardBuffer(
@@ -1041,10 +1056,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
         if (!isRendererEnabled(renderer)) {
           continue;
         }
-        // TODO: Each renderer should return the maximum delay before which it wishes to be called
-        // again. The minimum of these values should then be used as the delay before the next
-        // invocation of this method.
+        long renderStartTimeNs = beginPhase(renderer.getName());
         renderer.render(rendererPositionUs, rendererPositionElapsedRealtimeUs);
+        endPhase(PlaybackLoopProfiler.PHASE_RENDER, /* rendererIndex= */ i, renderStartTimeNs);
+        if (dynamicSchedulingEnabled) {
+          durationToProgressUs =
+              min(
+                  durationToProgressUs,
+                  renderer.getDurationToProgressUs(
+                      rendererPositionUs, rendererPositionElapsedRealtimeUs));
+        }
         renderersEnded = renderersEnded && renderer.isEnded();
         // Determine whether the renderer allows playback to continue. Playback can continue if the
         // renderer is ready or ended. Also continue playback if the renderer is reading ahead into
@@ -1138,13 +1159,36 @@ import java.util.concurrent.atomic.AtomicBoolean;
     if (sleepingForOffload || playbackInfo.playbackState == Player.STATE_ENDED) {
       // No need to schedule next work.
     } else if (isPlaying || playbackInfo.playbackState == Player.STATE_BUFFERING) {
-      // We are actively playing or waiting for data to be ready. Schedule next work quickly.
-      scheduleNextWork(operationStartTimeMs, ACTIVE_INTERVAL_MS);
+      // We are actively playing or waiting for data to be ready. Schedule next work quickly, or
+      // when the renderers next need to make progress if dynamic scheduling is enabled.
+      scheduleNextWork(
+          operationStartTimeMs,
+          dynamicSchedulingEnabled && isPlaying
+              ? getDynamicSchedulingIntervalMs(durationToProgressUs)
+              : ACTIVE_INTERVAL_MS);
     } else if (playbackInfo.playbackState == Player.STATE_READY && enabledRendererCount != 0) {
       // We are ready, but not playing. Schedule next work less often to handle non-urgent updates.
       scheduleNextWork(operationStartTimeMs, IDLE_INTERVAL_MS);
     }
 
+    endPhase(PlaybackLoopProfiler.PHASE_DO_SOME_WORK, C.INDEX_UNSET, profilingStartTimeNs);
+  }
+
+  /**
+   * Begins a phase of the playback loop, by beginning a trace section and returning the start time
+   * to pass to {@link #endPhase} if profiling.
+   */
+  private long beginPhase(String sectionName) {
+    TraceUtil.beginSection(sectionName);
+    return playbackLoopProfiler != null ? clock.nanoTime() : 0;
+  }
+
+  /** Ends a phase of the playback loop begun with {@link #beginPhase}. */
+  private void endPhase(
+      @PlaybackLoopProfiler.Phase int phase, int rendererIndex, long startTimeNs) {
+    if (playbackLoopProfiler != null) {
+      playbackLoopProfiler.onPhaseCompleted(phase, rendererIndex, clock.nanoTime() - startTimeNs);
+    }
     TraceUtil.endSection();
   }
 
@@ -1177,6 +1221,36 @@ import java.util.concurrent.atomic.AtomicBoolean;
     handler.sendEmptyMessageAtTime(MSG_DO_SOME_WORK, thisOperationStartTimeMs + intervalMs);
   }
 
+  private static long getDynamicSchedulingIntervalMs(long durationToProgressUs) {
+    if (durationToProgressUs == Long.MAX_VALUE) {
+      // No renderer reported a duration.
+      return ACTIVE_INTERVAL_MS;
+    }
+    // Never wake up more often than with fixed interval scheduling, and keep waking up periodically
+    // to handle non-urgent updates.
+    return Util.constrainValue(
+        durationToProgressUs / 1000, /* min= */ ACTIVE_INTERVAL_MS, /* max= */ IDLE_INTERVAL_MS);
+  }
+
+  private void maybeScheduleWorkAfterPeriodPrepared() {
+    if (!dynamicSchedulingEnabled
+        || !shouldPlayWhenReady()
+        || playbackInfo.playbackState != Player.STATE_READY) {
+      // Only playback in the ready state may sleep longer than the active interval.
+      return;
+    }
+    @Nullable MediaPeriodHolder readingPeriodHolder = queue.getReadingPeriod();
+    @Nullable MediaPeriodHolder loadingPeriodHolder = queue.getLoadingPeriod();
+    if (readingPeriodHolder != null
+        && loadingPeriodHolder != null
+        && loadingPeriodHolder.prepared
+        && readingPeriodHolder.getNext() == loadingPeriodHolder) {
+      // The renderers may be able to read ahead into the newly prepared period, so do the work now
+      // instead of after a possibly long sleep.
+      handler.sendEmptyMessage(MSG_DO_SOME_WORK);
+    }
+  }
+
   private void seekToInternal(SeekPosition seekPosition) throws ExoPlaybackException {
     playbackInfoUpdate.incrementPendingOperationAcks(/* operationAcks= */ 1);
 
@@ -1749,7 +1823,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
         // The reselection did not change any prepared periods.
         return;
       }
+      long trackSelectionStartTimeNs = beginPhase("selectTracks");
       newTrackSelectorResult = periodHolder.selectTracks(playbackSpeed, playbackInfo.timeline);
+      endPhase(
+          PlaybackLoopProfiler.PHASE_TRACK_SELECTION, C.INDEX_UNSET, trackSelectionStartTimeNs);
       if (!newTrackSelectorResult.isEquivalent(periodHolder.getTrackSelectorResult())) {
         // Selected tracks have changed for this period.
         break;
@@ -1867,15 +1944,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
     // it is possible for playback to be stuck buffering waiting for this. Therefore, we start
     // playback regardless of buffered duration if we are waiting for an ad media period to prepare.
     boolean isAdPendingPreparation = loadingHolder.info.id.isAd() && !loadingHolder.prepared;
-    return isBufferedToEnd
-        || isAdPendingPreparation
-        || loadControl.shouldStartPlayback(
+    if (isBufferedToEnd || isAdPendingPreparation) {
+      return true;
+    }
+    long loadControlStartTimeNs = beginPhase("shouldStartPlayback");
+    boolean shouldStartPlayback =
+        loadControl.shouldStartPlayback(
             playbackInfo.timeline,
             playingPeriodHolder.info.id,
             getTotalBufferedDurationUs(),
             mediaClock.getPlaybackParameters().speed,
             isRebuffering,
             targetLiveOffsetUs);
+    endPhase(PlaybackLoopProfiler.PHASE_LOAD_CONTROL, C.INDEX_UNSET, loadControlStartTimeNs);
+    return shouldStartPlayback;
   }
 
   private boolean isTimelineReady() {
@@ -2324,8 +2406,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
       return;
     }
     MediaPeriodHolder loadingPeriodHolder = queue.getLoadingPeriod();
+    long trackSelectionStartTimeNs = beginPhase("selectTracks");
     loadingPeriodHolder.handlePrepared(
         mediaClock.getPlaybackParameters().speed, playbackInfo.timeline);
+    endPhase(PlaybackLoopProfiler.PHASE_TRACK_SELECTION, C.INDEX_UNSET, trackSelectionStartTimeNs);
     updateLoadControlTrackSelection(
         loadingPeriodHolder.info.id,
         loadingPeriodHolder.getTrackGroups(),
@@ -2344,6 +2428,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
               /* ignored */ Player.DISCONTINUITY_REASON_INTERNAL);
     }
     maybeContinueLoading();
+    maybeScheduleWorkAfterPeriodPrepared();
   }
 
   private void handleContinueLoadingRequested(MediaPeriod mediaPeriod) {
@@ -2387,7 +2472,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
   }
 
   private void maybeContinueLoading() {
+    long loadControlStartTimeNs = beginPhase("shouldContinueLoading");
     shouldContinueLoading = shouldContinueLoading();
+    endPhase(PlaybackLoopProfiler.PHASE_LOAD_CONTROL, C.INDEX_UNSET, loadControlStartTimeNs);
     if (shouldContinueLoading) {
       queue.getLoadingPeriod().continueLoading(rendererPositionUs);
     }
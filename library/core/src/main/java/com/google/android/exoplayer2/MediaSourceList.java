@@ -92,6 +92,7 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
   private final HandlerWrapper eventHandler;
   private ShuffleOrder shuffleOrder;
   private boolean isPrepared;
+  @Nullable private PlaylistTimeline lastTimeline;
 
   @Nullable private TransferListener mediaTransferListener;
 
@@ -148,24 +149,27 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
       int index, List<MediaSourceHolder> holders, ShuffleOrder shuffleOrder) {
     if (!holders.isEmpty()) {
       this.shuffleOrder = shuffleOrder;
-      for (int insertionIndex = index; insertionIndex < index + holders.size(); insertionIndex++) {
-        MediaSourceHolder holder = holders.get(insertionIndex - index);
-        if (insertionIndex > 0) {
-          MediaSourceHolder previousHolder = mediaSourceHolders.get(insertionIndex - 1);
-          Timeline previousTimeline = previousHolder.mediaSource.getTimeline();
-          holder.reset(
-              /* firstWindowIndexInChild= */ previousHolder.firstWindowIndexInChild
-                  + previousTimeline.getWindowCount());
-        } else {
-          holder.reset(/* firstWindowIndexInChild= */ 0);
-        }
-        Timeline newTimeline = holder.mediaSource.getTimeline();
-        correctOffsets(
-            /* startIndex= */ insertionIndex,
-            /* windowOffsetUpdate= */ newTimeline.getWindowCount());
-        mediaSourceHolders.add(insertionIndex, holder);
+      int firstWindowIndexInChild = 0;
+      if (index > 0) {
+        MediaSourceHolder previousHolder = mediaSourceHolders.get(index - 1);
+        Timeline previousTimeline = previousHolder.mediaSource.getTimeline();
+        firstWindowIndexInChild =
+            previousHolder.firstWindowIndexInChild + previousTimeline.getWindowCount();
+      }
+      int addedWindowCount = 0;
+      for (int i = 0; i < holders.size(); i++) {
+        MediaSourceHolder holder = holders.get(i);
+        holder.reset(firstWindowIndexInChild + addedWindowCount);
+        addedWindowCount += holder.mediaSource.getTimeline().getWindowCount();
         mediaSourceByUid.put(holder.uid, holder);
-        if (isPrepared) {
+      }
+      // Shift the following holders and insert the new ones in one pass each, so that adding many
+      // holders doesn't take quadratic time.
+      correctOffsets(/* startIndex= */ index, /* windowOffsetUpdate= */ addedWindowCount);
+      mediaSourceHolders.addAll(index, holders);
+      if (isPrepared) {
+        for (int i = 0; i < holders.size(); i++) {
+          MediaSourceHolder holder = holders.get(i);
           prepareChildSource(holder);
           if (mediaSourceByMediaPeriod.isEmpty()) {
             enabledMediaSourceHolders.add(holder);
@@ -367,7 +371,8 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
       mediaSourceHolder.firstWindowIndexInChild = windowOffset;
       windowOffset += mediaSourceHolder.mediaSource.getTimeline().getWindowCount();
     }
-    return new PlaylistTimeline(mediaSourceHolders, shuffleOrder);
+    lastTimeline = new PlaylistTimeline(mediaSourceHolders, shuffleOrder, lastTimeline);
+    return lastTimeline;
   }
 
   /** Returns the shuffle order */
@@ -404,15 +409,23 @@ import org.checkerframework.checker.nullness.compatqual.NullableType;
   }
 
   private void removeMediaSourcesInternal(int fromIndex, int toIndex) {
-    for (int index = toIndex - 1; index >= fromIndex; index--) {
-      MediaSourceHolder holder = mediaSourceHolders.remove(index);
+    if (fromIndex >= toIndex) {
+      return;
+    }
+    List<MediaSourceHolder> removedHolders = mediaSourceHolders.subList(fromIndex, toIndex);
+    int removedWindowCount = 0;
+    for (int i = removedHolders.size() - 1; i >= 0; i--) {
+      MediaSourceHolder holder = removedHolders.get(i);
       mediaSourceByUid.remove(holder.uid);
-      Timeline oldTimeline = holder.mediaSource.getTimeline();
-      correctOffsets(
-          /* startIndex= */ index, /* windowOffsetUpdate= */ -oldTimeline.getWindowCount());
+      removedWindowCount += holder.mediaSource.getTimeline().getWindowCount();
       holder.isRemoved = true;
-      if (isPrepared) {
-        maybeReleaseChildSource(holder);
+    }
+    List<MediaSourceHolder> holdersToRelease = new ArrayList<>(removedHolders);
+    removedHolders.clear();
+    correctOffsets(/* startIndex= */ fromIndex, /* windowOffsetUpdate= */ -removedWindowCount);
+    if (isPrepared) {
+      for (int i = holdersToRelease.size() - 1; i >= 0; i--) {
+        maybeReleaseChildSource(holdersToRelease.get(i));
       }
     }
   }
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2;
+
+import static com.google.android.exoplayer2.util.Assertions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.annotation.ElementType.TYPE_USE;
+
+import androidx.annotation.IntDef;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long the phases of the player's playback loop take.
+ *
+ * <p>An instance is attached to a player with {@link
+ * ExoPlayer.Builder#experimentalSetPlaybackLoopProfiler(PlaybackLoopProfiler)}. The durations of
+ * the phases are recorded into {@link Histogram histograms} that can be read from any thread, and
+ * are reported to {@linkplain #addListener(Listener) listeners} on the playback thread. A player
+ * without a profiler only pays for a null check per phase.
+ *
+ * <p>Phases can be nested. For example the duration of {@link #PHASE_UPDATE_PERIODS} includes the
+ * {@link #PHASE_LOAD_CONTROL} calls made while updating the periods.
+ *
+ * <p>An instance must only be attached to a single player.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+public final class PlaybackLoopProfiler {
+
+  /** Receives the duration of each profiled phase. */
+  public interface Listener {
+
+    /**
+     * Called on the playback thread when a phase of the playback loop completes.
+     *
+     * <p>Implementations must return quickly, as they are called from the playback loop.
+     *
+     * @param phase The {@link Phase}.
+     * @param rendererIndex The index of the renderer for {@link #PHASE_RENDER}, or {@link
+     *     C#INDEX_UNSET} for other phases.
+     * @param durationNs The duration of the phase, in nanoseconds.
+     */
+    void onPhaseCompleted(@Phase int phase, int rendererIndex, long durationNs);
+  }
+
+  /**
+   * A phase of the playback loop. One of {@link #PHASE_DO_SOME_WORK}, {@link
+   * #PHASE_UPDATE_PERIODS}, {@link #PHASE_RENDER}, {@link #PHASE_TRACK_SELECTION} or {@link
+   * #PHASE_LOAD_CONTROL}.
+   */
+  @Documented
+  @Retention(RetentionPolicy.SOURCE)
+  @Target(TYPE_USE)
+  @IntDef({
+    PHASE_DO_SOME_WORK,
+    PHASE_UPDATE_PERIODS,
+    PHASE_RENDER,
+    PHASE_TRACK_SELECTION,
+    PHASE_LOAD_CONTROL
+  })
+  public @interface Phase {}
+  /** A complete iteration of the playback loop. */
+  public static final int PHASE_DO_SOME_WORK = 0;
+  /** Updating the media periods in the queue, including handling source updates. */
+  public static final int PHASE_UPDATE_PERIODS = 1;
+  /** A call to {@link Renderer#render(long, long)}. */
+  public static final int PHASE_RENDER = 2;
+  /** Selecting tracks for a media period. */
+  public static final int PHASE_TRACK_SELECTION = 3;
+  /** Asking the {@link LoadControl} whether to continue loading or to start playback. */
+  public static final int PHASE_LOAD_CONTROL = 4;
+
+  private static final int PHASE_COUNT = 5;
+
+  private final Histogram[] phaseHistograms;
+  private final CopyOnWriteArrayList<Listener> listeners;
+
+  private volatile Histogram[] rendererHistograms;
+
+  /** Creates an instance. */
+  public PlaybackLoopProfiler() {
+    phaseHistograms = new Histogram[PHASE_COUNT];
+    for (int i = 0; i < PHASE_COUNT; i++) {
+      phaseHistograms[i] = new Histogram();
+    }
+    listeners = new CopyOnWriteArrayList<>();
+    rendererHistograms = new Histogram[0];
+  }
+
+  /** Adds a {@link Listener}. */
+  public void addListener(Listener listener) {
+    listeners.addIfAbsent(listener);
+  }
+
+  /** Removes a {@link Listener}. */
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Returns the {@link Histogram} of the durations of a phase. For {@link #PHASE_RENDER}, the
+   * histogram combines all renderers.
+   */
+  public Histogram getHistogram(@Phase int phase) {
+    return phaseHistograms[phase];
+  }
+
+  /** Returns the number of renderers of the player, or 0 if not attached to a player yet. */
+  public int getRendererCount() {
+    return rendererHistograms.length;
+  }
+
+  /** Returns the {@link Histogram} of the {@link #PHASE_RENDER} durations of a renderer. */
+  public Histogram getRendererHistogram(int rendererIndex) {
+    return rendererHistograms[rendererIndex];
+  }
+
+  /** Clears all recorded durations. */
+  public void reset() {
+    for (Histogram histogram : phaseHistograms) {
+      histogram.reset();
+    }
+    for (Histogram histogram : rendererHistograms) {
+      histogram.reset();
+    }
+  }
+
+  /* package */ void setRendererCount(int rendererCount) {
+    Histogram[] rendererHistograms = new Histogram[rendererCount];
+    for (int i = 0; i < rendererCount; i++) {
+      rendererHistograms[i] = new Histogram();
+    }
+    this.rendererHistograms = rendererHistograms;
+  }
+
+  /* package */ void onPhaseCompleted(@Phase int phase, int rendererIndex, long durationNs) {
+    phaseHistograms[phase].add(durationNs);
+    if (phase == PHASE_RENDER) {
+      rendererHistograms[rendererIndex].add(durationNs);
+    }
+    for (Listener listener : listeners) {
+      listener.onPhaseCompleted(phase, rendererIndex, durationNs);
+    }
+  }
+
+  /**
+   * A histogram of durations with exponentially sized buckets, which can be updated and read
+   * concurrently without locking.
+   *
+   * <p>Bucket 0 counts durations shorter than 1 microsecond, and bucket {@code i > 0} counts
+   * durations of at least 2<sup>i-1</sup> and less than 2<sup>i</sup> microseconds. The last bucket
+   * also counts all longer durations.
+   */
+  public static final class Histogram {
+
+    /** The number of buckets. */
+    public static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray bucketCounts;
+    private final AtomicLong count;
+    private final AtomicLong totalDurationNs;
+    private final AtomicLong maxDurationNs;
+
+    /** Creates an empty instance. */
+    public Histogram() {
+      bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+      count = new AtomicLong();
+      totalDurationNs = new AtomicLong();
+      maxDurationNs = new AtomicLong();
+    }
+
+    /** Adds a duration, in nanoseconds. */
+    public void add(long durationNs) {
+      durationNs = max(0, durationNs);
+      bucketCounts.incrementAndGet(getBucketIndex(durationNs));
+      count.incrementAndGet();
+      totalDurationNs.addAndGet(durationNs);
+      long maxDurationNs = this.maxDurationNs.get();
+      while (durationNs > maxDurationNs
+          && !this.maxDurationNs.compareAndSet(maxDurationNs, durationNs)) {
+        maxDurationNs = this.maxDurationNs.get();
+      }
+    }
+
+    /** Returns the number of durations added. */
+    public long getCount() {
+      return count.get();
+    }
+
+    /** Returns the sum of the durations added, in nanoseconds. */
+    public long getTotalDurationNs() {
+      return totalDurationNs.get();
+    }
+
+    /** Returns the longest duration added, in nanoseconds, or 0 if no durations were added. */
+    public long getMaxDurationNs() {
+      return maxDurationNs.get();
+    }
+
+    /** Returns the number of durations counted in a bucket. */
+    public long getBucketCount(int bucketIndex) {
+      return bucketCounts.get(bucketIndex);
+    }
+
+    /**
+     * Returns the exclusive upper bound of the durations counted in a bucket, in microseconds, or
+     * {@link Long#MAX_VALUE} for the last bucket.
+     */
+    public static long getBucketUpperBoundUs(int bucketIndex) {
+      return bucketIndex == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucketIndex;
+    }
+
+    /**
+     * Returns an upper bound of the specified percentile of the durations, in microseconds, or 0
+     * if no durations were added.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the bucket containing the percentile.
+     */
+    public long getPercentileUpperBoundUs(double percentile) {
+      checkArgument(percentile >= 0 && percentile <= 100);
+      long[] bucketCounts = new long[BUCKET_COUNT];
+      long count = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        bucketCounts[i] = this.bucketCounts.get(i);
+        count += bucketCounts[i];
+      }
+      if (count == 0) {
+        return 0;
+      }
+      long targetCount = max(1, (long) Math.ceil(count * percentile / 100));
+      long cumulativeCount = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        cumulativeCount += bucketCounts[i];
+        if (cumulativeCount >= targetCount) {
+          return getBucketUpperBoundUs(i);
+        }
+      }
+      return getBucketUpperBoundUs(BUCKET_COUNT - 1);
+    }
+
+    /** Clears all added durations. */
+    public void reset() {
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        bucketCounts.set(i, 0);
+      }
+      count.set(0);
+      totalDurationNs.set(0);
+      maxDurationNs.set(0);
+    }
+
+    private static int getBucketIndex(long durationNs) {
+      long durationUs = durationNs / 1000;
+      int bucketIndex = 64 - Long.numberOfLeadingZeros(durationUs);
+      return min(bucketIndex, BUCKET_COUNT - 1);
+    }
+  }
+}
@@ -15,14 +15,18 @@
  */
 package com.google.android.exoplayer2;
 
+import static com.google.android.exoplayer2.util.Assertions.checkNotNull;
+import static java.lang.Math.min;
+
+import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.source.ForwardingTimeline;
 import com.google.android.exoplayer2.source.ShuffleOrder;
 import com.google.android.exoplayer2.source.ads.AdPlaybackState;
 import com.google.android.exoplayer2.util.Util;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Timeline exposing concatenated timelines of playlist media sources.
@@ -41,36 +45,95 @@ import java.util.List;
   private final int[] firstWindowInChildIndices;
   private final Timeline[] timelines;
   private final Object[] uids;
-  private final HashMap<Object, Integer> childIndexByUid;
+  private final ChildUidIndex childUidIndex;
 
   /** Creates an instance. */
   public PlaylistTimeline(
       Collection<? extends MediaSourceInfoHolder> mediaSourceInfoHolders,
       ShuffleOrder shuffleOrder) {
-    this(getTimelines(mediaSourceInfoHolders), getUids(mediaSourceInfoHolders), shuffleOrder);
+    this(mediaSourceInfoHolders, shuffleOrder, /* previousTimeline= */ null);
   }
 
-  private PlaylistTimeline(Timeline[] timelines, Object[] uids, ShuffleOrder shuffleOrder) {
+  /**
+   * Creates an instance, reusing the state of a previous timeline of the same playlist where the
+   * playlist is unchanged.
+   *
+   * <p>The index of the child UIDs is shared with the previous timeline if the new playlist only
+   * appends holders, and the child offsets are copied for the leading holders whose timelines are
+   * unchanged. This makes creating timelines for large playlists cheap for the most common
+   * updates, which are appending holders and refreshing the timeline of a single holder.
+   *
+   * @param mediaSourceInfoHolders The holders of the playlist.
+   * @param shuffleOrder The {@link ShuffleOrder}.
+   * @param previousTimeline A previous timeline of the playlist, or null.
+   */
+  public PlaylistTimeline(
+      Collection<? extends MediaSourceInfoHolder> mediaSourceInfoHolders,
+      ShuffleOrder shuffleOrder,
+      @Nullable Timeline previousTimeline) {
+    this(
+        getTimelines(mediaSourceInfoHolders),
+        getUids(mediaSourceInfoHolders),
+        shuffleOrder,
+        previousTimeline instanceof PlaylistTimeline ? (PlaylistTimeline) previousTimeline : null);
+  }
+
+  private PlaylistTimeline(
+      Timeline[] timelines,
+      Object[] uids,
+      ShuffleOrder shuffleOrder,
+      @Nullable PlaylistTimeline previousTimeline) {
     super(/* isAtomic= */ false, shuffleOrder);
     int childCount = timelines.length;
     this.timelines = timelines;
+    this.uids = uids;
     firstPeriodInChildIndices = new int[childCount];
     firstWindowInChildIndices = new int[childCount];
-    this.uids = uids;
-    childIndexByUid = new HashMap<>();
-    int index = 0;
+    int sharedUidCount = 0;
+    int unchangedChildCount = 0;
+    if (previousTimeline != null) {
+      int maxSharedUidCount = min(childCount, previousTimeline.uids.length);
+      while (sharedUidCount < maxSharedUidCount
+          && uids[sharedUidCount].equals(previousTimeline.uids[sharedUidCount])) {
+        sharedUidCount++;
+      }
+      while (unchangedChildCount < sharedUidCount
+          && timelines[unchangedChildCount] == previousTimeline.timelines[unchangedChildCount]) {
+        unchangedChildCount++;
+      }
+    }
     int windowCount = 0;
     int periodCount = 0;
-    for (Timeline timeline : timelines) {
-      this.timelines[index] = timeline;
-      firstWindowInChildIndices[index] = windowCount;
-      firstPeriodInChildIndices[index] = periodCount;
-      windowCount += this.timelines[index].getWindowCount();
-      periodCount += this.timelines[index].getPeriodCount();
-      childIndexByUid.put(uids[index], index++);
+    if (unchangedChildCount > 0) {
+      PlaylistTimeline previous = checkNotNull(previousTimeline);
+      System.arraycopy(
+          previous.firstWindowInChildIndices, 0, firstWindowInChildIndices, 0, unchangedChildCount);
+      System.arraycopy(
+          previous.firstPeriodInChildIndices, 0, firstPeriodInChildIndices, 0, unchangedChildCount);
+      int lastUnchangedIndex = unchangedChildCount - 1;
+      windowCount =
+          firstWindowInChildIndices[lastUnchangedIndex]
+              + timelines[lastUnchangedIndex].getWindowCount();
+      periodCount =
+          firstPeriodInChildIndices[lastUnchangedIndex]
+              + timelines[lastUnchangedIndex].getPeriodCount();
+    }
+    for (int i = unchangedChildCount; i < childCount; i++) {
+      firstWindowInChildIndices[i] = windowCount;
+      firstPeriodInChildIndices[i] = periodCount;
+      windowCount += timelines[i].getWindowCount();
+      periodCount += timelines[i].getPeriodCount();
     }
     this.windowCount = windowCount;
     this.periodCount = periodCount;
+    if (previousTimeline != null
+        && sharedUidCount == previousTimeline.uids.length
+        && previousTimeline.childUidIndex.append(uids, /* fromIndex= */ sharedUidCount)) {
+      childUidIndex = previousTimeline.childUidIndex;
+    } else {
+      childUidIndex = new ChildUidIndex();
+      childUidIndex.append(uids, /* fromIndex= */ 0);
+    }
   }
 
   /** Returns the child timelines. */
@@ -90,8 +153,7 @@ import java.util.List;
 
   @Override
   protected int getChildIndexByChildUid(Object childUid) {
-    Integer index = childIndexByUid.get(childUid);
-    return index == null ? C.INDEX_UNSET : index;
+    return childUidIndex.get(childUid, /* childCount= */ uids.length);
   }
 
   @Override
@@ -165,7 +227,7 @@ import java.util.List;
             }
           };
     }
-    return new PlaylistTimeline(newTimelines, uids, shuffleOrder);
+    return new PlaylistTimeline(newTimelines, uids, shuffleOrder, /* previousTimeline= */ this);
   }
 
   private static Object[] getUids(
@@ -187,4 +249,45 @@ import java.util.List;
     }
     return timelines;
   }
+
+  /**
+   * An index of the child UIDs of a lineage of timelines, each of which appends children to the
+   * previous one.
+   *
+   * <p>The index only grows, and a timeline only finds the UIDs of its own children because it
+   * rejects the indices of children appended by later timelines. The index can be appended to and
+   * read from different threads.
+   */
+  private static final class ChildUidIndex {
+
+    private final ConcurrentHashMap<Object, Integer> childIndexByUid;
+    private int size;
+
+    public ChildUidIndex() {
+      childIndexByUid = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Appends the UIDs from {@code fromIndex}, if the index holds exactly the UIDs before it.
+     *
+     * @return Whether the UIDs were appended. If false, the index must not be used for the UIDs.
+     */
+    public synchronized boolean append(Object[] uids, int fromIndex) {
+      if (size != fromIndex) {
+        // Another timeline appended to the index already.
+        return false;
+      }
+      for (int i = fromIndex; i < uids.length; i++) {
+        childIndexByUid.put(uids[i], i);
+      }
+      size = uids.length;
+      return true;
+    }
+
+    /** Returns the index of a child UID in a timeline with {@code childCount} children. */
+    public int get(Object childUid, int childCount) {
+      @Nullable Integer index = childIndexByUid.get(childUid);
+      return index == null || index >= childCount ? C.INDEX_UNSET : index;
+    }
+  }
 }
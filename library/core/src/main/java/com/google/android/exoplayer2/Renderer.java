@@ -260,6 +260,12 @@ public interface Renderer extends PlayerMessage.Target {
    */
   int STATE_STARTED = 2;
 
+  /**
+   * The default duration for which a renderer can be expected to not need to be {@linkplain
+   * #render(long, long) rendered}, in microseconds.
+   */
+  long DEFAULT_DURATION_TO_PROGRESS_US = 10_000L;
+
   /**
    * Returns the name of this renderer, for logging and debugging purposes. Should typically be the
    * renderer's (un-obfuscated) class name.
@@ -472,6 +478,28 @@ public interface Renderer extends PlayerMessage.Target {
    */
   void render(long positionUs, long elapsedRealtimeUs) throws ExoPlaybackException;
 
+  /**
+   * Returns the duration in microseconds after which the renderer needs to be {@linkplain
+   * #render(long, long) rendered} again to make progress, measured from the start of the rendering
+   * loop iteration that passed the specified positions to {@link #render(long, long)}.
+   *
+   * <p>The player may use this duration to call {@link #render(long, long)} less often, if {@link
+   * ExoPlayer.Builder#experimentalSetDynamicSchedulingEnabled(boolean) dynamic scheduling} is
+   * enabled. Renderers that need to be rendered earlier than expected, for example because a
+   * decoder produced new output, can call {@link WakeupListener#onWakeup()}.
+   *
+   * <p>The default implementation returns {@link #DEFAULT_DURATION_TO_PROGRESS_US}.
+   *
+   * @param positionUs The current media time in microseconds, as passed to the most recent call to
+   *     {@link #render(long, long)}.
+   * @param elapsedRealtimeUs {@link android.os.SystemClock#elapsedRealtime()} in microseconds, as
+   *     passed to the most recent call to {@link #render(long, long)}.
+   * @return The duration after which the renderer needs to be rendered again, in microseconds.
+   */
+  default long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    return DEFAULT_DURATION_TO_PROGRESS_US;
+  }
+
   /**
    * Whether the renderer is able to immediately render media from the current position.
    *
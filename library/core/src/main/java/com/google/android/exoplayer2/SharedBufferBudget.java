@@ -0,0 +1,189 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2;
+
+import static com.google.android.exoplayer2.util.Assertions.checkArgument;
+
+import java.util.ArrayList;
+
+/**
+ * A byte budget for buffered media that is shared by the {@link DefaultLoadControl} instances of
+ * multiple players.
+ *
+ * <p>Each prepared player is given a share of the budget, which caps its target buffer size. A
+ * player that needs less than its share leaves the remainder to the others, and players that are
+ * {@linkplain DefaultLoadControl#setBufferBudgetPrioritized(boolean) prioritized} (for example
+ * because they are visible or playing) are given a larger share than the others. Shares are
+ * rebalanced whenever a player is prepared, stopped or released, selects tracks, or changes
+ * priority.
+ *
+ * <p>Each {@link DefaultLoadControl} sharing a budget must use its own allocator, so that {@link
+ * DefaultLoadControl#getAllocator()} reports the bytes allocated by that player only.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+public final class SharedBufferBudget {
+
+  /** The default weight of a prioritized player's share, relative to other players. */
+  public static final int DEFAULT_PRIORITIZED_WEIGHT = 3;
+
+  private final int totalBufferBytes;
+  private final int prioritizedWeight;
+  private final ArrayList<Member> members;
+
+  /**
+   * Creates an instance.
+   *
+   * @param totalBufferBytes The total number of bytes that may be buffered by all players.
+   */
+  public SharedBufferBudget(int totalBufferBytes) {
+    this(totalBufferBytes, DEFAULT_PRIORITIZED_WEIGHT);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param totalBufferBytes The total number of bytes that may be buffered by all players.
+   * @param prioritizedWeight The weight of a prioritized player's share, relative to the weight of
+   *     1 used for other players.
+   */
+  public SharedBufferBudget(int totalBufferBytes, int prioritizedWeight) {
+    checkArgument(totalBufferBytes > 0);
+    checkArgument(prioritizedWeight >= 1);
+    this.totalBufferBytes = totalBufferBytes;
+    this.prioritizedWeight = prioritizedWeight;
+    members = new ArrayList<>();
+  }
+
+  /** Returns the total number of bytes that may be buffered by all players. */
+  public int getTotalBufferBytes() {
+    return totalBufferBytes;
+  }
+
+  /** Returns the number of bytes currently allocated by all prepared players. */
+  public synchronized int getTotalBytesAllocated() {
+    int totalBytesAllocated = 0;
+    for (int i = 0; i < members.size(); i++) {
+      totalBytesAllocated += members.get(i).loadControl.getAllocator().getTotalBytesAllocated();
+    }
+    return totalBytesAllocated;
+  }
+
+  /**
+   * Adds a load control to the budget.
+   *
+   * @param loadControl The load control.
+   * @param targetBufferBytes The target buffer size that the load control would use on its own.
+   */
+  /* package */ synchronized void register(DefaultLoadControl loadControl, int targetBufferBytes) {
+    if (indexOf(loadControl) == C.INDEX_UNSET) {
+      members.add(new Member(loadControl, targetBufferBytes));
+      rebalance();
+    }
+  }
+
+  /** Removes a load control from the budget. */
+  /* package */ synchronized void unregister(DefaultLoadControl loadControl) {
+    int index = indexOf(loadControl);
+    if (index != C.INDEX_UNSET) {
+      members.remove(index);
+      loadControl.setBufferBudgetShareBytes(C.LENGTH_UNSET);
+      rebalance();
+    }
+  }
+
+  /** Updates the target buffer size that a registered load control would use on its own. */
+  /* package */ synchronized void setTargetBufferBytes(
+      DefaultLoadControl loadControl, int targetBufferBytes) {
+    int index = indexOf(loadControl);
+    if (index != C.INDEX_UNSET) {
+      members.get(index).targetBufferBytes = targetBufferBytes;
+      rebalance();
+    }
+  }
+
+  /** Called when the priority of a load control changes. */
+  /* package */ synchronized void onPriorityChanged(DefaultLoadControl loadControl) {
+    if (indexOf(loadControl) != C.INDEX_UNSET) {
+      rebalance();
+    }
+  }
+
+  private int indexOf(DefaultLoadControl loadControl) {
+    for (int i = 0; i < members.size(); i++) {
+      if (members.get(i).loadControl == loadControl) {
+        return i;
+      }
+    }
+    return C.INDEX_UNSET;
+  }
+
+  /**
+   * Splits the budget between the members in proportion to their weights. Members that need less
+   * than their share are given what they need, and the remainder is split between the others.
+   */
+  private void rebalance() {
+    long remainingBytes = totalBufferBytes;
+    long remainingWeight = 0;
+    for (int i = 0; i < members.size(); i++) {
+      Member member = members.get(i);
+      member.isShareAssigned = false;
+      member.weight = member.loadControl.isBufferBudgetPrioritized() ? prioritizedWeight : 1;
+      remainingWeight += member.weight;
+    }
+    boolean assignedShare = true;
+    while (assignedShare && remainingWeight > 0) {
+      assignedShare = false;
+      for (int i = 0; i < members.size(); i++) {
+        Member member = members.get(i);
+        if (member.isShareAssigned) {
+          continue;
+        }
+        if (member.targetBufferBytes <= remainingBytes * member.weight / remainingWeight) {
+          member.loadControl.setBufferBudgetShareBytes(member.targetBufferBytes);
+          member.isShareAssigned = true;
+          remainingBytes -= member.targetBufferBytes;
+          remainingWeight -= member.weight;
+          assignedShare = true;
+        }
+      }
+    }
+    for (int i = 0; i < members.size(); i++) {
+      Member member = members.get(i);
+      if (!member.isShareAssigned) {
+        member.loadControl.setBufferBudgetShareBytes(
+            (int) (remainingBytes * member.weight / remainingWeight));
+      }
+    }
+  }
+
+  private static final class Member {
+
+    public final DefaultLoadControl loadControl;
+    public int targetBufferBytes;
+    public int weight;
+    public boolean isShareAssigned;
+
+    public Member(DefaultLoadControl loadControl, int targetBufferBytes) {
+      this.loadControl = loadControl;
+      this.targetBufferBytes = targetBufferBytes;
+    }
+  }
+}
@@ -29,6 +29,7 @@ import android.media.MediaCodec;
 import android.media.MediaCrypto;
 import android.media.MediaFormat;
 import android.os.Handler;
+import android.os.SystemClock;
 import androidx.annotation.CallSuper;
 import androidx.annotation.DoNotInline;
 import androidx.annotation.Nullable;
@@ -114,6 +115,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
   private boolean allowFirstBufferPositionDiscontinuity;
   private boolean allowPositionDiscontinuity;
   private boolean audioSinkNeedsReset;
+  private long nextBufferToWritePresentationTimeUs;
 
   private boolean experimentalKeepAudioTrackOnSeek;
 
@@ -262,6 +264,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     context = context.getApplicationContext();
     this.context = context;
     this.audioSink = audioSink;
+    nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
     eventDispatcher = new EventDispatcher(eventHandler, eventListener);
     audioSink.setListener(new AudioSinkListener());
   }
@@ -580,6 +583,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     }
 
     currentPositionUs = positionUs;
+    nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
     allowFirstBufferPositionDiscontinuity = true;
     allowPositionDiscontinuity = true;
   }
@@ -601,6 +605,7 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
   protected void onDisabled() {
     audioSinkNeedsReset = true;
     inputFormat = null;
+    nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
     try {
       audioSink.flush();
     } finally {
@@ -629,6 +634,25 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
     audioSink.release();
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (nextBufferToWritePresentationTimeUs == C.TIME_UNSET) {
+      return super.getDurationToProgressUs(positionUs, elapsedRealtimeUs);
+    }
+    // The sink is full, and can't accept more data until some of the buffered data has played out.
+    // Aim to write more data when half of the buffered data has played out, to leave a margin.
+    long durationUs =
+        (long)
+            ((nextBufferToWritePresentationTimeUs - positionUs)
+                / getPlaybackParameters().speed
+                / 2);
+    if (getState() == STATE_STARTED) {
+      // Account for the time that elapsed since the positions were measured.
+      durationUs -= SystemClock.elapsedRealtime() * 1000 - elapsedRealtimeUs;
+    }
+    return max(DEFAULT_DURATION_TO_PROGRESS_US, durationUs);
+  }
+
   @Override
   public boolean isEnded() {
     return super.isEnded() && audioSink.isEnded();
@@ -724,9 +748,11 @@ public class MediaCodecAudioRenderer extends MediaCodecRenderer implements Media
         codec.releaseOutputBuffer(bufferIndex, false);
       }
       decoderCounters.renderedOutputBufferCount += sampleCount;
+      nextBufferToWritePresentationTimeUs = C.TIME_UNSET;
       return true;
     }
 
+    nextBufferToWritePresentationTimeUs = bufferPresentationTimeUs;
     return false;
   }
 
@@ -60,6 +60,7 @@ import java.nio.ByteBuffer;
     private final Supplier<HandlerThread> callbackThreadSupplier;
     private final Supplier<HandlerThread> queueingThreadSupplier;
     private final boolean synchronizeCodecInteractionsWithQueueing;
+    @Nullable private final MediaCodecPool codecPool;
 
     /**
      * Creates an factory for {@link AsynchronousMediaCodecAdapter} instances.
@@ -72,12 +73,32 @@ import java.nio.ByteBuffer;
      *     {@link MediaCodec}.
      */
     public Factory(@C.TrackType int trackType, boolean synchronizeCodecInteractionsWithQueueing) {
+      this(trackType, synchronizeCodecInteractionsWithQueueing, /* codecPool= */ null);
+    }
+
+    /**
+     * Creates an factory for {@link AsynchronousMediaCodecAdapter} instances.
+     *
+     * @param trackType One of {@link C#TRACK_TYPE_AUDIO} or {@link C#TRACK_TYPE_VIDEO}. Used for
+     *     labelling the internal thread accordingly.
+     * @param synchronizeCodecInteractionsWithQueueing Whether the adapter should synchronize {@link
+     *     MediaCodec} interactions with asynchronous buffer queueing. When {@code true}, codec
+     *     interactions will wait until all input buffers pending queueing wil be submitted to the
+     *     {@link MediaCodec}.
+     * @param codecPool The {@link MediaCodecPool} from which codecs are taken, and to which the
+     *     codecs of released adapters are returned, or null to create a new codec for each adapter.
+     */
+    public Factory(
+        @C.TrackType int trackType,
+        boolean synchronizeCodecInteractionsWithQueueing,
+        @Nullable MediaCodecPool codecPool) {
       this(
           /* callbackThreadSupplier= */ () ->
               new HandlerThread(createCallbackThreadLabel(trackType)),
           /* queueingThreadSupplier= */ () ->
               new HandlerThread(createQueueingThreadLabel(trackType)),
-          synchronizeCodecInteractionsWithQueueing);
+          synchronizeCodecInteractionsWithQueueing,
+          codecPool);
     }
 
     @VisibleForTesting
@@ -85,26 +106,48 @@ import java.nio.ByteBuffer;
         Supplier<HandlerThread> callbackThreadSupplier,
         Supplier<HandlerThread> queueingThreadSupplier,
         boolean synchronizeCodecInteractionsWithQueueing) {
+      this(
+          callbackThreadSupplier,
+          queueingThreadSupplier,
+          synchronizeCodecInteractionsWithQueueing,
+          /* codecPool= */ null);
+    }
+
+    @VisibleForTesting
+    /* package */ Factory(
+        Supplier<HandlerThread> callbackThreadSupplier,
+        Supplier<HandlerThread> queueingThreadSupplier,
+        boolean synchronizeCodecInteractionsWithQueueing,
+        @Nullable MediaCodecPool codecPool) {
       this.callbackThreadSupplier = callbackThreadSupplier;
       this.queueingThreadSupplier = queueingThreadSupplier;
       this.synchronizeCodecInteractionsWithQueueing = synchronizeCodecInteractionsWithQueueing;
+      this.codecPool = codecPool;
     }
 
     @Override
     public AsynchronousMediaCodecAdapter createAdapter(Configuration configuration)
         throws IOException {
       String codecName = configuration.codecInfo.name;
+      @Nullable MediaCodecPool codecPool = configuration.crypto == null ? this.codecPool : null;
       @Nullable AsynchronousMediaCodecAdapter codecAdapter = null;
       @Nullable MediaCodec codec = null;
       try {
         TraceUtil.beginSection("createCodec:" + codecName);
-        codec = MediaCodec.createByCodecName(codecName);
+        if (codecPool != null) {
+          codec = codecPool.acquire(codecName);
+        }
+        if (codec == null) {
+          codec = MediaCodec.createByCodecName(codecName);
+        }
         codecAdapter =
             new AsynchronousMediaCodecAdapter(
                 codec,
+                codecName,
                 callbackThreadSupplier.get(),
                 queueingThreadSupplier.get(),
-                synchronizeCodecInteractionsWithQueueing);
+                synchronizeCodecInteractionsWithQueueing,
+                codecPool);
         TraceUtil.endSection();
         codecAdapter.initialize(
             configuration.mediaFormat,
@@ -134,18 +177,24 @@ import java.nio.ByteBuffer;
   private static final int STATE_SHUT_DOWN = 2;
 
   private final MediaCodec codec;
+  private final String codecName;
   private final AsynchronousMediaCodecCallback asynchronousMediaCodecCallback;
   private final AsynchronousMediaCodecBufferEnqueuer bufferEnqueuer;
   private final boolean synchronizeCodecInteractionsWithQueueing;
+  @Nullable private final MediaCodecPool codecPool;
   private boolean codecReleased;
   private @State int state;
 
   private AsynchronousMediaCodecAdapter(
       MediaCodec codec,
+      String codecName,
       HandlerThread callbackThread,
       HandlerThread enqueueingThread,
-      boolean synchronizeCodecInteractionsWithQueueing) {
+      boolean synchronizeCodecInteractionsWithQueueing,
+      @Nullable MediaCodecPool codecPool) {
     this.codec = codec;
+    this.codecName = codecName;
+    this.codecPool = codecPool;
     this.asynchronousMediaCodecCallback = new AsynchronousMediaCodecCallback(callbackThread);
     this.bufferEnqueuer = new AsynchronousMediaCodecBufferEnqueuer(codec, enqueueingThread);
     this.synchronizeCodecInteractionsWithQueueing = synchronizeCodecInteractionsWithQueueing;
@@ -243,6 +292,12 @@ import java.nio.ByteBuffer;
     try {
       if (state == STATE_INITIALIZED) {
         bufferEnqueuer.shutdown();
+        if (codecPool != null) {
+          // Stop the codec before quitting the callback thread, so that the running codec doesn't
+          // post callbacks to a thread that no longer exists.
+          codecPool.recycle(codecName, codec);
+          codecReleased = true;
+        }
         asynchronousMediaCodecCallback.shutdown();
       }
       state = STATE_SHUT_DOWN;
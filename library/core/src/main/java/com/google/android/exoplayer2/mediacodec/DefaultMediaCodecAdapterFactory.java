@@ -18,6 +18,7 @@ package com.google.android.exoplayer2.mediacodec;
 import static java.lang.annotation.ElementType.TYPE_USE;
 
 import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.util.Log;
 import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.Util;
@@ -59,6 +60,7 @@ public final class DefaultMediaCodecAdapterFactory implements MediaCodecAdapter.
 
   private @Mode int asynchronousMode;
   private boolean enableSynchronizeCodecInteractionsWithQueueing;
+  @Nullable private MediaCodecPool codecPool;
 
   public DefaultMediaCodecAdapterFactory() {
     asynchronousMode = MODE_DEFAULT;
@@ -100,6 +102,19 @@ public final class DefaultMediaCodecAdapterFactory implements MediaCodecAdapter.
     enableSynchronizeCodecInteractionsWithQueueing = enabled;
   }
 
+  /**
+   * Sets a {@link MediaCodecPool} from which codecs are taken, and to which the codecs of released
+   * adapters are returned. The same pool can be set on the factories of several players, so that
+   * codecs move between them. By default, a new codec is created for each adapter.
+   *
+   * <p>This method is experimental, and will be renamed or removed in a future release.
+   *
+   * @param codecPool The {@link MediaCodecPool}, or null to create a new codec for each adapter.
+   */
+  public void experimentalSetMediaCodecPool(@Nullable MediaCodecPool codecPool) {
+    this.codecPool = codecPool;
+  }
+
   @Override
   public MediaCodecAdapter createAdapter(MediaCodecAdapter.Configuration configuration)
       throws IOException {
@@ -113,9 +128,9 @@ public final class DefaultMediaCodecAdapterFactory implements MediaCodecAdapter.
               + Util.getTrackTypeString(trackType));
       AsynchronousMediaCodecAdapter.Factory factory =
           new AsynchronousMediaCodecAdapter.Factory(
-              trackType, enableSynchronizeCodecInteractionsWithQueueing);
+              trackType, enableSynchronizeCodecInteractionsWithQueueing, codecPool);
       return factory.createAdapter(configuration);
     }
-    return new SynchronousMediaCodecAdapter.Factory().createAdapter(configuration);
+    return new SynchronousMediaCodecAdapter.Factory(codecPool).createAdapter(configuration);
   }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.mediacodec;
+
+import static com.google.android.exoplayer2.util.Assertions.checkArgument;
+
+import android.media.MediaCodec;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.util.Log;
+import com.google.android.exoplayer2.util.TraceUtil;
+import com.google.android.exoplayer2.util.Util;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A pool of idle {@link MediaCodec} instances that can be shared between players.
+ *
+ * <p>Creating a {@link MediaCodec} allocates the underlying codec component, which is one of the
+ * most expensive steps of starting playback. When a pool is set on the {@link
+ * MediaCodecAdapter.Factory} of several players, codecs that are no longer needed by one player
+ * are {@linkplain MediaCodec#stop() stopped} and kept in the pool instead of being released, and
+ * are configured again by the next adapter that needs a codec with the same name.
+ *
+ * <p>Codecs used with a {@link android.media.MediaCrypto} are never pooled. The pool keeps up to
+ * a maximum number of idle codecs, releasing the least recently used codecs first. Idle codecs
+ * hold on to codec resources, so {@link #clear()} should be called when they are no longer
+ * needed, for example when the app goes to the background.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+public final class MediaCodecPool {
+
+  /** The default maximum number of idle codecs kept in the pool. */
+  public static final int DEFAULT_MAX_IDLE_CODEC_COUNT = 2;
+
+  private static final String TAG = "MediaCodecPool";
+
+  private final int maxIdleCodecCount;
+  private final ArrayDeque<IdleCodec> idleCodecs;
+
+  /** Creates an instance that keeps up to {@link #DEFAULT_MAX_IDLE_CODEC_COUNT} idle codecs. */
+  public MediaCodecPool() {
+    this(DEFAULT_MAX_IDLE_CODEC_COUNT);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param maxIdleCodecCount The maximum number of idle codecs kept in the pool.
+   */
+  public MediaCodecPool(int maxIdleCodecCount) {
+    checkArgument(maxIdleCodecCount >= 0);
+    this.maxIdleCodecCount = maxIdleCodecCount;
+    idleCodecs = new ArrayDeque<>();
+  }
+
+  /** Returns the number of idle codecs in the pool. */
+  public synchronized int getIdleCodecCount() {
+    return idleCodecs.size();
+  }
+
+  /** Releases all idle codecs in the pool. */
+  public void clear() {
+    List<MediaCodec> codecsToRelease;
+    synchronized (this) {
+      codecsToRelease = new ArrayList<>(idleCodecs.size());
+      for (IdleCodec idleCodec : idleCodecs) {
+        codecsToRelease.add(idleCodec.codec);
+      }
+      idleCodecs.clear();
+    }
+    for (int i = 0; i < codecsToRelease.size(); i++) {
+      codecsToRelease.get(i).release();
+    }
+  }
+
+  /**
+   * Removes an idle codec from the pool.
+   *
+   * @param codecName The name of the codec.
+   * @return A stopped {@link MediaCodec} with the given name that must be configured before use,
+   *     or null if the pool has no idle codec with this name.
+   */
+  @Nullable
+  /* package */ synchronized MediaCodec acquire(String codecName) {
+    // Prefer the most recently recycled codec.
+    Iterator<IdleCodec> iterator = idleCodecs.descendingIterator();
+    while (iterator.hasNext()) {
+      IdleCodec idleCodec = iterator.next();
+      if (idleCodec.codecName.equals(codecName)) {
+        iterator.remove();
+        return idleCodec.codec;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stops a codec that is no longer used and adds it to the pool, or releases it if it can't be
+   * reused.
+   *
+   * @param codecName The name of the codec.
+   * @param codec The codec, which must not be used by the caller afterwards.
+   */
+  /* package */ void recycle(String codecName, MediaCodec codec) {
+    if (maxIdleCodecCount == 0) {
+      codec.release();
+      return;
+    }
+    try {
+      TraceUtil.beginSection("stopCodec:" + codecName);
+      codec.stop();
+      // Drop the callbacks of the previous user, which must be set again before the codec is
+      // configured.
+      if (Util.SDK_INT >= 23) {
+        codec.setOnFrameRenderedListener(/* listener= */ null, /* handler= */ null);
+      }
+      if (Util.SDK_INT >= 21) {
+        codec.setCallback(/* cb= */ null);
+      }
+    } catch (RuntimeException e) {
+      Log.w(TAG, "Failed to stop codec for reuse: " + codecName, e);
+      codec.release();
+      return;
+    } finally {
+      TraceUtil.endSection();
+    }
+    @Nullable MediaCodec evictedCodec = null;
+    synchronized (this) {
+      idleCodecs.addLast(new IdleCodec(codecName, codec));
+      if (idleCodecs.size() > maxIdleCodecCount) {
+        evictedCodec = idleCodecs.removeFirst().codec;
+      }
+    }
+    if (evictedCodec != null) {
+      evictedCodec.release();
+    }
+  }
+
+  private static final class IdleCodec {
+
+    public final String codecName;
+    public final MediaCodec codec;
+
+    public IdleCodec(String codecName, MediaCodec codec) {
+      this.codecName = codecName;
+      this.codec = codec;
+    }
+  }
+}
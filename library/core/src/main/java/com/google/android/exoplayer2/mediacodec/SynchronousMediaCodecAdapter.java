@@ -48,11 +48,34 @@ public final class SynchronousMediaCodecAdapter implements MediaCodecAdapter {
   /** A factory for {@link SynchronousMediaCodecAdapter} instances. */
   public static class Factory implements MediaCodecAdapter.Factory {
 
+    @Nullable private final MediaCodecPool codecPool;
+
+    /** Creates a factory that creates a new codec for each adapter. */
+    public Factory() {
+      this(/* codecPool= */ null);
+    }
+
+    /**
+     * Creates a factory that reuses codecs from a {@link MediaCodecPool}.
+     *
+     * @param codecPool The {@link MediaCodecPool} from which codecs are taken, and to which the
+     *     codecs of released adapters are returned, or null to create a new codec for each adapter.
+     */
+    public Factory(@Nullable MediaCodecPool codecPool) {
+      this.codecPool = codecPool;
+    }
+
     @Override
     public MediaCodecAdapter createAdapter(Configuration configuration) throws IOException {
+      @Nullable MediaCodecPool codecPool = configuration.crypto == null ? this.codecPool : null;
       @Nullable MediaCodec codec = null;
       try {
-        codec = createCodec(configuration);
+        if (codecPool != null) {
+          codec = codecPool.acquire(configuration.codecInfo.name);
+        }
+        if (codec == null) {
+          codec = createCodec(configuration);
+        }
         TraceUtil.beginSection("configureCodec");
         codec.configure(
             configuration.mediaFormat,
@@ -63,7 +86,7 @@ public final class SynchronousMediaCodecAdapter implements MediaCodecAdapter {
         TraceUtil.beginSection("startCodec");
         codec.start();
         TraceUtil.endSection();
-        return new SynchronousMediaCodecAdapter(codec);
+        return new SynchronousMediaCodecAdapter(codec, configuration.codecInfo.name, codecPool);
       } catch (IOException | RuntimeException e) {
         if (codec != null) {
           codec.release();
@@ -84,11 +107,16 @@ public final class SynchronousMediaCodecAdapter implements MediaCodecAdapter {
   }
 
   private final MediaCodec codec;
+  private final String codecName;
+  @Nullable private final MediaCodecPool codecPool;
   @Nullable private ByteBuffer[] inputByteBuffers;
   @Nullable private ByteBuffer[] outputByteBuffers;
 
-  private SynchronousMediaCodecAdapter(MediaCodec mediaCodec) {
+  private SynchronousMediaCodecAdapter(
+      MediaCodec mediaCodec, String codecName, @Nullable MediaCodecPool codecPool) {
     this.codec = mediaCodec;
+    this.codecName = codecName;
+    this.codecPool = codecPool;
     if (Util.SDK_INT < 21) {
       inputByteBuffers = codec.getInputBuffers();
       outputByteBuffers = codec.getOutputBuffers();
@@ -176,7 +204,11 @@ public final class SynchronousMediaCodecAdapter implements MediaCodecAdapter {
   public void release() {
     inputByteBuffers = null;
     outputByteBuffers = null;
-    codec.release();
+    if (codecPool != null) {
+      codecPool.recycle(codecName, codec);
+    } else {
+      codec.release();
+    }
   }
 
   @Override
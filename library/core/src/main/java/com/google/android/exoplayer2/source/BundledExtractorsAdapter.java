@@ -22,14 +22,19 @@ import com.google.android.exoplayer2.extractor.DefaultExtractorInput;
 import com.google.android.exoplayer2.extractor.Extractor;
 import com.google.android.exoplayer2.extractor.ExtractorInput;
 import com.google.android.exoplayer2.extractor.ExtractorOutput;
+import com.google.android.exoplayer2.extractor.ExtractorUtil;
 import com.google.android.exoplayer2.extractor.ExtractorsFactory;
 import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.extractor.mp3.Mp3Extractor;
+import com.google.android.exoplayer2.extractor.ts.AdtsExtractor;
 import com.google.android.exoplayer2.upstream.DataReader;
 import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.FileTypes;
+import com.google.android.exoplayer2.util.TraceUtil;
 import com.google.android.exoplayer2.util.Util;
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -73,32 +78,70 @@ public final class BundledExtractorsAdapter implements ProgressiveMediaExtractor
     if (extractor != null) {
       return;
     }
-    Extractor[] extractors = extractorsFactory.createExtractors(uri, responseHeaders);
-    if (extractors.length == 1) {
-      this.extractor = extractors[0];
-    } else {
-      for (Extractor extractor : extractors) {
-        try {
-          if (extractor.sniff(extractorInput)) {
-            this.extractor = extractor;
-            break;
-          }
-        } catch (EOFException e) {
-          // Do nothing.
-        } finally {
-          Assertions.checkState(this.extractor != null || extractorInput.getPosition() == position);
-          extractorInput.resetPeekPosition();
-        }
+    TraceUtil.beginSection("sniffExtractors");
+    try {
+      // Peek the signature once, so that the extractor matching it can be sniffed first. The peeked
+      // bytes are buffered by the input and reused when sniffing.
+      byte[] signature = new byte[FileTypes.SHORT_SIGNATURE_LENGTH];
+      int signatureLength =
+          ExtractorUtil.peekToLength(extractorInput, signature, /* offset= */ 0, signature.length);
+      if (signatureLength == signature.length
+          && FileTypes.mayHaveLongSignature(signature, signatureLength)) {
+        signature = Arrays.copyOf(signature, FileTypes.SIGNATURE_LENGTH);
+        signatureLength +=
+            ExtractorUtil.peekToLength(
+                extractorInput,
+                signature,
+                /* offset= */ signatureLength,
+                signature.length - signatureLength);
       }
-      if (extractor == null) {
-        throw new UnrecognizedInputFormatException(
-            "None of the available extractors ("
-                + Util.getCommaDelimitedSimpleClassNames(extractors)
-                + ") could read the stream.",
-            Assertions.checkNotNull(uri));
+      extractorInput.resetPeekPosition();
+      Extractor[] extractors =
+          extractorsFactory.createExtractors(
+              uri,
+              responseHeaders,
+              FileTypes.inferFileTypeFromSignature(signature, signatureLength));
+      if (extractors.length == 1) {
+        this.extractor = extractors[0];
+      } else {
+        sniffExtractors(extractors, extractorInput, uri, position);
       }
+    } finally {
+      TraceUtil.endSection();
+    }
+    Assertions.checkNotNull(extractor).init(output);
+  }
+
+  private void sniffExtractors(
+      Extractor[] extractors, ExtractorInput extractorInput, Uri uri, long position)
+      throws IOException {
+    boolean isTraceEnabled = TraceUtil.isEnabled();
+    for (Extractor extractor : extractors) {
+      if (isTraceEnabled) {
+        TraceUtil.beginSection("sniff:" + extractor.getClass().getSimpleName());
+      }
+      try {
+        if (extractor.sniff(extractorInput)) {
+          this.extractor = extractor;
+          break;
+        }
+      } catch (EOFException e) {
+        // Do nothing.
+      } finally {
+        Assertions.checkState(this.extractor != null || extractorInput.getPosition() == position);
+        extractorInput.resetPeekPosition();
+        if (isTraceEnabled) {
+          TraceUtil.endSection();
+        }
+      }
+    }
+    if (extractor == null) {
+      throw new UnrecognizedInputFormatException(
+          "None of the available extractors ("
+              + Util.getCommaDelimitedSimpleClassNames(extractors)
+              + ") could read the stream.",
+          Assertions.checkNotNull(uri));
     }
-    extractor.init(output);
   }
 
   @Override
@@ -117,6 +160,18 @@ public final class BundledExtractorsAdapter implements ProgressiveMediaExtractor
     }
   }
 
+  @Override
+  public boolean enableExactSeekTimes() {
+    if (extractor instanceof Mp3Extractor) {
+      ((Mp3Extractor) extractor).enableExactSeekTimes();
+      return true;
+    } else if (extractor instanceof AdtsExtractor) {
+      ((AdtsExtractor) extractor).enableExactSeekTimes();
+      return true;
+    }
+    return false;
+  }
+
   @Override
   public long getCurrentInputPosition() {
     return extractorInput != null ? extractorInput.getPosition() : C.INDEX_UNSET;
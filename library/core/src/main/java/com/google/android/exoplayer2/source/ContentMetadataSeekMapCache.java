@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekMapSerializer;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheKeyFactory;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadataMutations;
+import com.google.android.exoplayer2.util.Log;
+import java.util.Arrays;
+
+/**
+ * A {@link SeekMapCache} that stores serialized seek maps in the {@link
+ * com.google.android.exoplayer2.upstream.cache.ContentMetadata} of a {@link Cache}, keyed by the
+ * same cache key as the media data.
+ *
+ * <p>Only seek maps supported by {@link SeekMapSerializer} are stored.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+public final class ContentMetadataSeekMapCache implements SeekMapCache {
+
+  /** The {@link com.google.android.exoplayer2.upstream.cache.ContentMetadata} key. */
+  public static final String METADATA_NAME_SEEK_MAP = "exo_seek_map";
+
+  private static final String TAG = "CMSeekMapCache";
+
+  private final Cache cache;
+  private final CacheKeyFactory cacheKeyFactory;
+
+  /**
+   * Creates an instance that uses {@link CacheKeyFactory#DEFAULT}.
+   *
+   * @param cache The {@link Cache} in which to store seek maps.
+   */
+  public ContentMetadataSeekMapCache(Cache cache) {
+    this(cache, CacheKeyFactory.DEFAULT);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param cache The {@link Cache} in which to store seek maps.
+   * @param cacheKeyFactory The {@link CacheKeyFactory} used to derive cache keys. Should be the
+   *     same factory used by the {@link com.google.android.exoplayer2.upstream.cache.CacheDataSource}
+   *     that caches the media data.
+   */
+  public ContentMetadataSeekMapCache(Cache cache, CacheKeyFactory cacheKeyFactory) {
+    this.cache = cache;
+    this.cacheKeyFactory = cacheKeyFactory;
+  }
+
+  @Override
+  @Nullable
+  public SeekMap get(DataSpec dataSpec) {
+    String key = cacheKeyFactory.buildCacheKey(dataSpec);
+    @Nullable
+    byte[] serializedSeekMap =
+        cache.getContentMetadata(key).get(METADATA_NAME_SEEK_MAP, /* defaultValue= */ null);
+    return serializedSeekMap != null ? SeekMapSerializer.deserialize(serializedSeekMap) : null;
+  }
+
+  @Override
+  public void put(DataSpec dataSpec, SeekMap seekMap) {
+    @Nullable byte[] serializedSeekMap = SeekMapSerializer.serialize(seekMap);
+    if (serializedSeekMap == null) {
+      return;
+    }
+    String key = cacheKeyFactory.buildCacheKey(dataSpec);
+    @Nullable
+    byte[] currentSeekMap =
+        cache.getContentMetadata(key).get(METADATA_NAME_SEEK_MAP, /* defaultValue= */ null);
+    if (Arrays.equals(currentSeekMap, serializedSeekMap)) {
+      return;
+    }
+    ContentMetadataMutations mutations = new ContentMetadataMutations();
+    mutations.set(METADATA_NAME_SEEK_MAP, serializedSeekMap);
+    try {
+      cache.applyContentMetadataMutations(key, mutations);
+    } catch (Cache.CacheException e) {
+      Log.w(TAG, "Failed to store seek map", e);
+    }
+  }
+}
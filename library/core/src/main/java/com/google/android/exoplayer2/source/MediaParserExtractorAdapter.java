@@ -116,6 +116,12 @@ public final class MediaParserExtractorAdapter implements ProgressiveMediaExtrac
     }
   }
 
+  @Override
+  public boolean enableExactSeekTimes() {
+    // MediaParser doesn't allow overriding the timestamps it derives after a seek.
+    return false;
+  }
+
   @Override
   public long getCurrentInputPosition() {
     return inputReaderAdapter.getPosition();
@@ -80,6 +80,18 @@ public interface ProgressiveMediaExtractor {
    */
   void disableSeekingOnMp3Streams();
 
+  /**
+   * Makes the extractor take the times passed to {@link #seek(long, long)} as the exact timestamps
+   * of the samples starting at the passed positions, rather than deriving them from its own seek
+   * map. This allows seeking using an exact seek map that was persisted when the same stream was
+   * previously read.
+   *
+   * <p>Must be called on the loading thread, after the extractor has output a seek map.
+   *
+   * @return Whether the extractor supports exact seek times. Only MP3 and ADTS streams do.
+   */
+  boolean enableExactSeekTimes();
+
   /**
    * Returns the current read position in the input stream, or {@link C#INDEX_UNSET} if no input is
    * available.
@@ -37,6 +37,8 @@ import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.extractor.SeekMap;
 import com.google.android.exoplayer2.extractor.SeekMap.SeekPoints;
 import com.google.android.exoplayer2.extractor.SeekMap.Unseekable;
+import com.google.android.exoplayer2.extractor.SeekMapSerializer;
+import com.google.android.exoplayer2.extractor.SeekPoint;
 import com.google.android.exoplayer2.extractor.TrackOutput;
 import com.google.android.exoplayer2.metadata.Metadata;
 import com.google.android.exoplayer2.metadata.icy.IcyHeaders;
@@ -118,6 +120,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
   private final Listener listener;
   private final Allocator allocator;
   @Nullable private final String customCacheKey;
+  @Nullable private final SeekMapCache seekMapCache;
   private final long continueLoadingCheckIntervalBytes;
   private final Loader loader;
   private final ProgressiveMediaExtractor progressiveMediaExtractor;
@@ -126,6 +129,10 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
   private final Runnable onContinueLoadingRequestedRunnable;
   private final Handler handler;
 
+  // Accessed only on the loading thread.
+  private boolean hasCheckedSeekMapCache;
+  @Nullable private SeekMap restoredSeekMap;
+
   @Nullable private Callback callback;
   @Nullable private IcyHeaders icyHeaders;
   private SampleQueue[] sampleQueues;
@@ -136,6 +143,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
   private boolean haveAudioVideoTracks;
   private @MonotonicNonNull TrackState trackState;
   private @MonotonicNonNull SeekMap seekMap;
+  private boolean isSeekMapFromCache;
   private long durationUs;
   private boolean isLive;
   private @DataType int dataType;
@@ -167,6 +175,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
    * @param allocator An {@link Allocator} from which to obtain media buffer allocations.
    * @param customCacheKey A custom key that uniquely identifies the original stream. Used for cache
    *     indexing. May be null.
+   * @param seekMapCache A {@link SeekMapCache} used to persist and restore seek maps, or null.
    * @param continueLoadingCheckIntervalBytes The number of bytes that should be loaded between each
    *     invocation of {@link Callback#onContinueLoadingRequested(SequenceableLoader)}.
    */
@@ -183,6 +192,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
       Listener listener,
       Allocator allocator,
       @Nullable String customCacheKey,
+      @Nullable SeekMapCache seekMapCache,
       int continueLoadingCheckIntervalBytes) {
     this.uri = uri;
     this.dataSource = dataSource;
@@ -193,6 +203,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
     this.listener = listener;
     this.allocator = allocator;
     this.customCacheKey = customCacheKey;
+    this.seekMapCache = seekMapCache;
     this.continueLoadingCheckIntervalBytes = continueLoadingCheckIntervalBytes;
     loader = new Loader("ProgressiveMediaPeriod");
     this.progressiveMediaExtractor = progressiveMediaExtractor;
@@ -697,7 +708,35 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
   @Override
   public void seekMap(SeekMap seekMap) {
-    handler.post(() -> setSeekMap(seekMap));
+    if (seekMapCache == null) {
+      handler.post(() -> setSeekMap(seekMap, /* isFromCache= */ false));
+      return;
+    }
+    boolean isExact = SeekMapSerializer.isSerializable(seekMap) && seekMap.isSeekable();
+    if (!hasCheckedSeekMapCache) {
+      hasCheckedSeekMapCache = true;
+      if (!isExact) {
+        @Nullable SeekMap cachedSeekMap = seekMapCache.get(buildSeekMapCacheDataSpec());
+        if (cachedSeekMap != null
+            && cachedSeekMap.isSeekable()
+            && progressiveMediaExtractor.enableExactSeekTimes()) {
+          SeekMap restoredSeekMap = cachedSeekMap;
+          this.restoredSeekMap = restoredSeekMap;
+          handler.post(() -> setSeekMap(restoredSeekMap, /* isFromCache= */ true));
+        }
+      }
+    }
+    if (restoredSeekMap != null) {
+      // The restored seek map is complete and exact, so it's preferred over any seek map that the
+      // extractor outputs while reading the stream again.
+      return;
+    }
+    if (isExact) {
+      // Exact seek maps are immutable snapshots, either read from a container index or output once
+      // the whole stream has been indexed, so they can be persisted as they are.
+      seekMapCache.put(buildSeekMapCacheDataSpec(), seekMap);
+    }
+    handler.post(() -> setSeekMap(seekMap, /* isFromCache= */ false));
   }
 
   // Icy metadata. Called by the loading thread.
@@ -739,8 +778,13 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
     return trackOutput;
   }
 
-  private void setSeekMap(SeekMap seekMap) {
+  private DataSpec buildSeekMapCacheDataSpec() {
+    return new DataSpec.Builder().setUri(uri).setKey(customCacheKey).build();
+  }
+
+  private void setSeekMap(SeekMap seekMap, boolean isFromCache) {
     this.seekMap = icyHeaders == null ? seekMap : new Unseekable(/* durationUs= */ C.TIME_UNSET);
+    isSeekMapFromCache = isFromCache && icyHeaders == null;
     durationUs = seekMap.getDurationUs();
     isLive = !isLengthKnown && seekMap.getDurationUs() == C.TIME_UNSET;
     dataType = isLive ? C.DATA_TYPE_MEDIA_PROGRESSIVE_LIVE : C.DATA_TYPE_MEDIA;
@@ -809,9 +853,12 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
         pendingResetPositionUs = C.TIME_UNSET;
         return;
       }
+      SeekPoint seekPoint = checkNotNull(seekMap).getSeekPoints(pendingResetPositionUs).first;
+      // The extractor doesn't know the seek points of a restored seek map, so tell it the exact time
+      // of the seek point rather than the requested position. Samples before the requested
+      // position are still skipped by the sample queues.
       loadable.setLoadPosition(
-          checkNotNull(seekMap).getSeekPoints(pendingResetPositionUs).first.position,
-          pendingResetPositionUs);
+          seekPoint.position, isSeekMapFromCache ? seekPoint.timeUs : pendingResetPositionUs);
       for (SampleQueue sampleQueue : sampleQueues) {
         sampleQueue.setStartTimeUs(pendingResetPositionUs);
       }
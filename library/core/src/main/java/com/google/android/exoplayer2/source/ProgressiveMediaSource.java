@@ -66,6 +66,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
     private DrmSessionManagerProvider drmSessionManagerProvider;
     private LoadErrorHandlingPolicy loadErrorHandlingPolicy;
     private int continueLoadingCheckIntervalBytes;
+    @Nullable private SeekMapCache seekMapCache;
 
     /**
      * Creates a new factory for {@link ProgressiveMediaSource}s.
@@ -186,6 +187,20 @@ public final class ProgressiveMediaSource extends BaseMediaSource
       return this;
     }
 
+    /**
+     * Sets the {@link SeekMapCache} used to persist exact seek maps output by extractors, and to
+     * restore them when the same content is opened again and the extractor is unable to seek
+     * exactly by itself. The default value is {@code null}, meaning seek maps are not cached.
+     *
+     * @param seekMapCache The {@link SeekMapCache}, or {@code null} to disable seek map caching.
+     * @return This factory, for convenience.
+     */
+    @CanIgnoreReturnValue
+    public Factory setSeekMapCache(@Nullable SeekMapCache seekMapCache) {
+      this.seekMapCache = seekMapCache;
+      return this;
+    }
+
     @CanIgnoreReturnValue
     @Override
     public Factory setDrmSessionManagerProvider(
@@ -215,6 +230,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
           progressiveMediaExtractorFactory,
           drmSessionManagerProvider.get(mediaItem),
           loadErrorHandlingPolicy,
+          seekMapCache,
           continueLoadingCheckIntervalBytes);
     }
 
@@ -236,6 +252,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
   private final ProgressiveMediaExtractor.Factory progressiveMediaExtractorFactory;
   private final DrmSessionManager drmSessionManager;
   private final LoadErrorHandlingPolicy loadableLoadErrorHandlingPolicy;
+  @Nullable private final SeekMapCache seekMapCache;
   private final int continueLoadingCheckIntervalBytes;
 
   private boolean timelineIsPlaceholder;
@@ -250,6 +267,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
       ProgressiveMediaExtractor.Factory progressiveMediaExtractorFactory,
       DrmSessionManager drmSessionManager,
       LoadErrorHandlingPolicy loadableLoadErrorHandlingPolicy,
+      @Nullable SeekMapCache seekMapCache,
       int continueLoadingCheckIntervalBytes) {
     this.localConfiguration = checkNotNull(mediaItem.localConfiguration);
     this.mediaItem = mediaItem;
@@ -257,6 +275,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
     this.progressiveMediaExtractorFactory = progressiveMediaExtractorFactory;
     this.drmSessionManager = drmSessionManager;
     this.loadableLoadErrorHandlingPolicy = loadableLoadErrorHandlingPolicy;
+    this.seekMapCache = seekMapCache;
     this.continueLoadingCheckIntervalBytes = continueLoadingCheckIntervalBytes;
     this.timelineIsPlaceholder = true;
     this.timelineDurationUs = C.TIME_UNSET;
@@ -298,6 +317,7 @@ public final class ProgressiveMediaSource extends BaseMediaSource
         this,
         allocator,
         localConfiguration.customCacheKey,
+        seekMapCache,
         continueLoadingCheckIntervalBytes);
   }
 
@@ -34,6 +34,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 /**
  * A queue of media sample data.
@@ -52,6 +53,9 @@ import java.util.Arrays;
   private final int allocationLength;
   private final ParsableByteArray scratch;
 
+  // Used by the loading thread to stage data read from a DataReader into a direct allocation.
+  private byte @MonotonicNonNull [] directWriteScratch;
+
   // References into the linked list of allocations.
   private AllocationNode firstAllocationNode;
   private AllocationNode readAllocationNode;
@@ -182,11 +186,21 @@ import java.util.Arrays;
 
   public int sampleData(DataReader input, int length, boolean allowEndOfInput) throws IOException {
     length = preAppend(length);
-    int bytesAppended =
-        input.read(
-            writeAllocationNode.allocation.data,
-            writeAllocationNode.translateOffset(totalBytesWritten),
-            length);
+    int offset = writeAllocationNode.translateOffset(totalBytesWritten);
+    @Nullable ByteBuffer writeBuffer = writeAllocationNode.writeBuffer;
+    int bytesAppended;
+    if (writeBuffer == null) {
+      bytesAppended = input.read(writeAllocationNode.allocation.data, offset, length);
+    } else {
+      if (directWriteScratch == null) {
+        directWriteScratch = new byte[allocationLength];
+      }
+      bytesAppended = input.read(directWriteScratch, 0, length);
+      if (bytesAppended > 0) {
+        writeBuffer.position(offset);
+        writeBuffer.put(directWriteScratch, 0, bytesAppended);
+      }
+    }
     if (bytesAppended == C.RESULT_END_OF_INPUT) {
       if (allowEndOfInput) {
         return C.RESULT_END_OF_INPUT;
@@ -200,10 +214,15 @@ import java.util.Arrays;
   public void sampleData(ParsableByteArray buffer, int length) {
     while (length > 0) {
       int bytesAppended = preAppend(length);
-      buffer.readBytes(
-          writeAllocationNode.allocation.data,
-          writeAllocationNode.translateOffset(totalBytesWritten),
-          bytesAppended);
+      int offset = writeAllocationNode.translateOffset(totalBytesWritten);
+      @Nullable ByteBuffer writeBuffer = writeAllocationNode.writeBuffer;
+      if (writeBuffer == null) {
+        buffer.readBytes(writeAllocationNode.allocation.data, offset, bytesAppended);
+      } else {
+        writeBuffer.position(offset);
+        writeBuffer.put(buffer.getData(), buffer.getPosition(), bytesAppended);
+        buffer.skipBytes(bytesAppended);
+      }
       length -= bytesAppended;
       postAppend(bytesAppended);
     }
@@ -412,8 +431,17 @@ import java.util.Arrays;
     int remaining = length;
     while (remaining > 0) {
       int toCopy = min(remaining, (int) (allocationNode.endPosition - absolutePosition));
-      Allocation allocation = allocationNode.allocation;
-      target.put(allocation.data, allocationNode.translateOffset(absolutePosition), toCopy);
+      int offset = allocationNode.translateOffset(absolutePosition);
+      @Nullable ByteBuffer readBuffer = allocationNode.readBuffer;
+      if (readBuffer == null) {
+        target.put(allocationNode.allocation.data, offset, toCopy);
+      } else {
+        // Bulk copy between buffers, without going through the heap.
+        readBuffer.limit(offset + toCopy);
+        readBuffer.position(offset);
+        target.put(readBuffer);
+        readBuffer.limit(readBuffer.capacity());
+      }
       remaining -= toCopy;
       absolutePosition += toCopy;
       if (absolutePosition == allocationNode.endPosition) {
@@ -438,13 +466,15 @@ import java.util.Arrays;
     int remaining = length;
     while (remaining > 0) {
       int toCopy = min(remaining, (int) (allocationNode.endPosition - absolutePosition));
-      Allocation allocation = allocationNode.allocation;
-      System.arraycopy(
-          allocation.data,
-          allocationNode.translateOffset(absolutePosition),
-          target,
-          length - remaining,
-          toCopy);
+      int offset = allocationNode.translateOffset(absolutePosition);
+      @Nullable ByteBuffer readBuffer = allocationNode.readBuffer;
+      if (readBuffer == null) {
+        System.arraycopy(
+            allocationNode.allocation.data, offset, target, length - remaining, toCopy);
+      } else {
+        readBuffer.position(offset);
+        readBuffer.get(target, length - remaining, toCopy);
+      }
       remaining -= toCopy;
       absolutePosition += toCopy;
       if (absolutePosition == allocationNode.endPosition) {
@@ -482,6 +512,14 @@ import java.util.Arrays;
      * #initialize initialized}.
      */
     @Nullable public AllocationNode next;
+    /**
+     * Views of the {@link #allocation}'s {@link Allocation#buffer} for use by the loading and the
+     * consuming thread respectively, or {@code null} if the allocation is backed by an array. Each
+     * thread modifies the position and limit of its own view only.
+     */
+    @Nullable public ByteBuffer writeBuffer;
+
+    @Nullable public ByteBuffer readBuffer;
 
     /**
      * @param startPosition See {@link #startPosition}.
@@ -513,6 +551,10 @@ import java.util.Arrays;
     public void initialize(Allocation allocation, AllocationNode next) {
       this.allocation = allocation;
       this.next = next;
+      if (allocation.buffer != null) {
+        writeBuffer = allocation.buffer.duplicate();
+        readBuffer = allocation.buffer.duplicate();
+      }
     }
 
     /**
@@ -533,6 +575,8 @@ import java.util.Arrays;
      */
     public AllocationNode clear() {
       allocation = null;
+      writeBuffer = null;
+      readBuffer = null;
       AllocationNode temp = next;
       next = null;
       return temp;
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import static com.google.android.exoplayer2.util.Assertions.checkArgument;
+import static com.google.android.exoplayer2.util.Assertions.checkNotNull;
+import static com.google.android.exoplayer2.util.Util.castNonNull;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.TrackOutput.CryptoData;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.compatqual.NullableType;
+
+/**
+ * Stores the metadata of the samples in a {@link SampleQueue}, indexed from the first sample in
+ * the queue.
+ *
+ * <p>Metadata is stored in fixed size chunks, so that growing the storage never copies existing
+ * metadata and discarding samples from either end releases whole chunks. The most recently
+ * released chunk is kept for reuse, so that a queue whose length is stable does not allocate.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+/* package */ final class SampleMetadataRing {
+
+  /** The number of samples stored in each chunk. */
+  public static final int CHUNK_SIZE = 1 << 10;
+
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int INITIAL_CHUNK_CAPACITY = 4;
+
+  private @NullableType Chunk[] chunks;
+  private int firstChunkIndex;
+  private int chunkCount;
+  private int firstSampleOffset;
+  @Nullable private Chunk spareChunk;
+
+  /** Creates an empty instance. */
+  public SampleMetadataRing() {
+    chunks = new Chunk[INITIAL_CHUNK_CAPACITY];
+  }
+
+  /**
+   * Sets the metadata of the sample at {@code index}, allocating storage if necessary.
+   *
+   * @param index The index of the sample, relative to the first sample.
+   * @param timeUs The sample timestamp in microseconds.
+   * @param flags The sample {@link C.BufferFlags}.
+   * @param offset The absolute offset of the sample data.
+   * @param size The size of the sample data.
+   * @param cryptoData The sample encryption data, or {@code null}.
+   * @param sourceId The id of the source from which the sample was loaded.
+   */
+  public void set(
+      int index,
+      long timeUs,
+      @C.BufferFlags int flags,
+      long offset,
+      int size,
+      @Nullable CryptoData cryptoData,
+      long sourceId) {
+    int position = firstSampleOffset + index;
+    int requiredChunkCount = (position >>> CHUNK_SHIFT) + 1;
+    while (chunkCount < requiredChunkCount) {
+      appendChunk();
+    }
+    Chunk chunk = getChunk(position);
+    int chunkOffset = position & CHUNK_MASK;
+    chunk.timesUs[chunkOffset] = timeUs;
+    chunk.offsets[chunkOffset] = offset;
+    chunk.flagsAndSizes[chunkOffset] = packFlagsAndSize(flags, size);
+    chunk.cryptoDatas[chunkOffset] = cryptoData;
+    chunk.sourceIds[chunkOffset] = sourceId;
+  }
+
+  /** Returns the timestamp of the sample at {@code index}, in microseconds. */
+  public long getTimeUs(int index) {
+    int position = firstSampleOffset + index;
+    return getChunk(position).timesUs[position & CHUNK_MASK];
+  }
+
+  /** Returns the absolute offset of the data of the sample at {@code index}. */
+  public long getOffset(int index) {
+    int position = firstSampleOffset + index;
+    return getChunk(position).offsets[position & CHUNK_MASK];
+  }
+
+  /** Returns the {@link C.BufferFlags} of the sample at {@code index}. */
+  public @C.BufferFlags int getFlags(int index) {
+    int position = firstSampleOffset + index;
+    return unpackFlags(getChunk(position).flagsAndSizes[position & CHUNK_MASK]);
+  }
+
+  /** Returns the size of the data of the sample at {@code index}. */
+  public int getSize(int index) {
+    int position = firstSampleOffset + index;
+    return unpackSize(getChunk(position).flagsAndSizes[position & CHUNK_MASK]);
+  }
+
+  /** Returns the encryption data of the sample at {@code index}, or {@code null}. */
+  @Nullable
+  public CryptoData getCryptoData(int index) {
+    int position = firstSampleOffset + index;
+    return getChunk(position).cryptoDatas[position & CHUNK_MASK];
+  }
+
+  /** Returns the id of the source from which the sample at {@code index} was loaded. */
+  public long getSourceId(int index) {
+    int position = firstSampleOffset + index;
+    return getChunk(position).sourceIds[position & CHUNK_MASK];
+  }
+
+  /**
+   * Finds the sample in the specified range that's before or at the specified time. If {@code
+   * keyframe} is {@code true} then the sample is additionally required to be a keyframe.
+   *
+   * @param startIndex The index from which to start searching.
+   * @param length The length of the range being searched.
+   * @param timeUs The specified time.
+   * @param keyframe Whether only keyframes should be considered.
+   * @return The offset from {@code startIndex} to the found sample, or -1 if no matching sample
+   *     was found.
+   */
+  public int findSampleBefore(int startIndex, int length, long timeUs, boolean keyframe) {
+    // This could be optimized to use a binary search, however in practice callers to this method
+    // normally pass times near to the start of the search region. Hence it's unclear whether
+    // switching to a binary search would yield any real benefit.
+    int sampleCountToTarget = -1;
+    int position = firstSampleOffset + startIndex;
+    int searchedCount = 0;
+    while (searchedCount < length) {
+      Chunk chunk = getChunk(position);
+      long[] timesUs = chunk.timesUs;
+      long[] flagsAndSizes = chunk.flagsAndSizes;
+      int chunkOffset = position & CHUNK_MASK;
+      int chunkSearchLength = min(length - searchedCount, CHUNK_SIZE - chunkOffset);
+      for (int i = 0; i < chunkSearchLength; i++) {
+        long sampleTimeUs = timesUs[chunkOffset + i];
+        if (sampleTimeUs > timeUs) {
+          return sampleCountToTarget;
+        }
+        if (!keyframe
+            || (unpackFlags(flagsAndSizes[chunkOffset + i]) & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+          // We've found a suitable sample.
+          sampleCountToTarget = searchedCount + i;
+          if (sampleTimeUs == timeUs) {
+            // Stop the search if we found a sample at the specified time to avoid returning a later
+            // sample with the same exactly matching timestamp.
+            return sampleCountToTarget;
+          }
+        }
+      }
+      searchedCount += chunkSearchLength;
+      position += chunkSearchLength;
+    }
+    return sampleCountToTarget;
+  }
+
+  /**
+   * Discards samples from the start, so that the sample previously at {@code count} is at index 0.
+   */
+  public void discardFromStart(int count) {
+    checkArgument(count >= 0);
+    firstSampleOffset += count;
+    while (firstSampleOffset >= CHUNK_SIZE && chunkCount > 0) {
+      releaseChunk(firstChunkIndex);
+      firstChunkIndex = (firstChunkIndex + 1) & (chunks.length - 1);
+      chunkCount--;
+      firstSampleOffset -= CHUNK_SIZE;
+    }
+    if (chunkCount == 0) {
+      firstChunkIndex = 0;
+      firstSampleOffset = 0;
+    }
+  }
+
+  /** Releases storage that is not needed to hold the first {@code length} samples. */
+  public void trimToLength(int length) {
+    int requiredChunkCount = max(1, ((firstSampleOffset + length + CHUNK_MASK) >>> CHUNK_SHIFT));
+    while (chunkCount > requiredChunkCount) {
+      releaseChunk((firstChunkIndex + chunkCount - 1) & (chunks.length - 1));
+      chunkCount--;
+    }
+  }
+
+  /** Discards all samples. */
+  public void clear() {
+    firstSampleOffset = 0;
+    trimToLength(/* length= */ 0);
+  }
+
+  private Chunk getChunk(int position) {
+    return castNonNull(
+        chunks[(firstChunkIndex + (position >>> CHUNK_SHIFT)) & (chunks.length - 1)]);
+  }
+
+  private void appendChunk() {
+    if (chunkCount == chunks.length) {
+      // Grow the array of chunk references, keeping the chunks in order.
+      @NullableType Chunk[] newChunks = new Chunk[chunks.length * 2];
+      for (int i = 0; i < chunkCount; i++) {
+        newChunks[i] = chunks[(firstChunkIndex + i) & (chunks.length - 1)];
+      }
+      chunks = newChunks;
+      firstChunkIndex = 0;
+    }
+    Chunk chunk;
+    if (spareChunk != null) {
+      chunk = spareChunk;
+      spareChunk = null;
+    } else {
+      chunk = new Chunk();
+    }
+    chunks[(firstChunkIndex + chunkCount) & (chunks.length - 1)] = chunk;
+    chunkCount++;
+  }
+
+  private void releaseChunk(int chunkIndex) {
+    Chunk chunk = checkNotNull(chunks[chunkIndex]);
+    chunks[chunkIndex] = null;
+    // Don't hold on to encryption data of discarded samples.
+    Arrays.fill(chunk.cryptoDatas, null);
+    spareChunk = chunk;
+  }
+
+  private static long packFlagsAndSize(@C.BufferFlags int flags, int size) {
+    return ((long) flags << 32) | (size & 0xFFFFFFFFL);
+  }
+
+  private static @C.BufferFlags int unpackFlags(long flagsAndSize) {
+    return (int) (flagsAndSize >>> 32);
+  }
+
+  private static int unpackSize(long flagsAndSize) {
+    return (int) flagsAndSize;
+  }
+
+  private static final class Chunk {
+
+    public final long[] timesUs;
+    public final long[] offsets;
+    public final long[] flagsAndSizes;
+    public final long[] sourceIds;
+    public final @NullableType CryptoData[] cryptoDatas;
+
+    public Chunk() {
+      timesUs = new long[CHUNK_SIZE];
+      offsets = new long[CHUNK_SIZE];
+      flagsAndSizes = new long[CHUNK_SIZE];
+      sourceIds = new long[CHUNK_SIZE];
+      cryptoDatas = new CryptoData[CHUNK_SIZE];
+    }
+  }
+}
@@ -49,7 +49,6 @@ import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.ParsableByteArray;
 import com.google.android.exoplayer2.util.Util;
 import java.io.IOException;
-import org.checkerframework.checker.nullness.compatqual.NullableType;
 
 /**
  * A queue of media samples.
@@ -73,7 +72,9 @@ public class SampleQueue implements TrackOutput {
     void onUpstreamFormatChanged(Format format);
   }
 
-  @VisibleForTesting /* package */ static final int SAMPLE_CAPACITY_INCREMENT = 1000;
+  @VisibleForTesting
+  /* package */ static final int SAMPLE_CAPACITY_INCREMENT = SampleMetadataRing.CHUNK_SIZE;
+
   private static final String TAG = "SampleQueue";
 
   private final SampleDataQueue sampleDataQueue;
@@ -86,17 +87,10 @@ public class SampleQueue implements TrackOutput {
   @Nullable private Format downstreamFormat;
   @Nullable private DrmSession currentDrmSession;
 
-  private int capacity;
-  private long[] sourceIds;
-  private long[] offsets;
-  private int[] sizes;
-  private int[] flags;
-  private long[] timesUs;
-  private @NullableType CryptoData[] cryptoDatas;
+  private final SampleMetadataRing sampleMetadataRing;
 
   private int length;
   private int absoluteFirstIndex;
-  private int relativeFirstIndex;
   private int readPosition;
 
   private long startTimeUs;
@@ -173,13 +167,7 @@ public class SampleQueue implements TrackOutput {
     this.drmEventDispatcher = drmEventDispatcher;
     sampleDataQueue = new SampleDataQueue(allocator);
     extrasHolder = new SampleExtrasHolder();
-    capacity = SAMPLE_CAPACITY_INCREMENT;
-    sourceIds = new long[capacity];
-    offsets = new long[capacity];
-    timesUs = new long[capacity];
-    flags = new int[capacity];
-    sizes = new int[capacity];
-    cryptoDatas = new CryptoData[capacity];
+    sampleMetadataRing = new SampleMetadataRing();
     sharedSampleMetadata =
         new SpannedData<>(/* removeCallback= */ metadata -> metadata.drmSessionReference.release());
     startTimeUs = Long.MIN_VALUE;
@@ -214,9 +202,9 @@ public class SampleQueue implements TrackOutput {
   @CallSuper
   public void reset(boolean resetUpstreamFormat) {
     sampleDataQueue.reset();
+    sampleMetadataRing.clear();
     length = 0;
     absoluteFirstIndex = 0;
-    relativeFirstIndex = 0;
     readPosition = 0;
     upstreamKeyframeRequired = true;
     startTimeUs = Long.MIN_VALUE;
@@ -325,8 +313,7 @@ public class SampleQueue implements TrackOutput {
    * @return The source id.
    */
   public final synchronized long peekSourceId() {
-    int relativeReadIndex = getRelativeIndex(readPosition);
-    return hasNextSample() ? sourceIds[relativeReadIndex] : upstreamSourceId;
+    return hasNextSample() ? sampleMetadataRing.getSourceId(readPosition) : upstreamSourceId;
   }
 
   /** Returns the upstream {@link Format} in which samples are being queued. */
@@ -374,7 +361,7 @@ public class SampleQueue implements TrackOutput {
 
   /** Returns the timestamp of the first sample, or {@link Long#MIN_VALUE} if the queue is empty. */
   public final synchronized long getFirstTimestampUs() {
-    return length == 0 ? Long.MIN_VALUE : timesUs[relativeFirstIndex];
+    return length == 0 ? Long.MIN_VALUE : sampleMetadataRing.getTimeUs(/* index= */ 0);
   }
 
   /**
@@ -400,7 +387,7 @@ public class SampleQueue implements TrackOutput {
       // A format can be read.
       return true;
     }
-    return mayReadSample(getRelativeIndex(readPosition));
+    return mayReadSample(readPosition);
   }
 
   /**
@@ -476,14 +463,14 @@ public class SampleQueue implements TrackOutput {
    */
   public final synchronized boolean seekTo(long timeUs, boolean allowTimeBeyondBuffer) {
     rewind();
-    int relativeReadIndex = getRelativeIndex(readPosition);
     if (!hasNextSample()
-        || timeUs < timesUs[relativeReadIndex]
+        || timeUs < sampleMetadataRing.getTimeUs(readPosition)
         || (timeUs > largestQueuedTimestampUs && !allowTimeBeyondBuffer)) {
       return false;
     }
     int offset =
-        findSampleBefore(relativeReadIndex, length - readPosition, timeUs, /* keyframe= */ true);
+        sampleMetadataRing.findSampleBefore(
+            readPosition, length - readPosition, timeUs, /* keyframe= */ true);
     if (offset == -1) {
       return false;
     }
@@ -502,15 +489,15 @@ public class SampleQueue implements TrackOutput {
    * @return The number of samples that need to be skipped, which may be equal to 0.
    */
   public final synchronized int getSkipCount(long timeUs, boolean allowEndOfQueue) {
-    int relativeReadIndex = getRelativeIndex(readPosition);
-    if (!hasNextSample() || timeUs < timesUs[relativeReadIndex]) {
+    if (!hasNextSample() || timeUs < sampleMetadataRing.getTimeUs(readPosition)) {
       return 0;
     }
     if (timeUs > largestQueuedTimestampUs && allowEndOfQueue) {
       return length - readPosition;
     }
     int offset =
-        findSampleBefore(relativeReadIndex, length - readPosition, timeUs, /* keyframe= */ true);
+        sampleMetadataRing.findSampleBefore(
+            readPosition, length - readPosition, timeUs, /* keyframe= */ true);
     if (offset == -1) {
       return 0;
     }
@@ -715,23 +702,22 @@ public class SampleQueue implements TrackOutput {
       return C.RESULT_FORMAT_READ;
     }
 
-    int relativeReadIndex = getRelativeIndex(readPosition);
-    if (!mayReadSample(relativeReadIndex)) {
+    if (!mayReadSample(readPosition)) {
       buffer.waitingForKeys = true;
       return C.RESULT_NOTHING_READ;
     }
 
-    buffer.setFlags(flags[relativeReadIndex]);
+    buffer.setFlags(sampleMetadataRing.getFlags(readPosition));
     if (readPosition == (length - 1) && (loadingFinished || isLastSampleQueued)) {
       buffer.addFlag(C.BUFFER_FLAG_LAST_SAMPLE);
     }
-    buffer.timeUs = timesUs[relativeReadIndex];
+    buffer.timeUs = sampleMetadataRing.getTimeUs(readPosition);
     if (buffer.timeUs < startTimeUs) {
       buffer.addFlag(C.BUFFER_FLAG_DECODE_ONLY);
     }
-    extrasHolder.size = sizes[relativeReadIndex];
-    extrasHolder.offset = offsets[relativeReadIndex];
-    extrasHolder.cryptoData = cryptoDatas[relativeReadIndex];
+    extrasHolder.size = sampleMetadataRing.getSize(readPosition);
+    extrasHolder.offset = sampleMetadataRing.getOffset(readPosition);
+    extrasHolder.cryptoData = sampleMetadataRing.getCryptoData(readPosition);
 
     return C.RESULT_BUFFER_READ;
   }
@@ -762,11 +748,13 @@ public class SampleQueue implements TrackOutput {
 
   private synchronized long discardSampleMetadataTo(
       long timeUs, boolean toKeyframe, boolean stopAtReadPosition) {
-    if (length == 0 || timeUs < timesUs[relativeFirstIndex]) {
+    if (length == 0 || timeUs < sampleMetadataRing.getTimeUs(/* index= */ 0)) {
       return C.INDEX_UNSET;
     }
     int searchLength = stopAtReadPosition && readPosition != length ? readPosition + 1 : length;
-    int discardCount = findSampleBefore(relativeFirstIndex, searchLength, timeUs, toKeyframe);
+    int discardCount =
+        sampleMetadataRing.findSampleBefore(
+            /* startIndex= */ 0, searchLength, timeUs, toKeyframe);
     if (discardCount == -1) {
       return C.INDEX_UNSET;
     }
@@ -805,21 +793,16 @@ public class SampleQueue implements TrackOutput {
       @Nullable CryptoData cryptoData) {
     if (length > 0) {
       // Ensure sample data doesn't overlap.
-      int previousSampleRelativeIndex = getRelativeIndex(length - 1);
       checkArgument(
-          offsets[previousSampleRelativeIndex] + sizes[previousSampleRelativeIndex] <= offset);
+          sampleMetadataRing.getOffset(length - 1) + sampleMetadataRing.getSize(length - 1)
+              <= offset);
     }
 
     isLastSampleQueued = (sampleFlags & C.BUFFER_FLAG_LAST_SAMPLE) != 0;
     largestQueuedTimestampUs = max(largestQueuedTimestampUs, timeUs);
 
-    int relativeEndIndex = getRelativeIndex(length);
-    timesUs[relativeEndIndex] = timeUs;
-    offsets[relativeEndIndex] = offset;
-    sizes[relativeEndIndex] = size;
-    flags[relativeEndIndex] = sampleFlags;
-    cryptoDatas[relativeEndIndex] = cryptoData;
-    sourceIds[relativeEndIndex] = upstreamSourceId;
+    sampleMetadataRing.set(
+        /* index= */ length, timeUs, sampleFlags, offset, size, cryptoData, upstreamSourceId);
 
     if (sharedSampleMetadata.isEmpty()
         || !sharedSampleMetadata.getEndValue().format.equals(upstreamFormat)) {
@@ -834,38 +817,6 @@ public class SampleQueue implements TrackOutput {
     }
 
     length++;
-    if (length == capacity) {
-      // Increase the capacity.
-      int newCapacity = capacity + SAMPLE_CAPACITY_INCREMENT;
-      long[] newSourceIds = new long[newCapacity];
-      long[] newOffsets = new long[newCapacity];
-      long[] newTimesUs = new long[newCapacity];
-      int[] newFlags = new int[newCapacity];
-      int[] newSizes = new int[newCapacity];
-      CryptoData[] newCryptoDatas = new CryptoData[newCapacity];
-      int beforeWrap = capacity - relativeFirstIndex;
-      System.arraycopy(offsets, relativeFirstIndex, newOffsets, 0, beforeWrap);
-      System.arraycopy(timesUs, relativeFirstIndex, newTimesUs, 0, beforeWrap);
-      System.arraycopy(flags, relativeFirstIndex, newFlags, 0, beforeWrap);
-      System.arraycopy(sizes, relativeFirstIndex, newSizes, 0, beforeWrap);
-      System.arraycopy(cryptoDatas, relativeFirstIndex, newCryptoDatas, 0, beforeWrap);
-      System.arraycopy(sourceIds, relativeFirstIndex, newSourceIds, 0, beforeWrap);
-      int afterWrap = relativeFirstIndex;
-      System.arraycopy(offsets, 0, newOffsets, beforeWrap, afterWrap);
-      System.arraycopy(timesUs, 0, newTimesUs, beforeWrap, afterWrap);
-      System.arraycopy(flags, 0, newFlags, beforeWrap, afterWrap);
-      System.arraycopy(sizes, 0, newSizes, beforeWrap, afterWrap);
-      System.arraycopy(cryptoDatas, 0, newCryptoDatas, beforeWrap, afterWrap);
-      System.arraycopy(sourceIds, 0, newSourceIds, beforeWrap, afterWrap);
-      offsets = newOffsets;
-      timesUs = newTimesUs;
-      flags = newFlags;
-      sizes = newSizes;
-      cryptoDatas = newCryptoDatas;
-      sourceIds = newSourceIds;
-      relativeFirstIndex = 0;
-      capacity = newCapacity;
-    }
   }
 
   /**
@@ -894,11 +845,13 @@ public class SampleQueue implements TrackOutput {
     largestQueuedTimestampUs = max(largestDiscardedTimestampUs, getLargestTimestamp(length));
     isLastSampleQueued = discardCount == 0 && isLastSampleQueued;
     sharedSampleMetadata.discardFrom(discardFromIndex);
+    long discardedOffset = 0;
     if (length != 0) {
-      int relativeLastWriteIndex = getRelativeIndex(length - 1);
-      return offsets[relativeLastWriteIndex] + sizes[relativeLastWriteIndex];
+      discardedOffset =
+          sampleMetadataRing.getOffset(length - 1) + sampleMetadataRing.getSize(length - 1);
     }
-    return 0;
+    sampleMetadataRing.trimToLength(length);
+    return discardedOffset;
   }
 
   private boolean hasNextSample() {
@@ -945,51 +898,16 @@ public class SampleQueue implements TrackOutput {
   /**
    * Returns whether it's possible to read the next sample.
    *
-   * @param relativeReadIndex The relative read index of the next sample.
+   * @param readPosition The read position of the next sample.
    * @return Whether it's possible to read the next sample.
    */
-  private boolean mayReadSample(int relativeReadIndex) {
+  private boolean mayReadSample(int readPosition) {
     return currentDrmSession == null
         || currentDrmSession.getState() == DrmSession.STATE_OPENED_WITH_KEYS
-        || ((flags[relativeReadIndex] & C.BUFFER_FLAG_ENCRYPTED) == 0
+        || ((sampleMetadataRing.getFlags(readPosition) & C.BUFFER_FLAG_ENCRYPTED) == 0
             && currentDrmSession.playClearSamplesWithoutKeys());
   }
 
-  /**
-   * Finds the sample in the specified range that's before or at the specified time. If {@code
-   * keyframe} is {@code true} then the sample is additionally required to be a keyframe.
-   *
-   * @param relativeStartIndex The relative index from which to start searching.
-   * @param length The length of the range being searched.
-   * @param timeUs The specified time.
-   * @param keyframe Whether only keyframes should be considered.
-   * @return The offset from {@code relativeFirstIndex} to the found sample, or -1 if no matching
-   *     sample was found.
-   */
-  private int findSampleBefore(int relativeStartIndex, int length, long timeUs, boolean keyframe) {
-    // This could be optimized to use a binary search, however in practice callers to this method
-    // normally pass times near to the start of the search region. Hence it's unclear whether
-    // switching to a binary search would yield any real benefit.
-    int sampleCountToTarget = -1;
-    int searchIndex = relativeStartIndex;
-    for (int i = 0; i < length && timesUs[searchIndex] <= timeUs; i++) {
-      if (!keyframe || (flags[searchIndex] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
-        // We've found a suitable sample.
-        sampleCountToTarget = i;
-        if (timesUs[searchIndex] == timeUs) {
-          // Stop the search if we found a sample at the specified time to avoid returning a later
-          // sample with the same exactly matching timestamp.
-          break;
-        }
-      }
-      searchIndex++;
-      if (searchIndex == capacity) {
-        searchIndex = 0;
-      }
-    }
-    return sampleCountToTarget;
-  }
-
   /**
    * Counts the number of samples that haven't been read that have a timestamp smaller than {@code
    * timeUs}.
@@ -999,13 +917,8 @@ public class SampleQueue implements TrackOutput {
    */
   private int countUnreadSamplesBefore(long timeUs) {
     int count = length;
-    int relativeSampleIndex = getRelativeIndex(length - 1);
-    while (count > readPosition && timesUs[relativeSampleIndex] >= timeUs) {
+    while (count > readPosition && sampleMetadataRing.getTimeUs(count - 1) >= timeUs) {
       count--;
-      relativeSampleIndex--;
-      if (relativeSampleIndex == -1) {
-        relativeSampleIndex = capacity - 1;
-      }
     }
     return count;
   }
@@ -1020,24 +933,20 @@ public class SampleQueue implements TrackOutput {
   private long discardSamples(int discardCount) {
     largestDiscardedTimestampUs =
         max(largestDiscardedTimestampUs, getLargestTimestamp(discardCount));
+    long discardToOffset =
+        discardCount == length
+            ? sampleMetadataRing.getOffset(discardCount - 1)
+                + sampleMetadataRing.getSize(discardCount - 1)
+            : sampleMetadataRing.getOffset(discardCount);
+    sampleMetadataRing.discardFromStart(discardCount);
     length -= discardCount;
     absoluteFirstIndex += discardCount;
-    relativeFirstIndex += discardCount;
-    if (relativeFirstIndex >= capacity) {
-      relativeFirstIndex -= capacity;
-    }
     readPosition -= discardCount;
     if (readPosition < 0) {
       readPosition = 0;
     }
     sharedSampleMetadata.discardTo(absoluteFirstIndex);
-
-    if (length == 0) {
-      int relativeLastDiscardIndex = (relativeFirstIndex == 0 ? capacity : relativeFirstIndex) - 1;
-      return offsets[relativeLastDiscardIndex] + sizes[relativeLastDiscardIndex];
-    } else {
-      return offsets[relativeFirstIndex];
-    }
+    return discardToOffset;
   }
 
   /**
@@ -1053,30 +962,15 @@ public class SampleQueue implements TrackOutput {
       return Long.MIN_VALUE;
     }
     long largestTimestampUs = Long.MIN_VALUE;
-    int relativeSampleIndex = getRelativeIndex(length - 1);
-    for (int i = 0; i < length; i++) {
-      largestTimestampUs = max(largestTimestampUs, timesUs[relativeSampleIndex]);
-      if ((flags[relativeSampleIndex] & C.BUFFER_FLAG_KEY_FRAME) != 0) {
+    for (int sampleIndex = length - 1; sampleIndex >= 0; sampleIndex--) {
+      largestTimestampUs = max(largestTimestampUs, sampleMetadataRing.getTimeUs(sampleIndex));
+      if ((sampleMetadataRing.getFlags(sampleIndex) & C.BUFFER_FLAG_KEY_FRAME) != 0) {
         break;
       }
-      relativeSampleIndex--;
-      if (relativeSampleIndex == -1) {
-        relativeSampleIndex = capacity - 1;
-      }
     }
     return largestTimestampUs;
   }
 
-  /**
-   * Returns the relative index for a given offset from the start of the queue.
-   *
-   * @param offset The offset, which must be in the range [0, length].
-   */
-  private int getRelativeIndex(int offset) {
-    int relativeIndex = relativeFirstIndex + offset;
-    return relativeIndex < capacity ? relativeIndex : relativeIndex - capacity;
-  }
-
   /** A holder for sample metadata not held by {@link DecoderInputBuffer}. */
   /* package */ static final class SampleExtrasHolder {
 
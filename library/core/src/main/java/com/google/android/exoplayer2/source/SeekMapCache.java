@@ -0,0 +1,56 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.upstream.DataSpec;
+
+/**
+ * Persists {@link SeekMap SeekMaps} produced by extractors, so that reopening the same progressive
+ * content can seek exactly without rebuilding the seek map.
+ *
+ * <p>Methods are called on the loading thread and may perform I/O.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+public interface SeekMapCache {
+
+  /**
+   * Returns the {@link SeekMap} previously stored for the resource, or {@code null} if there is
+   * none.
+   *
+   * @param dataSpec A {@link DataSpec} identifying the resource.
+   */
+  @WorkerThread
+  @Nullable
+  SeekMap get(DataSpec dataSpec);
+
+  /**
+   * Stores a {@link SeekMap} for the resource. Implementations may ignore seek maps that they are
+   * unable to persist.
+   *
+   * @param dataSpec A {@link DataSpec} identifying the resource.
+   * @param seekMap The {@link SeekMap} output by the extractor for the resource.
+   */
+  @WorkerThread
+  void put(DataSpec dataSpec, SeekMap seekMap);
+}
@@ -0,0 +1,557 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.preload;
+
+import static com.google.android.exoplayer2.util.Assertions.checkArgument;
+import static com.google.android.exoplayer2.util.Assertions.checkState;
+import static java.lang.Math.abs;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultRenderersFactory;
+import com.google.android.exoplayer2.ExoPlayer;
+import com.google.android.exoplayer2.MediaItem;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.RendererCapabilities;
+import com.google.android.exoplayer2.RenderersFactory;
+import com.google.android.exoplayer2.audio.AudioRendererEventListener;
+import com.google.android.exoplayer2.source.DefaultMediaSourceFactory;
+import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
+import com.google.android.exoplayer2.trackselection.TrackSelector;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+import com.google.android.exoplayer2.util.Log;
+import com.google.android.exoplayer2.util.Util;
+import com.google.android.exoplayer2.video.VideoRendererEventListener;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+
+/**
+ * Preloads the media of upcoming items, so that a player can start playing them without waiting
+ * for preparation and initial buffering.
+ *
+ * <p>Each item is added with a ranking index, which is usually its index in a playlist or feed.
+ * After {@link #setCurrentPlayingIndex(int)} and {@link #invalidate()}, the items closest to the
+ * current playing index are preloaded one at a time, in order of their distance from it. Items
+ * after the current item are preferred over items at the same distance before it. Up to {@link
+ * Builder#setMaxPreloadedItemCount(int)} items are kept preloaded, each buffering {@link
+ * Builder#setPreloadDurationMs(long)} of media. The preloaded media of other items is released.
+ *
+ * <p>The {@link MediaSource} returned by {@link #getMediaSource(MediaItem)} is set on the player
+ * with {@link ExoPlayer#setMediaSource(MediaSource)}. If it is preloaded, the player uses its
+ * prepared period and buffered media instead of loading it again. For this to work, the player
+ * must be built with the same playback looper as this manager, see {@link
+ * ExoPlayer.Builder#setPlaybackLooper(Looper)}. The player should also use the same {@link
+ * Allocator}, so that the media buffered by preloading is accounted for by its {@link
+ * com.google.android.exoplayer2.LoadControl}.
+ *
+ * <p>All public methods must be called on the thread that created the instance.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+public final class DefaultPreloadManager {
+
+  /** The default duration of media to preload for each item, in milliseconds. */
+  public static final long DEFAULT_PRELOAD_DURATION_MS = 5_000;
+  /** The default maximum number of items that are kept preloaded. */
+  public static final int DEFAULT_MAX_PRELOADED_ITEM_COUNT = 3;
+
+  /** A builder for {@link DefaultPreloadManager} instances. */
+  public static final class Builder {
+
+    private final Context context;
+    private final Looper preloadLooper;
+    @Nullable private MediaSource.Factory mediaSourceFactory;
+    @Nullable private TrackSelector trackSelector;
+    @Nullable private RenderersFactory renderersFactory;
+    @Nullable private BandwidthMeter bandwidthMeter;
+    @Nullable private Allocator allocator;
+    private long preloadDurationMs;
+    private int maxPreloadedItemCount;
+    private boolean buildCalled;
+
+    /**
+     * Creates a builder.
+     *
+     * @param context A {@link Context}.
+     * @param preloadLooper The {@link Looper} on which media is preloaded. This must be the
+     *     playback looper of the player that plays the preloaded media.
+     */
+    public Builder(Context context, Looper preloadLooper) {
+      this.context = context.getApplicationContext();
+      this.preloadLooper = preloadLooper;
+      preloadDurationMs = DEFAULT_PRELOAD_DURATION_MS;
+      maxPreloadedItemCount = DEFAULT_MAX_PRELOADED_ITEM_COUNT;
+    }
+
+    /**
+     * Sets the {@link MediaSource.Factory} used to create media sources for added {@link
+     * MediaItem MediaItems}. The default is a {@link DefaultMediaSourceFactory}.
+     *
+     * @param mediaSourceFactory A {@link MediaSource.Factory}.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setMediaSourceFactory(MediaSource.Factory mediaSourceFactory) {
+      checkState(!buildCalled);
+      this.mediaSourceFactory = mediaSourceFactory;
+      return this;
+    }
+
+    /**
+     * Sets the {@link TrackSelector} used to select the tracks to preload. The default is a {@link
+     * DefaultTrackSelector}. The track selector must not be used by a player.
+     *
+     * @param trackSelector A {@link TrackSelector}.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setTrackSelector(TrackSelector trackSelector) {
+      checkState(!buildCalled);
+      this.trackSelector = trackSelector;
+      return this;
+    }
+
+    /**
+     * Sets the {@link RenderersFactory} creating renderers like the ones of the player, whose
+     * capabilities are used to select the tracks to preload. The default is a {@link
+     * DefaultRenderersFactory}.
+     *
+     * @param renderersFactory A {@link RenderersFactory}.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setRenderersFactory(RenderersFactory renderersFactory) {
+      checkState(!buildCalled);
+      this.renderersFactory = renderersFactory;
+      return this;
+    }
+
+    /**
+     * Sets the {@link BandwidthMeter} informed of the preloaded media transfers. The default is the
+     * singleton {@link DefaultBandwidthMeter}, which is also the default of the player.
+     *
+     * @param bandwidthMeter A {@link BandwidthMeter}.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setBandwidthMeter(BandwidthMeter bandwidthMeter) {
+      checkState(!buildCalled);
+      this.bandwidthMeter = bandwidthMeter;
+      return this;
+    }
+
+    /**
+     * Sets the {@link Allocator} used by the preloaded media. This should be the allocator of the
+     * {@link com.google.android.exoplayer2.LoadControl} of the player. The default is a new {@link
+     * DefaultAllocator}.
+     *
+     * @param allocator An {@link Allocator}.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setAllocator(Allocator allocator) {
+      checkState(!buildCalled);
+      this.allocator = allocator;
+      return this;
+    }
+
+    /**
+     * Sets the duration of media to preload for each item. The default is {@link
+     * #DEFAULT_PRELOAD_DURATION_MS}.
+     *
+     * @param preloadDurationMs The duration to preload, in milliseconds.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setPreloadDurationMs(long preloadDurationMs) {
+      checkState(!buildCalled);
+      checkArgument(preloadDurationMs >= 0);
+      this.preloadDurationMs = preloadDurationMs;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of items that are kept preloaded. The default is {@link
+     * #DEFAULT_MAX_PRELOADED_ITEM_COUNT}.
+     *
+     * @param maxPreloadedItemCount The maximum number of preloaded items.
+     * @return This builder.
+     * @throws IllegalStateException If {@link #build()} has already been called.
+     */
+    @CanIgnoreReturnValue
+    public Builder setMaxPreloadedItemCount(int maxPreloadedItemCount) {
+      checkState(!buildCalled);
+      checkArgument(maxPreloadedItemCount >= 0);
+      this.maxPreloadedItemCount = maxPreloadedItemCount;
+      return this;
+    }
+
+    /**
+     * Builds a {@link DefaultPreloadManager}.
+     *
+     * @throws IllegalStateException If this method has already been called.
+     */
+    public DefaultPreloadManager build() {
+      checkState(!buildCalled);
+      buildCalled = true;
+      return new DefaultPreloadManager(this);
+    }
+  }
+
+  private static final String TAG = "DefaultPreloadManager";
+
+  private final MediaSource.Factory mediaSourceFactory;
+  private final TrackSelector trackSelector;
+  private final RenderersFactory renderersFactory;
+  private final BandwidthMeter bandwidthMeter;
+  private final Allocator allocator;
+  private final long preloadDurationUs;
+  private final int maxPreloadedItemCount;
+  private final Handler applicationHandler;
+  private final Handler preloadHandler;
+  private final PreloadMediaSource.Listener preloadListener;
+  private final List<Item> items;
+
+  private int currentPlayingIndex;
+  @Nullable private Item preloadingItem;
+  private boolean released;
+
+  // Accessed on the preload thread only.
+  private Renderer @MonotonicNonNull [] renderers;
+  private RendererCapabilities @MonotonicNonNull [] rendererCapabilities;
+
+  private DefaultPreloadManager(Builder builder) {
+    Context context = builder.context;
+    mediaSourceFactory =
+        builder.mediaSourceFactory != null
+            ? builder.mediaSourceFactory
+            : new DefaultMediaSourceFactory(context);
+    trackSelector =
+        builder.trackSelector != null ? builder.trackSelector : new DefaultTrackSelector(context);
+    renderersFactory =
+        builder.renderersFactory != null
+            ? builder.renderersFactory
+            : new DefaultRenderersFactory(context);
+    bandwidthMeter =
+        builder.bandwidthMeter != null
+            ? builder.bandwidthMeter
+            : DefaultBandwidthMeter.getSingletonInstance(context);
+    allocator =
+        builder.allocator != null
+            ? builder.allocator
+            : new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+    preloadDurationUs = Util.msToUs(builder.preloadDurationMs);
+    maxPreloadedItemCount = builder.maxPreloadedItemCount;
+    applicationHandler = Util.createHandlerForCurrentOrMainLooper();
+    preloadHandler = new Handler(builder.preloadLooper);
+    preloadListener = new PreloadListener();
+    items = new ArrayList<>();
+    currentPlayingIndex = C.INDEX_UNSET;
+    trackSelector.init(/* listener= */ () -> {}, bandwidthMeter);
+  }
+
+  /**
+   * Adds a {@link MediaItem}, using a {@link MediaSource} created by the {@link
+   * MediaSource.Factory}.
+   *
+   * <p>The item is not preloaded before the next call to {@link #invalidate()}.
+   *
+   * @param mediaItem The {@link MediaItem}.
+   * @param rankingIndex The ranking index of the item, usually its index in the playlist.
+   */
+  public void add(MediaItem mediaItem, int rankingIndex) {
+    add(mediaSourceFactory.createMediaSource(mediaItem), rankingIndex);
+  }
+
+  /**
+   * Adds a {@link MediaSource}.
+   *
+   * <p>The item is not preloaded before the next call to {@link #invalidate()}.
+   *
+   * @param mediaSource The {@link MediaSource}.
+   * @param rankingIndex The ranking index of the item, usually its index in the playlist.
+   */
+  public void add(MediaSource mediaSource, int rankingIndex) {
+    checkState(!released);
+    PreloadMediaSource preloadMediaSource =
+        new PreloadMediaSource(
+            mediaSource,
+            preloadHandler,
+            allocator,
+            trackSelector,
+            this::getRendererCapabilities,
+            bandwidthMeter,
+            preloadDurationUs,
+            preloadListener);
+    items.add(new Item(preloadMediaSource, rankingIndex));
+  }
+
+  /**
+   * Removes a {@link MediaItem} and releases its preloaded media, unless the media is used by a
+   * player.
+   *
+   * @param mediaItem The {@link MediaItem} to remove.
+   * @return Whether the item was found and removed.
+   */
+  public boolean remove(MediaItem mediaItem) {
+    @Nullable Item item = getItem(mediaItem);
+    if (item == null) {
+      return false;
+    }
+    items.remove(item);
+    clearPreload(item);
+    return true;
+  }
+
+  /**
+   * Returns the {@link MediaSource} to play a {@link MediaItem}, or null if the item was not
+   * added.
+   */
+  @Nullable
+  public MediaSource getMediaSource(MediaItem mediaItem) {
+    @Nullable Item item = getItem(mediaItem);
+    return item != null ? item.mediaSource : null;
+  }
+
+  /** Returns the number of added items. */
+  public int size() {
+    return items.size();
+  }
+
+  /**
+   * Sets the ranking index of the item that is currently played, or {@link C#INDEX_UNSET} if none.
+   *
+   * <p>The current item is never preloaded, as it is loaded by the player. The new index is used
+   * from the next call to {@link #invalidate()}.
+   */
+  public void setCurrentPlayingIndex(int currentPlayingIndex) {
+    this.currentPlayingIndex = currentPlayingIndex;
+  }
+
+  /**
+   * Updates which items are preloaded, according to their distance from the current playing index.
+   */
+  public void invalidate() {
+    checkState(!released);
+    List<Item> preloadTargets = getPreloadTargets();
+    for (int i = 0; i < items.size(); i++) {
+      Item item = items.get(i);
+      if (item.preloadRequested
+          && item.rankingIndex != currentPlayingIndex
+          && !preloadTargets.contains(item)) {
+        clearPreload(item);
+      }
+    }
+    if (preloadingItem != null && !preloadTargets.contains(preloadingItem)) {
+      preloadingItem = null;
+    }
+    maybePreloadNextItem(preloadTargets);
+  }
+
+  /** Releases all preloaded media and the manager. The manager must not be used afterwards. */
+  public void release() {
+    if (released) {
+      return;
+    }
+    released = true;
+    for (int i = 0; i < items.size(); i++) {
+      clearPreload(items.get(i));
+    }
+    items.clear();
+    preloadingItem = null;
+    preloadHandler.post(
+        () -> {
+          if (renderers != null) {
+            for (Renderer renderer : renderers) {
+              renderer.release();
+            }
+          }
+          trackSelector.release();
+        });
+    applicationHandler.removeCallbacksAndMessages(/* token= */ null);
+  }
+
+  private List<Item> getPreloadTargets() {
+    List<Item> candidates = new ArrayList<>();
+    for (int i = 0; i < items.size(); i++) {
+      Item item = items.get(i);
+      if (item.rankingIndex != currentPlayingIndex) {
+        candidates.add(item);
+      }
+    }
+    if (currentPlayingIndex != C.INDEX_UNSET) {
+      Collections.sort(candidates, this::comparePriority);
+    } else {
+      Collections.sort(candidates, (item1, item2) -> item1.rankingIndex - item2.rankingIndex);
+    }
+    return candidates.size() > maxPreloadedItemCount
+        ? candidates.subList(0, maxPreloadedItemCount)
+        : candidates;
+  }
+
+  private int comparePriority(Item item1, Item item2) {
+    int distance1 = abs(item1.rankingIndex - currentPlayingIndex);
+    int distance2 = abs(item2.rankingIndex - currentPlayingIndex);
+    if (distance1 != distance2) {
+      return distance1 - distance2;
+    }
+    // Prefer the item after the current one.
+    return item2.rankingIndex - item1.rankingIndex;
+  }
+
+  private void maybePreloadNextItem(List<Item> preloadTargets) {
+    if (preloadingItem != null) {
+      return;
+    }
+    for (int i = 0; i < preloadTargets.size(); i++) {
+      Item item = preloadTargets.get(i);
+      if (!item.preloadRequested) {
+        item.preloadRequested = true;
+        preloadingItem = item;
+        PreloadMediaSource mediaSource = item.mediaSource;
+        preloadHandler.post(() -> mediaSource.preload(/* startPositionUs= */ C.TIME_UNSET));
+        return;
+      }
+    }
+  }
+
+  private void clearPreload(Item item) {
+    if (item == preloadingItem) {
+      preloadingItem = null;
+    }
+    if (item.preloadRequested) {
+      item.preloadRequested = false;
+      PreloadMediaSource mediaSource = item.mediaSource;
+      preloadHandler.post(mediaSource::clear);
+    }
+  }
+
+  private void onPreloadFinished(PreloadMediaSource mediaSource) {
+    if (released || preloadingItem == null || preloadingItem.mediaSource != mediaSource) {
+      return;
+    }
+    preloadingItem = null;
+    maybePreloadNextItem(getPreloadTargets());
+  }
+
+  private void onPreloadStateReset(PreloadMediaSource mediaSource) {
+    if (released) {
+      return;
+    }
+    @Nullable Item item = getItem(mediaSource);
+    if (item == null || !item.preloadRequested) {
+      return;
+    }
+    // The player uses or has discarded the preloaded media, so the item is preloaded again the next
+    // time it becomes a preload target.
+    item.preloadRequested = false;
+    if (item == preloadingItem) {
+      preloadingItem = null;
+      maybePreloadNextItem(getPreloadTargets());
+    }
+  }
+
+  @Nullable
+  private Item getItem(PreloadMediaSource mediaSource) {
+    for (int i = 0; i < items.size(); i++) {
+      Item item = items.get(i);
+      if (item.mediaSource == mediaSource) {
+        return item;
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private Item getItem(MediaItem mediaItem) {
+    for (int i = 0; i < items.size(); i++) {
+      Item item = items.get(i);
+      if (item.mediaSource.getMediaItem().equals(mediaItem)) {
+        return item;
+      }
+    }
+    return null;
+  }
+
+  private RendererCapabilities[] getRendererCapabilities() {
+    if (rendererCapabilities == null) {
+      renderers =
+          renderersFactory.createRenderers(
+              preloadHandler,
+              new VideoRendererEventListener() {},
+              new AudioRendererEventListener() {},
+              /* textRendererOutput= */ cueGroup -> {},
+              /* metadataRendererOutput= */ metadata -> {});
+      rendererCapabilities = new RendererCapabilities[renderers.length];
+      for (int i = 0; i < renderers.length; i++) {
+        rendererCapabilities[i] = renderers[i].getCapabilities();
+      }
+    }
+    return rendererCapabilities;
+  }
+
+  private final class PreloadListener implements PreloadMediaSource.Listener {
+
+    @Override
+    public void onPreloadCompleted(PreloadMediaSource mediaSource) {
+      applicationHandler.post(() -> onPreloadFinished(mediaSource));
+    }
+
+    @Override
+    public void onPreloadError(PreloadMediaSource mediaSource, Exception error) {
+      Log.w(TAG, "Preloading failed: " + mediaSource.getMediaItem().mediaId, error);
+      applicationHandler.post(() -> onPreloadFinished(mediaSource));
+    }
+
+    @Override
+    public void onPreloadedPeriodRemoved(PreloadMediaSource mediaSource) {
+      applicationHandler.post(() -> onPreloadStateReset(mediaSource));
+    }
+  }
+
+  private static final class Item {
+
+    public final PreloadMediaSource mediaSource;
+    public final int rankingIndex;
+
+    public boolean preloadRequested;
+
+    public Item(PreloadMediaSource mediaSource, int rankingIndex) {
+      this.mediaSource = mediaSource;
+      this.rankingIndex = rankingIndex;
+    }
+  }
+}
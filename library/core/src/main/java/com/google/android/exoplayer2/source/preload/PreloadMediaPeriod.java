@@ -0,0 +1,280 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.preload;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.SeekParameters;
+import com.google.android.exoplayer2.source.MediaPeriod;
+import com.google.android.exoplayer2.source.SampleStream;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import java.io.IOException;
+import org.checkerframework.checker.nullness.compatqual.NullableType;
+
+/**
+ * A {@link MediaPeriod} that wraps a period that is prepared and loaded by a {@link
+ * PreloadMediaSource} before it is handed over to a player.
+ *
+ * <p>If the period is already prepared when the player {@linkplain #prepare(Callback, long)
+ * prepares} it, preparation completes immediately. The streams created for the preloaded track
+ * selection are handed over to the player if the player selects equivalent tracks, so that the
+ * buffered media is kept.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+/* package */ final class PreloadMediaPeriod implements MediaPeriod, MediaPeriod.Callback {
+
+  /** The wrapped {@link MediaPeriod}. */
+  public final MediaPeriod mediaPeriod;
+
+  @Nullable private Callback callback;
+  private boolean prepareCalled;
+  private boolean prepared;
+  private @NullableType ExoTrackSelection @Nullable [] preloadSelections;
+  private @NullableType SampleStream @Nullable [] preloadStreams;
+  private long preloadTrackSelectionRequestedPositionUs;
+  private long preloadTrackSelectionPositionUs;
+
+  /**
+   * Creates an instance.
+   *
+   * @param mediaPeriod The {@link MediaPeriod} to wrap.
+   */
+  public PreloadMediaPeriod(MediaPeriod mediaPeriod) {
+    this.mediaPeriod = mediaPeriod;
+  }
+
+  /** Returns whether the period is prepared. */
+  public boolean isPrepared() {
+    return prepared;
+  }
+
+  /**
+   * Selects tracks for preloading. The created streams are kept until the player selects tracks.
+   *
+   * <p>The selections are enabled until the player selects tracks or {@link
+   * #releasePreloadSelections()} is called.
+   *
+   * @param selections The track selections, one per renderer.
+   * @param positionUs The position at which to select tracks, in microseconds.
+   * @return The actual position at which the tracks were selected, in microseconds.
+   */
+  public long selectTracksForPreload(
+      @NullableType ExoTrackSelection[] selections, long positionUs) {
+    @NullableType SampleStream[] streams = new SampleStream[selections.length];
+    preloadTrackSelectionRequestedPositionUs = positionUs;
+    positionUs =
+        mediaPeriod.selectTracks(
+            selections,
+            /* mayRetainStreamFlags= */ new boolean[selections.length],
+            streams,
+            /* streamResetFlags= */ new boolean[selections.length],
+            positionUs);
+    for (@Nullable ExoTrackSelection selection : selections) {
+      if (selection != null) {
+        selection.enable();
+      }
+    }
+    preloadSelections = selections;
+    preloadStreams = streams;
+    preloadTrackSelectionPositionUs = positionUs;
+    return positionUs;
+  }
+
+  /**
+   * Disables the selections made by {@link #selectTracksForPreload}, if they haven't been replaced
+   * by a player's selection yet. Must be called before the wrapped period is released without
+   * being handed over.
+   */
+  public void releasePreloadSelections() {
+    @NullableType ExoTrackSelection @Nullable [] preloadSelections = this.preloadSelections;
+    this.preloadStreams = null;
+    this.preloadSelections = null;
+    if (preloadSelections != null) {
+      disable(preloadSelections);
+    }
+  }
+
+  /** Stops forwarding events to the callback used for preloading, until the next preparation. */
+  public void clearCallback() {
+    callback = null;
+  }
+
+  @Override
+  public void prepare(Callback callback, long positionUs) {
+    this.callback = callback;
+    if (prepared) {
+      callback.onPrepared(this);
+    } else if (!prepareCalled) {
+      prepareCalled = true;
+      mediaPeriod.prepare(/* callback= */ this, positionUs);
+    }
+  }
+
+  @Override
+  public void maybeThrowPrepareError() throws IOException {
+    mediaPeriod.maybeThrowPrepareError();
+  }
+
+  @Override
+  public TrackGroupArray getTrackGroups() {
+    return mediaPeriod.getTrackGroups();
+  }
+
+  @Override
+  public long selectTracks(
+      @NullableType ExoTrackSelection[] selections,
+      boolean[] mayRetainStreamFlags,
+      @NullableType SampleStream[] streams,
+      boolean[] streamResetFlags,
+      long positionUs) {
+    @NullableType SampleStream @Nullable [] preloadStreams = this.preloadStreams;
+    @NullableType ExoTrackSelection @Nullable [] preloadSelections = this.preloadSelections;
+    if (preloadStreams == null || preloadSelections == null) {
+      return mediaPeriod.selectTracks(
+          selections, mayRetainStreamFlags, streams, streamResetFlags, positionUs);
+    }
+    this.preloadStreams = null;
+    this.preloadSelections = null;
+    if (preloadStreams.length != streams.length
+        || positionUs != preloadTrackSelectionRequestedPositionUs) {
+      // The preloaded streams can't be handed over. Release them before selecting tracks.
+      mediaPeriod.selectTracks(
+          new ExoTrackSelection[preloadStreams.length],
+          /* mayRetainStreamFlags= */ new boolean[preloadStreams.length],
+          preloadStreams,
+          /* streamResetFlags= */ new boolean[preloadStreams.length],
+          preloadTrackSelectionPositionUs);
+      disable(preloadSelections);
+      return mediaPeriod.selectTracks(
+          selections, mayRetainStreamFlags, streams, streamResetFlags, positionUs);
+    }
+    // Hand over the preloaded streams of equivalent selections, and let the wrapped period release
+    // the others. As for any retained stream, the wrapped period switches a handed over stream to
+    // the player's selection, so the preload selections can be disabled afterwards.
+    boolean[] retainPreloadStreamFlags = new boolean[streams.length];
+    for (int i = 0; i < streams.length; i++) {
+      if (streams[i] != null || preloadStreams[i] == null) {
+        retainPreloadStreamFlags[i] = mayRetainStreamFlags[i];
+        continue;
+      }
+      streams[i] = preloadStreams[i];
+      retainPreloadStreamFlags[i] = isEquivalent(selections[i], preloadSelections[i]);
+    }
+    positionUs =
+        mediaPeriod.selectTracks(
+            selections, retainPreloadStreamFlags, streams, streamResetFlags, positionUs);
+    for (int i = 0; i < streams.length; i++) {
+      if (streams[i] != null && streams[i] == preloadStreams[i]) {
+        // The stream is new to the player.
+        streamResetFlags[i] = true;
+      }
+    }
+    disable(preloadSelections);
+    return positionUs;
+  }
+
+  @Override
+  public void discardBuffer(long positionUs, boolean toKeyframe) {
+    mediaPeriod.discardBuffer(positionUs, toKeyframe);
+  }
+
+  @Override
+  public long readDiscontinuity() {
+    return mediaPeriod.readDiscontinuity();
+  }
+
+  @Override
+  public long seekToUs(long positionUs) {
+    return mediaPeriod.seekToUs(positionUs);
+  }
+
+  @Override
+  public long getAdjustedSeekPositionUs(long positionUs, SeekParameters seekParameters) {
+    return mediaPeriod.getAdjustedSeekPositionUs(positionUs, seekParameters);
+  }
+
+  @Override
+  public long getBufferedPositionUs() {
+    return mediaPeriod.getBufferedPositionUs();
+  }
+
+  @Override
+  public long getNextLoadPositionUs() {
+    return mediaPeriod.getNextLoadPositionUs();
+  }
+
+  @Override
+  public boolean continueLoading(long positionUs) {
+    return mediaPeriod.continueLoading(positionUs);
+  }
+
+  @Override
+  public boolean isLoading() {
+    return mediaPeriod.isLoading();
+  }
+
+  @Override
+  public void reevaluateBuffer(long positionUs) {
+    mediaPeriod.reevaluateBuffer(positionUs);
+  }
+
+  // MediaPeriod.Callback implementation
+
+  @Override
+  public void onPrepared(MediaPeriod mediaPeriod) {
+    prepared = true;
+    if (callback != null) {
+      callback.onPrepared(this);
+    }
+  }
+
+  @Override
+  public void onContinueLoadingRequested(MediaPeriod source) {
+    if (callback != null) {
+      callback.onContinueLoadingRequested(this);
+    }
+  }
+
+  private static void disable(@NullableType ExoTrackSelection[] selections) {
+    for (@Nullable ExoTrackSelection selection : selections) {
+      if (selection != null) {
+        selection.disable();
+      }
+    }
+  }
+
+  private static boolean isEquivalent(
+      @Nullable ExoTrackSelection selection, @Nullable ExoTrackSelection preloadSelection) {
+    if (selection == null || preloadSelection == null) {
+      return selection == preloadSelection;
+    }
+    if (!selection.getTrackGroup().equals(preloadSelection.getTrackGroup())
+        || selection.length() != preloadSelection.length()) {
+      return false;
+    }
+    for (int i = 0; i < selection.length(); i++) {
+      if (selection.getIndexInTrackGroup(i) != preloadSelection.getIndexInTrackGroup(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.preload;
+
+import android.os.Handler;
+import android.util.Pair;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.RendererCapabilities;
+import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.analytics.PlayerId;
+import com.google.android.exoplayer2.source.MediaPeriod;
+import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.WrappingMediaSource;
+import com.google.android.exoplayer2.trackselection.TrackSelector;
+import com.google.android.exoplayer2.trackselection.TrackSelectorResult;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.common.base.Supplier;
+import java.io.IOException;
+
+/**
+ * A {@link MediaSource} that can prepare its media and buffer the start of it before it is used by
+ * a player.
+ *
+ * <p>A call to {@link #preload(long)} prepares the source, creates and prepares the {@link
+ * MediaPeriod} at the requested position in the first window, selects tracks for it and loads
+ * media until the preload duration is buffered. The source registers itself as an additional
+ * caller of the wrapped source for this, so that a player that later prepares this source receives
+ * the timeline immediately. If the player creates the preloaded period at the same position, the
+ * period and its buffered media are handed over to the player. Once the preloaded period is handed
+ * over, or released because the player created a different one, the source can be preloaded again.
+ *
+ * <p>Except for {@link #getInitialTimeline()}, all methods must be called on the preload thread,
+ * which must be the playback thread of the player that uses this source.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+/* package */ final class PreloadMediaSource extends WrappingMediaSource {
+
+  /** Receives the results of preloading. Called on the preload thread. */
+  public interface Listener {
+
+    /** Called when the preload duration is buffered, or the end of the source is reached. */
+    void onPreloadCompleted(PreloadMediaSource mediaSource);
+
+    /** Called when preloading failed. Preloading is stopped when this method is called. */
+    void onPreloadError(PreloadMediaSource mediaSource, Exception error);
+
+    /**
+     * Called when the preloaded period was handed over to a player, or released because the player
+     * created a different period. The source can be preloaded again after this method is called.
+     */
+    void onPreloadedPeriodRemoved(PreloadMediaSource mediaSource);
+  }
+
+  private static final long CHECK_FOR_PRELOAD_ERROR_INTERVAL_MS = 100;
+
+  private final Handler preloadHandler;
+  private final Allocator allocator;
+  private final TrackSelector trackSelector;
+  private final Supplier<RendererCapabilities[]> rendererCapabilitiesSupplier;
+  private final BandwidthMeter bandwidthMeter;
+  private final long preloadDurationUs;
+  private final Listener listener;
+  private final MediaSourceCaller preloadCaller;
+  private final MediaPeriod.Callback preloadPeriodCallback;
+  private final Runnable checkForPreloadErrorRunnable;
+
+  private boolean preloadSourcePrepared;
+  private long pendingStartPositionUs;
+  @Nullable private volatile Timeline timeline;
+  private boolean preloadPeriodCreated;
+  @Nullable private PreloadMediaPeriod preloadPeriod;
+  @Nullable private MediaPeriodId preloadPeriodId;
+  private long preloadPeriodRequestedStartPositionUs;
+  private long preloadPeriodStartPositionUs;
+  private boolean preloadCompleted;
+
+  /**
+   * Creates an instance.
+   *
+   * @param mediaSource The wrapped {@link MediaSource}.
+   * @param preloadHandler A {@link Handler} on the preload thread.
+   * @param allocator The {@link Allocator} used by the preloaded {@link MediaPeriod}.
+   * @param trackSelector The initialized {@link TrackSelector} used to select the tracks to
+   *     preload.
+   * @param rendererCapabilitiesSupplier Supplies the capabilities of the renderers of the player,
+   *     on the preload thread.
+   * @param bandwidthMeter The {@link BandwidthMeter} informed of the preloaded media transfers.
+   * @param preloadDurationUs The duration to buffer, in microseconds.
+   * @param listener The {@link Listener}.
+   */
+  public PreloadMediaSource(
+      MediaSource mediaSource,
+      Handler preloadHandler,
+      Allocator allocator,
+      TrackSelector trackSelector,
+      Supplier<RendererCapabilities[]> rendererCapabilitiesSupplier,
+      BandwidthMeter bandwidthMeter,
+      long preloadDurationUs,
+      Listener listener) {
+    super(mediaSource);
+    this.preloadHandler = preloadHandler;
+    this.allocator = allocator;
+    this.trackSelector = trackSelector;
+    this.rendererCapabilitiesSupplier = rendererCapabilitiesSupplier;
+    this.bandwidthMeter = bandwidthMeter;
+    this.preloadDurationUs = preloadDurationUs;
+    this.listener = listener;
+    preloadCaller = (source, timeline) -> onPreloadSourceInfoRefreshed(timeline);
+    preloadPeriodCallback = new PreloadPeriodCallback();
+    checkForPreloadErrorRunnable = this::checkForPreloadError;
+    pendingStartPositionUs = C.TIME_UNSET;
+    preloadPeriodRequestedStartPositionUs = C.TIME_UNSET;
+    preloadPeriodStartPositionUs = C.TIME_UNSET;
+  }
+
+  /**
+   * Starts preloading, if not already started.
+   *
+   * @param startPositionUs The position in the window to preload from, in microseconds, or {@link
+   *     C#TIME_UNSET} to preload from the default position.
+   */
+  public void preload(long startPositionUs) {
+    if (preloadPeriodCreated) {
+      return;
+    }
+    pendingStartPositionUs = startPositionUs;
+    preloadHandler.removeCallbacks(checkForPreloadErrorRunnable);
+    if (!preloadSourcePrepared) {
+      preloadSourcePrepared = true;
+      prepareSource(preloadCaller, bandwidthMeter.getTransferListener(), PlayerId.UNSET);
+    } else {
+      // The source is still prepared after the previously preloaded period was removed.
+      @Nullable Timeline timeline = this.timeline;
+      if (timeline != null) {
+        onPreloadSourceInfoRefreshed(timeline);
+      }
+    }
+    preloadHandler.postDelayed(checkForPreloadErrorRunnable, CHECK_FOR_PRELOAD_ERROR_INTERVAL_MS);
+  }
+
+  /** Returns whether the preload duration is buffered. */
+  public boolean isPreloadCompleted() {
+    return preloadCompleted;
+  }
+
+  /**
+   * Stops preloading and releases the preloaded period. The prepared source is released as well
+   * unless it is used by a player.
+   */
+  public void clear() {
+    preloadHandler.removeCallbacks(checkForPreloadErrorRunnable);
+    releasePreloadPeriod();
+    preloadPeriodCreated = false;
+    preloadCompleted = false;
+    if (preloadSourcePrepared) {
+      preloadSourcePrepared = false;
+      releaseSource(preloadCaller);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Returns the timeline of the wrapped source once it is prepared, so that a player can use it
+   * without waiting for its own preparation. May be called on any thread.
+   */
+  @Nullable
+  @Override
+  public Timeline getInitialTimeline() {
+    @Nullable Timeline timeline = this.timeline;
+    return timeline != null ? timeline : super.getInitialTimeline();
+  }
+
+  @Override
+  protected void onChildSourceInfoRefreshed(Timeline newTimeline) {
+    timeline = newTimeline;
+    refreshSourceInfo(newTimeline);
+  }
+
+  @Override
+  public MediaPeriod createPeriod(MediaPeriodId id, Allocator allocator, long startPositionUs) {
+    @Nullable PreloadMediaPeriod preloadPeriod = this.preloadPeriod;
+    @Nullable MediaPeriodId preloadPeriodId = this.preloadPeriodId;
+    if (preloadPeriod != null && preloadPeriodId != null) {
+      this.preloadPeriod = null;
+      this.preloadPeriodId = null;
+      preloadHandler.removeCallbacks(checkForPreloadErrorRunnable);
+      if (!id.isAd()
+          && id.periodUid.equals(preloadPeriodId.periodUid)
+          && startPositionUs == preloadPeriodRequestedStartPositionUs) {
+        // Hand over the preloaded period. The player asks for the position the period was created
+        // at, not the one the preload track selection may have adjusted it to. The period stops
+        // forwarding events to the preload callback once the player prepares it.
+        preloadPeriod.clearCallback();
+        onPreloadedPeriodRemoved();
+        return preloadPeriod;
+      }
+      preloadPeriod.releasePreloadSelections();
+      mediaSource.releasePeriod(preloadPeriod.mediaPeriod);
+      onPreloadedPeriodRemoved();
+    }
+    return mediaSource.createPeriod(id, allocator, startPositionUs);
+  }
+
+  @Override
+  public void releasePeriod(MediaPeriod mediaPeriod) {
+    if (mediaPeriod instanceof PreloadMediaPeriod) {
+      mediaPeriod = ((PreloadMediaPeriod) mediaPeriod).mediaPeriod;
+    }
+    mediaSource.releasePeriod(mediaPeriod);
+  }
+
+  @Override
+  protected void releaseSourceInternal() {
+    timeline = null;
+    super.releaseSourceInternal();
+  }
+
+  private void onPreloadSourceInfoRefreshed(Timeline timeline) {
+    if (preloadPeriodCreated || timeline.isEmpty()) {
+      return;
+    }
+    preloadPeriodCreated = true;
+    // Preload the window a player starts playing this source in.
+    Pair<Object, Long> periodPosition =
+        timeline.getPeriodPositionUs(
+            new Timeline.Window(),
+            new Timeline.Period(),
+            timeline.getFirstWindowIndex(/* shuffleModeEnabled= */ false),
+            pendingStartPositionUs);
+    MediaPeriodId periodId = new MediaPeriodId(periodPosition.first);
+    long periodPositionUs = periodPosition.second;
+    PreloadMediaPeriod preloadPeriod =
+        new PreloadMediaPeriod(mediaSource.createPeriod(periodId, allocator, periodPositionUs));
+    this.preloadPeriod = preloadPeriod;
+    this.preloadPeriodId = periodId;
+    preloadPeriodRequestedStartPositionUs = periodPositionUs;
+    preloadPeriodStartPositionUs = periodPositionUs;
+    preloadPeriod.prepare(preloadPeriodCallback, periodPositionUs);
+  }
+
+  private void onPreloadPeriodPrepared(PreloadMediaPeriod preloadPeriod) {
+    @Nullable Timeline timeline = this.timeline;
+    @Nullable MediaPeriodId preloadPeriodId = this.preloadPeriodId;
+    if (timeline == null || preloadPeriodId == null) {
+      return;
+    }
+    TrackSelectorResult trackSelectorResult;
+    try {
+      trackSelectorResult =
+          trackSelector.selectTracks(
+              rendererCapabilitiesSupplier.get(),
+              preloadPeriod.getTrackGroups(),
+              preloadPeriodId,
+              timeline);
+    } catch (ExoPlaybackException e) {
+      stopPreloadWithError(e);
+      return;
+    }
+    preloadPeriodStartPositionUs =
+        preloadPeriod.selectTracksForPreload(
+            trackSelectorResult.selections, preloadPeriodStartPositionUs);
+    continuePreloading(preloadPeriod);
+  }
+
+  private void continuePreloading(PreloadMediaPeriod preloadPeriod) {
+    long bufferedPositionUs = preloadPeriod.getBufferedPositionUs();
+    if (bufferedPositionUs == C.TIME_END_OF_SOURCE
+        || bufferedPositionUs - preloadPeriodStartPositionUs >= preloadDurationUs) {
+      preloadCompleted = true;
+      preloadHandler.removeCallbacks(checkForPreloadErrorRunnable);
+      listener.onPreloadCompleted(this);
+      return;
+    }
+    preloadPeriod.continueLoading(preloadPeriodStartPositionUs);
+  }
+
+  private void checkForPreloadError() {
+    try {
+      maybeThrowSourceInfoRefreshError();
+      if (preloadPeriod != null) {
+        preloadPeriod.maybeThrowPrepareError();
+      }
+    } catch (IOException e) {
+      stopPreloadWithError(e);
+      return;
+    }
+    preloadHandler.postDelayed(checkForPreloadErrorRunnable, CHECK_FOR_PRELOAD_ERROR_INTERVAL_MS);
+  }
+
+  private void stopPreloadWithError(Exception error) {
+    clear();
+    listener.onPreloadError(this, error);
+  }
+
+  private void onPreloadedPeriodRemoved() {
+    preloadPeriodCreated = false;
+    preloadCompleted = false;
+    listener.onPreloadedPeriodRemoved(this);
+  }
+
+  private void releasePreloadPeriod() {
+    @Nullable PreloadMediaPeriod preloadPeriod = this.preloadPeriod;
+    if (preloadPeriod != null) {
+      this.preloadPeriod = null;
+      this.preloadPeriodId = null;
+      preloadPeriod.clearCallback();
+      preloadPeriod.releasePreloadSelections();
+      mediaSource.releasePeriod(preloadPeriod.mediaPeriod);
+    }
+  }
+
+  private final class PreloadPeriodCallback implements MediaPeriod.Callback {
+
+    @Override
+    public void onPrepared(MediaPeriod mediaPeriod) {
+      if (mediaPeriod == preloadPeriod) {
+        onPreloadPeriodPrepared((PreloadMediaPeriod) mediaPeriod);
+      }
+    }
+
+    @Override
+    public void onContinueLoadingRequested(MediaPeriod mediaPeriod) {
+      if (mediaPeriod == preloadPeriod && !preloadCompleted) {
+        continuePreloading((PreloadMediaPeriod) mediaPeriod);
+      }
+    }
+  }
+}
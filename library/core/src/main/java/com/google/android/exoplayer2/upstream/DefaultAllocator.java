@@ -20,12 +20,16 @@ import static java.lang.Math.max;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.Util;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import org.checkerframework.checker.nullness.compatqual.NullableType;
 
 /**
  * Default implementation of {@link Allocator}.
  *
+ * <p>The allocator is thread-safe. Locking is limited to the pool of available allocations, so new
+ * allocations are created and {@link #getTotalBytesAllocated()} is read without holding the lock.
+ *
  * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
  *     contains the same ExoPlayer code). See <a
  *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
@@ -39,9 +43,11 @@ public final class DefaultAllocator implements Allocator {
   private final boolean trimOnReset;
   private final int individualAllocationSize;
   @Nullable private final byte[] initialAllocationBlock;
+  @Nullable private final ByteBuffer initialAllocationBuffer;
 
   private int targetBufferSize;
-  private int allocatedCount;
+  // Only modified whilst holding the lock, but may be read without it.
+  private volatile int allocatedCount;
   private int availableCount;
   private @NullableType Allocation[] availableAllocations;
 
@@ -68,20 +74,59 @@ public final class DefaultAllocator implements Allocator {
    */
   public DefaultAllocator(
       boolean trimOnReset, int individualAllocationSize, int initialAllocationCount) {
+    this(
+        trimOnReset,
+        individualAllocationSize,
+        initialAllocationCount,
+        /* useDirectMemoryForInitialAllocations= */ false);
+  }
+
+  /**
+   * Constructs an instance with some {@link Allocation}s created up front, optionally backed by a
+   * single direct {@link ByteBuffer}.
+   *
+   * <p>Direct memory is not part of the Java heap, so if {@code initialAllocationCount} covers the
+   * target buffer size, the heap footprint of buffered media is independent of the buffer size.
+   * Allocations beyond the initial ones are backed by heap arrays.
+   *
+   * <p>Note: {@link Allocation}s created up front will never be discarded by {@link #trim()}.
+   *
+   * @param trimOnReset Whether memory is freed when the allocator is reset. Should be true unless
+   *     the allocator will be re-used by multiple player instances.
+   * @param individualAllocationSize The length of each individual {@link Allocation}.
+   * @param initialAllocationCount The number of allocations to create up front.
+   * @param useDirectMemoryForInitialAllocations Whether the allocations created up front are
+   *     backed by a direct {@link ByteBuffer} rather than by a heap array.
+   */
+  public DefaultAllocator(
+      boolean trimOnReset,
+      int individualAllocationSize,
+      int initialAllocationCount,
+      boolean useDirectMemoryForInitialAllocations) {
     Assertions.checkArgument(individualAllocationSize > 0);
     Assertions.checkArgument(initialAllocationCount >= 0);
     this.trimOnReset = trimOnReset;
     this.individualAllocationSize = individualAllocationSize;
     this.availableCount = initialAllocationCount;
     this.availableAllocations = new Allocation[initialAllocationCount + AVAILABLE_EXTRA_CAPACITY];
-    if (initialAllocationCount > 0) {
+    if (initialAllocationCount > 0 && useDirectMemoryForInitialAllocations) {
+      initialAllocationBlock = null;
+      initialAllocationBuffer =
+          ByteBuffer.allocateDirect(initialAllocationCount * individualAllocationSize);
+      for (int i = 0; i < initialAllocationCount; i++) {
+        int allocationOffset = i * individualAllocationSize;
+        availableAllocations[i] = new Allocation(initialAllocationBuffer, allocationOffset);
+      }
+    } else if (initialAllocationCount > 0) {
       initialAllocationBlock = new byte[initialAllocationCount * individualAllocationSize];
+      initialAllocationBuffer = null;
       for (int i = 0; i < initialAllocationCount; i++) {
         int allocationOffset = i * individualAllocationSize;
         availableAllocations[i] = new Allocation(initialAllocationBlock, allocationOffset);
       }
     } else {
       initialAllocationBlock = null;
+      initialAllocationBuffer = null;
     }
   }
 
@@ -100,14 +145,14 @@ public final class DefaultAllocator implements Allocator {
   }
 
   @Override
-  public synchronized Allocation allocate() {
-    allocatedCount++;
-    Allocation allocation;
-    if (availableCount > 0) {
-      allocation = Assertions.checkNotNull(availableAllocations[--availableCount]);
-      availableAllocations[availableCount] = null;
-    } else {
-      allocation = new Allocation(new byte[individualAllocationSize], 0);
+  public Allocation allocate() {
+    synchronized (this) {
+      allocatedCount++;
+      if (availableCount > 0) {
+        Allocation allocation = Assertions.checkNotNull(availableAllocations[--availableCount]);
+        availableAllocations[availableCount] = null;
+        return allocation;
+      }
       if (allocatedCount > availableAllocations.length) {
         // Make availableAllocations be large enough to contain all allocations made by this
         // allocator so that release() does not need to grow the availableAllocations array. See
@@ -115,7 +160,9 @@ public final class DefaultAllocator implements Allocator {
         availableAllocations = Arrays.copyOf(availableAllocations, availableAllocations.length * 2);
       }
     }
-    return allocation;
+    // Create the backing array without holding the lock, so that threads releasing allocations
+    // or querying the allocated size are not blocked.
+    return new Allocation(new byte[individualAllocationSize], 0);
   }
 
   @Override
@@ -146,7 +193,7 @@ public final class DefaultAllocator implements Allocator {
       return;
     }
 
-    if (initialAllocationBlock != null) {
+    if (initialAllocationBlock != null || initialAllocationBuffer != null) {
       // Some allocations are backed by an initial block. We need to make sure that we hold onto all
       // such allocations. Re-order the available allocations so that the ones backed by the initial
       // block come first.
@@ -154,11 +201,11 @@ public final class DefaultAllocator implements Allocator {
       int highIndex = availableCount - 1;
       while (lowIndex <= highIndex) {
         Allocation lowAllocation = Assertions.checkNotNull(availableAllocations[lowIndex]);
-        if (lowAllocation.data == initialAllocationBlock) {
+        if (isInitialAllocation(lowAllocation)) {
           lowIndex++;
         } else {
           Allocation highAllocation = Assertions.checkNotNull(availableAllocations[highIndex]);
-          if (highAllocation.data != initialAllocationBlock) {
+          if (!isInitialAllocation(highAllocation)) {
             highIndex--;
           } else {
             availableAllocations[lowIndex++] = highAllocation;
@@ -180,7 +227,7 @@ public final class DefaultAllocator implements Allocator {
   }
 
   @Override
-  public synchronized int getTotalBytesAllocated() {
+  public int getTotalBytesAllocated() {
     return allocatedCount * individualAllocationSize;
   }
 
@@ -188,4 +235,10 @@ public final class DefaultAllocator implements Allocator {
   public int getIndividualAllocationLength() {
     return individualAllocationSize;
   }
+
+  private boolean isInitialAllocation(Allocation allocation) {
+    return initialAllocationBuffer != null
+        ? allocation.buffer == initialAllocationBuffer
+        : allocation.data == initialAllocationBlock;
+  }
 }
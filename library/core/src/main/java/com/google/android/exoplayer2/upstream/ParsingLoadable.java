@@ -55,6 +55,8 @@ public final class ParsingLoadable<T> implements Loadable {
     T parse(Uri uri, InputStream inputStream) throws IOException;
   }
 
+  private static final int HTTP_STATUS_NOT_MODIFIED = 304;
+
   /**
    * Loads a single parsable object.
    *
@@ -102,6 +104,7 @@ public final class ParsingLoadable<T> implements Loadable {
 
   private final StatsDataSource dataSource;
   private final Parser<? extends T> parser;
+  @Nullable private final T notModifiedResult;
 
   @Nullable private volatile T result;
 
@@ -127,10 +130,29 @@ public final class ParsingLoadable<T> implements Loadable {
    */
   public ParsingLoadable(
       DataSource dataSource, DataSpec dataSpec, int type, Parser<? extends T> parser) {
+    this(dataSource, dataSpec, type, parser, /* notModifiedResult= */ null);
+  }
+
+  /**
+   * @param dataSource A {@link DataSource} to use when loading the data.
+   * @param dataSpec The {@link DataSpec} from which the object should be loaded. Typically a
+   *     conditional request, for example with an {@code If-None-Match} header.
+   * @param type See {@link #type}.
+   * @param parser Parses the object from the response.
+   * @param notModifiedResult The result of the load if the server responds with HTTP status 304
+   *     (Not Modified), or null if such a response should fail the load.
+   */
+  public ParsingLoadable(
+      DataSource dataSource,
+      DataSpec dataSpec,
+      int type,
+      Parser<? extends T> parser,
+      @Nullable T notModifiedResult) {
     this.dataSource = new StatsDataSource(dataSource);
     this.dataSpec = dataSpec;
     this.type = type;
     this.parser = parser;
+    this.notModifiedResult = notModifiedResult;
     loadTaskId = LoadEventInfo.getNewId();
   }
 
@@ -176,7 +198,15 @@ public final class ParsingLoadable<T> implements Loadable {
     dataSource.resetBytesRead();
     DataSourceInputStream inputStream = new DataSourceInputStream(dataSource, dataSpec);
     try {
-      inputStream.open();
+      try {
+        inputStream.open();
+      } catch (HttpDataSource.InvalidResponseCodeException e) {
+        if (e.responseCode == HTTP_STATUS_NOT_MODIFIED && notModifiedResult != null) {
+          result = notModifiedResult;
+          return;
+        }
+        throw e;
+      }
       Uri dataSourceUri = Assertions.checkNotNull(dataSource.getUri());
       result = parser.parse(dataSourceUri, inputStream);
     } finally {
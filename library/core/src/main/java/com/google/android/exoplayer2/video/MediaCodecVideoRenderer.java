@@ -177,6 +177,7 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
   private long totalVideoFrameProcessingOffsetUs;
   private int videoFrameProcessingOffsetCount;
   private long lastFrameReleaseTimeNs;
+  private long nextFrameReleaseWindowRealtimeUs;
 
   private VideoSize decodedVideoSize;
   @Nullable private VideoSize reportedVideoSize;
@@ -359,6 +360,7 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
         new VideoFrameProcessorManager(frameReleaseHelper, /* renderer= */ this);
     deviceNeedsNoPostProcessWorkaround = deviceNeedsNoPostProcessWorkaround();
     joiningDeadlineMs = C.TIME_UNSET;
+    nextFrameReleaseWindowRealtimeUs = C.TIME_UNSET;
     scalingMode = C.VIDEO_SCALING_MODE_DEFAULT;
     decodedVideoSize = VideoSize.UNKNOWN;
     tunnelingAudioSessionId = C.AUDIO_SESSION_ID_UNSET;
@@ -565,6 +567,7 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
     frameReleaseHelper.onPositionReset();
     lastBufferPresentationTimeUs = C.TIME_UNSET;
     initialPositionUs = C.TIME_UNSET;
+    nextFrameReleaseWindowRealtimeUs = C.TIME_UNSET;
     consecutiveDroppedFrameCount = 0;
     if (joining) {
       setJoiningDeadlineMs();
@@ -617,9 +620,19 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
     frameReleaseHelper.onStarted();
   }
 
+  @Override
+  public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+    if (getState() != STATE_STARTED || nextFrameReleaseWindowRealtimeUs == C.TIME_UNSET) {
+      return super.getDurationToProgressUs(positionUs, elapsedRealtimeUs);
+    }
+    // The next output frame can't be released until it's within the release window.
+    return max(0, nextFrameReleaseWindowRealtimeUs - elapsedRealtimeUs);
+  }
+
   @Override
   protected void onStopped() {
     joiningDeadlineMs = C.TIME_UNSET;
+    nextFrameReleaseWindowRealtimeUs = C.TIME_UNSET;
     maybeNotifyDroppedFrames();
     maybeNotifyVideoFrameProcessingOffset();
     frameReleaseHelper.onStopped();
@@ -1132,6 +1145,7 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
       Format format)
       throws ExoPlaybackException {
     checkNotNull(codec); // Can not render video without codec
+    nextFrameReleaseWindowRealtimeUs = C.TIME_UNSET;
 
     if (initialPositionUs == C.TIME_UNSET) {
       initialPositionUs = positionUs;
@@ -1272,6 +1286,8 @@ public class MediaCodecVideoRenderer extends MediaCodecRenderer {
     }
 
     // We're either not playing, or it's not time to render the frame yet.
+    nextFrameReleaseWindowRealtimeUs =
+        elapsedRealtimeNowUs + earlyUs - (Util.SDK_INT >= 21 ? 50000 : 30000);
     return false;
   }
 
@@ -10181,6 +10181,57 @@ public final class ExoPlayerTest {
     verify(mockListener).onExperimentalOffloadSchedulingEnabledChanged(false);
   }
 
+  @Test
+  public void dynamicScheduling_withRendererDurationToProgress_rendersLessOften()
+      throws Exception {
+    int fixedIntervalRenderCount = playToEndAndCountRenders(/* dynamicSchedulingEnabled= */ false);
+    int dynamicRenderCount = playToEndAndCountRenders(/* dynamicSchedulingEnabled= */ true);
+
+    // The renderer asks to be rendered every 100ms instead of every 10ms.
+    assertThat(dynamicRenderCount).isLessThan(fixedIntervalRenderCount / 3);
+  }
+
+  @Test
+  public void dynamicScheduling_withContinueLoadingRequestsWhilePlaying_doesNotRenderMoreOften()
+      throws Exception {
+    int renderCount =
+        playToEndAndCountRenders(
+            /* dynamicSchedulingEnabled= */ true,
+            new FakeMediaSource(new FakeTimeline(), ExoPlayerTestRunner.AUDIO_FORMAT));
+    int renderCountWithContinueLoadingRequests =
+        playToEndAndCountRenders(
+            /* dynamicSchedulingEnabled= */ true, createContinuouslyLoadingMediaSource());
+
+    // Each iteration causes a continue loading request, which would double the number of
+    // iterations if every request woke up the player.
+    assertThat(renderCountWithContinueLoadingRequests).isLessThan(renderCount * 3 / 2);
+  }
+
+  private int playToEndAndCountRenders(boolean dynamicSchedulingEnabled) throws Exception {
+    return playToEndAndCountRenders(
+        dynamicSchedulingEnabled,
+        new FakeMediaSource(new FakeTimeline(), ExoPlayerTestRunner.AUDIO_FORMAT));
+  }
+
+  private int playToEndAndCountRenders(boolean dynamicSchedulingEnabled, MediaSource mediaSource)
+      throws Exception {
+    DurationToProgressRenderer renderer =
+        new DurationToProgressRenderer(/* durationToProgressUs= */ 100_000);
+    ExoPlayer player =
+        new TestExoPlayerBuilder(context)
+            .setRenderers(renderer)
+            .experimentalSetDynamicSchedulingEnabled(dynamicSchedulingEnabled)
+            .build();
+    player.setMediaSource(mediaSource);
+    player.prepare();
+    player.play();
+
+    runUntilPlaybackState(player, Player.STATE_ENDED);
+    player.release();
+
+    return renderer.renderCount.get();
+  }
+
   @Test
   public void enableOffloadScheduling_isEnable_playerSleeps() throws Exception {
     FakeSleepRenderer sleepRenderer = new FakeSleepRenderer(C.TRACK_TYPE_AUDIO);
@@ -13256,6 +13307,80 @@ public final class ExoPlayerTest {
     }
   }
 
+  /**
+   * Returns a media source whose period keeps requesting to continue loading once per new loading
+   * position, so that every playback loop iteration is followed by a continue loading request.
+   */
+  private static MediaSource createContinuouslyLoadingMediaSource() {
+    return new FakeMediaSource(new FakeTimeline(), ExoPlayerTestRunner.AUDIO_FORMAT) {
+      @Override
+      protected MediaPeriod createMediaPeriod(
+          MediaPeriodId id,
+          TrackGroupArray trackGroupArray,
+          Allocator allocator,
+          MediaSourceEventListener.EventDispatcher mediaSourceEventDispatcher,
+          DrmSessionManager drmSessionManager,
+          DrmSessionEventListener.EventDispatcher drmEventDispatcher,
+          @Nullable TransferListener transferListener) {
+        return new FakeMediaPeriod(
+            trackGroupArray,
+            allocator,
+            TimelineWindowDefinition.DEFAULT_WINDOW_OFFSET_IN_FIRST_PERIOD_US,
+            mediaSourceEventDispatcher) {
+
+          private Callback callback;
+          private long lastLoadingPositionUs = C.TIME_UNSET;
+
+          @Override
+          public synchronized void prepare(Callback callback, long positionUs) {
+            this.callback = callback;
+            super.prepare(callback, positionUs);
+          }
+
+          @Override
+          public long getNextLoadPositionUs() {
+            // Keep loading possible, so that continueLoading is called on every iteration.
+            return 0;
+          }
+
+          @Override
+          public boolean continueLoading(long positionUs) {
+            boolean madeProgress = super.continueLoading(positionUs);
+            if (positionUs != lastLoadingPositionUs) {
+              lastLoadingPositionUs = positionUs;
+              callback.onContinueLoadingRequested(this);
+            }
+            return madeProgress;
+          }
+        };
+      }
+    };
+  }
+
+  private static final class DurationToProgressRenderer extends FakeRenderer {
+
+    public final AtomicInteger renderCount;
+
+    private final long durationToProgressUs;
+
+    public DurationToProgressRenderer(long durationToProgressUs) {
+      super(C.TRACK_TYPE_AUDIO);
+      this.durationToProgressUs = durationToProgressUs;
+      renderCount = new AtomicInteger();
+    }
+
+    @Override
+    public void render(long positionUs, long elapsedRealtimeUs) throws ExoPlaybackException {
+      super.render(positionUs, elapsedRealtimeUs);
+      renderCount.incrementAndGet();
+    }
+
+    @Override
+    public long getDurationToProgressUs(long positionUs, long elapsedRealtimeUs) {
+      return durationToProgressUs;
+    }
+  }
+
   private static final class CountingMessageTarget implements PlayerMessage.Target {
 
     public int messageCount;
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.PlaybackLoopProfiler.Histogram;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link PlaybackLoopProfiler}. */
+@RunWith(AndroidJUnit4.class)
+public final class PlaybackLoopProfilerTest {
+
+  @Test
+  public void histogram_add_countsDurationsInBuckets() {
+    Histogram histogram = new Histogram();
+
+    histogram.add(/* durationNs= */ 500);
+    histogram.add(/* durationNs= */ 1_500);
+    histogram.add(/* durationNs= */ 3_000);
+    histogram.add(/* durationNs= */ 3_999);
+
+    assertThat(histogram.getCount()).isEqualTo(4);
+    assertThat(histogram.getTotalDurationNs()).isEqualTo(8_999);
+    assertThat(histogram.getMaxDurationNs()).isEqualTo(3_999);
+    assertThat(histogram.getBucketCount(0)).isEqualTo(1);
+    assertThat(histogram.getBucketCount(1)).isEqualTo(1);
+    assertThat(histogram.getBucketCount(2)).isEqualTo(2);
+  }
+
+  @Test
+  public void histogram_getPercentileUpperBoundUs_returnsBucketUpperBound() {
+    Histogram histogram = new Histogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.add(/* durationNs= */ 1_000);
+    }
+    histogram.add(/* durationNs= */ 10_000_000);
+
+    assertThat(histogram.getPercentileUpperBoundUs(50)).isEqualTo(2);
+    assertThat(histogram.getPercentileUpperBoundUs(99)).isEqualTo(2);
+    assertThat(histogram.getPercentileUpperBoundUs(100)).isEqualTo(16_384);
+  }
+
+  @Test
+  public void histogram_withVeryLongDuration_usesLastBucket() {
+    Histogram histogram = new Histogram();
+
+    histogram.add(Long.MAX_VALUE);
+
+    assertThat(histogram.getBucketCount(Histogram.BUCKET_COUNT - 1)).isEqualTo(1);
+    assertThat(histogram.getPercentileUpperBoundUs(50)).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void onPhaseCompleted_recordsPhaseAndRendererHistogramsAndNotifiesListener() {
+    PlaybackLoopProfiler profiler = new PlaybackLoopProfiler();
+    profiler.setRendererCount(2);
+    List<Long> reportedDurationsNs = new ArrayList<>();
+    profiler.addListener(
+        (phase, rendererIndex, durationNs) -> {
+          if (phase == PlaybackLoopProfiler.PHASE_RENDER && rendererIndex == 1) {
+            reportedDurationsNs.add(durationNs);
+          }
+        });
+
+    profiler.onPhaseCompleted(
+        PlaybackLoopProfiler.PHASE_RENDER, /* rendererIndex= */ 1, /* durationNs= */ 2_000);
+    profiler.onPhaseCompleted(
+        PlaybackLoopProfiler.PHASE_UPDATE_PERIODS, C.INDEX_UNSET, /* durationNs= */ 5_000);
+
+    assertThat(profiler.getHistogram(PlaybackLoopProfiler.PHASE_RENDER).getCount()).isEqualTo(1);
+    assertThat(profiler.getRendererHistogram(0).getCount()).isEqualTo(0);
+    assertThat(profiler.getRendererHistogram(1).getTotalDurationNs()).isEqualTo(2_000);
+    assertThat(profiler.getHistogram(PlaybackLoopProfiler.PHASE_UPDATE_PERIODS).getCount())
+        .isEqualTo(1);
+    assertThat(reportedDurationsNs).containsExactly(2_000L);
+  }
+
+  @Test
+  public void reset_clearsAllHistograms() {
+    PlaybackLoopProfiler profiler = new PlaybackLoopProfiler();
+    profiler.setRendererCount(1);
+    profiler.onPhaseCompleted(
+        PlaybackLoopProfiler.PHASE_RENDER, /* rendererIndex= */ 0, /* durationNs= */ 2_000);
+
+    profiler.reset();
+
+    assertThat(profiler.getHistogram(PlaybackLoopProfiler.PHASE_RENDER).getCount()).isEqualTo(0);
+    assertThat(profiler.getRendererHistogram(0).getMaxDurationNs()).isEqualTo(0);
+  }
+}
@@ -23,6 +23,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.android.exoplayer2.source.ShuffleOrder;
 import com.google.android.exoplayer2.testutil.FakeTimeline;
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -72,4 +73,94 @@ public class PlaylistTimelineTest {
       }
     }
   }
+
+  @Test
+  public void appendHolders_withPreviousTimeline_resolvesOnlyOwnChildUids() {
+    List<TestHolder> holders = createHolders(/* count= */ 3);
+    ShuffleOrder shuffleOrder = new ShuffleOrder.DefaultShuffleOrder(/* length= */ 3);
+    PlaylistTimeline timeline = new PlaylistTimeline(holders, shuffleOrder);
+    List<TestHolder> appendedHolders = new ArrayList<>(holders);
+    appendedHolders.addAll(createHolders(/* count= */ 2));
+
+    PlaylistTimeline appendedTimeline =
+        new PlaylistTimeline(
+            appendedHolders,
+            shuffleOrder.cloneAndInsert(/* insertionIndex= */ 3, /* insertionCount= */ 2),
+            timeline);
+
+    // The original holders have 1, 2 and 1 periods.
+    Object appendedPeriodUid = appendedTimeline.getUidOfPeriod(/* periodIndex= */ 4);
+    Object originalPeriodUid = timeline.getUidOfPeriod(/* periodIndex= */ 3);
+    assertThat(appendedTimeline.getIndexOfPeriod(appendedPeriodUid)).isEqualTo(4);
+    assertThat(appendedTimeline.getIndexOfPeriod(originalPeriodUid)).isEqualTo(3);
+    assertThat(timeline.getIndexOfPeriod(appendedPeriodUid)).isEqualTo(C.INDEX_UNSET);
+    assertThat(timeline.getIndexOfPeriod(originalPeriodUid)).isEqualTo(3);
+  }
+
+  @Test
+  public void bulkPlaylistEdits_withPreviousTimeline_equalTimelinesCreatedFromScratch() {
+    List<TestHolder> holders = createHolders(/* count= */ 10_000);
+    ShuffleOrder shuffleOrder = new ShuffleOrder.UnshuffledShuffleOrder(holders.size());
+    PlaylistTimeline previousTimeline = new PlaylistTimeline(holders, shuffleOrder);
+
+    // Append holders.
+    holders.addAll(createHolders(/* count= */ 1_000));
+    shuffleOrder = new ShuffleOrder.UnshuffledShuffleOrder(holders.size());
+    previousTimeline = assertEqualsTimelineFromScratch(holders, shuffleOrder, previousTimeline);
+    // Refresh the timeline of a holder.
+    holders.get(5_000).timeline = new FakeTimeline(/* windowCount= */ 3);
+    previousTimeline = assertEqualsTimelineFromScratch(holders, shuffleOrder, previousTimeline);
+    // Remove holders.
+    holders.subList(2_000, 4_000).clear();
+    shuffleOrder = new ShuffleOrder.UnshuffledShuffleOrder(holders.size());
+    previousTimeline = assertEqualsTimelineFromScratch(holders, shuffleOrder, previousTimeline);
+    // Insert holders at the start.
+    holders.addAll(/* index= */ 0, createHolders(/* count= */ 1_000));
+    shuffleOrder = new ShuffleOrder.UnshuffledShuffleOrder(holders.size());
+    assertEqualsTimelineFromScratch(holders, shuffleOrder, previousTimeline);
+  }
+
+  private static PlaylistTimeline assertEqualsTimelineFromScratch(
+      List<TestHolder> holders, ShuffleOrder shuffleOrder, PlaylistTimeline previousTimeline) {
+    PlaylistTimeline timeline = new PlaylistTimeline(holders, shuffleOrder, previousTimeline);
+    PlaylistTimeline timelineFromScratch = new PlaylistTimeline(holders, shuffleOrder);
+
+    assertThat(timeline).isEqualTo(timelineFromScratch);
+    for (int i = 0; i < timeline.getPeriodCount(); i++) {
+      Object periodUid = timelineFromScratch.getUidOfPeriod(i);
+      assertThat(timeline.getIndexOfPeriod(periodUid)).isEqualTo(i);
+    }
+    return timeline;
+  }
+
+  private static List<TestHolder> createHolders(int count) {
+    Timeline singleWindowTimeline = new FakeTimeline(/* windowCount= */ 1);
+    Timeline multiWindowTimeline = new FakeTimeline(/* windowCount= */ 2);
+    List<TestHolder> holders = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      holders.add(new TestHolder(i % 2 == 0 ? singleWindowTimeline : multiWindowTimeline));
+    }
+    return holders;
+  }
+
+  private static final class TestHolder implements MediaSourceInfoHolder {
+
+    private final Object uid;
+    private Timeline timeline;
+
+    public TestHolder(Timeline timeline) {
+      this.uid = new Object();
+      this.timeline = timeline;
+    }
+
+    @Override
+    public Object getUid() {
+      return uid;
+    }
+
+    @Override
+    public Timeline getTimeline() {
+      return timeline;
+    }
+  }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.upstream.Allocation;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link SharedBufferBudget}. */
+@RunWith(AndroidJUnit4.class)
+public class SharedBufferBudgetTest {
+
+  private static final int SEGMENT_SIZE = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+
+  @Test
+  public void budget_isSplitEvenlyBetweenPreparedPlayers() {
+    SharedBufferBudget budget = new SharedBufferBudget(/* totalBufferBytes= */ 10 * SEGMENT_SIZE);
+    DefaultAllocator allocator1 = createAllocator();
+    DefaultAllocator allocator2 = createAllocator();
+    DefaultLoadControl loadControl1 =
+        createLoadControl(budget, allocator1, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    DefaultLoadControl loadControl2 =
+        createLoadControl(budget, allocator2, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    loadControl1.onPrepared();
+    loadControl2.onPrepared();
+
+    allocate(allocator1, /* count= */ 4);
+    assertThat(shouldContinueLoading(loadControl1)).isTrue();
+    allocate(allocator1, /* count= */ 1);
+    assertThat(shouldContinueLoading(loadControl1)).isFalse();
+    assertThat(shouldContinueLoading(loadControl2)).isTrue();
+    assertThat(budget.getTotalBytesAllocated()).isEqualTo(5 * SEGMENT_SIZE);
+  }
+
+  @Test
+  public void budget_givesLargerShareToPrioritizedPlayer() {
+    SharedBufferBudget budget = new SharedBufferBudget(/* totalBufferBytes= */ 8 * SEGMENT_SIZE);
+    DefaultAllocator allocator1 = createAllocator();
+    DefaultAllocator allocator2 = createAllocator();
+    DefaultLoadControl loadControl1 =
+        createLoadControl(budget, allocator1, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    DefaultLoadControl loadControl2 =
+        createLoadControl(budget, allocator2, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    loadControl1.onPrepared();
+    loadControl2.onPrepared();
+
+    loadControl1.setBufferBudgetPrioritized(true);
+    allocate(allocator1, /* count= */ 5);
+    allocate(allocator2, /* count= */ 2);
+
+    assertThat(shouldContinueLoading(loadControl1)).isTrue();
+    assertThat(shouldContinueLoading(loadControl2)).isFalse();
+    allocate(allocator1, /* count= */ 1);
+    assertThat(shouldContinueLoading(loadControl1)).isFalse();
+  }
+
+  @Test
+  public void budget_givesUnneededShareToOtherPlayers() {
+    SharedBufferBudget budget = new SharedBufferBudget(/* totalBufferBytes= */ 8 * SEGMENT_SIZE);
+    DefaultAllocator allocator1 = createAllocator();
+    DefaultAllocator allocator2 = createAllocator();
+    DefaultLoadControl loadControl1 =
+        createLoadControl(budget, allocator1, /* targetBufferBytes= */ 2 * SEGMENT_SIZE);
+    DefaultLoadControl loadControl2 =
+        createLoadControl(budget, allocator2, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    loadControl1.onPrepared();
+    loadControl2.onPrepared();
+
+    allocate(allocator2, /* count= */ 5);
+    assertThat(shouldContinueLoading(loadControl2)).isTrue();
+    allocate(allocator2, /* count= */ 1);
+    assertThat(shouldContinueLoading(loadControl2)).isFalse();
+  }
+
+  @Test
+  public void budget_isRebalancedWhenPlayerReleased() {
+    SharedBufferBudget budget = new SharedBufferBudget(/* totalBufferBytes= */ 8 * SEGMENT_SIZE);
+    DefaultAllocator allocator1 = createAllocator();
+    DefaultAllocator allocator2 = createAllocator();
+    DefaultLoadControl loadControl1 =
+        createLoadControl(budget, allocator1, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    DefaultLoadControl loadControl2 =
+        createLoadControl(budget, allocator2, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    loadControl1.onPrepared();
+    loadControl2.onPrepared();
+    allocate(allocator2, /* count= */ 4);
+    assertThat(shouldContinueLoading(loadControl2)).isFalse();
+
+    loadControl1.onReleased();
+
+    assertThat(shouldContinueLoading(loadControl2)).isTrue();
+    allocate(allocator2, /* count= */ 4);
+    assertThat(shouldContinueLoading(loadControl2)).isFalse();
+  }
+
+  @Test
+  public void budget_shrinksAllocatorTargetWhenShareIsReduced() {
+    SharedBufferBudget budget = new SharedBufferBudget(/* totalBufferBytes= */ 8 * SEGMENT_SIZE);
+    DefaultAllocator allocator1 = createAllocator();
+    DefaultAllocator allocator2 = createAllocator();
+    DefaultLoadControl loadControl1 =
+        createLoadControl(budget, allocator1, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    DefaultLoadControl loadControl2 =
+        createLoadControl(budget, allocator2, /* targetBufferBytes= */ 10 * SEGMENT_SIZE);
+    loadControl1.onPrepared();
+    Set<Allocation> allocations = new HashSet<>();
+    for (int i = 0; i < 8; i++) {
+      allocations.add(allocator1.allocate());
+    }
+    for (Allocation allocation : allocations) {
+      allocator1.release(allocation);
+    }
+
+    // Halves the share of the first player, so its allocator only keeps 4 of its 8 allocations.
+    loadControl2.onPrepared();
+
+    int reusedAllocationCount = 0;
+    for (int i = 0; i < 8; i++) {
+      if (allocations.contains(allocator1.allocate())) {
+        reusedAllocationCount++;
+      }
+    }
+    assertThat(reusedAllocationCount).isEqualTo(4);
+  }
+
+  private static DefaultAllocator createAllocator() {
+    return new DefaultAllocator(/* trimOnReset= */ true, SEGMENT_SIZE);
+  }
+
+  private static DefaultLoadControl createLoadControl(
+      SharedBufferBudget budget, DefaultAllocator allocator, int targetBufferBytes) {
+    return new DefaultLoadControl.Builder()
+        .setAllocator(allocator)
+        .setTargetBufferBytes(targetBufferBytes)
+        .setSharedBufferBudget(budget)
+        .build();
+  }
+
+  private static void allocate(DefaultAllocator allocator, int count) {
+    for (int i = 0; i < count; i++) {
+      allocator.allocate();
+    }
+  }
+
+  private static boolean shouldContinueLoading(DefaultLoadControl loadControl) {
+    return loadControl.shouldContinueLoading(
+        /* playbackPositionUs= */ 0, /* bufferedDurationUs= */ 0, /* playbackSpeed= */ 1f);
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.mediacodec;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import android.os.HandlerThread;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.Format;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link MediaCodecPool}. */
+@RunWith(AndroidJUnit4.class)
+public final class MediaCodecPoolTest {
+
+  @Test
+  public void createAdapter_afterAdapterWithSameCodecReleased_reusesCodec() throws Exception {
+    MediaCodecPool codecPool = new MediaCodecPool();
+    CodecCreationCountingFactory factory = new CodecCreationCountingFactory(codecPool);
+
+    MediaCodecAdapter adapter = factory.createAdapter(createConfiguration("aac"));
+    adapter.release();
+    assertThat(codecPool.getIdleCodecCount()).isEqualTo(1);
+    MediaCodecAdapter secondAdapter = factory.createAdapter(createConfiguration("aac"));
+
+    assertThat(factory.createdCodecs).hasSize(1);
+    assertThat(codecPool.getIdleCodecCount()).isEqualTo(0);
+    secondAdapter.release();
+    codecPool.clear();
+  }
+
+  @Test
+  public void createAdapter_withDifferentCodecName_createsNewCodec() throws Exception {
+    MediaCodecPool codecPool = new MediaCodecPool();
+    CodecCreationCountingFactory factory = new CodecCreationCountingFactory(codecPool);
+
+    factory.createAdapter(createConfiguration("aac")).release();
+    MediaCodecAdapter adapter = factory.createAdapter(createConfiguration("mp3"));
+
+    assertThat(factory.createdCodecs).hasSize(2);
+    assertThat(codecPool.getIdleCodecCount()).isEqualTo(1);
+    adapter.release();
+    codecPool.clear();
+  }
+
+  @Test
+  public void release_withFullPool_evictsLeastRecentlyUsedCodec() throws Exception {
+    MediaCodecPool codecPool = new MediaCodecPool(/* maxIdleCodecCount= */ 1);
+    CodecCreationCountingFactory factory = new CodecCreationCountingFactory(codecPool);
+    MediaCodecAdapter aacAdapter = factory.createAdapter(createConfiguration("aac"));
+    MediaCodecAdapter mp3Adapter = factory.createAdapter(createConfiguration("mp3"));
+
+    aacAdapter.release();
+    mp3Adapter.release();
+
+    assertThat(codecPool.getIdleCodecCount()).isEqualTo(1);
+    assertThat(codecPool.acquire("aac")).isNull();
+    assertThat(codecPool.acquire("mp3")).isSameInstanceAs(factory.createdCodecs.get(1));
+  }
+
+  @Test
+  public void createAsynchronousAdapter_afterAdapterWithSameCodecReleased_reusesCodec()
+      throws Exception {
+    MediaCodecPool codecPool = new MediaCodecPool();
+    AsynchronousMediaCodecAdapter.Factory factory =
+        new AsynchronousMediaCodecAdapter.Factory(
+            /* callbackThreadSupplier= */ () -> new HandlerThread("TestCallbackThread"),
+            /* queueingThreadSupplier= */ () -> new HandlerThread("TestQueueingThread"),
+            /* synchronizeCodecInteractionsWithQueueing= */ false,
+            codecPool);
+
+    MediaCodecAdapter adapter = factory.createAdapter(createConfiguration("aac"));
+    adapter.release();
+    assertThat(codecPool.getIdleCodecCount()).isEqualTo(1);
+    MediaCodecAdapter secondAdapter = factory.createAdapter(createConfiguration("aac"));
+
+    assertThat(codecPool.getIdleCodecCount()).isEqualTo(0);
+    secondAdapter.release();
+    assertThat(codecPool.getIdleCodecCount()).isEqualTo(1);
+    codecPool.clear();
+  }
+
+  @Test
+  public void releaseAsynchronousAdapter_recyclesCodecBeforeQuittingCallbackThread()
+      throws Exception {
+    MediaCodecPool codecPool = new MediaCodecPool();
+    List<Integer> idleCodecCountsWhenCallbackThreadQuit = new ArrayList<>();
+    AsynchronousMediaCodecAdapter.Factory factory =
+        new AsynchronousMediaCodecAdapter.Factory(
+            /* callbackThreadSupplier= */ () ->
+                new HandlerThread("TestCallbackThread") {
+                  @Override
+                  public boolean quit() {
+                    idleCodecCountsWhenCallbackThreadQuit.add(codecPool.getIdleCodecCount());
+                    return super.quit();
+                  }
+                },
+            /* queueingThreadSupplier= */ () -> new HandlerThread("TestQueueingThread"),
+            /* synchronizeCodecInteractionsWithQueueing= */ false,
+            codecPool);
+    MediaCodecAdapter adapter = factory.createAdapter(createConfiguration("aac"));
+
+    adapter.release();
+
+    // The codec is stopped and added to the pool while the callback thread is still running.
+    assertThat(idleCodecCountsWhenCallbackThreadQuit).containsExactly(1);
+    codecPool.clear();
+  }
+
+  private static MediaCodecAdapter.Configuration createConfiguration(String codecName) {
+    MediaCodecInfo codecInfo =
+        MediaCodecInfo.newInstance(
+            codecName,
+            /* mimeType= */ "audio/" + codecName,
+            /* codecMimeType= */ "audio/" + codecName,
+            /* capabilities= */ null,
+            /* hardwareAccelerated= */ false,
+            /* softwareOnly= */ false,
+            /* vendor= */ false,
+            /* forceDisableAdaptive= */ false,
+            /* forceSecure= */ false);
+    return MediaCodecAdapter.Configuration.createForAudioDecoding(
+        codecInfo, new MediaFormat(), new Format.Builder().build(), /* crypto= */ null);
+  }
+
+  private static final class CodecCreationCountingFactory
+      extends SynchronousMediaCodecAdapter.Factory {
+
+    public final List<MediaCodec> createdCodecs;
+
+    public CodecCreationCountingFactory(@Nullable MediaCodecPool codecPool) {
+      super(codecPool);
+      createdCodecs = new ArrayList<>();
+    }
+
+    @Override
+    protected MediaCodec createCodec(MediaCodecAdapter.Configuration configuration)
+        throws IOException {
+      MediaCodec codec = super.createCodec(configuration);
+      createdCodecs.add(codec);
+      return codec;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.net.Uri;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.ConstantBitrateSeekMap;
+import com.google.android.exoplayer2.extractor.IndexSeekMap;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.NoOpCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.google.android.exoplayer2.util.Util;
+import java.io.File;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ContentMetadataSeekMapCache}. */
+@RunWith(AndroidJUnit4.class)
+public final class ContentMetadataSeekMapCacheTest {
+
+  private static final DataSpec DATA_SPEC =
+      new DataSpec(Uri.parse("https://example.com/media.mp3"));
+
+  private File tempFolder;
+  private Cache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    tempFolder =
+        Util.createTempDirectory(ApplicationProvider.getApplicationContext(), "ExoPlayerTest");
+    cache =
+        new SimpleCache(tempFolder, new NoOpCacheEvictor(), TestUtil.getInMemoryDatabaseProvider());
+  }
+
+  @After
+  public void tearDown() {
+    cache.release();
+    Util.recursiveDelete(tempFolder);
+  }
+
+  @Test
+  public void get_withoutStoredSeekMap_returnsNull() {
+    ContentMetadataSeekMapCache seekMapCache = new ContentMetadataSeekMapCache(cache);
+
+    assertThat(seekMapCache.get(DATA_SPEC)).isNull();
+  }
+
+  @Test
+  public void putAndGet_withIndexSeekMap_restoresSeekPoints() {
+    ContentMetadataSeekMapCache seekMapCache = new ContentMetadataSeekMapCache(cache);
+    IndexSeekMap seekMap =
+        new IndexSeekMap(
+            /* positions= */ new long[] {100, 5_000, 9_000},
+            /* timesUs= */ new long[] {0, 1_000_000, 2_000_000},
+            /* durationUs= */ 2_500_000);
+
+    seekMapCache.put(DATA_SPEC, seekMap);
+    SeekMap restoredSeekMap = new ContentMetadataSeekMapCache(cache).get(DATA_SPEC);
+
+    assertThat(restoredSeekMap).isNotNull();
+    assertThat(restoredSeekMap.isSeekable()).isTrue();
+    assertThat(restoredSeekMap.getDurationUs()).isEqualTo(2_500_000);
+    assertThat(restoredSeekMap.getSeekPoints(/* timeUs= */ 1_500_000).first)
+        .isEqualTo(new SeekPoint(/* timeUs= */ 1_000_000, /* position= */ 5_000));
+  }
+
+  @Test
+  public void put_withInexactSeekMap_doesNotStoreSeekMap() {
+    ContentMetadataSeekMapCache seekMapCache = new ContentMetadataSeekMapCache(cache);
+
+    seekMapCache.put(
+        DATA_SPEC,
+        new ConstantBitrateSeekMap(
+            /* inputLength= */ 10_000,
+            /* firstFrameBytePosition= */ 0,
+            /* bitrate= */ 128_000,
+            /* frameSize= */ 400));
+
+    assertThat(seekMapCache.get(DATA_SPEC)).isNull();
+    assertThat(cache.getKeys()).isEmpty();
+  }
+
+  @Test
+  public void get_withCustomCacheKey_usesKeyFromCacheKeyFactory() {
+    ContentMetadataSeekMapCache seekMapCache =
+        new ContentMetadataSeekMapCache(cache, dataSpec -> "key");
+    IndexSeekMap seekMap =
+        new IndexSeekMap(
+            /* positions= */ new long[] {0},
+            /* timesUs= */ new long[] {0},
+            /* durationUs= */ C.MICROS_PER_SECOND);
+
+    seekMapCache.put(DATA_SPEC, seekMap);
+
+    assertThat(seekMapCache.get(new DataSpec(Uri.parse("https://example.com/other.mp3"))))
+        .isNotNull();
+    assertThat(
+            cache
+                .getContentMetadata("key")
+                .contains(ContentMetadataSeekMapCache.METADATA_NAME_SEEK_MAP))
+        .isTrue();
+  }
+}
@@ -16,22 +16,38 @@
 package com.google.android.exoplayer2.source;
 
 import static com.google.android.exoplayer2.robolectric.RobolectricUtil.runMainLooperUntil;
+import static com.google.android.exoplayer2.util.Assertions.checkNotNull;
 import static com.google.common.truth.Truth.assertThat;
 
 import android.net.Uri;
+import androidx.annotation.Nullable;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.SeekParameters;
 import com.google.android.exoplayer2.analytics.PlayerId;
 import com.google.android.exoplayer2.drm.DrmSessionEventListener;
 import com.google.android.exoplayer2.drm.DrmSessionManager;
+import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.IndexSeekMap;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import com.google.android.exoplayer2.extractor.mp3.Mp3Extractor;
 import com.google.android.exoplayer2.extractor.mp4.Mp4Extractor;
 import com.google.android.exoplayer2.source.MediaSource.MediaPeriodId;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.trackselection.FixedTrackSelection;
 import com.google.android.exoplayer2.upstream.AssetDataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.DefaultAllocator;
 import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -39,6 +55,9 @@ import org.junit.runner.RunWith;
 @RunWith(AndroidJUnit4.class)
 public final class ProgressiveMediaPeriodTest {
 
+  private static final Uri MP3_URI =
+      Uri.parse("asset://android_asset/media/mp3/bear-vbr-no-seek-table.mp3");
+
   @Test
   public void prepareUsingBundledExtractors_updatesSourceInfoBeforeOnPreparedCallback()
       throws TimeoutException {
@@ -73,6 +92,7 @@ public final class ProgressiveMediaPeriodTest {
             sourceInfoRefreshListener,
             new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE),
             /* customCacheKey= */ null,
+            /* seekMapCache= */ null,
             ProgressiveMediaSource.DEFAULT_LOADING_CHECK_INTERVAL_BYTES);
 
     AtomicBoolean prepareCallbackCalled = new AtomicBoolean(false);
@@ -96,4 +116,155 @@ public final class ProgressiveMediaPeriodTest {
 
     assertThat(sourceInfoRefreshCalledBeforeOnPrepared.get()).isTrue();
   }
+
+  @Test
+  public void loadToEnd_withIndexSeeking_persistsOnlyCompleteIndex() throws TimeoutException {
+    FakeSeekMapCache seekMapCache = new FakeSeekMapCache();
+    ProgressiveMediaPeriod mediaPeriod =
+        createMediaPeriod(
+            new Mp3Extractor(Mp3Extractor.FLAG_ENABLE_INDEX_SEEKING),
+            seekMapCache,
+            (durationUs, isSeekable, isLive) -> {});
+
+    prepareAndLoadToEnd(mediaPeriod);
+    mediaPeriod.release();
+
+    // The index that grows while reading isn't persisted, only the snapshot at the end of stream.
+    assertThat(seekMapCache.putSeekMaps).hasSize(1);
+    SeekMap persistedSeekMap = seekMapCache.putSeekMaps.get(0);
+    assertThat(persistedSeekMap).isInstanceOf(IndexSeekMap.class);
+    assertThat(persistedSeekMap.getDurationUs()).isNotEqualTo(C.TIME_UNSET);
+  }
+
+  @Test
+  public void loadToEnd_withInexactSeekMap_doesNotPersistSeekMap() throws TimeoutException {
+    FakeSeekMapCache seekMapCache = new FakeSeekMapCache();
+    ProgressiveMediaPeriod mediaPeriod =
+        createMediaPeriod(new Mp3Extractor(), seekMapCache, (durationUs, isSeekable, isLive) -> {});
+
+    prepareAndLoadToEnd(mediaPeriod);
+    mediaPeriod.release();
+
+    assertThat(seekMapCache.putSeekMaps).isEmpty();
+  }
+
+  @Test
+  public void prepare_withPersistedIndex_prefersRestoredSeekMapOverInexactExtractorSeekMap()
+      throws TimeoutException {
+    FakeSeekMapCache seekMapCache = new FakeSeekMapCache();
+    ProgressiveMediaPeriod indexingMediaPeriod =
+        createMediaPeriod(
+            new Mp3Extractor(Mp3Extractor.FLAG_ENABLE_INDEX_SEEKING),
+            seekMapCache,
+            (durationUs, isSeekable, isLive) -> {});
+    prepareAndLoadToEnd(indexingMediaPeriod);
+    indexingMediaPeriod.release();
+    SeekMap persistedSeekMap = checkNotNull(seekMapCache.get(new DataSpec(MP3_URI)));
+    AtomicLong reportedDurationUs = new AtomicLong(C.TIME_UNSET);
+    AtomicBoolean reportedIsSeekable = new AtomicBoolean();
+
+    // Reopen the content with constant bitrate seeking, which only estimates seek positions.
+    ProgressiveMediaPeriod mediaPeriod =
+        createMediaPeriod(
+            new Mp3Extractor(),
+            seekMapCache,
+            (durationUs, isSeekable, isLive) -> {
+              reportedDurationUs.set(durationUs);
+              reportedIsSeekable.set(isSeekable);
+            });
+    prepare(mediaPeriod);
+    long adjustedSeekPositionUs =
+        mediaPeriod.getAdjustedSeekPositionUs(
+            /* positionUs= */ 1_000_000, SeekParameters.PREVIOUS_SYNC);
+    mediaPeriod.release();
+
+    assertThat(reportedIsSeekable.get()).isTrue();
+    assertThat(reportedDurationUs.get()).isEqualTo(persistedSeekMap.getDurationUs());
+    SeekPoint persistedSeekPoint = persistedSeekMap.getSeekPoints(/* timeUs= */ 1_000_000).first;
+    assertThat(persistedSeekPoint.timeUs).isGreaterThan(0);
+    assertThat(adjustedSeekPositionUs).isEqualTo(persistedSeekPoint.timeUs);
+    // The restored seek map isn't written back.
+    assertThat(seekMapCache.putSeekMaps).hasSize(1);
+  }
+
+  private static ProgressiveMediaPeriod createMediaPeriod(
+      Extractor extractor, SeekMapCache seekMapCache, ProgressiveMediaPeriod.Listener listener) {
+    MediaPeriodId mediaPeriodId = new MediaPeriodId(/* periodUid= */ new Object());
+    return new ProgressiveMediaPeriod(
+        MP3_URI,
+        new AssetDataSource(ApplicationProvider.getApplicationContext()),
+        new BundledExtractorsAdapter(() -> new Extractor[] {extractor}),
+        DrmSessionManager.DRM_UNSUPPORTED,
+        new DrmSessionEventListener.EventDispatcher()
+            .withParameters(/* windowIndex= */ 0, mediaPeriodId),
+        new DefaultLoadErrorHandlingPolicy(),
+        new MediaSourceEventListener.EventDispatcher()
+            .withParameters(/* windowIndex= */ 0, mediaPeriodId),
+        listener,
+        new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE),
+        /* customCacheKey= */ null,
+        seekMapCache,
+        ProgressiveMediaSource.DEFAULT_LOADING_CHECK_INTERVAL_BYTES);
+  }
+
+  private static void prepare(ProgressiveMediaPeriod mediaPeriod) throws TimeoutException {
+    AtomicBoolean prepareCallbackCalled = new AtomicBoolean(false);
+    mediaPeriod.prepare(
+        new MediaPeriod.Callback() {
+          @Override
+          public void onPrepared(MediaPeriod mediaPeriod) {
+            prepareCallbackCalled.set(true);
+          }
+
+          @Override
+          public void onContinueLoadingRequested(MediaPeriod source) {
+            source.continueLoading(/* positionUs= */ 0);
+          }
+        },
+        /* positionUs= */ 0);
+    runMainLooperUntil(prepareCallbackCalled::get);
+  }
+
+  private static void prepareAndLoadToEnd(ProgressiveMediaPeriod mediaPeriod)
+      throws TimeoutException {
+    prepare(mediaPeriod);
+    TrackGroupArray trackGroups = mediaPeriod.getTrackGroups();
+    ExoTrackSelection[] selections = new ExoTrackSelection[trackGroups.length];
+    for (int i = 0; i < trackGroups.length; i++) {
+      selections[i] = new FixedTrackSelection(trackGroups.get(i), /* track= */ 0);
+    }
+    mediaPeriod.selectTracks(
+        selections,
+        /* mayRetainStreamFlags= */ new boolean[trackGroups.length],
+        /* streams= */ new SampleStream[trackGroups.length],
+        /* streamResetFlags= */ new boolean[trackGroups.length],
+        /* positionUs= */ 0);
+    mediaPeriod.continueLoading(/* positionUs= */ 0);
+    runMainLooperUntil(() -> mediaPeriod.getBufferedPositionUs() == C.TIME_END_OF_SOURCE);
+  }
+
+  /** A {@link SeekMapCache} that keeps seek maps in memory and records the stored seek maps. */
+  private static final class FakeSeekMapCache implements SeekMapCache {
+
+    public final List<SeekMap> putSeekMaps;
+
+    private final Map<Uri, SeekMap> seekMaps;
+
+    public FakeSeekMapCache() {
+      putSeekMaps = new CopyOnWriteArrayList<>();
+      seekMaps = new ConcurrentHashMap<>();
+    }
+
+    @Nullable
+    @Override
+    public SeekMap get(DataSpec dataSpec) {
+      return seekMaps.get(dataSpec.uri);
+    }
+
+    @Override
+    public void put(DataSpec dataSpec, SeekMap seekMap) {
+      putSeekMaps.add(seekMap);
+      seekMaps.put(dataSpec.uri, seekMap);
+    }
+  }
 }
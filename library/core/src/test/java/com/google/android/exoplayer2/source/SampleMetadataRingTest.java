@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.TrackOutput.CryptoData;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link SampleMetadataRing}. */
+@RunWith(AndroidJUnit4.class)
+public final class SampleMetadataRingTest {
+
+  private static final int SAMPLE_COUNT = 3 * SampleMetadataRing.CHUNK_SIZE + 7;
+
+  @Test
+  public void set_acrossChunks_preservesMetadata() {
+    SampleMetadataRing ring = new SampleMetadataRing();
+    CryptoData cryptoData =
+        new CryptoData(
+            C.CRYPTO_MODE_AES_CTR,
+            /* encryptionKey= */ new byte[16],
+            /* encryptedBlocks= */ 0,
+            /* clearBlocks= */ 0);
+
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      ring.set(
+          /* index= */ i,
+          /* timeUs= */ i * 10L,
+          /* flags= */ C.BUFFER_FLAG_KEY_FRAME | C.BUFFER_FLAG_DECODE_ONLY,
+          /* offset= */ i * 100L,
+          /* size= */ i + 1,
+          i % 2 == 0 ? cryptoData : null,
+          /* sourceId= */ i);
+    }
+
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      assertThat(ring.getTimeUs(i)).isEqualTo(i * 10L);
+      assertThat(ring.getFlags(i))
+          .isEqualTo(C.BUFFER_FLAG_KEY_FRAME | C.BUFFER_FLAG_DECODE_ONLY);
+      assertThat(ring.getOffset(i)).isEqualTo(i * 100L);
+      assertThat(ring.getSize(i)).isEqualTo(i + 1);
+      assertThat(ring.getCryptoData(i)).isEqualTo(i % 2 == 0 ? cryptoData : null);
+      assertThat(ring.getSourceId(i)).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void discardFromStart_shiftsIndices() {
+    SampleMetadataRing ring = createRing(SAMPLE_COUNT);
+
+    ring.discardFromStart(SampleMetadataRing.CHUNK_SIZE + 3);
+    ring.set(
+        /* index= */ SAMPLE_COUNT - SampleMetadataRing.CHUNK_SIZE - 3,
+        /* timeUs= */ SAMPLE_COUNT,
+        /* flags= */ 0,
+        /* offset= */ 0,
+        /* size= */ 0,
+        /* cryptoData= */ null,
+        /* sourceId= */ 0);
+
+    assertThat(ring.getTimeUs(0)).isEqualTo(SampleMetadataRing.CHUNK_SIZE + 3);
+    assertThat(ring.getTimeUs(SAMPLE_COUNT - SampleMetadataRing.CHUNK_SIZE - 3))
+        .isEqualTo(SAMPLE_COUNT);
+  }
+
+  @Test
+  public void findSampleBefore_acrossChunks_findsKeyframe() {
+    SampleMetadataRing ring = createRing(SAMPLE_COUNT);
+    ring.discardFromStart(5);
+
+    // Every 100th sample is a keyframe. The keyframe at 2000 is held in the second chunk.
+    int result =
+        ring.findSampleBefore(
+            /* startIndex= */ 0,
+            /* length= */ SAMPLE_COUNT - 5,
+            /* timeUs= */ 2050,
+            /* keyframe= */ true);
+    int nonKeyframeResult =
+        ring.findSampleBefore(
+            /* startIndex= */ 10,
+            /* length= */ SAMPLE_COUNT - 15,
+            /* timeUs= */ 2050,
+            /* keyframe= */ false);
+    int notFoundResult =
+        ring.findSampleBefore(
+            /* startIndex= */ 10,
+            /* length= */ SAMPLE_COUNT - 15,
+            /* timeUs= */ 14,
+            /* keyframe= */ false);
+
+    assertThat(result).isEqualTo(2000 - 5);
+    assertThat(nonKeyframeResult).isEqualTo(2050 - 15);
+    assertThat(notFoundResult).isEqualTo(-1);
+  }
+
+  private static SampleMetadataRing createRing(int sampleCount) {
+    SampleMetadataRing ring = new SampleMetadataRing();
+    for (int i = 0; i < sampleCount; i++) {
+      ring.set(
+          /* index= */ i,
+          /* timeUs= */ i,
+          /* flags= */ i % 100 == 0 ? C.BUFFER_FLAG_KEY_FRAME : 0,
+          /* offset= */ i,
+          /* size= */ 1,
+          /* cryptoData= */ null,
+          /* sourceId= */ 0);
+    }
+    return ring;
+  }
+}
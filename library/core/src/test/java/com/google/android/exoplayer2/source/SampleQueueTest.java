@@ -25,6 +25,7 @@ import static com.google.android.exoplayer2.source.SampleStream.FLAG_PEEK;
 import static com.google.common.truth.Truth.assertThat;
 import static java.lang.Long.MAX_VALUE;
 import static java.lang.Long.MIN_VALUE;
+import static java.lang.Math.min;
 import static java.util.Arrays.copyOfRange;
 import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.Mockito.when;
@@ -46,6 +47,7 @@ import com.google.android.exoplayer2.extractor.TrackOutput;
 import com.google.android.exoplayer2.testutil.FakeCryptoConfig;
 import com.google.android.exoplayer2.testutil.TestUtil;
 import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DataReader;
 import com.google.android.exoplayer2.upstream.DefaultAllocator;
 import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.ParsableByteArray;
@@ -403,6 +405,69 @@ public final class SampleQueueTest {
     assertAllocationCount(0);
   }
 
+  @Test
+  public void readMultiSamples_withDirectMemoryAllocations() {
+    // Back half of the allocations with direct memory, so that samples span both kinds.
+    allocator =
+        new DefaultAllocator(
+            /* trimOnReset= */ false,
+            ALLOCATION_SIZE,
+            /* initialAllocationCount= */ 5,
+            /* useDirectMemoryForInitialAllocations= */ true);
+    sampleQueue = new SampleQueue(allocator, mockDrmSessionManager, eventDispatcher);
+
+    writeTestData();
+    assertAllocationCount(10);
+    assertReadTestData();
+    sampleQueue.discardToRead();
+    assertAllocationCount(0);
+  }
+
+  @Test
+  public void readSamplesWrittenFromDataReader_withDirectMemoryAllocations() throws Exception {
+    allocator =
+        new DefaultAllocator(
+            /* trimOnReset= */ false,
+            ALLOCATION_SIZE,
+            /* initialAllocationCount= */ 10,
+            /* useDirectMemoryForInitialAllocations= */ true);
+    sampleQueue = new SampleQueue(allocator, mockDrmSessionManager, eventDispatcher);
+    ParsableByteArray source = new ParsableByteArray(DATA);
+    DataReader dataReader =
+        (buffer, offset, length) -> {
+          int bytesToRead = min(length, min(source.bytesLeft(), ALLOCATION_SIZE / 3));
+          if (bytesToRead == 0) {
+            return C.RESULT_END_OF_INPUT;
+          }
+          source.readBytes(buffer, offset, bytesToRead);
+          return bytesToRead;
+        };
+
+    int bytesWritten = 0;
+    while (bytesWritten < DATA.length) {
+      bytesWritten +=
+          sampleQueue.sampleData(
+              dataReader, DATA.length - bytesWritten, /* allowEndOfInput= */ false);
+    }
+    sampleQueue.format(FORMAT_1);
+    sampleQueue.sampleMetadata(
+        /* timeUs= */ 0,
+        C.BUFFER_FLAG_KEY_FRAME,
+        /* size= */ DATA.length,
+        /* offset= */ 0,
+        /* cryptoData= */ null);
+
+    assertReadFormat(/* formatRequired= */ false, FORMAT_1);
+    assertReadSample(
+        /* timeUs= */ 0,
+        /* isKeyFrame= */ true,
+        /* isDecodeOnly= */ false,
+        /* isEncrypted= */ false,
+        DATA,
+        /* offset= */ 0,
+        DATA.length);
+  }
+
   @Test
   public void readMultiWithSeek() {
     writeTestData();
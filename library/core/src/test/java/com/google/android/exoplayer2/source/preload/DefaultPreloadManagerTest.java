@@ -0,0 +1,261 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.preload;
+
+import static com.google.android.exoplayer2.util.Assertions.checkNotNull;
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+import android.util.Pair;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.analytics.PlayerId;
+import com.google.android.exoplayer2.drm.DrmSessionEventListener;
+import com.google.android.exoplayer2.drm.DrmSessionManager;
+import com.google.android.exoplayer2.source.MediaPeriod;
+import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.MediaSource.MediaPeriodId;
+import com.google.android.exoplayer2.source.MediaSourceEventListener;
+import com.google.android.exoplayer2.source.SampleStream;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.testutil.ExoPlayerTestRunner;
+import com.google.android.exoplayer2.testutil.FakeMediaPeriod;
+import com.google.android.exoplayer2.testutil.FakeMediaSource;
+import com.google.android.exoplayer2.testutil.FakeTimeline;
+import com.google.android.exoplayer2.testutil.FakeTimeline.TimelineWindowDefinition;
+import com.google.android.exoplayer2.testutil.FakeVideoRenderer;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.util.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.compatqual.NullableType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link DefaultPreloadManager}. */
+@RunWith(AndroidJUnit4.class)
+public final class DefaultPreloadManagerTest {
+
+  private static final int ITEM_COUNT = 5;
+
+  private List<FakeMediaSource> fakeMediaSources;
+  private DefaultPreloadManager preloadManager;
+
+  @Before
+  public void setUp() {
+    Context context = ApplicationProvider.getApplicationContext();
+    fakeMediaSources = new ArrayList<>();
+    preloadManager =
+        new DefaultPreloadManager.Builder(context, Looper.getMainLooper())
+            .setRenderersFactory(
+                (handler, videoListener, audioListener, textOutput, metadataOutput) ->
+                    new Renderer[] {
+                      new FakeVideoRenderer(
+                          Clock.DEFAULT.createHandler(handler.getLooper(), /* callback= */ null),
+                          videoListener)
+                    })
+            .setAllocator(
+                new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE))
+            .setMaxPreloadedItemCount(2)
+            .build();
+    for (int i = 0; i < ITEM_COUNT; i++) {
+      FakeMediaSource fakeMediaSource =
+          new FakeMediaSource(
+              new FakeTimeline(new TimelineWindowDefinition(/* periodCount= */ 1, /* id= */ i)),
+              ExoPlayerTestRunner.VIDEO_FORMAT);
+      fakeMediaSources.add(fakeMediaSource);
+      preloadManager.add(fakeMediaSource, /* rankingIndex= */ i);
+    }
+  }
+
+  @Test
+  public void invalidate_preloadsItemsClosestToCurrentPlayingIndex() {
+    preloadManager.setCurrentPlayingIndex(2);
+
+    preloadManager.invalidate();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    assertThat(fakeMediaSources.get(0).isPrepared()).isFalse();
+    assertThat(fakeMediaSources.get(1).getCreatedMediaPeriods()).hasSize(1);
+    assertThat(fakeMediaSources.get(2).isPrepared()).isFalse();
+    assertThat(fakeMediaSources.get(3).getCreatedMediaPeriods()).hasSize(1);
+    assertThat(fakeMediaSources.get(4).isPrepared()).isFalse();
+  }
+
+  @Test
+  public void invalidate_afterCurrentPlayingIndexChange_releasesItemsOutOfRange() {
+    preloadManager.setCurrentPlayingIndex(1);
+    preloadManager.invalidate();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    preloadManager.setCurrentPlayingIndex(4);
+    preloadManager.invalidate();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    assertThat(fakeMediaSources.get(0).getCreatedMediaPeriods()).hasSize(1);
+    assertThat(fakeMediaSources.get(0).isPrepared()).isFalse();
+    assertThat(fakeMediaSources.get(1).isPrepared()).isFalse();
+    assertThat(fakeMediaSources.get(2).getCreatedMediaPeriods()).hasSize(1);
+    assertThat(fakeMediaSources.get(2).isPrepared()).isTrue();
+    assertThat(fakeMediaSources.get(3).getCreatedMediaPeriods()).hasSize(1);
+    assertThat(fakeMediaSources.get(3).isPrepared()).isTrue();
+  }
+
+  @Test
+  public void createPeriod_atPreloadedPosition_handsOverPreloadedPeriod() {
+    preloadManager.setCurrentPlayingIndex(0);
+    preloadManager.invalidate();
+    shadowOf(Looper.getMainLooper()).idle();
+    MediaSource mediaSource =
+        checkNotNull(preloadManager.getMediaSource(fakeMediaSources.get(1).getMediaItem()));
+    Timeline timeline = checkNotNull(mediaSource.getInitialTimeline());
+    Pair<Object, Long> periodPosition =
+        timeline.getPeriodPositionUs(
+            new Timeline.Window(),
+            new Timeline.Period(),
+            /* windowIndex= */ 0,
+            /* windowPositionUs= */ C.TIME_UNSET);
+    List<Timeline> playerTimelines = new ArrayList<>();
+
+    mediaSource.prepareSource(
+        (source, playerTimeline) -> playerTimelines.add(playerTimeline),
+        /* mediaTransferListener= */ null,
+        PlayerId.UNSET);
+    MediaPeriod mediaPeriod =
+        mediaSource.createPeriod(
+            new MediaPeriodId(periodPosition.first),
+            new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE),
+            periodPosition.second);
+
+    assertThat(playerTimelines).containsExactly(timeline);
+    assertThat(mediaPeriod).isInstanceOf(PreloadMediaPeriod.class);
+    assertThat(fakeMediaSources.get(1).getCreatedMediaPeriods()).hasSize(1);
+    mediaSource.releasePeriod(mediaPeriod);
+  }
+
+  @Test
+  public void invalidate_afterPreloadedPeriodHandedOver_preloadsItemAgain() {
+    preloadManager.setCurrentPlayingIndex(0);
+    preloadManager.invalidate();
+    shadowOf(Looper.getMainLooper()).idle();
+    MediaSource mediaSource =
+        checkNotNull(preloadManager.getMediaSource(fakeMediaSources.get(1).getMediaItem()));
+    Timeline timeline = checkNotNull(mediaSource.getInitialTimeline());
+    Pair<Object, Long> periodPosition =
+        timeline.getPeriodPositionUs(
+            new Timeline.Window(),
+            new Timeline.Period(),
+            /* windowIndex= */ 0,
+            /* windowPositionUs= */ C.TIME_UNSET);
+    MediaSource.MediaSourceCaller playerCaller = (source, playerTimeline) -> {};
+    preloadManager.setCurrentPlayingIndex(1);
+    preloadManager.invalidate();
+    mediaSource.prepareSource(playerCaller, /* mediaTransferListener= */ null, PlayerId.UNSET);
+    MediaPeriod mediaPeriod =
+        mediaSource.createPeriod(
+            new MediaPeriodId(periodPosition.first),
+            new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE),
+            periodPosition.second);
+    shadowOf(Looper.getMainLooper()).idle();
+
+    mediaSource.releasePeriod(mediaPeriod);
+    mediaSource.releaseSource(playerCaller);
+    preloadManager.setCurrentPlayingIndex(2);
+    preloadManager.invalidate();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    assertThat(mediaPeriod).isInstanceOf(PreloadMediaPeriod.class);
+    assertThat(fakeMediaSources.get(1).getCreatedMediaPeriods()).hasSize(2);
+    assertThat(fakeMediaSources.get(1).isPrepared()).isTrue();
+  }
+
+  @Test
+  public void createPeriod_atPreloadedPositionAdjustedByTrackSelection_handsOverPreloadedPeriod() {
+    FakeMediaSource adjustingMediaSource =
+        new FakeMediaSource(
+            new FakeTimeline(
+                new TimelineWindowDefinition(/* periodCount= */ 1, /* id= */ ITEM_COUNT)),
+            ExoPlayerTestRunner.VIDEO_FORMAT) {
+          @Override
+          protected MediaPeriod createMediaPeriod(
+              MediaPeriodId id,
+              TrackGroupArray trackGroupArray,
+              Allocator allocator,
+              MediaSourceEventListener.EventDispatcher mediaSourceEventDispatcher,
+              DrmSessionManager drmSessionManager,
+              DrmSessionEventListener.EventDispatcher drmEventDispatcher,
+              @Nullable TransferListener transferListener) {
+            return new FakeMediaPeriod(
+                trackGroupArray,
+                allocator,
+                FakeMediaPeriod.TrackDataFactory.singleSampleWithTimeUs(/* sampleTimeUs= */ 0),
+                mediaSourceEventDispatcher,
+                drmSessionManager,
+                drmEventDispatcher,
+                /* deferOnPrepared= */ false) {
+              @Override
+              public long selectTracks(
+                  @NullableType ExoTrackSelection[] selections,
+                  boolean[] mayRetainStreamFlags,
+                  @NullableType SampleStream[] streams,
+                  boolean[] streamResetFlags,
+                  long positionUs) {
+                // Select tracks at a later position, as a period starting at a keyframe would.
+                return super.selectTracks(
+                        selections, mayRetainStreamFlags, streams, streamResetFlags, positionUs)
+                    + 1_000;
+              }
+            };
+          }
+        };
+    preloadManager.remove(fakeMediaSources.get(1).getMediaItem());
+    preloadManager.add(adjustingMediaSource, /* rankingIndex= */ 1);
+    preloadManager.setCurrentPlayingIndex(0);
+    preloadManager.invalidate();
+    shadowOf(Looper.getMainLooper()).idle();
+    MediaSource mediaSource =
+        checkNotNull(preloadManager.getMediaSource(adjustingMediaSource.getMediaItem()));
+    Timeline timeline = checkNotNull(mediaSource.getInitialTimeline());
+    Pair<Object, Long> periodPosition =
+        timeline.getPeriodPositionUs(
+            new Timeline.Window(),
+            new Timeline.Period(),
+            /* windowIndex= */ 0,
+            /* windowPositionUs= */ C.TIME_UNSET);
+
+    mediaSource.prepareSource(
+        (source, playerTimeline) -> {}, /* mediaTransferListener= */ null, PlayerId.UNSET);
+    MediaPeriod mediaPeriod =
+        mediaSource.createPeriod(
+            new MediaPeriodId(periodPosition.first),
+            new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE),
+            periodPosition.second);
+
+    assertThat(mediaPeriod).isInstanceOf(PreloadMediaPeriod.class);
+    assertThat(adjustingMediaSource.getCreatedMediaPeriods()).hasSize(1);
+    mediaSource.releasePeriod(mediaPeriod);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link DefaultAllocator}. */
+@RunWith(AndroidJUnit4.class)
+public final class DefaultAllocatorTest {
+
+  private static final int ALLOCATION_SIZE = 16;
+
+  @Test
+  public void allocateAndRelease_updatesTotalBytesAllocated() {
+    DefaultAllocator allocator =
+        new DefaultAllocator(
+            /* trimOnReset= */ true, /* individualAllocationSize= */ ALLOCATION_SIZE);
+
+    Allocation allocation1 = allocator.allocate();
+    Allocation allocation2 = allocator.allocate();
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(2 * ALLOCATION_SIZE);
+
+    allocator.release(allocation1);
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(ALLOCATION_SIZE);
+    allocator.release(allocation2);
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(0);
+  }
+
+  @Test
+  public void allocate_afterRelease_reusesReleasedAllocation() {
+    DefaultAllocator allocator =
+        new DefaultAllocator(
+            /* trimOnReset= */ true, /* individualAllocationSize= */ ALLOCATION_SIZE);
+    allocator.setTargetBufferSize(ALLOCATION_SIZE);
+    Allocation allocation = allocator.allocate();
+
+    allocator.release(allocation);
+
+    assertThat(allocator.allocate()).isSameInstanceAs(allocation);
+  }
+
+  @Test
+  public void allocate_withInitialAllocations_usesInitialAllocations() {
+    DefaultAllocator allocator =
+        new DefaultAllocator(
+            /* trimOnReset= */ true,
+            /* individualAllocationSize= */ ALLOCATION_SIZE,
+            /* initialAllocationCount= */ 2);
+
+    Allocation allocation1 = allocator.allocate();
+    Allocation allocation2 = allocator.allocate();
+
+    assertThat(allocation1.data).isSameInstanceAs(allocation2.data);
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(2 * ALLOCATION_SIZE);
+  }
+
+  @Test
+  public void concurrentAllocateAndRelease_keepsTotalBytesAllocatedAccurate() throws Exception {
+    DefaultAllocator allocator =
+        new DefaultAllocator(
+            /* trimOnReset= */ true, /* individualAllocationSize= */ ALLOCATION_SIZE);
+    allocator.setTargetBufferSize(1000 * ALLOCATION_SIZE);
+    int threadCount = 4;
+    int iterationCount = 1000;
+    CountDownLatch startLatch = new CountDownLatch(1);
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  startLatch.await();
+                  List<Allocation> allocations = new ArrayList<>();
+                  for (int j = 0; j < iterationCount; j++) {
+                    allocations.add(allocator.allocate());
+                    if (j % 3 == 2) {
+                      allocator.release(allocations.remove(0));
+                      allocator.release(allocations.remove(0));
+                    }
+                  }
+                  for (Allocation allocation : allocations) {
+                    allocator.release(allocation);
+                  }
+                } catch (Throwable e) {
+                  error.set(e);
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+
+    startLatch.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(error.get()).isNull();
+    assertThat(allocator.getTotalBytesAllocated()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.upstream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.testutil.FakeDataSet;
+import com.google.android.exoplayer2.testutil.FakeDataSource;
+import com.google.android.exoplayer2.util.Util;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ParsingLoadable}. */
+@RunWith(AndroidJUnit4.class)
+public final class ParsingLoadableTest {
+
+  private static final Uri URI = Uri.parse("https://example.com/manifest");
+  private static final ParsingLoadable.Parser<String> PARSER =
+      (uri, inputStream) -> Util.fromUtf8Bytes(ByteStreams.toByteArray(inputStream));
+
+  @Test
+  public void load_withNotModifiedResult_returnsParsedResponse() throws Exception {
+    FakeDataSource dataSource =
+        new FakeDataSource(new FakeDataSet().setData(URI, Util.getUtf8Bytes("new")));
+    ParsingLoadable<String> loadable =
+        new ParsingLoadable<>(
+            dataSource,
+            new DataSpec(URI),
+            C.DATA_TYPE_MANIFEST,
+            PARSER,
+            /* notModifiedResult= */ "old");
+
+    loadable.load();
+
+    assertThat(loadable.getResult()).isEqualTo("new");
+  }
+
+  @Test
+  public void load_withNotModifiedResponse_returnsNotModifiedResult() throws Exception {
+    ParsingLoadable<String> loadable =
+        new ParsingLoadable<>(
+            new NotModifiedDataSource(),
+            new DataSpec(URI),
+            C.DATA_TYPE_MANIFEST,
+            PARSER,
+            /* notModifiedResult= */ "old");
+
+    loadable.load();
+
+    assertThat(loadable.getResult()).isEqualTo("old");
+    assertThat(loadable.bytesLoaded()).isEqualTo(0);
+  }
+
+  @Test
+  public void load_withNotModifiedResponseAndNoNotModifiedResult_throwsException() {
+    ParsingLoadable<String> loadable =
+        new ParsingLoadable<>(
+            new NotModifiedDataSource(), new DataSpec(URI), C.DATA_TYPE_MANIFEST, PARSER);
+
+    assertThrows(HttpDataSource.InvalidResponseCodeException.class, loadable::load);
+  }
+
+  /** A {@link DataSource} that responds to every request with HTTP status 304. */
+  private static final class NotModifiedDataSource implements DataSource {
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {}
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+      throw new HttpDataSource.InvalidResponseCodeException(
+          /* responseCode= */ 304,
+          /* responseMessage= */ "Not Modified",
+          /* cause= */ null,
+          /* headerFields= */ ImmutableMap.of(),
+          dataSpec,
+          /* responseBody= */ Util.EMPTY_BYTE_ARRAY);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Nullable
+    @Override
+    public Uri getUri() {
+      return null;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -62,6 +62,7 @@ import com.google.android.exoplayer2.source.dash.manifest.UtcTimingElement;
 import com.google.android.exoplayer2.upstream.Allocator;
 import com.google.android.exoplayer2.upstream.CmcdConfiguration;
 import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
 import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
 import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy.LoadErrorInfo;
@@ -76,7 +77,9 @@ import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.SntpClient;
 import com.google.android.exoplayer2.util.Util;
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.math.LongMath;
+import com.google.common.net.HttpHeaders;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -87,6 +90,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -427,6 +431,8 @@ public final class DashMediaSource extends BaseMediaSource {
   private Uri manifestUri;
   private Uri initialManifestUri;
   private DashManifest manifest;
+  @Nullable private String manifestETag;
+  @Nullable private Uri manifestETagUri;
   private boolean manifestLoadPending;
   private long manifestLoadStartTimestampMs;
   private long manifestLoadEndTimestampMs;
@@ -570,6 +576,8 @@ public final class DashMediaSource extends BaseMediaSource {
     manifestLoadStartTimestampMs = 0;
     manifestLoadEndTimestampMs = 0;
     manifest = sideloadedManifest ? manifest : null;
+    manifestETag = null;
+    manifestETagUri = null;
     manifestUri = initialManifestUri;
     manifestFatalError = null;
     if (handler != null) {
@@ -633,8 +641,7 @@ public final class DashMediaSource extends BaseMediaSource {
         // behind.
         Log.w(TAG, "Loaded out of sync manifest");
         isManifestStale = true;
-      } else if (expiredManifestPublishTimeUs != C.TIME_UNSET
-          && newManifest.publishTimeMs * 1000 <= expiredManifestPublishTimeUs) {
+      } else if (isManifestPublishTimeExpired(newManifest)) {
         // If we receive a dynamic manifest that's older than expected (i.e. its publish time has
         // expired, or it's dynamic and we know the presentation has ended), then this manifest is
         // stale.
@@ -659,6 +666,11 @@ public final class DashMediaSource extends BaseMediaSource {
       staleManifestReloadAttempt = 0;
     }
 
+    if (newManifest != manifest) {
+      // Keep the entity tag of the current manifest if the server responded that it's unchanged.
+      manifestETag = getETag(loadable.getResponseHeaders());
+      manifestETagUri = loadable.getUri();
+    }
     manifest = newManifest;
     manifestLoadPending &= manifest.dynamic;
     manifestLoadStartTimestampMs = elapsedRealtimeMs - loadDurationMs;
@@ -1053,12 +1065,35 @@ public final class DashMediaSource extends BaseMediaSource {
       manifestUri = this.manifestUri;
     }
     manifestLoadPending = false;
+    DataSpec.Builder dataSpecBuilder =
+        new DataSpec.Builder().setUri(manifestUri).setFlags(DataSpec.FLAG_ALLOW_GZIP);
+    @Nullable DashManifest notModifiedManifest = null;
+    if (manifestETag != null
+        && manifest != null
+        && manifestUri.equals(manifestETagUri)
+        && !isManifestPublishTimeExpired(manifest)) {
+      // Make a conditional request, so that an unchanged manifest is neither transferred nor
+      // parsed again.
+      dataSpecBuilder.setHttpRequestHeaders(
+          ImmutableMap.of(HttpHeaders.IF_NONE_MATCH, manifestETag));
+      notModifiedManifest = manifest;
+    }
     startLoading(
-        new ParsingLoadable<>(dataSource, manifestUri, C.DATA_TYPE_MANIFEST, manifestParser),
+        new ParsingLoadable<>(
+            dataSource,
+            dataSpecBuilder.build(),
+            C.DATA_TYPE_MANIFEST,
+            manifestParser,
+            notModifiedManifest),
         manifestCallback,
         loadErrorHandlingPolicy.getMinimumLoadableRetryCount(C.DATA_TYPE_MANIFEST));
   }
 
+  private boolean isManifestPublishTimeExpired(DashManifest manifest) {
+    return expiredManifestPublishTimeUs != C.TIME_UNSET
+        && manifest.publishTimeMs * 1000 <= expiredManifestPublishTimeUs;
+  }
+
   private long getManifestLoadRetryDelayMillis() {
     return min((staleManifestReloadAttempt - 1) * 1000, 5000);
   }
@@ -1073,6 +1108,16 @@ public final class DashMediaSource extends BaseMediaSource {
         loadable.type);
   }
 
+  @Nullable
+  private static String getETag(Map<String, List<String>> responseHeaders) {
+    for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+      if (HttpHeaders.ETAG.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+        return header.getValue().get(0);
+      }
+    }
+    return null;
+  }
+
   private static long getIntervalUntilNextManifestRefreshMs(
       DashManifest manifest, long nowUnixTimeMs) {
     int periodIndex = manifest.getPeriodCount() - 1;
@@ -119,6 +119,20 @@ public interface DashSegmentIndex {
    */
   long getNextSegmentAvailableTimeUs(long periodDurationUs, long nowUnixTimeUs);
 
+  /**
+   * Returns the offset by which segments become available before their end time, in microseconds,
+   * or {@link C#TIME_UNSET} if all segments are available immediately.
+   *
+   * <p>A positive offset means that segments are delivered while they are still being produced,
+   * for example as chunked CMAF in low-latency presentations. Explicitly defined segments that end
+   * after the current time are incomplete in this case.
+   *
+   * <p>The default implementation returns {@link C#TIME_UNSET}.
+   */
+  default long getAvailabilityTimeOffsetUs() {
+    return C.TIME_UNSET;
+  }
+
   /**
    * Returns true if segments are defined explicitly by the index.
    *
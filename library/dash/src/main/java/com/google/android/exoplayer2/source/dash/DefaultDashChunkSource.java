@@ -1036,13 +1036,21 @@ public class DefaultDashChunkSource implements DashChunkSource {
     }
 
     public boolean isSegmentAvailableAtFullNetworkSpeed(long segmentNum, long nowPeriodTimeUs) {
-      if (segmentIndex.isExplicit()) {
-        // We don't support segment availability for explicit indices (internal ref: b/172894901).
-        // Hence, also assume all segments in explicit indices are always available at full network
-        // speed even if they end in the future.
+      if (segmentIndex.isExplicit() && !hasSegmentsAvailableBeforeEnd()) {
+        // We don't support segment availability for explicit indices without an availability time
+        // offset (internal ref: b/172894901). Hence, assume all segments in such indices are always
+        // available at full network speed even if they end in the future.
         return true;
       }
+      // Segments that end in the future are still being produced and delivered in chunks as they
+      // become available. This also applies to explicit indices of low-latency presentations,
+      // which list the segment that is currently being produced.
       return nowPeriodTimeUs == C.TIME_UNSET || getSegmentEndTimeUs(segmentNum) <= nowPeriodTimeUs;
     }
+
+    private boolean hasSegmentsAvailableBeforeEnd() {
+      long availabilityTimeOffsetUs = segmentIndex.getAvailabilityTimeOffsetUs();
+      return availabilityTimeOffsetUs != C.TIME_UNSET && availabilityTimeOffsetUs > 0;
+    }
   }
 }
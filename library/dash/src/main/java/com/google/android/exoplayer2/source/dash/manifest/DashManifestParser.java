@@ -18,6 +18,7 @@ package com.google.android.exoplayer2.source.dash.manifest;
 import static com.google.android.exoplayer2.source.dash.manifest.BaseUrl.DEFAULT_DVB_PRIORITY;
 import static com.google.android.exoplayer2.source.dash.manifest.BaseUrl.DEFAULT_WEIGHT;
 import static com.google.android.exoplayer2.source.dash.manifest.BaseUrl.PRIORITY_UNSET;
+import static java.lang.Math.max;
 
 import android.net.Uri;
 import android.text.TextUtils;
@@ -972,7 +973,7 @@ public class DashManifestParser extends DefaultHandler
 
     if (parent != null) {
       initialization = initialization != null ? initialization : parent.initialization;
-      timeline = timeline != null ? timeline : parent.segmentTimeline;
+      timeline = getSharedSegmentTimeline(timeline, parent.segmentTimeline);
       segments = segments != null ? segments : parent.mediaSegments;
     }
 
@@ -1057,7 +1058,7 @@ public class DashManifestParser extends DefaultHandler
 
     if (parent != null) {
       initialization = initialization != null ? initialization : parent.initialization;
-      timeline = timeline != null ? timeline : parent.segmentTimeline;
+      timeline = getSharedSegmentTimeline(timeline, parent.segmentTimeline);
     }
 
     return buildSegmentTemplate(
@@ -1264,7 +1265,10 @@ public class DashManifestParser extends DefaultHandler
   protected List<SegmentTimelineElement> parseSegmentTimeline(
       XmlPullParser xpp, long timescale, long periodDurationMs)
       throws XmlPullParserException, IOException {
-    List<SegmentTimelineElement> segmentTimeline = new ArrayList<>();
+    SegmentTimeline.Builder segmentTimeline =
+        usesCustomSegmentTimelineElements()
+            ? new SegmentTimeline.Builder(this::buildSegmentTimelineElement)
+            : new SegmentTimeline.Builder();
     long startTime = 0;
     long elementDuration = C.TIME_UNSET;
     int elementRepeatCount = 0;
@@ -1275,7 +1279,7 @@ public class DashManifestParser extends DefaultHandler
         long newStartTime = parseLong(xpp, "t", C.TIME_UNSET);
         if (havePreviousTimelineElement) {
           startTime =
-              addSegmentTimelineElementsToList(
+              addSegmentTimelineElements(
                   segmentTimeline,
                   startTime,
                   elementDuration,
@@ -1294,14 +1298,14 @@ public class DashManifestParser extends DefaultHandler
     } while (!XmlPullParserUtil.isEndTag(xpp, "SegmentTimeline"));
     if (havePreviousTimelineElement) {
       long periodDuration = Util.scaleLargeTimestamp(periodDurationMs, timescale, 1000);
-      addSegmentTimelineElementsToList(
+      addSegmentTimelineElements(
           segmentTimeline,
           startTime,
           elementDuration,
           elementRepeatCount,
           /* endTime= */ periodDuration);
     }
-    return segmentTimeline;
+    return segmentTimeline.build();
   }
 
   /**
@@ -1315,8 +1319,8 @@ public class DashManifestParser extends DefaultHandler
    *     unknown. Only needed if {@code repeatCount} is negative.
    * @return Calculated next start time.
    */
-  private long addSegmentTimelineElementsToList(
-      List<SegmentTimelineElement> segmentTimeline,
+  private long addSegmentTimelineElements(
+      SegmentTimeline.Builder segmentTimeline,
       long startTime,
       long elementDuration,
       int elementRepeatCount,
@@ -1325,13 +1329,26 @@ public class DashManifestParser extends DefaultHandler
         elementRepeatCount >= 0
             ? 1 + elementRepeatCount
             : (int) Util.ceilDivide(endTime - startTime, elementDuration);
-    for (int i = 0; i < count; i++) {
-      segmentTimeline.add(buildSegmentTimelineElement(startTime, elementDuration));
-      startTime += elementDuration;
-    }
-    return startTime;
+    segmentTimeline.addRun(startTime, elementDuration, count);
+    return startTime + max(count, 0) * elementDuration;
+  }
+
+  /**
+   * Returns whether the elements of parsed segment timelines are created by {@link
+   * #buildSegmentTimelineElement}. Otherwise, plain {@link SegmentTimelineElement} instances are
+   * created, which allows looking up element times without creating the elements.
+   *
+   * <p>Subclasses that override {@link #buildSegmentTimelineElement} must override this method to
+   * return true.
+   */
+  protected boolean usesCustomSegmentTimelineElements() {
+    return false;
   }
 
+  /**
+   * Builds a segment timeline element. Only called if {@link #usesCustomSegmentTimelineElements()}
+   * returns true.
+   */
   protected SegmentTimelineElement buildSegmentTimelineElement(long startTime, long duration) {
     return new SegmentTimelineElement(startTime, duration);
   }
@@ -2042,6 +2059,24 @@ public class DashManifestParser extends DefaultHandler
     return C.INDEX_UNSET;
   }
 
+  /**
+   * Returns the segment timeline to use for an element whose parent has the given timeline. The
+   * parent timeline is returned if the element doesn't define its own timeline, or if it defines
+   * one with the same elements, so that representations with identical timelines share them.
+   */
+  @Nullable
+  private static List<SegmentTimelineElement> getSharedSegmentTimeline(
+      @Nullable List<SegmentTimelineElement> timeline,
+      @Nullable List<SegmentTimelineElement> parentTimeline) {
+    if (timeline == null
+        || (timeline instanceof SegmentTimeline
+            && parentTimeline instanceof SegmentTimeline
+            && ((SegmentTimeline) timeline).hasSameElements((SegmentTimeline) parentTimeline))) {
+      return parentTimeline;
+    }
+    return timeline;
+  }
+
   private static long getFinalAvailabilityTimeOffset(
       long baseUrlAvailabilityTimeOffsetUs, long segmentBaseAvailabilityTimeOffsetUs) {
     long availabilityTimeOffsetUs = segmentBaseAvailabilityTimeOffsetUs;
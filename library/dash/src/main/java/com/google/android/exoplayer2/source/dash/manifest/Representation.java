@@ -392,6 +392,11 @@ public abstract class Representation {
       return segmentBase.getNextSegmentAvailableTimeUs(periodDurationUs, nowUnixTimeUs);
     }
 
+    @Override
+    public long getAvailabilityTimeOffsetUs() {
+      return segmentBase.availabilityTimeOffsetUs;
+    }
+
     @Override
     public boolean isExplicit() {
       return segmentBase.isExplicit();
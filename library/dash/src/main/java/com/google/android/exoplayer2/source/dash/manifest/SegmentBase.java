@@ -20,7 +20,6 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 import androidx.annotation.Nullable;
-import androidx.annotation.VisibleForTesting;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.source.dash.DashSegmentIndex;
 import com.google.android.exoplayer2.util.Util;
@@ -134,7 +133,7 @@ public abstract class SegmentBase {
      * <p>Segments will be available once their end time &le; currentRealTime +
      * availabilityTimeOffset.
      */
-    @VisibleForTesting /* package */ final long availabilityTimeOffsetUs;
+    /* package */ final long availabilityTimeOffsetUs;
 
     /**
      * @param initialization A {@link RangedUri} corresponding to initialization data, if such data
@@ -213,7 +212,8 @@ public abstract class SegmentBase {
     /** See {@link DashSegmentIndex#getDurationUs(long, long)}. */
     public final long getSegmentDurationUs(long sequenceNumber, long periodDurationUs) {
       if (segmentTimeline != null) {
-        long duration = segmentTimeline.get((int) (sequenceNumber - startNumber)).duration;
+        long duration =
+            getSegmentTimelineDuration(segmentTimeline, (int) (sequenceNumber - startNumber));
         return (duration * C.MICROS_PER_SECOND) / timescale;
       } else {
         long segmentCount = getSegmentCount(periodDurationUs);
@@ -229,7 +229,7 @@ public abstract class SegmentBase {
       long unscaledSegmentTime;
       if (segmentTimeline != null) {
         unscaledSegmentTime =
-            segmentTimeline.get((int) (sequenceNumber - startNumber)).startTime
+            getSegmentTimelineStartTime(segmentTimeline, (int) (sequenceNumber - startNumber))
                 - presentationTimeOffset;
       } else {
         unscaledSegmentTime = (sequenceNumber - startNumber) * duration;
@@ -299,6 +299,28 @@ public abstract class SegmentBase {
       return segmentTimeline != null;
     }
 
+    /**
+     * Returns the start time of an element of a segment timeline, without creating the element if
+     * the timeline is a {@link SegmentTimeline} of plain elements.
+     */
+    /* package */ static long getSegmentTimelineStartTime(
+        List<SegmentTimelineElement> segmentTimeline, int index) {
+      return segmentTimeline instanceof SegmentTimeline
+          ? ((SegmentTimeline) segmentTimeline).getStartTime(index)
+          : segmentTimeline.get(index).startTime;
+    }
+
+    /**
+     * Returns the duration of an element of a segment timeline, without creating the element if
+     * the timeline is a {@link SegmentTimeline} of plain elements.
+     */
+    /* package */ static long getSegmentTimelineDuration(
+        List<SegmentTimelineElement> segmentTimeline, int index) {
+      return segmentTimeline instanceof SegmentTimeline
+          ? ((SegmentTimeline) segmentTimeline).getDuration(index)
+          : segmentTimeline.get(index).duration;
+    }
+
     /** See {@link DashSegmentIndex#getSegmentCount(long)}. */
     public abstract long getSegmentCount(long periodDurationUs);
   }
@@ -447,7 +469,7 @@ public abstract class SegmentBase {
     public RangedUri getSegmentUrl(Representation representation, long sequenceNumber) {
       long time;
       if (segmentTimeline != null) {
-        time = segmentTimeline.get((int) (sequenceNumber - startNumber)).startTime;
+        time = getSegmentTimelineStartTime(segmentTimeline, (int) (sequenceNumber - startNumber));
       } else {
         time = (sequenceNumber - startNumber) * duration;
       }
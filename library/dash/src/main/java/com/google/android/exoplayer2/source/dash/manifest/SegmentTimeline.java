@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.dash.manifest;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.source.dash.manifest.SegmentBase.SegmentTimelineElement;
+import com.google.android.exoplayer2.util.Util;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * The elements of a SegmentTimeline manifest element.
+ *
+ * <p>The timeline is stored as runs of consecutive elements with equal duration, which is how S
+ * elements with a repeat count describe it. Repeats are never expanded: the start time and
+ * duration of an element are looked up in O(log(number of runs)), and {@link #get(int)} creates a
+ * new {@link SegmentTimelineElement} on every call.
+ *
+ * <p>Adjacent runs are merged when built, so two timelines with the same elements always have the
+ * same runs and {@link #hasSameElements} runs in O(number of runs).
+ *
+ * <p>If the timeline is built with a custom {@link ElementFactory}, the elements it creates are
+ * authoritative: {@link #getStartTime(int)}, {@link #getDuration(int)} and {@link
+ * #hasSameElements} then go through {@link #get(int)} instead of reading the runs.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+/* package */ final class SegmentTimeline extends AbstractList<SegmentTimelineElement> {
+
+  /** Creates the {@link SegmentTimelineElement} instances returned by a timeline. */
+  public interface ElementFactory {
+
+    /**
+     * Creates a timeline element.
+     *
+     * @param startTime The start time of the element, in the timescale of the enclosing element.
+     * @param duration The duration of the element, in the timescale of the enclosing element.
+     */
+    SegmentTimelineElement createElement(long startTime, long duration);
+  }
+
+  /** Builds a {@link SegmentTimeline} one run at a time. */
+  public static final class Builder {
+
+    @Nullable private final ElementFactory elementFactory;
+
+    private long[] runStartTimes;
+    private long[] runDurations;
+    private int[] runFirstIndices;
+    private int runCount;
+    private int elementCount;
+
+    /** Creates an instance that builds a timeline of plain {@link SegmentTimelineElement}s. */
+    public Builder() {
+      this(/* elementFactory= */ null);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param elementFactory The factory used to create the elements returned by the timeline, or
+     *     null to create plain {@link SegmentTimelineElement} instances.
+     */
+    public Builder(@Nullable ElementFactory elementFactory) {
+      this.elementFactory = elementFactory;
+      runStartTimes = new long[8];
+      runDurations = new long[8];
+      runFirstIndices = new int[8];
+    }
+
+    /**
+     * Adds {@code count} consecutive elements of equal duration. Does nothing if {@code count} is
+     * not positive.
+     *
+     * @param startTime The start time of the first element.
+     * @param duration The duration of each element.
+     * @param count The number of elements.
+     * @return This builder.
+     */
+    public Builder addRun(long startTime, long duration, int count) {
+      if (count <= 0) {
+        return this;
+      }
+      if (runCount > 0) {
+        int lastRunIndex = runCount - 1;
+        long lastRunEndTime =
+            runStartTimes[lastRunIndex]
+                + (elementCount - runFirstIndices[lastRunIndex]) * runDurations[lastRunIndex];
+        if (runDurations[lastRunIndex] == duration && lastRunEndTime == startTime) {
+          elementCount += count;
+          return this;
+        }
+      }
+      if (runCount == runFirstIndices.length) {
+        int newLength = runCount * 2;
+        runStartTimes = Arrays.copyOf(runStartTimes, newLength);
+        runDurations = Arrays.copyOf(runDurations, newLength);
+        runFirstIndices = Arrays.copyOf(runFirstIndices, newLength);
+      }
+      runStartTimes[runCount] = startTime;
+      runDurations[runCount] = duration;
+      runFirstIndices[runCount] = elementCount;
+      runCount++;
+      elementCount += count;
+      return this;
+    }
+
+    /** Builds the timeline. */
+    public SegmentTimeline build() {
+      return new SegmentTimeline(
+          elementFactory,
+          Arrays.copyOf(runStartTimes, runCount),
+          Arrays.copyOf(runDurations, runCount),
+          Arrays.copyOf(runFirstIndices, runCount),
+          elementCount);
+    }
+  }
+
+  @Nullable private final ElementFactory elementFactory;
+  private final long[] runStartTimes;
+  private final long[] runDurations;
+  private final int[] runFirstIndices;
+  private final int elementCount;
+
+  private SegmentTimeline(
+      @Nullable ElementFactory elementFactory,
+      long[] runStartTimes,
+      long[] runDurations,
+      int[] runFirstIndices,
+      int elementCount) {
+    this.elementFactory = elementFactory;
+    this.runStartTimes = runStartTimes;
+    this.runDurations = runDurations;
+    this.runFirstIndices = runFirstIndices;
+    this.elementCount = elementCount;
+  }
+
+  /**
+   * Returns the start time of the element at the given index, in the timescale of the enclosing
+   * element.
+   */
+  public long getStartTime(int index) {
+    if (elementFactory != null) {
+      return get(index).startTime;
+    }
+    int runIndex = getRunIndex(index);
+    return runStartTimes[runIndex] + (index - runFirstIndices[runIndex]) * runDurations[runIndex];
+  }
+
+  /**
+   * Returns the duration of the element at the given index, in the timescale of the enclosing
+   * element.
+   */
+  public long getDuration(int index) {
+    if (elementFactory != null) {
+      return get(index).duration;
+    }
+    return runDurations[getRunIndex(index)];
+  }
+
+  /** Returns whether this timeline has the same elements as {@code other}. */
+  public boolean hasSameElements(SegmentTimeline other) {
+    if (elementFactory != null || other.elementFactory != null) {
+      return equals(other);
+    }
+    return elementCount == other.elementCount
+        && Arrays.equals(runFirstIndices, other.runFirstIndices)
+        && Arrays.equals(runStartTimes, other.runStartTimes)
+        && Arrays.equals(runDurations, other.runDurations);
+  }
+
+  @Override
+  public SegmentTimelineElement get(int index) {
+    int runIndex = getRunIndex(index);
+    long duration = runDurations[runIndex];
+    long startTime = runStartTimes[runIndex] + (index - runFirstIndices[runIndex]) * duration;
+    return elementFactory != null
+        ? elementFactory.createElement(startTime, duration)
+        : new SegmentTimelineElement(startTime, duration);
+  }
+
+  @Override
+  public int size() {
+    return elementCount;
+  }
+
+  private int getRunIndex(int index) {
+    if (index < 0 || index >= elementCount) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + elementCount);
+    }
+    return Util.binarySearchFloor(
+        runFirstIndices, index, /* inclusive= */ true, /* stayInBounds= */ true);
+  }
+}
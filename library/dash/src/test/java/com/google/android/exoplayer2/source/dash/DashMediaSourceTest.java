@@ -17,9 +17,13 @@ package com.google.android.exoplayer2.source.dash;
 
 import static com.google.common.truth.Truth.assertThat;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.fail;
 
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.Nullable;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.android.exoplayer2.C;
@@ -29,16 +33,30 @@ import com.google.android.exoplayer2.ParserException;
 import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.Timeline.Window;
 import com.google.android.exoplayer2.analytics.PlayerId;
+import com.google.android.exoplayer2.source.LoadEventInfo;
+import com.google.android.exoplayer2.source.MediaLoadData;
 import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.MediaSource.MediaPeriodId;
 import com.google.android.exoplayer2.source.MediaSource.MediaSourceCaller;
+import com.google.android.exoplayer2.source.MediaSourceEventListener;
 import com.google.android.exoplayer2.testutil.TestUtil;
 import com.google.android.exoplayer2.upstream.ByteArrayDataSource;
 import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.FileDataSource;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
 import com.google.android.exoplayer2.upstream.ParsingLoadable;
+import com.google.android.exoplayer2.upstream.TransferListener;
 import com.google.android.exoplayer2.util.Util;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HttpHeaders;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
@@ -444,6 +462,60 @@ public final class DashMediaSourceTest {
     assertThat(window.liveConfiguration.targetOffsetMs).isEqualTo(60_000 - 16_000);
   }
 
+  @Test
+  public void refreshManifest_withETagAndNotModifiedResponse_keepsManifestAndSchedulesRefresh()
+      throws Exception {
+    NotModifiedAfterFirstLoadDataSource dataSource =
+        new NotModifiedAfterFirstLoadDataSource(
+            TestUtil.getByteArray(
+                ApplicationProvider.getApplicationContext(),
+                SAMPLE_MPD_LIVE_WITHOUT_LIVE_CONFIGURATION),
+            /* eTag= */ "\"v1\"");
+    DashMediaSource mediaSource =
+        new DashMediaSource.Factory(() -> dataSource)
+            .createMediaSource(MediaItem.fromUri(Uri.EMPTY));
+    List<IOException> loadErrors = new CopyOnWriteArrayList<>();
+    mediaSource.addEventListener(
+        new Handler(Looper.getMainLooper()),
+        new MediaSourceEventListener() {
+          @Override
+          public void onLoadError(
+              int windowIndex,
+              @Nullable MediaPeriodId mediaPeriodId,
+              LoadEventInfo loadEventInfo,
+              MediaLoadData mediaLoadData,
+              IOException error,
+              boolean wasCanceled) {
+            loadErrors.add(error);
+          }
+        });
+    List<Object> manifests = new ArrayList<>();
+    mediaSource.prepareSource(
+        (source, timeline) -> manifests.add(timeline.getWindow(0, new Window()).manifest),
+        /* mediaTransferListener= */ null,
+        PlayerId.UNSET);
+
+    // The manifest has a minimum update period of 4 minutes. Wait for the initial load and two
+    // refreshes, so that the second refresh proves that the first one scheduled the next.
+    while (dataSource.getOpenedDataSpecs().size() < 3) {
+      ShadowLooper.idleMainLooper(/* time= */ 1, SECONDS);
+    }
+    ShadowLooper.idleMainLooper();
+
+    List<DataSpec> openedDataSpecs = dataSource.getOpenedDataSpecs();
+    assertThat(openedDataSpecs.get(0).httpRequestHeaders).isEmpty();
+    assertThat(openedDataSpecs.get(1).httpRequestHeaders)
+        .containsExactly(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+    assertThat(openedDataSpecs.get(2).httpRequestHeaders)
+        .containsExactly(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+    assertThat(loadErrors).isEmpty();
+    assertThat(manifests).isNotEmpty();
+    assertThat(manifests.get(0)).isNotNull();
+    for (Object manifest : manifests) {
+      assertThat(manifest).isSameInstanceAs(manifests.get(0));
+    }
+  }
+
   private static Window prepareAndWaitForTimelineRefresh(MediaSource mediaSource)
       throws InterruptedException {
     AtomicReference<Window> windowReference = new AtomicReference<>();
@@ -477,4 +549,65 @@ public final class DashMediaSourceTest {
     long actual = parser.parse(null, new ByteArrayInputStream(Util.getUtf8Bytes(data)));
     assertThat(actual).isEqualTo(expected);
   }
+  /**
+   * A {@link DataSource} that serves the manifest with an entity tag on the first request, and
+   * responds to all further requests with HTTP status 304.
+   */
+  private static final class NotModifiedAfterFirstLoadDataSource implements DataSource {
+
+    private final ByteArrayDataSource manifestDataSource;
+    private final String eTag;
+    private final List<DataSpec> openedDataSpecs;
+
+    public NotModifiedAfterFirstLoadDataSource(byte[] manifestData, String eTag) {
+      manifestDataSource = new ByteArrayDataSource(manifestData);
+      this.eTag = eTag;
+      openedDataSpecs = new CopyOnWriteArrayList<>();
+    }
+
+    public List<DataSpec> getOpenedDataSpecs() {
+      return openedDataSpecs;
+    }
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {}
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+      openedDataSpecs.add(dataSpec);
+      if (openedDataSpecs.size() > 1) {
+        throw new HttpDataSource.InvalidResponseCodeException(
+            /* responseCode= */ 304,
+            /* responseMessage= */ "Not Modified",
+            /* cause= */ null,
+            /* headerFields= */ ImmutableMap.of(),
+            dataSpec,
+            /* responseBody= */ Util.EMPTY_BYTE_ARRAY);
+      }
+      return manifestDataSource.open(dataSpec);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      return manifestDataSource.read(buffer, offset, length);
+    }
+
+    @Nullable
+    @Override
+    public Uri getUri() {
+      return manifestDataSource.getUri();
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+      return openedDataSpecs.size() == 1
+          ? ImmutableMap.of(HttpHeaders.ETAG, ImmutableList.of(eTag))
+          : ImmutableMap.of();
+    }
+
+    @Override
+    public void close() throws IOException {
+      manifestDataSource.close();
+    }
+  }
 }
@@ -68,6 +68,8 @@ public class DefaultDashChunkSourceTest {
 
   private static final String SAMPLE_MPD_LIVE_WITH_OFFSET_INSIDE_WINDOW =
       "media/mpd/sample_mpd_live_with_offset_inside_window";
+  private static final String SAMPLE_MPD_LIVE_LOW_LATENCY_SEGMENT_TIMELINE =
+      "media/mpd/sample_mpd_live_low_latency_segment_timeline";
   private static final String SAMPLE_MPD_VOD = "media/mpd/sample_mpd_vod";
   private static final String SAMPLE_MPD_VOD_LOCATION_FALLBACK =
       "media/mpd/sample_mpd_vod_location_fallback";
@@ -123,6 +125,60 @@ public class DefaultDashChunkSourceTest {
         .isNotEqualTo(0);
   }
 
+  @Test
+  public void
+      getNextChunk_forLowLatencySegmentTimeline_setsMayNotLoadAtFullNetworkSpeedFlagForLastSegment()
+          throws Exception {
+    long nowMs = 2_000_000_000_000L;
+    SystemClock.setCurrentTimeMillis(nowMs);
+    DashManifest manifest =
+        new DashManifestParser()
+            .parse(
+                Uri.parse("https://example.com/test.mpd"),
+                TestUtil.getInputStream(
+                    ApplicationProvider.getApplicationContext(),
+                    SAMPLE_MPD_LIVE_LOW_LATENCY_SEGMENT_TIMELINE));
+    DefaultDashChunkSource chunkSource =
+        new DefaultDashChunkSource(
+            BundledChunkExtractor.FACTORY,
+            new LoaderErrorThrower.Placeholder(),
+            manifest,
+            new BaseUrlExclusionList(),
+            /* periodIndex= */ 0,
+            /* adaptationSetIndices= */ new int[] {0},
+            new FixedTrackSelection(new TrackGroup(new Format.Builder().build()), /* track= */ 0),
+            C.TRACK_TYPE_VIDEO,
+            new FakeDataSource(),
+            /* elapsedRealtimeOffsetMs= */ 0,
+            /* maxSegmentsPerLoad= */ 1,
+            /* enableEventMessageTrack= */ false,
+            /* closedCaptionFormats= */ ImmutableList.of(),
+            /* playerTrackEmsgHandler= */ null,
+            PlayerId.UNSET,
+            /* cmcdConfiguration= */ null);
+
+    long nowInPeriodUs = Util.msToUs(nowMs - manifest.availabilityStartTimeMs);
+    ChunkHolder output = new ChunkHolder();
+
+    chunkSource.getNextChunk(
+        /* playbackPositionUs= */ nowInPeriodUs - 3 * C.MICROS_PER_SECOND,
+        /* loadPositionUs= */ nowInPeriodUs - 3 * C.MICROS_PER_SECOND,
+        /* queue= */ ImmutableList.of(),
+        output);
+    assertThat(output.chunk.dataSpec.uri.toString()).endsWith("chunk-1999999997000.mp4");
+    assertThat(output.chunk.dataSpec.flags & DataSpec.FLAG_MIGHT_NOT_USE_FULL_NETWORK_SPEED)
+        .isEqualTo(0);
+
+    chunkSource.getNextChunk(
+        /* playbackPositionUs= */ nowInPeriodUs - 500_000,
+        /* loadPositionUs= */ nowInPeriodUs - 500_000,
+        /* queue= */ ImmutableList.of(),
+        output);
+    assertThat(output.chunk.dataSpec.uri.toString()).endsWith("chunk-1999999999000.mp4");
+    assertThat(output.chunk.dataSpec.flags & DataSpec.FLAG_MIGHT_NOT_USE_FULL_NETWORK_SPEED)
+        .isNotEqualTo(0);
+  }
+
   @Test
   public void getNextChunk_forVodManifest_doesNotSetMayNotLoadAtFullNetworkSpeedFlag()
       throws Exception {
@@ -377,6 +377,65 @@ public class DashManifestParserTest {
     assertNextTag(xpp);
   }
 
+  @Test
+  public void parseSegmentTimeline_largeRepeatCount() throws Exception {
+    DashManifestParser parser = new DashManifestParser();
+    XmlPullParser xpp = XmlPullParserFactory.newInstance().newPullParser();
+    xpp.setInput(
+        new StringReader(
+            "<SegmentTimeline><S t=\"1000\" d=\"96000\" r=\"43199\"/><S d=\"48000\"/>"
+                + "</SegmentTimeline>"
+                + NEXT_TAG));
+    xpp.next();
+
+    List<SegmentTimelineElement> elements =
+        parser.parseSegmentTimeline(
+            xpp, /* timescale= */ 48000, /* periodDurationMs= */ C.TIME_UNSET);
+
+    assertThat(elements).hasSize(43201);
+    assertThat(elements.get(0))
+        .isEqualTo(new SegmentTimelineElement(/* startTime= */ 1000, /* duration= */ 96000));
+    assertThat(elements.get(43199))
+        .isEqualTo(
+            new SegmentTimelineElement(/* startTime= */ 4_147_105_000L, /* duration= */ 96000));
+    assertThat(elements.get(43200))
+        .isEqualTo(
+            new SegmentTimelineElement(/* startTime= */ 4_147_201_000L, /* duration= */ 48000));
+    assertNextTag(xpp);
+  }
+
+  @Test
+  public void parseSegmentTimeline_withCustomElements_usesBuiltElements() throws Exception {
+    DashManifestParser parser =
+        new DashManifestParser() {
+          @Override
+          protected boolean usesCustomSegmentTimelineElements() {
+            return true;
+          }
+
+          @Override
+          protected SegmentTimelineElement buildSegmentTimelineElement(
+              long startTime, long duration) {
+            return new SegmentTimelineElement(startTime + 1, duration);
+          }
+        };
+    XmlPullParser xpp = XmlPullParserFactory.newInstance().newPullParser();
+    xpp.setInput(
+        new StringReader(
+            "<SegmentTimeline><S d=\"96000\" r=\"1\"/></SegmentTimeline>" + NEXT_TAG));
+    xpp.next();
+
+    List<SegmentTimelineElement> elements =
+        parser.parseSegmentTimeline(xpp, /* timescale= */ 48000, /* periodDurationMs= */ 10000);
+
+    assertThat(elements)
+        .containsExactly(
+            new SegmentTimelineElement(/* startTime= */ 1, /* duration= */ 96000),
+            new SegmentTimelineElement(/* startTime= */ 96001, /* duration= */ 96000))
+        .inOrder();
+    assertNextTag(xpp);
+  }
+
   @Test
   public void parseSegmentTimeline_singleUndefinedRepeatCount() throws Exception {
     DashManifestParser parser = new DashManifestParser();
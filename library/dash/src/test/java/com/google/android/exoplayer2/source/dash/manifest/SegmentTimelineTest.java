@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.dash.manifest;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.source.dash.manifest.SegmentBase.MultiSegmentBase;
+import com.google.android.exoplayer2.source.dash.manifest.SegmentBase.SegmentTimelineElement;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link SegmentTimeline}. */
+@RunWith(AndroidJUnit4.class)
+public final class SegmentTimelineTest {
+
+  @Test
+  public void get_returnsElementsOfAllRuns() {
+    SegmentTimeline timeline =
+        new SegmentTimeline.Builder()
+            .addRun(/* startTime= */ 1000, /* duration= */ 96000, /* count= */ 43200)
+            .addRun(/* startTime= */ 4_147_201_000L, /* duration= */ 48000, /* count= */ 1)
+            .addRun(/* startTime= */ 5_000_000_000L, /* duration= */ 10, /* count= */ 3)
+            .build();
+
+    assertThat(timeline).hasSize(43204);
+    assertThat(timeline.get(0)).isEqualTo(new SegmentTimelineElement(1000, 96000));
+    assertThat(timeline.get(43199)).isEqualTo(new SegmentTimelineElement(4_147_105_000L, 96000));
+    assertThat(timeline.get(43200)).isEqualTo(new SegmentTimelineElement(4_147_201_000L, 48000));
+    assertThat(timeline.get(43203)).isEqualTo(new SegmentTimelineElement(5_000_000_020L, 10));
+    assertThat(timeline.getStartTime(43202)).isEqualTo(5_000_000_010L);
+    assertThat(timeline.getDuration(43202)).isEqualTo(10);
+  }
+
+  @Test
+  public void get_withIndexOutOfBounds_throwsException() {
+    SegmentTimeline timeline =
+        new SegmentTimeline.Builder()
+            .addRun(/* startTime= */ 0, /* duration= */ 10, /* count= */ 2)
+            .build();
+
+    assertThrows(IndexOutOfBoundsException.class, () -> timeline.get(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> timeline.getStartTime(-1));
+  }
+
+  @Test
+  public void hasSameElements_withDifferentlySplitRuns_returnsTrue() {
+    SegmentTimeline timeline =
+        new SegmentTimeline.Builder()
+            .addRun(/* startTime= */ 0, /* duration= */ 10, /* count= */ 2)
+            .addRun(/* startTime= */ 20, /* duration= */ 10, /* count= */ 3)
+            .build();
+    SegmentTimeline otherTimeline =
+        new SegmentTimeline.Builder()
+            .addRun(/* startTime= */ 0, /* duration= */ 10, /* count= */ 5)
+            .build();
+
+    assertThat(timeline.hasSameElements(otherTimeline)).isTrue();
+    assertThat(timeline).containsExactlyElementsIn(otherTimeline).inOrder();
+  }
+
+  @Test
+  public void hasSameElements_withDifferentElements_returnsFalse() {
+    SegmentTimeline timeline =
+        new SegmentTimeline.Builder()
+            .addRun(/* startTime= */ 0, /* duration= */ 10, /* count= */ 5)
+            .build();
+    SegmentTimeline otherTimeline =
+        new SegmentTimeline.Builder()
+            .addRun(/* startTime= */ 0, /* duration= */ 10, /* count= */ 4)
+            .addRun(/* startTime= */ 40, /* duration= */ 5, /* count= */ 1)
+            .build();
+
+    assertThat(timeline.hasSameElements(otherTimeline)).isFalse();
+  }
+
+  @Test
+  public void getStartTimeAndDuration_withCustomElementFactory_returnsValuesOfCreatedElements() {
+    SegmentTimeline timeline =
+        new SegmentTimeline.Builder(
+                (startTime, duration) -> new SegmentTimelineElement(startTime + 1, duration * 2))
+            .addRun(/* startTime= */ 0, /* duration= */ 10, /* count= */ 3)
+            .build();
+
+    assertThat(timeline.get(2)).isEqualTo(new SegmentTimelineElement(21, 20));
+    assertThat(timeline.getStartTime(2)).isEqualTo(21);
+    assertThat(timeline.getDuration(2)).isEqualTo(20);
+    assertThat(MultiSegmentBase.getSegmentTimelineStartTime(timeline, 1)).isEqualTo(11);
+  }
+}
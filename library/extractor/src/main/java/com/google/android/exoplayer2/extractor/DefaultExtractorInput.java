@@ -25,7 +25,6 @@ import com.google.android.exoplayer2.util.Util;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.util.Arrays;
 
 /**
  * An {@link ExtractorInput} that wraps a {@link DataReader}.
@@ -52,6 +51,13 @@ public final class DefaultExtractorInput implements ExtractorInput {
 
   private long position;
   private byte[] peekBuffer;
+  /**
+   * The offset in {@link #peekBuffer} of the first byte that has been peeked but not yet read. The
+   * peek position and length are relative to this offset. Consuming data advances the offset
+   * rather than moving the remaining data, which is only moved when space is needed at the end.
+   */
+  private int peekBufferStart;
+
   private int peekBufferPosition;
   private int peekBufferLength;
 
@@ -132,7 +138,7 @@ public final class DefaultExtractorInput implements ExtractorInput {
       bytesPeeked =
           readFromUpstream(
               peekBuffer,
-              peekBufferPosition,
+              peekBufferStart + peekBufferPosition,
               length,
               /* bytesAlreadyRead= */ 0,
               /* allowEndOfInput= */ true);
@@ -143,7 +149,8 @@ public final class DefaultExtractorInput implements ExtractorInput {
     } else {
       bytesPeeked = min(length, peekBufferRemainingBytes);
     }
-    System.arraycopy(peekBuffer, peekBufferPosition, target, offset, bytesPeeked);
+    System.arraycopy(
+        peekBuffer, peekBufferStart + peekBufferPosition, target, offset, bytesPeeked);
     peekBufferPosition += bytesPeeked;
     return bytesPeeked;
   }
@@ -154,7 +161,8 @@ public final class DefaultExtractorInput implements ExtractorInput {
     if (!advancePeekPosition(length, allowEndOfInput)) {
       return false;
     }
-    System.arraycopy(peekBuffer, peekBufferPosition - length, target, offset, length);
+    System.arraycopy(
+        peekBuffer, peekBufferStart + peekBufferPosition - length, target, offset, length);
     return true;
   }
 
@@ -169,7 +177,12 @@ public final class DefaultExtractorInput implements ExtractorInput {
     int bytesPeeked = peekBufferLength - peekBufferPosition;
     while (bytesPeeked < length) {
       bytesPeeked =
-          readFromUpstream(peekBuffer, peekBufferPosition, length, bytesPeeked, allowEndOfInput);
+          readFromUpstream(
+              peekBuffer,
+              peekBufferStart + peekBufferPosition,
+              length,
+              bytesPeeked,
+              allowEndOfInput);
       if (bytesPeeked == C.RESULT_END_OF_INPUT) {
         return false;
       }
@@ -217,14 +230,23 @@ public final class DefaultExtractorInput implements ExtractorInput {
    */
   private void ensureSpaceForPeek(int length) {
     int requiredLength = peekBufferPosition + length;
-    if (requiredLength > peekBuffer.length) {
+    if (peekBufferStart + requiredLength <= peekBuffer.length) {
+      return;
+    }
+    if (requiredLength <= peekBuffer.length) {
+      // Reclaim the space freed by consumed data, without reallocating.
+      System.arraycopy(peekBuffer, peekBufferStart, peekBuffer, 0, peekBufferLength);
+    } else {
       int newPeekCapacity =
           Util.constrainValue(
               peekBuffer.length * 2,
               requiredLength + PEEK_MIN_FREE_SPACE_AFTER_RESIZE,
               requiredLength + PEEK_MAX_FREE_SPACE);
-      peekBuffer = Arrays.copyOf(peekBuffer, newPeekCapacity);
+      byte[] newPeekBuffer = new byte[newPeekCapacity];
+      System.arraycopy(peekBuffer, peekBufferStart, newPeekBuffer, 0, peekBufferLength);
+      peekBuffer = newPeekBuffer;
     }
+    peekBufferStart = 0;
   }
 
   /**
@@ -252,7 +274,7 @@ public final class DefaultExtractorInput implements ExtractorInput {
       return 0;
     }
     int peekBytes = min(peekBufferLength, length);
-    System.arraycopy(peekBuffer, 0, target, offset, peekBytes);
+    System.arraycopy(peekBuffer, peekBufferStart, target, offset, peekBytes);
     updatePeekBuffer(peekBytes);
     return peekBytes;
   }
@@ -264,13 +286,17 @@ public final class DefaultExtractorInput implements ExtractorInput {
    */
   private void updatePeekBuffer(int bytesConsumed) {
     peekBufferLength -= bytesConsumed;
+    peekBufferStart += bytesConsumed;
     peekBufferPosition = 0;
-    byte[] newPeekBuffer = peekBuffer;
     if (peekBufferLength < peekBuffer.length - PEEK_MAX_FREE_SPACE) {
-      newPeekBuffer = new byte[peekBufferLength + PEEK_MIN_FREE_SPACE_AFTER_RESIZE];
+      // Shrink the buffer after a large peek has been consumed.
+      byte[] newPeekBuffer = new byte[peekBufferLength + PEEK_MIN_FREE_SPACE_AFTER_RESIZE];
+      System.arraycopy(peekBuffer, peekBufferStart, newPeekBuffer, 0, peekBufferLength);
+      peekBuffer = newPeekBuffer;
+      peekBufferStart = 0;
+    } else if (peekBufferLength == 0) {
+      peekBufferStart = 0;
     }
-    System.arraycopy(peekBuffer, bytesConsumed, newPeekBuffer, 0, peekBufferLength);
-    peekBuffer = newPeekBuffer;
   }
 
   /**
@@ -348,23 +348,40 @@ public final class DefaultExtractorsFactory implements ExtractorsFactory {
   @Override
   public synchronized Extractor[] createExtractors(
       Uri uri, Map<String, List<String>> responseHeaders) {
+    return createExtractors(uri, responseHeaders, FileTypes.UNKNOWN);
+  }
+
+  @Override
+  public synchronized Extractor[] createExtractors(
+      Uri uri,
+      Map<String, List<String>> responseHeaders,
+      @FileTypes.Type int signatureFileType) {
     List<Extractor> extractors =
         new ArrayList<>(/* initialCapacity= */ DEFAULT_EXTRACTOR_ORDER.length);
 
+    // The signature is the most reliable hint, followed by the response headers and the URI.
+    if (signatureFileType != FileTypes.UNKNOWN) {
+      addExtractorsForFileType(signatureFileType, extractors);
+    }
+
     @FileTypes.Type
     int responseHeadersInferredFileType = inferFileTypeFromResponseHeaders(responseHeaders);
-    if (responseHeadersInferredFileType != FileTypes.UNKNOWN) {
+    if (responseHeadersInferredFileType != FileTypes.UNKNOWN
+        && responseHeadersInferredFileType != signatureFileType) {
       addExtractorsForFileType(responseHeadersInferredFileType, extractors);
     }
 
     @FileTypes.Type int uriInferredFileType = inferFileTypeFromUri(uri);
     if (uriInferredFileType != FileTypes.UNKNOWN
-        && uriInferredFileType != responseHeadersInferredFileType) {
+        && uriInferredFileType != responseHeadersInferredFileType
+        && uriInferredFileType != signatureFileType) {
       addExtractorsForFileType(uriInferredFileType, extractors);
     }
 
     for (int fileType : DEFAULT_EXTRACTOR_ORDER) {
-      if (fileType != responseHeadersInferredFileType && fileType != uriInferredFileType) {
+      if (fileType != signatureFileType
+          && fileType != responseHeadersInferredFileType
+          && fileType != uriInferredFileType) {
         addExtractorsForFileType(fileType, extractors);
       }
     }
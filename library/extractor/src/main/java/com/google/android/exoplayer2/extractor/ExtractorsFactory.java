@@ -16,6 +16,7 @@
 package com.google.android.exoplayer2.extractor;
 
 import android.net.Uri;
+import com.google.android.exoplayer2.util.FileTypes;
 import java.util.List;
 import java.util.Map;
 
@@ -50,4 +51,25 @@ public interface ExtractorsFactory {
   default Extractor[] createExtractors(Uri uri, Map<String, List<String>> responseHeaders) {
     return createExtractors();
   }
+
+  /**
+   * Returns an array of new {@link Extractor} instances, taking into account the file type
+   * indicated by the first bytes of the media.
+   *
+   * <p>Implementations should place extractors for {@code signatureFileType} first, so that they
+   * are sniffed before any others.
+   *
+   * @param uri The {@link Uri} of the media to extract.
+   * @param responseHeaders The response headers of the media to extract, or an empty map if there
+   *     are none. The map lookup should be case-insensitive.
+   * @param signatureFileType The {@link FileTypes.Type} inferred from the first bytes of the media
+   *     using {@link FileTypes#inferFileTypeFromSignature}, or {@link FileTypes#UNKNOWN}.
+   * @return The {@link Extractor} instances.
+   */
+  default Extractor[] createExtractors(
+      Uri uri,
+      Map<String, List<String>> responseHeaders,
+      @FileTypes.Type int signatureFileType) {
+    return createExtractors(uri, responseHeaders);
+  }
 }
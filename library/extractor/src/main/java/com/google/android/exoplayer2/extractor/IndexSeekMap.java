@@ -33,8 +33,8 @@ import com.google.android.exoplayer2.util.Util;
 @Deprecated
 public final class IndexSeekMap implements SeekMap {
 
-  private final long[] positions;
-  private final long[] timesUs;
+  /* package */ final long[] positions;
+  /* package */ final long[] timesUs;
   private final long durationUs;
   private final boolean isSeekable;
 
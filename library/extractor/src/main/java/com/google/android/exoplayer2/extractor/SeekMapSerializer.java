@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import androidx.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Serializes {@link SeekMap} instances that describe an exact mapping between times and byte
+ * positions, so that they can be persisted and restored when the same content is opened again.
+ *
+ * <p>Only {@link IndexSeekMap} and {@link ChunkIndex} are supported. Other seek maps are either
+ * estimates (for example {@link ConstantBitrateSeekMap}) or require the extractor to read the
+ * stream in order to seek (for example {@link BinarySearchSeeker}), and are not worth persisting.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+public final class SeekMapSerializer {
+
+  private static final int VERSION = 1;
+
+  private static final int TYPE_INDEX_SEEK_MAP = 0;
+  private static final int TYPE_CHUNK_INDEX = 1;
+
+  private SeekMapSerializer() {}
+
+  /** Returns whether {@code seekMap} can be passed to {@link #serialize(SeekMap)}. */
+  public static boolean isSerializable(SeekMap seekMap) {
+    return seekMap instanceof IndexSeekMap || seekMap instanceof ChunkIndex;
+  }
+
+  /**
+   * Serializes a {@link SeekMap}.
+   *
+   * @param seekMap The {@link SeekMap} to serialize.
+   * @return The serialized seek map, or {@code null} if the seek map {@linkplain
+   *     #isSerializable(SeekMap) is not serializable}.
+   */
+  @Nullable
+  public static byte[] serialize(SeekMap seekMap) {
+    if (!isSerializable(seekMap)) {
+      return null;
+    }
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(byteArrayOutputStream);
+    try {
+      output.writeInt(VERSION);
+      if (seekMap instanceof IndexSeekMap) {
+        IndexSeekMap indexSeekMap = (IndexSeekMap) seekMap;
+        output.writeByte(TYPE_INDEX_SEEK_MAP);
+        output.writeLong(indexSeekMap.getDurationUs());
+        output.writeInt(indexSeekMap.timesUs.length);
+        for (int i = 0; i < indexSeekMap.timesUs.length; i++) {
+          output.writeLong(indexSeekMap.timesUs[i]);
+          output.writeLong(indexSeekMap.positions[i]);
+        }
+      } else {
+        ChunkIndex chunkIndex = (ChunkIndex) seekMap;
+        output.writeByte(TYPE_CHUNK_INDEX);
+        output.writeInt(chunkIndex.length);
+        for (int i = 0; i < chunkIndex.length; i++) {
+          output.writeInt(chunkIndex.sizes[i]);
+          output.writeLong(chunkIndex.offsets[i]);
+          output.writeLong(chunkIndex.durationsUs[i]);
+          output.writeLong(chunkIndex.timesUs[i]);
+        }
+      }
+      output.flush();
+    } catch (IOException e) {
+      // Never happens when writing to a ByteArrayOutputStream.
+      throw new IllegalStateException(e);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Deserializes a {@link SeekMap} previously serialized with {@link #serialize(SeekMap)}.
+   *
+   * @param data The serialized seek map.
+   * @return The deserialized seek map, or {@code null} if {@code data} is malformed or was written
+   *     by an incompatible version.
+   */
+  @Nullable
+  public static SeekMap deserialize(byte[] data) {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+    try {
+      if (input.readInt() != VERSION) {
+        return null;
+      }
+      int type = input.readByte();
+      switch (type) {
+        case TYPE_INDEX_SEEK_MAP:
+          long durationUs = input.readLong();
+          int pointCount = input.readInt();
+          if (pointCount < 0 || pointCount > input.available() / 16) {
+            return null;
+          }
+          long[] timesUs = new long[pointCount];
+          long[] positions = new long[pointCount];
+          for (int i = 0; i < pointCount; i++) {
+            timesUs[i] = input.readLong();
+            positions[i] = input.readLong();
+          }
+          return new IndexSeekMap(positions, timesUs, durationUs);
+        case TYPE_CHUNK_INDEX:
+          int chunkCount = input.readInt();
+          if (chunkCount < 0 || chunkCount > input.available() / 28) {
+            return null;
+          }
+          int[] sizes = new int[chunkCount];
+          long[] offsets = new long[chunkCount];
+          long[] durationsUs = new long[chunkCount];
+          long[] chunkTimesUs = new long[chunkCount];
+          for (int i = 0; i < chunkCount; i++) {
+            sizes[i] = input.readInt();
+            offsets[i] = input.readLong();
+            durationsUs[i] = input.readLong();
+            chunkTimesUs[i] = input.readLong();
+          }
+          return new ChunkIndex(sizes, offsets, durationsUs, chunkTimesUs);
+        default:
+          return null;
+      }
+    } catch (IOException e) {
+      return null;
+    }
+  }
+}
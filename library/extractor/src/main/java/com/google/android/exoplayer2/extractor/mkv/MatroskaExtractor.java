@@ -1298,7 +1298,21 @@ public class MatroskaExtractor implements Extractor {
           blockSampleIndex = 0;
         }
 
-        if (id == ID_SIMPLE_BLOCK) {
+        if (id == ID_SIMPLE_BLOCK && track.hasPassthroughSampleData) {
+          // Fast path for tracks whose sample data needs no transformation. The sample data is
+          // written directly from the input to the track output.
+          while (blockSampleIndex < blockSampleCount) {
+            int sampleSize =
+                writePassthroughSampleData(input, track.output, blockSampleSizes[blockSampleIndex]);
+            long sampleTimeUs =
+                blockTimeUs + (blockSampleIndex * track.defaultSampleDurationNs) / 1000;
+            track.output.sampleMetadata(
+                sampleTimeUs, blockFlags, sampleSize, /* offset= */ 0, track.cryptoData);
+            haveOutputSample = true;
+            blockSampleIndex++;
+          }
+          blockState = BLOCK_STATE_START;
+        } else if (id == ID_SIMPLE_BLOCK) {
           // For SimpleBlock, we can write sample data and immediately commit the corresponding
           // sample metadata.
           while (blockSampleIndex < blockSampleCount) {
@@ -1656,6 +1670,26 @@ public class MatroskaExtractor implements Extractor {
     return finishWriteSampleData();
   }
 
+  /**
+   * Writes data for a single sample of a track with {@link Track#hasPassthroughSampleData} to the
+   * track output.
+   *
+   * @param input The input from which to read sample data.
+   * @param output The output to write the sample to.
+   * @param size The size of the sample data.
+   * @return The final size of the written sample.
+   * @throws IOException If an error occurs reading from the input.
+   */
+  private int writePassthroughSampleData(ExtractorInput input, TrackOutput output, int size)
+      throws IOException {
+    while (sampleBytesRead < size) {
+      int bytesWritten = output.sampleData(input, size - sampleBytesRead, false);
+      sampleBytesRead += bytesWritten;
+      sampleBytesWritten += bytesWritten;
+    }
+    return finishWriteSampleData();
+  }
+
   /**
    * Called by {@link #writeSampleData(ExtractorInput, Track, int, boolean)} when the sample has
    * been written. Returns the final sample size and resets state for the next sample.
@@ -2047,6 +2081,13 @@ public class MatroskaExtractor implements Extractor {
     public @MonotonicNonNull TrackOutput output;
     public int nalUnitLengthFieldLength;
 
+    /**
+     * Whether samples in SimpleBlock elements can be written to the output exactly as they appear
+     * in the input, without encryption handling, header stripping, start code insertion, trailing
+     * data or supplemental data. Set when the output is initialized.
+     */
+    private boolean hasPassthroughSampleData;
+
     /** Initializes the track with an output. */
     @RequiresNonNull("codecId")
     @EnsuresNonNull("this.output")
@@ -2346,6 +2387,17 @@ public class MatroskaExtractor implements Extractor {
 
       this.output = output.track(number, type);
       this.output.format(format);
+      hasPassthroughSampleData =
+          !hasContentEncryption
+              && sampleStrippedBytes == null
+              && trueHdSampleRechunker == null
+              && !samplesHaveSupplementalData(/* isBlockGroup= */ false)
+              && !CODEC_ID_H264.equals(codecId)
+              && !CODEC_ID_H265.equals(codecId)
+              && !CODEC_ID_VORBIS.equals(codecId)
+              && !CODEC_ID_SUBRIP.equals(codecId)
+              && !CODEC_ID_ASS.equals(codecId)
+              && !CODEC_ID_VTT.equals(codecId);
     }
 
     /** Forces any pending sample metadata to be flushed to the output. */
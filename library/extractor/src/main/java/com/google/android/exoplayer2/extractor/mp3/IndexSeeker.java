@@ -17,6 +17,7 @@ package com.google.android.exoplayer2.extractor.mp3;
 
 import androidx.annotation.VisibleForTesting;
 import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.IndexSeekMap;
 import com.google.android.exoplayer2.extractor.SeekPoint;
 import com.google.android.exoplayer2.util.LongArray;
 import com.google.android.exoplayer2.util.Util;
@@ -117,4 +118,9 @@ import com.google.android.exoplayer2.util.Util;
   /* package */ void setDurationUs(long durationUs) {
     this.durationUs = durationUs;
   }
+
+  /** Returns an immutable {@link IndexSeekMap} containing the current seek points. */
+  /* package */ IndexSeekMap toIndexSeekMap() {
+    return new IndexSeekMap(positions.toArray(), timesUs.toArray(), durationUs);
+  }
 }
@@ -170,6 +170,7 @@ public final class Mp3Extractor implements Extractor {
 
   private @MonotonicNonNull Seeker seeker;
   private boolean disableSeeking;
+  private boolean exactSeekTimes;
   private boolean isSeekInProgress;
   private long seekTimeUs;
 
@@ -226,7 +227,9 @@ public final class Mp3Extractor implements Extractor {
     samplesRead = 0;
     sampleBytesRemaining = 0;
     seekTimeUs = timeUs;
-    if (seeker instanceof IndexSeeker && !((IndexSeeker) seeker).isTimeUsInIndex(timeUs)) {
+    if (!exactSeekTimes
+        && seeker instanceof IndexSeeker
+        && !((IndexSeeker) seeker).isTimeUsInIndex(timeUs)) {
       isSeekInProgress = true;
       currentTrackOutput = skippingTrackOutput;
     }
@@ -245,8 +248,10 @@ public final class Mp3Extractor implements Extractor {
       // Duration is exact when index seeker is used.
       long durationUs = computeTimeUs(samplesRead);
       if (seeker.getDurationUs() != durationUs) {
-        ((IndexSeeker) seeker).setDurationUs(durationUs);
-        extractorOutput.seekMap(seeker);
+        IndexSeeker indexSeeker = (IndexSeeker) seeker;
+        indexSeeker.setDurationUs(durationUs);
+        // The whole stream has been indexed, so output an immutable copy that can be persisted.
+        extractorOutput.seekMap(indexSeeker.toIndexSeekMap());
       }
     }
     return readResult;
@@ -261,6 +266,18 @@ public final class Mp3Extractor implements Extractor {
     disableSeeking = true;
   }
 
+  /**
+   * Makes the extractor take the times passed to {@link #seek(long, long)} as the exact timestamps
+   * of the frames starting at the passed positions, rather than deriving them from its seeker.
+   *
+   * <p>This allows seeking using an exact seek map that was output when the same stream was
+   * previously read, for example the {@link com.google.android.exoplayer2.extractor.IndexSeekMap}
+   * output at the end of the stream if {@link #FLAG_ENABLE_INDEX_SEEKING} is set.
+   */
+  public void enableExactSeekTimes() {
+    exactSeekTimes = true;
+  }
+
   // Internal methods.
 
   @RequiresNonNull({"extractorOutput", "realTrackOutput"})
@@ -314,7 +331,8 @@ public final class Mp3Extractor implements Extractor {
       }
       synchronizedHeader.setForHeaderData(sampleHeaderData);
       if (basisTimeUs == C.TIME_UNSET) {
-        basisTimeUs = seeker.getTimeUs(extractorInput.getPosition());
+        basisTimeUs =
+            exactSeekTimes ? seekTimeUs : seeker.getTimeUs(extractorInput.getPosition());
         if (forcedFirstSampleTimestampUs != C.TIME_UNSET) {
           long embeddedFirstSampleTimestampUs = seeker.getTimeUs(0);
           basisTimeUs += forcedFirstSampleTimestampUs - embeddedFirstSampleTimestampUs;
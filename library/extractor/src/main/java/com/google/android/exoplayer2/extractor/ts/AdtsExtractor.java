@@ -18,9 +18,11 @@ package com.google.android.exoplayer2.extractor.ts;
 import static com.google.android.exoplayer2.extractor.ts.TsPayloadReader.FLAG_DATA_ALIGNMENT_INDICATOR;
 import static com.google.android.exoplayer2.metadata.id3.Id3Decoder.ID3_HEADER_LENGTH;
 import static com.google.android.exoplayer2.metadata.id3.Id3Decoder.ID3_TAG;
+import static java.lang.Math.min;
 import static java.lang.annotation.ElementType.TYPE_USE;
 
 import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ParserException;
 import com.google.android.exoplayer2.PlaybackException;
@@ -34,6 +36,7 @@ import com.google.android.exoplayer2.extractor.PositionHolder;
 import com.google.android.exoplayer2.extractor.SeekMap;
 import com.google.android.exoplayer2.extractor.ts.TsPayloadReader.TrackIdGenerator;
 import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.LongArray;
 import com.google.android.exoplayer2.util.ParsableBitArray;
 import com.google.android.exoplayer2.util.ParsableByteArray;
 import java.io.EOFException;
@@ -61,15 +64,19 @@ public final class AdtsExtractor implements Extractor {
 
   /**
    * Flags controlling the behavior of the extractor. Possible flag values are {@link
-   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING} and {@link
-   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS}.
+   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING}, {@link #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS}
+   * and {@link #FLAG_ENABLE_INDEX_SEEKING}.
    */
   @Documented
   @Retention(RetentionPolicy.SOURCE)
   @Target(TYPE_USE)
   @IntDef(
       flag = true,
-      value = {FLAG_ENABLE_CONSTANT_BITRATE_SEEKING, FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS})
+      value = {
+        FLAG_ENABLE_CONSTANT_BITRATE_SEEKING,
+        FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS,
+        FLAG_ENABLE_INDEX_SEEKING
+      })
   public @interface Flags {}
   /**
    * Flag to force enable seeking using a constant bitrate assumption in cases where seeking would
@@ -91,6 +98,16 @@ public final class AdtsExtractor implements Extractor {
    * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING} is implicitly enabled as well.
    */
   public static final int FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS = 1 << 1;
+  /**
+   * Flag to enable index seeking, in which a time-to-byte mapping is built from the frame headers
+   * as the stream is read. Seeks within the indexed part of the stream are exact. Seeks beyond it
+   * start from the last indexed frame. Once the whole stream has been read, an exact {@link
+   * com.google.android.exoplayer2.extractor.IndexSeekMap} is output.
+   *
+   * <p>If this flag is set, {@link #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING} and {@link
+   * #FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS} are ignored.
+   */
+  public static final int FLAG_ENABLE_INDEX_SEEKING = 1 << 2;
 
   private static final int MAX_PACKET_SIZE = 2 * 1024;
   /**
@@ -103,6 +120,8 @@ public final class AdtsExtractor implements Extractor {
    * bitrate seeking.
    */
   private static final int NUM_FRAMES_FOR_AVERAGE_FRAME_SIZE = 1000;
+  /** The number of bytes of an ADTS header needed to read the frame size. */
+  private static final int FRAME_SIZE_HEADER_LENGTH = 6;
 
   private final @Flags int flags;
 
@@ -119,6 +138,12 @@ public final class AdtsExtractor implements Extractor {
   private boolean hasCalculatedAverageFrameSize;
   private boolean startedPacket;
   private boolean hasOutputSeekMap;
+  private boolean exactSeekTimes;
+
+  @Nullable private AdtsIndexSeeker indexSeeker;
+  @Nullable private LongArray unindexedFramePositions;
+  private long nextIndexedFramePosition;
+  private long indexedFrameCount;
 
   /** Creates a new extractor for ADTS bitstreams. */
   public AdtsExtractor() {
@@ -131,7 +156,10 @@ public final class AdtsExtractor implements Extractor {
    * @param flags Flags that control the extractor's behavior.
    */
   public AdtsExtractor(@Flags int flags) {
-    if ((flags & FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS) != 0) {
+    if ((flags & FLAG_ENABLE_INDEX_SEEKING) != 0) {
+      flags &=
+          ~(FLAG_ENABLE_CONSTANT_BITRATE_SEEKING | FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS);
+    } else if ((flags & FLAG_ENABLE_CONSTANT_BITRATE_SEEKING_ALWAYS) != 0) {
       flags |= FLAG_ENABLE_CONSTANT_BITRATE_SEEKING;
     }
     this.flags = flags;
@@ -144,6 +172,19 @@ public final class AdtsExtractor implements Extractor {
     scratchBits = new ParsableBitArray(scratch.getData());
   }
 
+  /**
+   * Makes the extractor take the times passed to {@link #seek(long, long)} as the exact timestamps
+   * of the frames starting at the passed positions, rather than deriving them from its seek map.
+   *
+   * <p>This allows seeking using an exact seek map that was output when the same stream was
+   * previously read, for example the {@link com.google.android.exoplayer2.extractor.IndexSeekMap}
+   * output at the end of the stream if {@link #FLAG_ENABLE_INDEX_SEEKING} is set. The index that
+   * is built while reading the stream again only covers the part of the stream read so far.
+   */
+  public void enableExactSeekTimes() {
+    exactSeekTimes = true;
+  }
+
   // Extractor implementation.
 
   @Override
@@ -206,7 +247,9 @@ public final class AdtsExtractor implements Extractor {
   public void seek(long position, long timeUs) {
     startedPacket = false;
     reader.seek();
-    firstSampleTimestampUs = timeUs;
+    // Seek positions returned by the index are frame boundaries with exactly known timestamps.
+    firstSampleTimestampUs =
+        exactSeekTimes || indexSeeker == null ? timeUs : indexSeeker.getTimeUs(position);
   }
 
   @Override
@@ -225,12 +268,21 @@ public final class AdtsExtractor implements Extractor {
                 && inputLength != C.LENGTH_UNSET);
     if (canUseConstantBitrateSeeking) {
       calculateAverageFrameSize(input);
+    } else if ((flags & FLAG_ENABLE_INDEX_SEEKING) != 0 && firstFramePosition == C.INDEX_UNSET) {
+      if (input.getPosition() == 0) {
+        peekId3Header(input);
+        input.resetPeekPosition();
+      } else {
+        firstFramePosition = 0;
+      }
     }
 
+    long packetPosition = input.getPosition();
     int bytesRead = input.read(packetBuffer.getData(), 0, MAX_PACKET_SIZE);
     boolean readEndOfStream = bytesRead == RESULT_END_OF_INPUT;
     maybeOutputSeekMap(inputLength, readEndOfStream);
     if (readEndOfStream) {
+      maybeOutputCompleteIndex(packetPosition, inputLength);
       return RESULT_END_OF_INPUT;
     }
 
@@ -246,6 +298,9 @@ public final class AdtsExtractor implements Extractor {
     // TODO: Make it possible for reader to consume the dataSource directly, so that it becomes
     // unnecessary to copy the data through packetBuffer.
     reader.consume(packetBuffer);
+    if (indexSeeker != null) {
+      indexFrames(input, packetPosition, bytesRead);
+    }
     return RESULT_CONTINUE;
   }
 
@@ -276,6 +331,14 @@ public final class AdtsExtractor implements Extractor {
       return;
     }
 
+    if ((flags & FLAG_ENABLE_INDEX_SEEKING) != 0) {
+      indexSeeker = new AdtsIndexSeeker(firstFramePosition);
+      nextIndexedFramePosition = firstFramePosition;
+      extractorOutput.seekMap(indexSeeker);
+      hasOutputSeekMap = true;
+      return;
+    }
+
     boolean useConstantBitrateSeeking =
         (flags & FLAG_ENABLE_CONSTANT_BITRATE_SEEKING) != 0 && averageFrameSize > 0;
     if (useConstantBitrateSeeking
@@ -296,6 +359,106 @@ public final class AdtsExtractor implements Extractor {
     hasOutputSeekMap = true;
   }
 
+  /**
+   * Adds the frames whose headers start in the packet that was just read to the index.
+   *
+   * @param input The {@link ExtractorInput} from which the packet was read. Used to peek the rest
+   *     of a header that straddles the end of the packet.
+   * @param packetPosition The position of the packet in the stream.
+   * @param packetLength The length of the packet.
+   */
+  @RequiresNonNull("indexSeeker")
+  private void indexFrames(ExtractorInput input, long packetPosition, int packetLength)
+      throws IOException {
+    byte[] packetData = packetBuffer.getData();
+    long packetEndPosition = packetPosition + packetLength;
+    while (nextIndexedFramePosition >= packetPosition
+        && nextIndexedFramePosition < packetEndPosition) {
+      int headerOffset = (int) (nextIndexedFramePosition - packetPosition);
+      int bytesInPacket = min(FRAME_SIZE_HEADER_LENGTH, packetLength - headerOffset);
+      byte[] header = scratch.getData();
+      System.arraycopy(packetData, headerOffset, header, 0, bytesInPacket);
+      if (bytesInPacket < FRAME_SIZE_HEADER_LENGTH) {
+        boolean peeked =
+            input.peekFully(
+                header,
+                bytesInPacket,
+                FRAME_SIZE_HEADER_LENGTH - bytesInPacket,
+                /* allowEndOfInput= */ true);
+        input.resetPeekPosition();
+        if (!peeked) {
+          return;
+        }
+      }
+      int syncBytes = ((header[0] & 0xFF) << 8) | (header[1] & 0xFF);
+      int frameSize =
+          ((header[3] & 0x03) << 11) | ((header[4] & 0xFF) << 3) | ((header[5] & 0xE0) >> 5);
+      if (!AdtsReader.isAdtsSyncWord(syncBytes) || frameSize <= FRAME_SIZE_HEADER_LENGTH) {
+        // The stream isn't a contiguous sequence of frames (for example it contains an ID3 tag),
+        // so stop extending the index. The seek points indexed so far remain valid.
+        nextIndexedFramePosition = C.INDEX_UNSET;
+        return;
+      }
+      addFrameToIndex(indexSeeker, nextIndexedFramePosition);
+      nextIndexedFramePosition += frameSize;
+    }
+  }
+
+  /**
+   * Adds a frame to the index. If the frame duration isn't known yet because the reader hasn't
+   * parsed a complete header, the frame position is queued until it is.
+   */
+  private void addFrameToIndex(AdtsIndexSeeker indexSeeker, long framePosition) {
+    long sampleDurationUs = reader.getSampleDurationUs();
+    if (sampleDurationUs == C.TIME_UNSET) {
+      if (unindexedFramePositions == null) {
+        unindexedFramePositions = new LongArray();
+      }
+      unindexedFramePositions.add(framePosition);
+      return;
+    }
+    maybeIndexQueuedFrames(indexSeeker, sampleDurationUs);
+    indexSeeker.maybeAddSeekPoint(indexedFrameCount * sampleDurationUs, framePosition);
+    indexedFrameCount++;
+  }
+
+  private void maybeIndexQueuedFrames(AdtsIndexSeeker indexSeeker, long sampleDurationUs) {
+    @Nullable LongArray unindexedFramePositions = this.unindexedFramePositions;
+    if (unindexedFramePositions == null || sampleDurationUs == C.TIME_UNSET) {
+      return;
+    }
+    for (int i = 0; i < unindexedFramePositions.size(); i++) {
+      indexSeeker.maybeAddSeekPoint(
+          indexedFrameCount * sampleDurationUs, unindexedFramePositions.get(i));
+      indexedFrameCount++;
+    }
+    this.unindexedFramePositions = null;
+  }
+
+  /**
+   * Outputs an exact {@link com.google.android.exoplayer2.extractor.IndexSeekMap} if the whole
+   * stream has been indexed.
+   */
+  @RequiresNonNull("extractorOutput")
+  private void maybeOutputCompleteIndex(long endPosition, long inputLength) {
+    @Nullable AdtsIndexSeeker indexSeeker = this.indexSeeker;
+    long sampleDurationUs = reader.getSampleDurationUs();
+    if (indexSeeker == null) {
+      return;
+    }
+    maybeIndexQueuedFrames(indexSeeker, sampleDurationUs);
+    if (sampleDurationUs == C.TIME_UNSET
+        || nextIndexedFramePosition != endPosition
+        || (inputLength != C.LENGTH_UNSET && endPosition != inputLength)) {
+      return;
+    }
+    long durationUs = indexedFrameCount * sampleDurationUs;
+    if (indexSeeker.getDurationUs() != durationUs) {
+      indexSeeker.setDurationUs(durationUs);
+      extractorOutput.seekMap(indexSeeker.toIndexSeekMap());
+    }
+  }
+
   private void calculateAverageFrameSize(ExtractorInput input) throws IOException {
     if (hasCalculatedAverageFrameSize) {
       return;
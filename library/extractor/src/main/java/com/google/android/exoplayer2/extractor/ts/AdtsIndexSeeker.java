@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.ts;
+
+import androidx.annotation.GuardedBy;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.IndexSeekMap;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import com.google.android.exoplayer2.util.LongArray;
+import com.google.android.exoplayer2.util.Util;
+
+/**
+ * ADTS seeker that builds a time-to-byte mapping from frame headers as the stream is read.
+ *
+ * <p>The index is extended on the loading thread while seek points are requested on the playback
+ * thread, so all access is synchronized.
+ *
+ * @deprecated com.google.android.exoplayer2 is deprecated. Please migrate to androidx.media3 (which
+ *     contains the same ExoPlayer code). See <a
+ *     href="https://developer.android.com/guide/topics/media/media3/getting-started/migration-guide">the
+ *     migration guide</a> for more details, including a script to help with the migration.
+ */
+@Deprecated
+/* package */ final class AdtsIndexSeeker implements SeekMap {
+
+  /* package */ static final long MIN_TIME_BETWEEN_POINTS_US = C.MICROS_PER_SECOND / 10;
+
+  @GuardedBy("this")
+  private final LongArray timesUs;
+
+  @GuardedBy("this")
+  private final LongArray positions;
+
+  @GuardedBy("this")
+  private long durationUs;
+
+  public AdtsIndexSeeker(long firstFramePosition) {
+    durationUs = C.TIME_UNSET;
+    timesUs = new LongArray();
+    positions = new LongArray();
+    timesUs.add(0L);
+    positions.add(firstFramePosition);
+  }
+
+  /**
+   * Maps a frame position to the timestamp of the frame.
+   *
+   * @param position The position of a frame that was returned as a seek point.
+   * @return The corresponding timestamp, in microseconds.
+   */
+  public synchronized long getTimeUs(long position) {
+    int targetIndex =
+        Util.binarySearchFloor(
+            positions, position, /* inclusive= */ true, /* stayInBounds= */ true);
+    return timesUs.get(targetIndex);
+  }
+
+  @Override
+  public boolean isSeekable() {
+    return true;
+  }
+
+  @Override
+  public synchronized long getDurationUs() {
+    return durationUs;
+  }
+
+  @Override
+  public synchronized SeekPoints getSeekPoints(long timeUs) {
+    int targetIndex =
+        Util.binarySearchFloor(timesUs, timeUs, /* inclusive= */ true, /* stayInBounds= */ true);
+    SeekPoint seekPoint = new SeekPoint(timesUs.get(targetIndex), positions.get(targetIndex));
+    if (seekPoint.timeUs == timeUs || targetIndex == timesUs.size() - 1) {
+      return new SeekPoints(seekPoint);
+    } else {
+      SeekPoint nextSeekPoint =
+          new SeekPoint(timesUs.get(targetIndex + 1), positions.get(targetIndex + 1));
+      return new SeekPoints(seekPoint, nextSeekPoint);
+    }
+  }
+
+  /**
+   * Adds a seek point to the index if it is sufficiently distant from the last point.
+   *
+   * <p>Seek points must be added in order.
+   *
+   * @param timeUs The time of the frame starting at {@code position}, in microseconds.
+   * @param position The position of the frame, in bytes.
+   */
+  public synchronized void maybeAddSeekPoint(long timeUs, long position) {
+    long lastIndexedTimeUs = timesUs.get(timesUs.size() - 1);
+    if (timeUs - lastIndexedTimeUs < MIN_TIME_BETWEEN_POINTS_US) {
+      return;
+    }
+    timesUs.add(timeUs);
+    positions.add(position);
+  }
+
+  /** Sets the duration, once the whole stream has been indexed. */
+  public synchronized void setDurationUs(long durationUs) {
+    this.durationUs = durationUs;
+  }
+
+  /** Returns an immutable {@link IndexSeekMap} containing the current seek points. */
+  public synchronized IndexSeekMap toIndexSeekMap() {
+    return new IndexSeekMap(positions.toArray(), timesUs.toArray(), durationUs);
+  }
+}
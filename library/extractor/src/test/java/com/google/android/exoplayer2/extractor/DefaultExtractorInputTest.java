@@ -17,6 +17,8 @@ package com.google.android.exoplayer2.extractor;
 
 import static com.google.android.exoplayer2.C.RESULT_END_OF_INPUT;
 import static com.google.common.truth.Truth.assertThat;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Arrays.copyOf;
 import static java.util.Arrays.copyOfRange;
 import static org.junit.Assert.fail;
@@ -25,6 +27,7 @@ import android.net.Uri;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.testutil.FakeDataSource;
+import com.google.android.exoplayer2.testutil.TestUtil;
 import com.google.android.exoplayer2.upstream.DataSpec;
 import java.io.EOFException;
 import java.io.IOException;
@@ -605,6 +608,35 @@ public class DefaultExtractorInputTest {
     }
   }
 
+  @Test
+  public void interleavedPeeksAndReads_returnStreamData() throws Exception {
+    byte[] data = TestUtil.buildTestData(/* length= */ 1024 * 1024);
+    FakeDataSource testDataSource = new FakeDataSource();
+    testDataSource.getDataSet().newDefaultData().appendReadData(data);
+    testDataSource.open(new DataSpec(Uri.parse(TEST_URI)));
+    DefaultExtractorInput input = new DefaultExtractorInput(testDataSource, 0, C.LENGTH_UNSET);
+
+    // Peek ahead by varying amounts (including more than the initial buffer size) and consume part
+    // of what was peeked, so that consumed space is reclaimed and the buffer grows and shrinks.
+    int[] peekLengths = new int[] {100, 70_000, 3, 600_000, 1000};
+    int position = 0;
+    for (int i = 0; position < data.length; i++) {
+      int peekLength = min(peekLengths[i % peekLengths.length], data.length - position);
+      byte[] peeked = new byte[peekLength];
+      input.peekFully(peeked, 0, peekLength);
+      assertThat(peeked).isEqualTo(copyOfRange(data, position, position + peekLength));
+      input.resetPeekPosition();
+
+      int readLength = max(1, peekLength / 2 + i % 7);
+      readLength = min(readLength, data.length - position);
+      byte[] read = new byte[readLength];
+      input.readFully(read, 0, readLength);
+      assertThat(read).isEqualTo(copyOfRange(data, position, position + readLength));
+      position += readLength;
+      assertThat(input.getPosition()).isEqualTo(position);
+    }
+  }
+
   private static FakeDataSource buildDataSource() throws Exception {
     FakeDataSource testDataSource = new FakeDataSource();
     testDataSource
@@ -16,8 +16,11 @@
 package com.google.android.exoplayer2.extractor;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static java.lang.Math.min;
 
 import android.net.Uri;
+import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.android.exoplayer2.extractor.amr.AmrExtractor;
 import com.google.android.exoplayer2.extractor.avi.AviExtractor;
@@ -35,7 +38,11 @@ import com.google.android.exoplayer2.extractor.ts.AdtsExtractor;
 import com.google.android.exoplayer2.extractor.ts.PsExtractor;
 import com.google.android.exoplayer2.extractor.ts.TsExtractor;
 import com.google.android.exoplayer2.extractor.wav.WavExtractor;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import com.google.android.exoplayer2.util.FileTypes;
 import com.google.android.exoplayer2.util.MimeTypes;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -119,6 +126,59 @@ public final class DefaultExtractorsFactoryTest {
         .inOrder();
   }
 
+  @Test
+  public void createExtractors_withSignature_startsWithExtractorsMatchingSignature() {
+    DefaultExtractorsFactory defaultExtractorsFactory = new DefaultExtractorsFactory();
+    Uri uri = Uri.parse("test.mp3");
+    Map<String, List<String>> responseHeaders = new HashMap<>();
+    responseHeaders.put("Content-Type", Collections.singletonList(MimeTypes.VIDEO_MP4));
+
+    Extractor[] extractors =
+        defaultExtractorsFactory.createExtractors(uri, responseHeaders, FileTypes.MATROSKA);
+
+    List<Class<? extends Extractor>> extractorClasses = getExtractorClasses(extractors);
+    assertThat(extractorClasses.get(0)).isEqualTo(MatroskaExtractor.class);
+    assertThat(extractorClasses.subList(1, 3))
+        .containsExactly(Mp4Extractor.class, FragmentedMp4Extractor.class);
+    assertThat(extractorClasses.get(3)).isEqualTo(Mp3Extractor.class);
+    assertThat(extractorClasses).containsNoDuplicates();
+  }
+
+  @Test
+  public void createExtractors_withSignatureOfTestFiles_firstExtractorSniffsFile()
+      throws IOException {
+    String[] fileNames = {
+      "media/amr/sample_nb.amr",
+      "media/avi/sample.avi",
+      "media/flac/bear.flac",
+      "media/flv/sample.flv",
+      "media/jpeg/non-motion-photo-shortened.jpg",
+      "media/mkv/sample.mkv",
+      "media/mp4/sample.mp4",
+      "media/ogg/bear.opus",
+      "media/ts/sample.ac4",
+      "media/ts/sample.adts",
+      "media/ts/sample_h262_mpeg_audio.ps",
+      "media/ts/sample_h264_mpeg_audio.ts",
+      "media/wav/sample.wav"
+    };
+    for (String fileName : fileNames) {
+      byte[] data = TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), fileName);
+      int signatureLength = min(data.length, FileTypes.SIGNATURE_LENGTH);
+
+      Extractor[] extractors =
+          new DefaultExtractorsFactory()
+              .createExtractors(
+                  Uri.EMPTY,
+                  /* responseHeaders= */ new HashMap<>(),
+                  FileTypes.inferFileTypeFromSignature(data, signatureLength));
+
+      assertWithMessage(fileName)
+          .that(extractors[0].sniff(new FakeExtractorInput.Builder().setData(data).build()))
+          .isTrue();
+    }
+  }
+
   private static List<Class<? extends Extractor>> getExtractorClasses(Extractor[] extractors) {
     List<Class<? extends Extractor>> extractorClasses = new ArrayList<>();
     for (Extractor extractor : extractors) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit test for {@link SeekMapSerializer}. */
+@RunWith(AndroidJUnit4.class)
+public final class SeekMapSerializerTest {
+
+  @Test
+  public void serializeAndDeserialize_indexSeekMap_restoresSeekPoints() {
+    IndexSeekMap seekMap =
+        new IndexSeekMap(
+            /* positions= */ new long[] {100, 250, 420},
+            /* timesUs= */ new long[] {0, 1_000_000, 2_000_000},
+            /* durationUs= */ 3_000_000);
+
+    SeekMap restoredSeekMap =
+        SeekMapSerializer.deserialize(SeekMapSerializer.serialize(seekMap));
+
+    assertThat(restoredSeekMap).isInstanceOf(IndexSeekMap.class);
+    assertThat(restoredSeekMap.isSeekable()).isTrue();
+    assertThat(restoredSeekMap.getDurationUs()).isEqualTo(3_000_000);
+    assertThat(restoredSeekMap.getSeekPoints(/* timeUs= */ 1_500_000))
+        .isEqualTo(seekMap.getSeekPoints(/* timeUs= */ 1_500_000));
+    assertThat(restoredSeekMap.getSeekPoints(/* timeUs= */ 2_000_000))
+        .isEqualTo(seekMap.getSeekPoints(/* timeUs= */ 2_000_000));
+  }
+
+  @Test
+  public void serializeAndDeserialize_chunkIndex_restoresChunks() {
+    ChunkIndex seekMap =
+        new ChunkIndex(
+            /* sizes= */ new int[] {10, 20, 30},
+            /* offsets= */ new long[] {0, 10, 30},
+            /* durationsUs= */ new long[] {500, 500, 500},
+            /* timesUs= */ new long[] {0, 500, 1000});
+
+    ChunkIndex restoredSeekMap =
+        (ChunkIndex) SeekMapSerializer.deserialize(SeekMapSerializer.serialize(seekMap));
+
+    assertThat(restoredSeekMap.sizes).isEqualTo(seekMap.sizes);
+    assertThat(restoredSeekMap.offsets).isEqualTo(seekMap.offsets);
+    assertThat(restoredSeekMap.durationsUs).isEqualTo(seekMap.durationsUs);
+    assertThat(restoredSeekMap.timesUs).isEqualTo(seekMap.timesUs);
+    assertThat(restoredSeekMap.getDurationUs()).isEqualTo(1500);
+  }
+
+  @Test
+  public void serialize_approximateSeekMap_returnsNull() {
+    SeekMap seekMap =
+        new ConstantBitrateSeekMap(
+            /* inputLength= */ 1000,
+            /* firstFrameBytePosition= */ 0,
+            /* bitrate= */ 8_000,
+            /* frameSize= */ 100);
+
+    assertThat(SeekMapSerializer.isSerializable(seekMap)).isFalse();
+    assertThat(SeekMapSerializer.serialize(seekMap)).isNull();
+    assertThat(SeekMapSerializer.serialize(new SeekMap.Unseekable(C.TIME_UNSET))).isNull();
+  }
+
+  @Test
+  public void deserialize_truncatedData_returnsNull() {
+    byte[] data =
+        SeekMapSerializer.serialize(
+            new IndexSeekMap(
+                /* positions= */ new long[] {0, 100},
+                /* timesUs= */ new long[] {0, 1_000_000},
+                /* durationUs= */ C.TIME_UNSET));
+
+    assertThat(SeekMapSerializer.deserialize(Arrays.copyOf(data, data.length - 4))).isNull();
+  }
+}
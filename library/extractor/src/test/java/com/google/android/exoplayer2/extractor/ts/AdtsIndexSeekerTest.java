@@ -0,0 +1,206 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.extractor.ts;
+
+import static com.google.android.exoplayer2.extractor.ts.AdtsExtractor.FLAG_ENABLE_INDEX_SEEKING;
+import static com.google.android.exoplayer2.testutil.TestUtil.extractAllSamplesFromFile;
+import static com.google.android.exoplayer2.util.Assertions.checkNotNull;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.net.Uri;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.IndexSeekMap;
+import com.google.android.exoplayer2.extractor.PositionHolder;
+import com.google.android.exoplayer2.extractor.SeekMap;
+import com.google.android.exoplayer2.extractor.SeekMapSerializer;
+import com.google.android.exoplayer2.extractor.SeekPoint;
+import com.google.android.exoplayer2.testutil.FakeExtractorInput;
+import com.google.android.exoplayer2.testutil.FakeExtractorOutput;
+import com.google.android.exoplayer2.testutil.FakeTrackOutput;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import com.google.android.exoplayer2.upstream.DefaultDataSource;
+import com.google.android.exoplayer2.util.Util;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Tests for {@link AdtsIndexSeeker}. */
+@RunWith(AndroidJUnit4.class)
+public final class AdtsIndexSeekerTest {
+
+  private static final String TEST_FILE = "media/ts/sample.adts";
+
+  private AdtsExtractor extractor;
+  private FakeExtractorOutput extractorOutput;
+  private DefaultDataSource dataSource;
+
+  @Before
+  public void setUp() {
+    extractor = new AdtsExtractor(FLAG_ENABLE_INDEX_SEEKING);
+    extractorOutput = new FakeExtractorOutput();
+    dataSource =
+        new DefaultDataSource.Factory(ApplicationProvider.getApplicationContext())
+            .createDataSource();
+  }
+
+  @Test
+  public void adtsExtractorReads_returnsSeekableSeekMap() throws Exception {
+    Uri fileUri = TestUtil.buildAssetUri(TEST_FILE);
+
+    SeekMap seekMap = TestUtil.extractSeekMap(extractor, extractorOutput, dataSource, fileUri);
+
+    assertThat(seekMap.isSeekable()).isTrue();
+  }
+
+  @Test
+  public void adtsExtractorReadsWholeFile_outputsExactIndexSeekMap() throws Exception {
+    FakeTrackOutput expectedTrackOutput = getExpectedTrackOutput();
+    List<Long> sampleTimesUs = expectedTrackOutput.getSampleTimesUs();
+    long sampleDurationUs = sampleTimesUs.get(1) - sampleTimesUs.get(0);
+
+    SeekMap seekMap =
+        extractAllSamplesFromFile(extractor, ApplicationProvider.getApplicationContext(), TEST_FILE)
+            .seekMap;
+
+    assertThat(seekMap).isInstanceOf(IndexSeekMap.class);
+    assertThat(seekMap.getDurationUs())
+        .isEqualTo(sampleTimesUs.get(sampleTimesUs.size() - 1) + sampleDurationUs);
+  }
+
+  @Test
+  public void adtsExtractorReadsWithFrameHeadersSplitAcrossReads_outputsExactIndexSeekMap()
+      throws Exception {
+    byte[] data = TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), TEST_FILE);
+    SeekMap expectedSeekMap =
+        extractAllSamplesFromFile(
+                new AdtsExtractor(FLAG_ENABLE_INDEX_SEEKING),
+                ApplicationProvider.getApplicationContext(),
+                TEST_FILE)
+            .seekMap;
+    // Partial reads make every read return a single byte, so that no frame header is contained in
+    // a single read.
+    FakeExtractorInput input =
+        new FakeExtractorInput.Builder().setData(data).setSimulatePartialReads(true).build();
+    extractor.init(extractorOutput);
+
+    PositionHolder positionHolder = new PositionHolder();
+    while (extractor.read(input, positionHolder) != Extractor.RESULT_END_OF_INPUT) {}
+
+    SeekMap seekMap = extractorOutput.seekMap;
+    assertThat(seekMap).isInstanceOf(IndexSeekMap.class);
+    assertThat(seekMap.getDurationUs()).isEqualTo(expectedSeekMap.getDurationUs());
+    assertThat(seekMap.getSeekPoints(/* timeUs= */ 1_234_000))
+        .isEqualTo(expectedSeekMap.getSeekPoints(/* timeUs= */ 1_234_000));
+  }
+
+  @Test
+  public void seeking_handlesSeekToZero() throws Exception {
+    assertSeekIsExact(/* targetSeekTimeUs= */ 0);
+  }
+
+  @Test
+  public void seeking_handlesSeekToMiddle() throws Exception {
+    assertSeekIsExact(/* targetSeekTimeUs= */ 1_234_000);
+  }
+
+  @Test
+  public void seekingWithPersistedIndexAfterReopening_isExactWithoutScanning() throws Exception {
+    byte[] data = TestUtil.getByteArray(ApplicationProvider.getApplicationContext(), TEST_FILE);
+    FakeTrackOutput expectedTrackOutput = getExpectedTrackOutput();
+    // Index the whole stream, and persist the index that is output at the end of the stream.
+    SeekMap indexSeekMap =
+        extractAllSamplesFromFile(
+                new AdtsExtractor(FLAG_ENABLE_INDEX_SEEKING),
+                ApplicationProvider.getApplicationContext(),
+                TEST_FILE)
+            .seekMap;
+    byte[] persistedSeekMap = checkNotNull(SeekMapSerializer.serialize(indexSeekMap));
+    // Reopen the stream. The new extractor has only indexed the start of the stream.
+    SeekMap restoredSeekMap = checkNotNull(SeekMapSerializer.deserialize(persistedSeekMap));
+    FakeExtractorInput input = new FakeExtractorInput.Builder().setData(data).build();
+    PositionHolder positionHolder = new PositionHolder();
+    extractor.init(extractorOutput);
+    while (extractorOutput.seekMap == null) {
+      assertThat(extractor.read(input, positionHolder)).isEqualTo(Extractor.RESULT_CONTINUE);
+    }
+    extractor.enableExactSeekTimes();
+    FakeTrackOutput trackOutput = extractorOutput.trackOutputs.get(0);
+    trackOutput.clear();
+
+    SeekPoint seekPoint = restoredSeekMap.getSeekPoints(/* timeUs= */ 1_234_000).first;
+    extractor.seek(seekPoint.position, seekPoint.timeUs);
+    input.setPosition((int) seekPoint.position);
+    int result;
+    do {
+      result = extractor.read(input, positionHolder);
+    } while (result == Extractor.RESULT_CONTINUE);
+
+    // The extractor read on from the seek point, without seeking anywhere else to find a frame.
+    assertThat(result).isEqualTo(Extractor.RESULT_END_OF_INPUT);
+    int expectedFrameIndex = expectedTrackOutput.getSampleTimesUs().indexOf(seekPoint.timeUs);
+    assertThat(expectedFrameIndex).isGreaterThan(0);
+    assertThat(trackOutput.getSampleCount())
+        .isEqualTo(expectedTrackOutput.getSampleCount() - expectedFrameIndex);
+    // Timestamps after seeking match the timestamps of a sequential read exactly.
+    trackOutput.assertSample(
+        /* index= */ 0,
+        expectedTrackOutput.getSampleData(expectedFrameIndex),
+        expectedTrackOutput.getSampleTimeUs(expectedFrameIndex),
+        expectedTrackOutput.getSampleFlags(expectedFrameIndex),
+        expectedTrackOutput.getSampleCryptoData(expectedFrameIndex));
+  }
+
+  private void assertSeekIsExact(long targetSeekTimeUs) throws IOException {
+    Uri fileUri = TestUtil.buildAssetUri(TEST_FILE);
+    SeekMap seekMap = TestUtil.extractSeekMap(extractor, extractorOutput, dataSource, fileUri);
+    FakeTrackOutput trackOutput = extractorOutput.trackOutputs.get(0);
+
+    int extractedFrameIndex =
+        TestUtil.seekToTimeUs(
+            extractor, seekMap, targetSeekTimeUs, dataSource, trackOutput, fileUri);
+
+    assertThat(extractedFrameIndex).isNotEqualTo(C.INDEX_UNSET);
+    FakeTrackOutput expectedTrackOutput = getExpectedTrackOutput();
+    long foundTimeUs = trackOutput.getSampleTimeUs(extractedFrameIndex);
+    int foundFrameIndex =
+        Util.binarySearchFloor(
+            expectedTrackOutput.getSampleTimesUs(),
+            foundTimeUs,
+            /* inclusive= */ true,
+            /* stayInBounds= */ false);
+    // Timestamps after seeking match the timestamps of a sequential read exactly.
+    trackOutput.assertSample(
+        extractedFrameIndex,
+        expectedTrackOutput.getSampleData(foundFrameIndex),
+        expectedTrackOutput.getSampleTimeUs(foundFrameIndex),
+        expectedTrackOutput.getSampleFlags(foundFrameIndex),
+        expectedTrackOutput.getSampleCryptoData(foundFrameIndex));
+  }
+
+  private static FakeTrackOutput getExpectedTrackOutput() throws IOException {
+    return extractAllSamplesFromFile(
+            new AdtsExtractor(FLAG_ENABLE_INDEX_SEEKING),
+            ApplicationProvider.getApplicationContext(),
+            TEST_FILE)
+        .trackOutputs
+        .get(0);
+  }
+}
@@ -15,15 +15,18 @@
  */
 package com.google.android.exoplayer2.source.hls;
 
+import static java.lang.Math.min;
+
 import android.net.Uri;
 import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.upstream.DataSource;
-import com.google.android.exoplayer2.upstream.DataSourceInputStream;
 import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.TransferListener;
 import com.google.android.exoplayer2.util.Assertions;
+import com.google.android.exoplayer2.util.Util;
 import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
@@ -32,7 +35,6 @@ import java.security.spec.AlgorithmParameterSpec;
 import java.util.List;
 import java.util.Map;
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
@@ -53,11 +55,21 @@ import javax.crypto.spec.SecretKeySpec;
 @Deprecated
 /* package */ class Aes128DataSource implements DataSource {
 
+  /** The AES block size, in bytes. */
+  private static final int AES_BLOCK_SIZE = 16;
+  /** The maximum number of encrypted bytes read from upstream and decrypted in one step. */
+  private static final int MAX_READ_LENGTH = 32 * 1024;
+
   private final DataSource upstream;
   private final byte[] encryptionKey;
   private final byte[] encryptionIv;
 
-  @Nullable private CipherInputStream cipherInputStream;
+  @Nullable private Cipher cipher;
+  private byte[] encryptedData;
+  private byte[] decryptedData;
+  private int decryptedDataPosition;
+  private int decryptedDataLimit;
+  private boolean upstreamEnded;
 
   /**
    * @param upstream The upstream {@link DataSource}.
@@ -68,6 +80,8 @@ import javax.crypto.spec.SecretKeySpec;
     this.upstream = upstream;
     this.encryptionKey = encryptionKey;
     this.encryptionIv = encryptionIv;
+    encryptedData = Util.EMPTY_BYTE_ARRAY;
+    decryptedData = Util.EMPTY_BYTE_ARRAY;
   }
 
   @Override
@@ -94,21 +108,64 @@ import javax.crypto.spec.SecretKeySpec;
       throw new RuntimeException(e);
     }
 
-    DataSourceInputStream inputStream = new DataSourceInputStream(upstream, dataSpec);
-    cipherInputStream = new CipherInputStream(inputStream, cipher);
-    inputStream.open();
+    this.cipher = cipher;
+    decryptedDataPosition = 0;
+    decryptedDataLimit = 0;
+    upstreamEnded = false;
+    upstream.open(dataSpec);
 
     return C.LENGTH_UNSET;
   }
 
   @Override
   public final int read(byte[] buffer, int offset, int length) throws IOException {
-    Assertions.checkNotNull(cipherInputStream);
-    int bytesRead = cipherInputStream.read(buffer, offset, length);
-    if (bytesRead < 0) {
-      return C.RESULT_END_OF_INPUT;
+    Cipher cipher = Assertions.checkNotNull(this.cipher);
+    if (length == 0) {
+      return 0;
+    }
+    while (decryptedDataPosition == decryptedDataLimit) {
+      if (upstreamEnded) {
+        return C.RESULT_END_OF_INPUT;
+      }
+      // Read slightly less than requested, so that the output of the cipher, which may include a
+      // block withheld from the previous update, can usually be decrypted straight into buffer.
+      int readLength =
+          min(length > AES_BLOCK_SIZE ? length - AES_BLOCK_SIZE : length, MAX_READ_LENGTH);
+      if (encryptedData.length < readLength) {
+        encryptedData = new byte[readLength];
+      }
+      int bytesRead = upstream.read(encryptedData, /* offset= */ 0, readLength);
+      try {
+        if (bytesRead == C.RESULT_END_OF_INPUT) {
+          upstreamEnded = true;
+          ensureDecryptedDataCapacity(cipher.getOutputSize(0));
+          decryptedDataLimit = cipher.doFinal(decryptedData, /* outputOffset= */ 0);
+        } else if (cipher.getOutputSize(bytesRead) <= length) {
+          int bytesDecrypted =
+              cipher.update(encryptedData, /* inputOffset= */ 0, bytesRead, buffer, offset);
+          if (bytesDecrypted > 0) {
+            return bytesDecrypted;
+          }
+          continue;
+        } else {
+          ensureDecryptedDataCapacity(cipher.getOutputSize(bytesRead));
+          decryptedDataLimit =
+              cipher.update(
+                  encryptedData,
+                  /* inputOffset= */ 0,
+                  bytesRead,
+                  decryptedData,
+                  /* outputOffset= */ 0);
+        }
+      } catch (GeneralSecurityException e) {
+        throw new IOException(e);
+      }
+      decryptedDataPosition = 0;
     }
-    return bytesRead;
+    int bytesToCopy = min(length, decryptedDataLimit - decryptedDataPosition);
+    System.arraycopy(decryptedData, decryptedDataPosition, buffer, offset, bytesToCopy);
+    decryptedDataPosition += bytesToCopy;
+    return bytesToCopy;
   }
 
   @Override
@@ -124,8 +181,8 @@ import javax.crypto.spec.SecretKeySpec;
 
   @Override
   public void close() throws IOException {
-    if (cipherInputStream != null) {
-      cipherInputStream = null;
+    if (cipher != null) {
+      cipher = null;
       upstream.close();
     }
   }
@@ -133,4 +190,10 @@ import javax.crypto.spec.SecretKeySpec;
   protected Cipher getCipherInstance() throws NoSuchPaddingException, NoSuchAlgorithmException {
     return Cipher.getInstance("AES/CBC/PKCS7Padding");
   }
+
+  private void ensureDecryptedDataCapacity(int capacity) {
+    if (decryptedData.length < capacity) {
+      decryptedData = new byte[capacity];
+    }
+  }
 }
@@ -45,6 +45,8 @@ import com.google.android.exoplayer2.upstream.CmcdConfiguration;
 import com.google.android.exoplayer2.upstream.CmcdHeadersFactory;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.Loader;
+import com.google.android.exoplayer2.upstream.Loader.LoadErrorAction;
 import com.google.android.exoplayer2.upstream.TransferListener;
 import com.google.android.exoplayer2.util.MimeTypes;
 import com.google.android.exoplayer2.util.TimestampAdjuster;
@@ -100,6 +102,28 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
     }
   }
 
+  /**
+   * Listener of the encryption keys that are loaded ahead of the segments using them. Methods are
+   * called on the thread that requested the chunks.
+   */
+  public interface EncryptionKeyPrefetchListener {
+
+    /** Called when loading a key ahead of time starts. */
+    void onEncryptionKeyPrefetchStarted(Chunk chunk, long elapsedRealtimeMs);
+
+    /** Called when a key loaded ahead of time is available. */
+    void onEncryptionKeyPrefetchCompleted(Chunk chunk, long elapsedRealtimeMs, long loadDurationMs);
+
+    /** Called when loading a key ahead of time is canceled. */
+    void onEncryptionKeyPrefetchCanceled(Chunk chunk, long elapsedRealtimeMs, long loadDurationMs);
+
+    /**
+     * Called when loading a key ahead of time fails. The key will be loaded again when it's needed.
+     */
+    void onEncryptionKeyPrefetchError(
+        Chunk chunk, long elapsedRealtimeMs, long loadDurationMs, IOException error);
+  }
+
   /**
    * Chunk publication state. One of {@link #CHUNK_PUBLICATION_STATE_PRELOAD}, {@link
    * #CHUNK_PUBLICATION_STATE_PUBLISHED}, {@link #CHUNK_PUBLICATION_STATE_REMOVED}.
@@ -134,6 +158,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
   private final HlsExtractorFactory extractorFactory;
   private final DataSource mediaDataSource;
   private final DataSource encryptionDataSource;
+  private final DataSource encryptionKeyPrefetchDataSource;
   private final TimestampAdjusterProvider timestampAdjusterProvider;
   private final Uri[] playlistUrls;
   private final Format[] playlistFormats;
@@ -149,6 +174,10 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
   private byte[] scratchSpace;
   @Nullable private IOException fatalError;
   @Nullable private Uri expectedPlaylistUrl;
+  @Nullable private Uri activePlaylistUrl;
+  @Nullable private Loader encryptionKeyPrefetchLoader;
+  @Nullable private Uri prefetchingEncryptionKeyUri;
+  @Nullable private EncryptionKeyPrefetchListener encryptionKeyPrefetchListener;
   private boolean independentSegments;
 
   // Note: The track group in the selection is typically *not* equal to trackGroup. This is due to
@@ -207,6 +236,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
       mediaDataSource.addTransferListener(mediaTransferListener);
     }
     encryptionDataSource = dataSourceFactory.createDataSource(C.DATA_TYPE_DRM);
+    encryptionKeyPrefetchDataSource = dataSourceFactory.createDataSource(C.DATA_TYPE_DRM);
     trackGroup = new TrackGroup(playlistFormats);
     // Use only non-trickplay variants for preparation. See [Internal ref: b/161529098].
     ArrayList<Integer> initialTrackSelection = new ArrayList<>();
@@ -253,11 +283,32 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
     return trackSelection;
   }
 
+  /**
+   * Sets the listener of the encryption keys loaded ahead of the segments using them. While such a
+   * key is loading, {@link #getNextChunk} doesn't return a chunk for a segment using it, so the
+   * listener should request chunks again once the load ends.
+   *
+   * @param encryptionKeyPrefetchListener The {@link EncryptionKeyPrefetchListener}, or null.
+   */
+  public void setEncryptionKeyPrefetchListener(
+      @Nullable EncryptionKeyPrefetchListener encryptionKeyPrefetchListener) {
+    this.encryptionKeyPrefetchListener = encryptionKeyPrefetchListener;
+  }
+
   /** Resets the source. */
   public void reset() {
     fatalError = null;
   }
 
+  /** Releases the source. */
+  public void release() {
+    setActivePlaylistUrl(/* playlistUrl= */ null);
+    if (encryptionKeyPrefetchLoader != null) {
+      encryptionKeyPrefetchLoader.release();
+      encryptionKeyPrefetchLoader = null;
+    }
+  }
+
   /**
    * Sets whether this chunk source is responsible for initializing timestamp adjusters.
    *
@@ -412,6 +463,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
     int selectedTrackIndex = trackSelection.getSelectedIndexInTrackGroup();
     boolean switchingTrack = oldTrackIndex != selectedTrackIndex;
     Uri selectedPlaylistUrl = playlistUrls[selectedTrackIndex];
+    setActivePlaylistUrl(selectedPlaylistUrl);
     if (!playlistTracker.isSnapshotValid(selectedPlaylistUrl)) {
       out.playlistUrl = selectedPlaylistUrl;
       seenExpectedPlaylistError &= selectedPlaylistUrl.equals(expectedPlaylistUrl);
@@ -440,6 +492,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
       // behind the live window.
       selectedTrackIndex = oldTrackIndex;
       selectedPlaylistUrl = playlistUrls[selectedTrackIndex];
+      setActivePlaylistUrl(selectedPlaylistUrl);
       playlist =
           playlistTracker.getPlaylistSnapshot(selectedPlaylistUrl, /* isForPlayback= */ true);
       // playlistTracker snapshot is valid (checked by if() above), so playlist must be non-null.
@@ -507,14 +560,19 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
     @Nullable
     Uri initSegmentKeyUri =
         getFullEncryptionKeyUri(playlist, segmentBaseHolder.segmentBase.initializationSegment);
+    @Nullable
+    Uri mediaSegmentKeyUri = getFullEncryptionKeyUri(playlist, segmentBaseHolder.segmentBase);
+    if (isPrefetchingEncryptionKey(initSegmentKeyUri)
+        || isPrefetchingEncryptionKey(mediaSegmentKeyUri)) {
+      // Wait for the key that is already being loaded instead of requesting it a second time.
+      return;
+    }
     out.chunk =
         maybeCreateEncryptionChunkFor(
             initSegmentKeyUri, selectedTrackIndex, /* isInitSegment= */ true, cmcdHeadersFactory);
     if (out.chunk != null) {
       return;
     }
-    @Nullable
-    Uri mediaSegmentKeyUri = getFullEncryptionKeyUri(playlist, segmentBaseHolder.segmentBase);
     out.chunk =
         maybeCreateEncryptionChunkFor(
             mediaSegmentKeyUri, selectedTrackIndex, /* isInitSegment= */ false, cmcdHeadersFactory);
@@ -554,6 +612,20 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
             shouldSpliceIn,
             playerId,
             cmcdHeadersFactory);
+    maybePrefetchNextEncryptionKey(playlist, segmentBaseHolder, selectedTrackIndex);
+  }
+
+  private void setActivePlaylistUrl(@Nullable Uri playlistUrl) {
+    if (Util.areEqual(playlistUrl, activePlaylistUrl)) {
+      return;
+    }
+    if (activePlaylistUrl != null) {
+      playlistTracker.deactivatePlaylistForPlayback(activePlaylistUrl);
+    }
+    activePlaylistUrl = playlistUrl;
+    if (playlistUrl != null) {
+      playlistTracker.activatePlaylistForPlayback(playlistUrl);
+    }
   }
 
   private boolean getIsMuxedAudioAndVideo() {
@@ -884,7 +956,77 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
       keyCache.put(keyUri, encryptionKey);
       return null;
     }
+    return createEncryptionKeyChunk(
+        keyUri,
+        encryptionDataSource,
+        selectedTrackIndex,
+        isInitSegment,
+        cmcdHeadersFactory,
+        scratchSpace);
+  }
 
+  /**
+   * Starts loading the key of the segment following the one in {@code segmentBaseHolder} in the
+   * background, if that key differs from the keys in the cache. This allows playlists that rotate
+   * keys to load the next segment without first waiting for its key.
+   */
+  private void maybePrefetchNextEncryptionKey(
+      HlsMediaPlaylist playlist, SegmentBaseHolder segmentBaseHolder, int selectedTrackIndex) {
+    long nextMediaSequence = segmentBaseHolder.mediaSequence + 1;
+    if (nextMediaSequence - playlist.mediaSequence > playlist.segments.size()) {
+      // The segment is the last trailing part of the playlist.
+      return;
+    }
+    @Nullable
+    SegmentBaseHolder nextSegmentBaseHolder =
+        getNextSegmentHolder(playlist, nextMediaSequence, /* nextPartIndex= */ C.INDEX_UNSET);
+    if (nextSegmentBaseHolder == null) {
+      return;
+    }
+    @Nullable
+    Uri keyUri =
+        getFullEncryptionKeyUri(playlist, nextSegmentBaseHolder.segmentBase.initializationSegment);
+    boolean isInitSegment = true;
+    if (keyUri == null || keyCache.containsUri(keyUri)) {
+      keyUri = getFullEncryptionKeyUri(playlist, nextSegmentBaseHolder.segmentBase);
+      isInitSegment = false;
+    }
+    if (keyUri == null || keyCache.containsUri(keyUri)) {
+      return;
+    }
+    if (encryptionKeyPrefetchLoader == null) {
+      encryptionKeyPrefetchLoader = new Loader("HlsChunkSource:EncryptionKeyPrefetch");
+    } else if (encryptionKeyPrefetchLoader.isLoading()) {
+      return;
+    }
+    prefetchingEncryptionKeyUri = keyUri;
+    EncryptionKeyChunk chunk =
+        createEncryptionKeyChunk(
+            keyUri,
+            encryptionKeyPrefetchDataSource,
+            selectedTrackIndex,
+            isInitSegment,
+            /* cmcdHeadersFactory= */ null,
+            /* dataHolder= */ Util.EMPTY_BYTE_ARRAY);
+    long elapsedRealtimeMs =
+        encryptionKeyPrefetchLoader.startLoading(
+            chunk, new EncryptionKeyPrefetchCallback(), /* defaultMinRetryCount= */ 0);
+    if (encryptionKeyPrefetchListener != null) {
+      encryptionKeyPrefetchListener.onEncryptionKeyPrefetchStarted(chunk, elapsedRealtimeMs);
+    }
+  }
+
+  private boolean isPrefetchingEncryptionKey(@Nullable Uri keyUri) {
+    return keyUri != null && keyUri.equals(prefetchingEncryptionKeyUri);
+  }
+
+  private EncryptionKeyChunk createEncryptionKeyChunk(
+      Uri keyUri,
+      DataSource dataSource,
+      int selectedTrackIndex,
+      boolean isInitSegment,
+      @Nullable CmcdHeadersFactory cmcdHeadersFactory,
+      byte[] dataHolder) {
     ImmutableMap<@CmcdConfiguration.HeaderKey String, String> httpRequestHeaders =
         ImmutableMap.of();
     if (cmcdHeadersFactory != null) {
@@ -900,12 +1042,12 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
             .setHttpRequestHeaders(httpRequestHeaders)
             .build();
     return new EncryptionKeyChunk(
-        encryptionDataSource,
+        dataSource,
         dataSpec,
         playlistFormats[selectedTrackIndex],
         trackSelection.getSelectionReason(),
         trackSelection.getSelectionData(),
-        scratchSpace);
+        dataHolder);
   }
 
   @Nullable
@@ -1024,6 +1166,50 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
     }
   }
 
+  private final class EncryptionKeyPrefetchCallback
+      implements Loader.Callback<EncryptionKeyChunk> {
+
+    @Override
+    public void onLoadCompleted(
+        EncryptionKeyChunk loadable, long elapsedRealtimeMs, long loadDurationMs) {
+      prefetchingEncryptionKeyUri = null;
+      keyCache.put(loadable.dataSpec.uri, checkNotNull(loadable.getResult()));
+      if (encryptionKeyPrefetchListener != null) {
+        encryptionKeyPrefetchListener.onEncryptionKeyPrefetchCompleted(
+            loadable, elapsedRealtimeMs, loadDurationMs);
+      }
+    }
+
+    @Override
+    public void onLoadCanceled(
+        EncryptionKeyChunk loadable,
+        long elapsedRealtimeMs,
+        long loadDurationMs,
+        boolean released) {
+      prefetchingEncryptionKeyUri = null;
+      if (encryptionKeyPrefetchListener != null) {
+        encryptionKeyPrefetchListener.onEncryptionKeyPrefetchCanceled(
+            loadable, elapsedRealtimeMs, loadDurationMs);
+      }
+    }
+
+    @Override
+    public LoadErrorAction onLoadError(
+        EncryptionKeyChunk loadable,
+        long elapsedRealtimeMs,
+        long loadDurationMs,
+        IOException error,
+        int errorCount) {
+      // Leave it to the regular key load to handle the error.
+      prefetchingEncryptionKeyUri = null;
+      if (encryptionKeyPrefetchListener != null) {
+        encryptionKeyPrefetchListener.onEncryptionKeyPrefetchError(
+            loadable, elapsedRealtimeMs, loadDurationMs, error);
+      }
+      return Loader.DONT_RETRY;
+    }
+  }
+
   @VisibleForTesting
   /* package */ static final class HlsMediaPlaylistSegmentIterator extends BaseMediaChunkIterator {
 
@@ -16,6 +16,8 @@
 package com.google.android.exoplayer2.source.hls;
 
 import static com.google.android.exoplayer2.upstream.DataSpec.FLAG_MIGHT_NOT_USE_FULL_NETWORK_SPEED;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 import android.net.Uri;
 import androidx.annotation.Nullable;
@@ -32,6 +34,7 @@ import com.google.android.exoplayer2.source.chunk.MediaChunk;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist;
 import com.google.android.exoplayer2.upstream.CmcdConfiguration;
 import com.google.android.exoplayer2.upstream.CmcdHeadersFactory;
+import com.google.android.exoplayer2.upstream.DataReader;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DataSourceUtil;
 import com.google.android.exoplayer2.upstream.DataSpec;
@@ -39,6 +42,7 @@ import com.google.android.exoplayer2.util.Assertions;
 import com.google.android.exoplayer2.util.ParsableByteArray;
 import com.google.android.exoplayer2.util.TimestampAdjuster;
 import com.google.android.exoplayer2.util.UriUtil;
+import com.google.android.exoplayer2.util.Util;
 import com.google.common.base.Ascii;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -46,6 +50,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -265,6 +270,14 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
   public static final String PRIV_TIMESTAMP_FRAME_OWNER =
       "com.apple.streaming.transportStreamTimestamp";
 
+  /**
+   * The maximum number of bytes of a media segment that are buffered while waiting for another
+   * chunk to initialize the shared {@link TimestampAdjuster}.
+   */
+  private static final int MAX_BYTES_BUFFERED_BEFORE_TIMESTAMP_ADJUSTER_INIT = 1024 * 1024;
+
+  private static final int INITIAL_BUFFER_SIZE_BEFORE_TIMESTAMP_ADJUSTER_INIT = 16 * 1024;
+
   private static final AtomicInteger uidSource = new AtomicInteger();
 
   /** A unique identifier for the chunk. */
@@ -533,7 +546,11 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
       DataSource dataSource, DataSpec dataSpec, boolean initializeTimestampAdjuster)
       throws IOException {
     long bytesToRead = dataSource.open(dataSpec);
+    DataReader dataReader = dataSource;
     if (initializeTimestampAdjuster) {
+      if (!isPrimaryTimestampSource) {
+        dataReader = bufferUntilTimestampAdjusterInitialized(dataSource);
+      }
       try {
         timestampAdjuster.sharedInitializeOrWait(
             isPrimaryTimestampSource, startTimeUs, timestampAdjusterInitializationTimeoutMs);
@@ -544,7 +561,7 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
       }
     }
     DefaultExtractorInput extractorInput =
-        new DefaultExtractorInput(dataSource, dataSpec.position, bytesToRead);
+        new DefaultExtractorInput(dataReader, dataSpec.position, bytesToRead);
 
     if (extractor == null) {
       long id3Timestamp = peekId3PrivTimestamp(extractorInput);
@@ -578,6 +595,42 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
     return extractorInput;
   }
 
+  /**
+   * Reads the start of the media segment into memory until the shared {@link TimestampAdjuster} is
+   * initialized by the primary timestamp source, so that the load of this segment overlaps with
+   * the primary one instead of only starting once the timestamp offset is known.
+   *
+   * @param dataSource The opened {@link DataSource} of the media segment.
+   * @return A {@link DataReader} that returns the buffered data followed by the rest of the data
+   *     from {@code dataSource}.
+   * @throws IOException If an error occurred reading from the data source.
+   */
+  private DataReader bufferUntilTimestampAdjusterInitialized(DataSource dataSource)
+      throws IOException {
+    byte[] buffer = Util.EMPTY_BYTE_ARRAY;
+    int bufferedLength = 0;
+    while (!loadCanceled
+        && !timestampAdjuster.isInitialized()
+        && bufferedLength < MAX_BYTES_BUFFERED_BEFORE_TIMESTAMP_ADJUSTER_INIT) {
+      if (bufferedLength == buffer.length) {
+        buffer =
+            Arrays.copyOf(
+                buffer,
+                min(
+                    max(INITIAL_BUFFER_SIZE_BEFORE_TIMESTAMP_ADJUSTER_INIT, buffer.length * 2),
+                    MAX_BYTES_BUFFERED_BEFORE_TIMESTAMP_ADJUSTER_INIT));
+      }
+      int bytesRead = dataSource.read(buffer, bufferedLength, buffer.length - bufferedLength);
+      if (bytesRead == C.RESULT_END_OF_INPUT) {
+        break;
+      }
+      bufferedLength += bytesRead;
+    }
+    return bufferedLength == 0
+        ? dataSource
+        : new BufferedPrefixDataReader(buffer, bufferedLength, dataSource);
+  }
+
   /**
    * Peek the presentation timestamp of the first sample in the chunk from an ID3 PRIV as defined in
    * the HLS spec, version 20, Section 3.4. Returns {@link C#TIME_UNSET} if the frame is not found.
@@ -679,4 +732,34 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
     }
     return mediaPlaylist.hasIndependentSegments;
   }
+
+  /** A {@link DataReader} that returns data buffered in memory before reading from upstream. */
+  private static final class BufferedPrefixDataReader implements DataReader {
+
+    private final byte[] prefix;
+    private final int prefixLength;
+    private final DataReader upstream;
+
+    private int prefixPosition;
+
+    public BufferedPrefixDataReader(byte[] prefix, int prefixLength, DataReader upstream) {
+      this.prefix = prefix;
+      this.prefixLength = prefixLength;
+      this.upstream = upstream;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (prefixPosition == prefixLength) {
+        return upstream.read(buffer, offset, length);
+      }
+      int bytesToCopy = min(length, prefixLength - prefixPosition);
+      System.arraycopy(prefix, prefixPosition, buffer, offset, bytesToCopy);
+      prefixPosition += bytesToCopy;
+      return bytesToCopy;
+    }
+  }
 }
@@ -260,6 +260,7 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
     handler = Util.createHandlerForCurrentLooper();
     lastSeekPositionUs = positionUs;
     pendingResetPositionUs = positionUs;
+    chunkSource.setEncryptionKeyPrefetchListener(new EncryptionKeyPrefetchListener());
   }
 
   public void continuePreparing() {
@@ -551,6 +552,7 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
         sampleQueue.preRelease();
       }
     }
+    chunkSource.release();
     loader.release(this);
     handler.removeCallbacksAndMessages(null);
     released = true;
@@ -1627,6 +1629,92 @@ import org.checkerframework.checker.nullness.qual.RequiresNonNull;
     return new DummyTrackOutput();
   }
 
+  /** Reports encryption key prefetches as loads and resumes loading once they end. */
+  private final class EncryptionKeyPrefetchListener
+      implements HlsChunkSource.EncryptionKeyPrefetchListener {
+
+    @Override
+    public void onEncryptionKeyPrefetchStarted(Chunk chunk, long elapsedRealtimeMs) {
+      mediaSourceEventDispatcher.loadStarted(
+          new LoadEventInfo(chunk.loadTaskId, chunk.dataSpec, elapsedRealtimeMs),
+          chunk.type,
+          trackType,
+          chunk.trackFormat,
+          chunk.trackSelectionReason,
+          chunk.trackSelectionData,
+          chunk.startTimeUs,
+          chunk.endTimeUs);
+    }
+
+    @Override
+    public void onEncryptionKeyPrefetchCompleted(
+        Chunk chunk, long elapsedRealtimeMs, long loadDurationMs) {
+      mediaSourceEventDispatcher.loadCompleted(
+          createLoadEventInfo(chunk, elapsedRealtimeMs, loadDurationMs),
+          chunk.type,
+          trackType,
+          chunk.trackFormat,
+          chunk.trackSelectionReason,
+          chunk.trackSelectionData,
+          chunk.startTimeUs,
+          chunk.endTimeUs);
+      onEncryptionKeyPrefetchEnded();
+    }
+
+    @Override
+    public void onEncryptionKeyPrefetchCanceled(
+        Chunk chunk, long elapsedRealtimeMs, long loadDurationMs) {
+      mediaSourceEventDispatcher.loadCanceled(
+          createLoadEventInfo(chunk, elapsedRealtimeMs, loadDurationMs),
+          chunk.type,
+          trackType,
+          chunk.trackFormat,
+          chunk.trackSelectionReason,
+          chunk.trackSelectionData,
+          chunk.startTimeUs,
+          chunk.endTimeUs);
+    }
+
+    @Override
+    public void onEncryptionKeyPrefetchError(
+        Chunk chunk, long elapsedRealtimeMs, long loadDurationMs, IOException error) {
+      mediaSourceEventDispatcher.loadError(
+          createLoadEventInfo(chunk, elapsedRealtimeMs, loadDurationMs),
+          chunk.type,
+          trackType,
+          chunk.trackFormat,
+          chunk.trackSelectionReason,
+          chunk.trackSelectionData,
+          chunk.startTimeUs,
+          chunk.endTimeUs,
+          error,
+          /* wasCanceled= */ true);
+      // The key is loaded again by the chunk that needs it.
+      onEncryptionKeyPrefetchEnded();
+    }
+
+    private LoadEventInfo createLoadEventInfo(
+        Chunk chunk, long elapsedRealtimeMs, long loadDurationMs) {
+      return new LoadEventInfo(
+          chunk.loadTaskId,
+          chunk.dataSpec,
+          chunk.getUri(),
+          chunk.getResponseHeaders(),
+          elapsedRealtimeMs,
+          loadDurationMs,
+          chunk.bytesLoaded());
+    }
+
+    private void onEncryptionKeyPrefetchEnded() {
+      // The chunk source may have held back a chunk while the key was loading.
+      if (!prepared) {
+        continueLoading(lastSeekPositionUs);
+      } else {
+        callback.onContinueLoadingRequested(HlsSampleStreamWrapper.this);
+      }
+    }
+  }
+
   /**
    * A {@link SampleQueue} that adds HLS specific functionality:
    *
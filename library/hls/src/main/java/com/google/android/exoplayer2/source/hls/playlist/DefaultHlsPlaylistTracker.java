@@ -32,6 +32,7 @@ import com.google.android.exoplayer2.source.hls.HlsDataSourceFactory;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.Part;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.RenditionReport;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.Segment;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMultivariantPlaylist.Rendition;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMultivariantPlaylist.Variant;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.HttpDataSource;
@@ -231,7 +232,23 @@ public final class DefaultHlsPlaylistTracker
 
   @Override
   public void refreshPlaylist(Uri url) {
-    playlistBundles.get(url).loadPlaylist();
+    playlistBundles.get(url).loadPlaylist(/* allowDeltaUpdate= */ true);
+  }
+
+  @Override
+  public void activatePlaylistForPlayback(Uri url) {
+    @Nullable MediaPlaylistBundle bundle = playlistBundles.get(url);
+    if (bundle != null) {
+      bundle.playbackUserCount++;
+    }
+  }
+
+  @Override
+  public void deactivatePlaylistForPlayback(Uri url) {
+    @Nullable MediaPlaylistBundle bundle = playlistBundles.get(url);
+    if (bundle != null && bundle.playbackUserCount > 0) {
+      bundle.playbackUserCount--;
+    }
   }
 
   @Override
@@ -281,7 +298,10 @@ public final class DefaultHlsPlaylistTracker
       // We don't need to load the playlist again. We can use the same result.
       primaryBundle.processLoadedPlaylist((HlsMediaPlaylist) result, loadEventInfo);
     } else {
-      primaryBundle.loadPlaylist();
+      primaryBundle.loadPlaylist(/* allowDeltaUpdate= */ true);
+      // Load the media playlist of the default audio rendition in parallel. It would otherwise only
+      // be requested once the primary playlist is loaded and the audio period is prepared.
+      maybeLoadDefaultAudioRenditionPlaylist(multivariantPlaylist);
     }
     loadErrorHandlingPolicy.onLoadTaskConcluded(loadable.loadTaskId);
     eventDispatcher.loadCompleted(loadEventInfo, C.DATA_TYPE_MANIFEST);
@@ -408,6 +428,27 @@ public final class DefaultHlsPlaylistTracker
     return false;
   }
 
+  private void maybeLoadDefaultAudioRenditionPlaylist(
+      HlsMultivariantPlaylist multivariantPlaylist) {
+    @Nullable String audioGroupId = multivariantPlaylist.variants.get(0).audioGroupId;
+    if (audioGroupId == null) {
+      return;
+    }
+    List<Rendition> audios = multivariantPlaylist.audios;
+    for (int i = 0; i < audios.size(); i++) {
+      Rendition audio = audios.get(i);
+      if (audio.url != null
+          && audioGroupId.equals(audio.groupId)
+          && (audio.format.selectionFlags & C.SELECTION_FLAG_DEFAULT) != 0) {
+        @Nullable MediaPlaylistBundle bundle = playlistBundles.get(audio.url);
+        if (bundle != null) {
+          bundle.loadPlaylist(/* allowDeltaUpdate= */ true);
+        }
+        return;
+      }
+    }
+  }
+
   private void createBundles(List<Uri> urls) {
     int listSize = urls.size();
     for (int i = 0; i < listSize; i++) {
@@ -533,6 +574,7 @@ public final class DefaultHlsPlaylistTracker
     private long earliestNextLoadTimeMs;
     private long excludeUntilMs;
     private boolean loadPending;
+    private int playbackUserCount;
     @Nullable private IOException playlistError;
 
     public MediaPlaylistBundle(Uri playlistUrl) {
@@ -558,8 +600,17 @@ public final class DefaultHlsPlaylistTracker
           || lastSnapshotLoadMs + snapshotValidityDurationMs > currentTimeMs;
     }
 
-    public void loadPlaylist() {
-      loadPlaylistInternal(playlistUrl);
+    /**
+     * Loads the playlist.
+     *
+     * @param allowDeltaUpdate Whether a delta update may be requested if the server supports it,
+     *     rather than the full playlist.
+     */
+    public void loadPlaylist(boolean allowDeltaUpdate) {
+      loadPlaylistInternal(
+          allowDeltaUpdate
+              ? getMediaPlaylistUriForReload(/* allowBlockingReload= */ false)
+              : playlistUrl);
     }
 
     public void maybeThrowPlaylistRefreshError() throws IOException {
@@ -648,7 +699,7 @@ public final class DefaultHlsPlaylistTracker
           // Service Unavailable (503). In such cases, force a full, non-blocking request (see RFC
           // 8216, section 6.2.5.2 and 6.3.7).
           earliestNextLoadTimeMs = SystemClock.elapsedRealtime();
-          loadPlaylist();
+          loadPlaylist(/* allowDeltaUpdate= */ false);
           castNonNull(eventDispatcher)
               .loadError(loadEventInfo, loadable.type, error, /* wasCanceled= */ true);
           return Loader.DONT_RETRY;
@@ -768,25 +819,37 @@ public final class DefaultHlsPlaylistTracker
                 : (playlistSnapshot.targetDurationUs / 2);
       }
       earliestNextLoadTimeMs = currentTimeMs + Util.usToMs(durationUntilNextLoadUs);
-      // Schedule a load if this is the primary playlist or a playlist of a low-latency stream and
-      // it doesn't have an end tag. Else the next load will be scheduled when refreshPlaylist is
-      // called, or when this playlist becomes the primary.
+      // Schedule a load if this is the primary playlist, or a playlist of a low-latency stream that
+      // is used for playback, and it doesn't have an end tag. Else the next load will be scheduled
+      // when refreshPlaylist is called, or when this playlist becomes the primary. Low-latency
+      // playlists that are no longer played are not reloaded, so that their blocking requests
+      // don't hold connections needed to load parts.
       boolean scheduleLoad =
-          playlistSnapshot.partTargetDurationUs != C.TIME_UNSET
+          (playlistSnapshot.partTargetDurationUs != C.TIME_UNSET && playbackUserCount > 0)
               || playlistUrl.equals(primaryMediaPlaylistUrl);
       if (scheduleLoad && !playlistSnapshot.hasEndTag) {
-        loadPlaylistInternal(getMediaPlaylistUriForReload());
+        loadPlaylistInternal(getMediaPlaylistUriForReload(/* allowBlockingReload= */ true));
       }
     }
 
-    private Uri getMediaPlaylistUriForReload() {
-      if (playlistSnapshot == null
-          || (playlistSnapshot.serverControl.skipUntilUs == C.TIME_UNSET
-              && !playlistSnapshot.serverControl.canBlockReload)) {
+    private Uri getMediaPlaylistUriForReload(boolean allowBlockingReload) {
+      if (playlistSnapshot == null) {
+        return playlistUrl;
+      }
+      boolean blockingReload = allowBlockingReload && playlistSnapshot.serverControl.canBlockReload;
+      // Only request a delta update if the snapshot is recent enough for the skipped segments to
+      // still be part of it (see RFC 8216, section 6.2.5.1). The request isn't issued before
+      // earliestNextLoadTimeMs, so the snapshot's age is checked for that time.
+      long requestTimeMs = max(SystemClock.elapsedRealtime(), earliestNextLoadTimeMs);
+      boolean deltaUpdate =
+          playlistSnapshot.serverControl.skipUntilUs != C.TIME_UNSET
+              && requestTimeMs - lastSnapshotLoadMs
+                  < Util.usToMs(playlistSnapshot.serverControl.skipUntilUs) / 2;
+      if (!blockingReload && !deltaUpdate) {
         return playlistUrl;
       }
       Uri.Builder uriBuilder = playlistUrl.buildUpon();
-      if (playlistSnapshot.serverControl.canBlockReload) {
+      if (blockingReload) {
         long targetMediaSequence =
             playlistSnapshot.mediaSequence + playlistSnapshot.segments.size();
         uriBuilder.appendQueryParameter(BLOCK_MSN_PARAM, String.valueOf(targetMediaSequence));
@@ -800,7 +863,7 @@ public final class DefaultHlsPlaylistTracker
           uriBuilder.appendQueryParameter(BLOCK_PART_PARAM, String.valueOf(targetPartIndex));
         }
       }
-      if (playlistSnapshot.serverControl.skipUntilUs != C.TIME_UNSET) {
+      if (deltaUpdate) {
         uriBuilder.appendQueryParameter(
             SKIP_PARAM, playlistSnapshot.serverControl.canSkipDateRanges ? "v2" : "YES");
       }
@@ -829,8 +892,11 @@ public final class DefaultHlsPlaylistTracker
 
     @Override
     public void onPlaylistChanged() {
-      // Remove the temporary playlist listener that is waiting for the first playlist only.
-      listeners.remove(this);
+      // Remove the temporary playlist listener that is waiting for the first primary playlist only.
+      // Other playlists, like the one of the default audio rendition, may be loaded before it.
+      if (primaryMediaPlaylistSnapshot != null) {
+        listeners.remove(this);
+      }
     }
 
     @Override
@@ -32,7 +32,6 @@ import java.lang.annotation.Documented;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -182,8 +181,22 @@ public final class HlsMediaPlaylist extends HlsPlaylist {
       this.parts = ImmutableList.copyOf(parts);
     }
 
+    /**
+     * Returns a segment identical to this one except for the relative start time and the relative
+     * discontinuity sequence, which are also updated for all {@link #parts}. Returns this instance
+     * if both values are unchanged.
+     *
+     * @param relativeStartTimeUs The relative start time of the returned segment.
+     * @param relativeDiscontinuitySequence The relative discontinuity sequence of the returned
+     *     segment.
+     */
     public Segment copyWith(long relativeStartTimeUs, int relativeDiscontinuitySequence) {
-      List<Part> updatedParts = new ArrayList<>();
+      if (relativeStartTimeUs == this.relativeStartTimeUs
+          && relativeDiscontinuitySequence == this.relativeDiscontinuitySequence) {
+        return this;
+      }
+      ImmutableList.Builder<Part> updatedParts =
+          ImmutableList.builderWithExpectedSize(parts.size());
       long relativePartStartTimeUs = relativeStartTimeUs;
       for (int i = 0; i < parts.size(); i++) {
         Part part = parts.get(i);
@@ -203,7 +216,7 @@ public final class HlsMediaPlaylist extends HlsPlaylist {
           byteRangeOffset,
           byteRangeLength,
           hasGapTag,
-          updatedParts);
+          updatedParts.build());
     }
   }
 
@@ -262,7 +275,19 @@ public final class HlsMediaPlaylist extends HlsPlaylist {
       this.isPreload = isPreload;
     }
 
+    /**
+     * Returns a part identical to this one except for the relative start time and the relative
+     * discontinuity sequence. Returns this instance if both values are unchanged.
+     *
+     * @param relativeStartTimeUs The relative start time of the returned part.
+     * @param relativeDiscontinuitySequence The relative discontinuity sequence of the returned
+     *     part.
+     */
     public Part copyWith(long relativeStartTimeUs, int relativeDiscontinuitySequence) {
+      if (relativeStartTimeUs == this.relativeStartTimeUs
+          && relativeDiscontinuitySequence == this.relativeDiscontinuitySequence) {
+        return this;
+      }
       return new Part(
           url,
           initializationSegment,
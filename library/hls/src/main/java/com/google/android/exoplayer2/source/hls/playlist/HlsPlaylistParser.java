@@ -35,6 +35,7 @@ import com.google.android.exoplayer2.source.hls.HlsTrackMetadataEntry.VariantInf
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.Part;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.RenditionReport;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.Segment;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist.SegmentBase;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMultivariantPlaylist.Rendition;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMultivariantPlaylist.Variant;
 import com.google.android.exoplayer2.upstream.ParsingLoadable;
@@ -59,8 +60,6 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 import org.checkerframework.checker.nullness.qual.PolyNull;
 
@@ -136,54 +135,90 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
   private static final String ATTR_CLOSED_CAPTIONS_NONE = "CLOSED-CAPTIONS=NONE";
 
-  private static final Pattern REGEX_AVERAGE_BANDWIDTH =
-      Pattern.compile("AVERAGE-BANDWIDTH=(\\d+)\\b");
-  private static final Pattern REGEX_VIDEO = Pattern.compile("VIDEO=\"(.+?)\"");
-  private static final Pattern REGEX_AUDIO = Pattern.compile("AUDIO=\"(.+?)\"");
-  private static final Pattern REGEX_SUBTITLES = Pattern.compile("SUBTITLES=\"(.+?)\"");
-  private static final Pattern REGEX_CLOSED_CAPTIONS = Pattern.compile("CLOSED-CAPTIONS=\"(.+?)\"");
-  private static final Pattern REGEX_BANDWIDTH = Pattern.compile("[^-]BANDWIDTH=(\\d+)\\b");
-  private static final Pattern REGEX_CHANNELS = Pattern.compile("CHANNELS=\"(.+?)\"");
-  private static final Pattern REGEX_CODECS = Pattern.compile("CODECS=\"(.+?)\"");
-  private static final Pattern REGEX_RESOLUTION = Pattern.compile("RESOLUTION=(\\d+x\\d+)");
-  private static final Pattern REGEX_FRAME_RATE = Pattern.compile("FRAME-RATE=([\\d\\.]+)\\b");
-  private static final Pattern REGEX_TARGET_DURATION =
-      Pattern.compile(TAG_TARGET_DURATION + ":(\\d+)\\b");
-  private static final Pattern REGEX_ATTR_DURATION = Pattern.compile("DURATION=([\\d\\.]+)\\b");
-  private static final Pattern REGEX_PART_TARGET_DURATION =
-      Pattern.compile("PART-TARGET=([\\d\\.]+)\\b");
-  private static final Pattern REGEX_VERSION = Pattern.compile(TAG_VERSION + ":(\\d+)\\b");
-  private static final Pattern REGEX_PLAYLIST_TYPE =
-      Pattern.compile(TAG_PLAYLIST_TYPE + ":(.+)\\b");
-  private static final Pattern REGEX_CAN_SKIP_UNTIL =
-      Pattern.compile("CAN-SKIP-UNTIL=([\\d\\.]+)\\b");
-  private static final Pattern REGEX_CAN_SKIP_DATE_RANGES =
-      compileBooleanAttrPattern("CAN-SKIP-DATERANGES");
-  private static final Pattern REGEX_SKIPPED_SEGMENTS =
-      Pattern.compile("SKIPPED-SEGMENTS=(\\d+)\\b");
-  private static final Pattern REGEX_HOLD_BACK = Pattern.compile("[:|,]HOLD-BACK=([\\d\\.]+)\\b");
-  private static final Pattern REGEX_PART_HOLD_BACK =
-      Pattern.compile("PART-HOLD-BACK=([\\d\\.]+)\\b");
-  private static final Pattern REGEX_CAN_BLOCK_RELOAD =
-      compileBooleanAttrPattern("CAN-BLOCK-RELOAD");
-  private static final Pattern REGEX_MEDIA_SEQUENCE =
-      Pattern.compile(TAG_MEDIA_SEQUENCE + ":(\\d+)\\b");
-  private static final Pattern REGEX_MEDIA_DURATION =
-      Pattern.compile(TAG_MEDIA_DURATION + ":([\\d\\.]+)\\b");
-  private static final Pattern REGEX_MEDIA_TITLE =
-      Pattern.compile(TAG_MEDIA_DURATION + ":[\\d\\.]+\\b,(.+)");
-  private static final Pattern REGEX_LAST_MSN = Pattern.compile("LAST-MSN" + "=(\\d+)\\b");
-  private static final Pattern REGEX_LAST_PART = Pattern.compile("LAST-PART" + "=(\\d+)\\b");
-  private static final Pattern REGEX_TIME_OFFSET = Pattern.compile("TIME-OFFSET=(-?[\\d\\.]+)\\b");
-  private static final Pattern REGEX_BYTERANGE =
-      Pattern.compile(TAG_BYTERANGE + ":(\\d+(?:@\\d+)?)\\b");
-  private static final Pattern REGEX_ATTR_BYTERANGE =
-      Pattern.compile("BYTERANGE=\"(\\d+(?:@\\d+)?)\\b\"");
-  private static final Pattern REGEX_BYTERANGE_START = Pattern.compile("BYTERANGE-START=(\\d+)\\b");
-  private static final Pattern REGEX_BYTERANGE_LENGTH =
-      Pattern.compile("BYTERANGE-LENGTH=(\\d+)\\b");
-  private static final Pattern REGEX_METHOD =
-      Pattern.compile(
+  private static final AttributePattern PATTERN_AVERAGE_BANDWIDTH =
+      AttributePattern.integer("AVERAGE-BANDWIDTH=");
+  private static final AttributePattern PATTERN_VIDEO = AttributePattern.quotedString("VIDEO");
+  private static final AttributePattern PATTERN_AUDIO = AttributePattern.quotedString("AUDIO");
+  private static final AttributePattern PATTERN_SUBTITLES =
+      AttributePattern.quotedString("SUBTITLES");
+  private static final AttributePattern PATTERN_CLOSED_CAPTIONS =
+      AttributePattern.quotedString("CLOSED-CAPTIONS");
+  private static final AttributePattern PATTERN_BANDWIDTH =
+      new AttributePattern(
+          "[^-]BANDWIDTH=(\\d+)\\b",
+          /* precedingChars= */ "-",
+          /* precedingCharsExcluded= */ true,
+          "BANDWIDTH=",
+          AttributePattern.FORMAT_INTEGER);
+  private static final AttributePattern PATTERN_CHANNELS =
+      AttributePattern.quotedString("CHANNELS");
+  private static final AttributePattern PATTERN_CODECS = AttributePattern.quotedString("CODECS");
+  private static final AttributePattern PATTERN_RESOLUTION =
+      new AttributePattern(
+          "RESOLUTION=(\\d+x\\d+)", "RESOLUTION=", AttributePattern.FORMAT_RESOLUTION);
+  private static final AttributePattern PATTERN_FRAME_RATE =
+      AttributePattern.decimal("FRAME-RATE=");
+  private static final AttributePattern PATTERN_TARGET_DURATION =
+      AttributePattern.integer(TAG_TARGET_DURATION + ":");
+  private static final AttributePattern PATTERN_ATTR_DURATION =
+      AttributePattern.decimal("DURATION=");
+  private static final AttributePattern PATTERN_PART_TARGET_DURATION =
+      AttributePattern.decimal("PART-TARGET=");
+  private static final AttributePattern PATTERN_VERSION =
+      AttributePattern.integer(TAG_VERSION + ":");
+  private static final AttributePattern PATTERN_PLAYLIST_TYPE =
+      new AttributePattern(
+          TAG_PLAYLIST_TYPE + ":(.+)\\b", TAG_PLAYLIST_TYPE + ":", AttributePattern.FORMAT_TEXT);
+  private static final AttributePattern PATTERN_CAN_SKIP_UNTIL =
+      AttributePattern.decimal("CAN-SKIP-UNTIL=");
+  private static final AttributePattern PATTERN_CAN_SKIP_DATE_RANGES =
+      AttributePattern.booleanValue("CAN-SKIP-DATERANGES");
+  private static final AttributePattern PATTERN_SKIPPED_SEGMENTS =
+      AttributePattern.integer("SKIPPED-SEGMENTS=");
+  private static final AttributePattern PATTERN_HOLD_BACK =
+      new AttributePattern(
+          "[:|,]HOLD-BACK=([\\d\\.]+)\\b",
+          /* precedingChars= */ ":|,",
+          /* precedingCharsExcluded= */ false,
+          "HOLD-BACK=",
+          AttributePattern.FORMAT_DECIMAL);
+  private static final AttributePattern PATTERN_PART_HOLD_BACK =
+      AttributePattern.decimal("PART-HOLD-BACK=");
+  private static final AttributePattern PATTERN_CAN_BLOCK_RELOAD =
+      AttributePattern.booleanValue("CAN-BLOCK-RELOAD");
+  private static final AttributePattern PATTERN_MEDIA_SEQUENCE =
+      AttributePattern.integer(TAG_MEDIA_SEQUENCE + ":");
+  private static final AttributePattern PATTERN_MEDIA_DURATION =
+      AttributePattern.decimal(TAG_MEDIA_DURATION + ":");
+  private static final AttributePattern PATTERN_MEDIA_TITLE =
+      new AttributePattern(
+          TAG_MEDIA_DURATION + ":[\\d\\.]+\\b,(.+)",
+          TAG_MEDIA_DURATION + ":",
+          AttributePattern.FORMAT_TEXT_AFTER_DECIMAL);
+  private static final AttributePattern PATTERN_LAST_MSN = AttributePattern.integer("LAST-MSN=");
+  private static final AttributePattern PATTERN_LAST_PART =
+      AttributePattern.integer("LAST-PART=");
+  private static final AttributePattern PATTERN_TIME_OFFSET =
+      new AttributePattern(
+          "TIME-OFFSET=(-?[\\d\\.]+)\\b",
+          "TIME-OFFSET=",
+          AttributePattern.FORMAT_SIGNED_DECIMAL);
+  private static final AttributePattern PATTERN_BYTERANGE =
+      new AttributePattern(
+          TAG_BYTERANGE + ":(\\d+(?:@\\d+)?)\\b",
+          TAG_BYTERANGE + ":",
+          AttributePattern.FORMAT_BYTE_RANGE);
+  private static final AttributePattern PATTERN_ATTR_BYTERANGE =
+      new AttributePattern(
+          "BYTERANGE=\"(\\d+(?:@\\d+)?)\\b\"",
+          "BYTERANGE=\"",
+          AttributePattern.FORMAT_QUOTED_BYTE_RANGE);
+  private static final AttributePattern PATTERN_BYTERANGE_START =
+      AttributePattern.integer("BYTERANGE-START=");
+  private static final AttributePattern PATTERN_BYTERANGE_LENGTH =
+      AttributePattern.integer("BYTERANGE-LENGTH=");
+  private static final AttributePattern PATTERN_METHOD =
+      new AttributePattern(
           "METHOD=("
               + METHOD_NONE
               + "|"
@@ -195,41 +230,50 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
               + "|"
               + METHOD_SAMPLE_AES_CTR
               + ")"
-              + "\\s*(?:,|$)");
-  private static final Pattern REGEX_KEYFORMAT = Pattern.compile("KEYFORMAT=\"(.+?)\"");
-  private static final Pattern REGEX_KEYFORMATVERSIONS =
-      Pattern.compile("KEYFORMATVERSIONS=\"(.+?)\"");
-  private static final Pattern REGEX_URI = Pattern.compile("URI=\"(.+?)\"");
-  private static final Pattern REGEX_IV = Pattern.compile("IV=([^,.*]+)");
-  private static final Pattern REGEX_TYPE =
-      Pattern.compile(
-          "TYPE=("
-              + TYPE_AUDIO
-              + "|"
-              + TYPE_VIDEO
-              + "|"
-              + TYPE_SUBTITLES
-              + "|"
-              + TYPE_CLOSED_CAPTIONS
-              + ")");
-  private static final Pattern REGEX_PRELOAD_HINT_TYPE =
-      Pattern.compile("TYPE=(" + TYPE_PART + "|" + TYPE_MAP + ")");
-  private static final Pattern REGEX_LANGUAGE = Pattern.compile("LANGUAGE=\"(.+?)\"");
-  private static final Pattern REGEX_NAME = Pattern.compile("NAME=\"(.+?)\"");
-  private static final Pattern REGEX_GROUP_ID = Pattern.compile("GROUP-ID=\"(.+?)\"");
-  private static final Pattern REGEX_CHARACTERISTICS = Pattern.compile("CHARACTERISTICS=\"(.+?)\"");
-  private static final Pattern REGEX_INSTREAM_ID =
-      Pattern.compile("INSTREAM-ID=\"((?:CC|SERVICE)\\d+)\"");
-  private static final Pattern REGEX_AUTOSELECT = compileBooleanAttrPattern("AUTOSELECT");
-  private static final Pattern REGEX_DEFAULT = compileBooleanAttrPattern("DEFAULT");
-  private static final Pattern REGEX_FORCED = compileBooleanAttrPattern("FORCED");
-  private static final Pattern REGEX_INDEPENDENT = compileBooleanAttrPattern("INDEPENDENT");
-  private static final Pattern REGEX_GAP = compileBooleanAttrPattern("GAP");
-  private static final Pattern REGEX_PRECISE = compileBooleanAttrPattern("PRECISE");
-  private static final Pattern REGEX_VALUE = Pattern.compile("VALUE=\"(.+?)\"");
-  private static final Pattern REGEX_IMPORT = Pattern.compile("IMPORT=\"(.+?)\"");
-  private static final Pattern REGEX_VARIABLE_REFERENCE =
-      Pattern.compile("\\{\\$([a-zA-Z0-9\\-_]+)\\}");
+              + "\\s*(?:,|$)",
+          "METHOD=",
+          AttributePattern.FORMAT_ENUMERATION_WITH_SEPARATOR,
+          METHOD_NONE,
+          METHOD_AES_128,
+          METHOD_SAMPLE_AES,
+          METHOD_SAMPLE_AES_CENC,
+          METHOD_SAMPLE_AES_CTR);
+  private static final AttributePattern PATTERN_KEYFORMAT =
+      AttributePattern.quotedString("KEYFORMAT");
+  private static final AttributePattern PATTERN_KEYFORMATVERSIONS =
+      AttributePattern.quotedString("KEYFORMATVERSIONS");
+  private static final AttributePattern PATTERN_URI = AttributePattern.quotedString("URI");
+  private static final AttributePattern PATTERN_IV =
+      new AttributePattern("IV=([^,.*]+)", "IV=", AttributePattern.FORMAT_UNTIL_SEPARATOR);
+  private static final AttributePattern PATTERN_TYPE =
+      AttributePattern.enumeration(
+          "TYPE=", TYPE_AUDIO, TYPE_VIDEO, TYPE_SUBTITLES, TYPE_CLOSED_CAPTIONS);
+  private static final AttributePattern PATTERN_PRELOAD_HINT_TYPE =
+      AttributePattern.enumeration("TYPE=", TYPE_PART, TYPE_MAP);
+  private static final AttributePattern PATTERN_LANGUAGE =
+      AttributePattern.quotedString("LANGUAGE");
+  private static final AttributePattern PATTERN_NAME = AttributePattern.quotedString("NAME");
+  private static final AttributePattern PATTERN_GROUP_ID =
+      AttributePattern.quotedString("GROUP-ID");
+  private static final AttributePattern PATTERN_CHARACTERISTICS =
+      AttributePattern.quotedString("CHARACTERISTICS");
+  private static final AttributePattern PATTERN_INSTREAM_ID =
+      new AttributePattern(
+          "INSTREAM-ID=\"((?:CC|SERVICE)\\d+)\"",
+          "INSTREAM-ID=\"",
+          AttributePattern.FORMAT_QUOTED_NUMBERED_ENUMERATION,
+          "CC",
+          "SERVICE");
+  private static final AttributePattern PATTERN_AUTOSELECT =
+      AttributePattern.booleanValue("AUTOSELECT");
+  private static final AttributePattern PATTERN_DEFAULT = AttributePattern.booleanValue("DEFAULT");
+  private static final AttributePattern PATTERN_FORCED = AttributePattern.booleanValue("FORCED");
+  private static final AttributePattern PATTERN_INDEPENDENT =
+      AttributePattern.booleanValue("INDEPENDENT");
+  private static final AttributePattern PATTERN_GAP = AttributePattern.booleanValue("GAP");
+  private static final AttributePattern PATTERN_PRECISE = AttributePattern.booleanValue("PRECISE");
+  private static final AttributePattern PATTERN_VALUE = AttributePattern.quotedString("VALUE");
+  private static final AttributePattern PATTERN_IMPORT = AttributePattern.quotedString("IMPORT");
 
   private final HlsMultivariantPlaylist multivariantPlaylist;
   @Nullable private final HlsMediaPlaylist previousMediaPlaylist;
@@ -358,8 +402,8 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
       if (line.startsWith(TAG_DEFINE)) {
         variableDefinitions.put(
-            /* key= */ parseStringAttr(line, REGEX_NAME, variableDefinitions),
-            /* value= */ parseStringAttr(line, REGEX_VALUE, variableDefinitions));
+            /* key= */ parseStringAttr(line, PATTERN_NAME, variableDefinitions),
+            /* value= */ parseStringAttr(line, PATTERN_VALUE, variableDefinitions));
       } else if (line.equals(TAG_INDEPENDENT_SEGMENTS)) {
         hasIndependentSegmentsTag = true;
       } else if (line.startsWith(TAG_MEDIA)) {
@@ -368,21 +412,22 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         mediaTags.add(line);
       } else if (line.startsWith(TAG_SESSION_KEY)) {
         String keyFormat =
-            parseOptionalStringAttr(line, REGEX_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
+            parseOptionalStringAttr(
+                line, PATTERN_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
         SchemeData schemeData = parseDrmSchemeData(line, keyFormat, variableDefinitions);
         if (schemeData != null) {
-          String method = parseStringAttr(line, REGEX_METHOD, variableDefinitions);
+          String method = parseStringAttr(line, PATTERN_METHOD, variableDefinitions);
           String scheme = parseEncryptionScheme(method);
           sessionKeyDrmInitData.add(new DrmInitData(scheme, schemeData));
         }
       } else if (line.startsWith(TAG_STREAM_INF) || isIFrameOnlyVariant) {
         noClosedCaptions |= line.contains(ATTR_CLOSED_CAPTIONS_NONE);
         int roleFlags = isIFrameOnlyVariant ? C.ROLE_FLAG_TRICK_PLAY : 0;
-        int peakBitrate = parseIntAttr(line, REGEX_BANDWIDTH);
-        int averageBitrate = parseOptionalIntAttr(line, REGEX_AVERAGE_BANDWIDTH, -1);
-        String codecs = parseOptionalStringAttr(line, REGEX_CODECS, variableDefinitions);
+        int peakBitrate = parseIntAttr(line, PATTERN_BANDWIDTH);
+        int averageBitrate = parseOptionalIntAttr(line, PATTERN_AVERAGE_BANDWIDTH, -1);
+        String codecs = parseOptionalStringAttr(line, PATTERN_CODECS, variableDefinitions);
         String resolutionString =
-            parseOptionalStringAttr(line, REGEX_RESOLUTION, variableDefinitions);
+            parseOptionalStringAttr(line, PATTERN_RESOLUTION, variableDefinitions);
         int width;
         int height;
         if (resolutionString != null) {
@@ -400,20 +445,21 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         }
         float frameRate = Format.NO_VALUE;
         String frameRateString =
-            parseOptionalStringAttr(line, REGEX_FRAME_RATE, variableDefinitions);
+            parseOptionalStringAttr(line, PATTERN_FRAME_RATE, variableDefinitions);
         if (frameRateString != null) {
           frameRate = Float.parseFloat(frameRateString);
         }
-        String videoGroupId = parseOptionalStringAttr(line, REGEX_VIDEO, variableDefinitions);
-        String audioGroupId = parseOptionalStringAttr(line, REGEX_AUDIO, variableDefinitions);
+        String videoGroupId = parseOptionalStringAttr(line, PATTERN_VIDEO, variableDefinitions);
+        String audioGroupId = parseOptionalStringAttr(line, PATTERN_AUDIO, variableDefinitions);
         String subtitlesGroupId =
-            parseOptionalStringAttr(line, REGEX_SUBTITLES, variableDefinitions);
+            parseOptionalStringAttr(line, PATTERN_SUBTITLES, variableDefinitions);
         String closedCaptionsGroupId =
-            parseOptionalStringAttr(line, REGEX_CLOSED_CAPTIONS, variableDefinitions);
+            parseOptionalStringAttr(line, PATTERN_CLOSED_CAPTIONS, variableDefinitions);
         Uri uri;
         if (isIFrameOnlyVariant) {
           uri =
-              UriUtil.resolveToUri(baseUri, parseStringAttr(line, REGEX_URI, variableDefinitions));
+              UriUtil.resolveToUri(
+                  baseUri, parseStringAttr(line, PATTERN_URI, variableDefinitions));
         } else if (!iterator.hasNext()) {
           throw ParserException.createForMalformedManifest(
               "#EXT-X-STREAM-INF must be followed by another line", /* cause= */ null);
@@ -475,8 +521,8 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
     for (int i = 0; i < mediaTags.size(); i++) {
       line = mediaTags.get(i);
-      String groupId = parseStringAttr(line, REGEX_GROUP_ID, variableDefinitions);
-      String name = parseStringAttr(line, REGEX_NAME, variableDefinitions);
+      String groupId = parseStringAttr(line, PATTERN_GROUP_ID, variableDefinitions);
+      String name = parseStringAttr(line, PATTERN_NAME, variableDefinitions);
       Format.Builder formatBuilder =
           new Format.Builder()
               .setId(groupId + ":" + name)
@@ -484,13 +530,14 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
               .setContainerMimeType(MimeTypes.APPLICATION_M3U8)
               .setSelectionFlags(parseSelectionFlags(line))
               .setRoleFlags(parseRoleFlags(line, variableDefinitions))
-              .setLanguage(parseOptionalStringAttr(line, REGEX_LANGUAGE, variableDefinitions));
+              .setLanguage(parseOptionalStringAttr(line, PATTERN_LANGUAGE, variableDefinitions));
 
-      @Nullable String referenceUri = parseOptionalStringAttr(line, REGEX_URI, variableDefinitions);
+      @Nullable
+      String referenceUri = parseOptionalStringAttr(line, PATTERN_URI, variableDefinitions);
       @Nullable Uri uri = referenceUri == null ? null : UriUtil.resolveToUri(baseUri, referenceUri);
       Metadata metadata =
           new Metadata(new HlsTrackMetadataEntry(groupId, name, Collections.emptyList()));
-      switch (parseStringAttr(line, REGEX_TYPE, variableDefinitions)) {
+      switch (parseStringAttr(line, PATTERN_TYPE, variableDefinitions)) {
         case TYPE_VIDEO:
           @Nullable Variant variant = getVariantWithVideoGroup(variants, groupId);
           if (variant != null) {
@@ -522,7 +569,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           }
           @Nullable
           String channelsString =
-              parseOptionalStringAttr(line, REGEX_CHANNELS, variableDefinitions);
+              parseOptionalStringAttr(line, PATTERN_CHANNELS, variableDefinitions);
           if (channelsString != null) {
             int channelCount = Integer.parseInt(Util.splitAtFirst(channelsString, "/")[0]);
             formatBuilder.setChannelCount(channelCount);
@@ -560,7 +607,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           }
           break;
         case TYPE_CLOSED_CAPTIONS:
-          String instreamId = parseStringAttr(line, REGEX_INSTREAM_ID, variableDefinitions);
+          String instreamId = parseStringAttr(line, PATTERN_INSTREAM_ID, variableDefinitions);
           int accessibilityChannel;
           if (instreamId.startsWith("CC")) {
             sampleMimeType = MimeTypes.APPLICATION_CEA608;
@@ -699,7 +746,8 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
       }
 
       if (line.startsWith(TAG_PLAYLIST_TYPE)) {
-        String playlistTypeString = parseStringAttr(line, REGEX_PLAYLIST_TYPE, variableDefinitions);
+        String playlistTypeString =
+            parseStringAttr(line, PATTERN_PLAYLIST_TYPE, variableDefinitions);
         if ("VOD".equals(playlistTypeString)) {
           playlistType = HlsMediaPlaylist.PLAYLIST_TYPE_VOD;
         } else if ("EVENT".equals(playlistTypeString)) {
@@ -708,17 +756,18 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
       } else if (line.equals(TAG_IFRAME)) {
         isIFrameOnly = true;
       } else if (line.startsWith(TAG_START)) {
-        startOffsetUs = (long) (parseDoubleAttr(line, REGEX_TIME_OFFSET) * C.MICROS_PER_SECOND);
+        startOffsetUs = (long) (parseDoubleAttr(line, PATTERN_TIME_OFFSET) * C.MICROS_PER_SECOND);
         preciseStart =
-            parseOptionalBooleanAttribute(line, REGEX_PRECISE, /* defaultValue= */ false);
+            parseOptionalBooleanAttribute(line, PATTERN_PRECISE, /* defaultValue= */ false);
       } else if (line.startsWith(TAG_SERVER_CONTROL)) {
         serverControl = parseServerControl(line);
       } else if (line.startsWith(TAG_PART_INF)) {
-        double partTargetDurationSeconds = parseDoubleAttr(line, REGEX_PART_TARGET_DURATION);
+        double partTargetDurationSeconds = parseDoubleAttr(line, PATTERN_PART_TARGET_DURATION);
         partTargetDurationUs = (long) (partTargetDurationSeconds * C.MICROS_PER_SECOND);
       } else if (line.startsWith(TAG_INIT_SEGMENT)) {
-        String uri = parseStringAttr(line, REGEX_URI, variableDefinitions);
-        String byteRange = parseOptionalStringAttr(line, REGEX_ATTR_BYTERANGE, variableDefinitions);
+        String uri = parseStringAttr(line, PATTERN_URI, variableDefinitions);
+        String byteRange =
+            parseOptionalStringAttr(line, PATTERN_ATTR_BYTERANGE, variableDefinitions);
         if (byteRange != null) {
           String[] splitByteRange = Util.split(byteRange, "@");
           segmentByteRangeLength = Long.parseLong(splitByteRange[0]);
@@ -749,14 +798,14 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         }
         segmentByteRangeLength = C.LENGTH_UNSET;
       } else if (line.startsWith(TAG_TARGET_DURATION)) {
-        targetDurationUs = parseIntAttr(line, REGEX_TARGET_DURATION) * C.MICROS_PER_SECOND;
+        targetDurationUs = parseIntAttr(line, PATTERN_TARGET_DURATION) * C.MICROS_PER_SECOND;
       } else if (line.startsWith(TAG_MEDIA_SEQUENCE)) {
-        mediaSequence = parseLongAttr(line, REGEX_MEDIA_SEQUENCE);
+        mediaSequence = parseLongAttr(line, PATTERN_MEDIA_SEQUENCE);
         segmentMediaSequence = mediaSequence;
       } else if (line.startsWith(TAG_VERSION)) {
-        version = parseIntAttr(line, REGEX_VERSION);
+        version = parseIntAttr(line, PATTERN_VERSION);
       } else if (line.startsWith(TAG_DEFINE)) {
-        String importName = parseOptionalStringAttr(line, REGEX_IMPORT, variableDefinitions);
+        String importName = parseOptionalStringAttr(line, PATTERN_IMPORT, variableDefinitions);
         if (importName != null) {
           String value = multivariantPlaylist.variableDefinitions.get(importName);
           if (value != null) {
@@ -766,14 +815,14 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           }
         } else {
           variableDefinitions.put(
-              parseStringAttr(line, REGEX_NAME, variableDefinitions),
-              parseStringAttr(line, REGEX_VALUE, variableDefinitions));
+              parseStringAttr(line, PATTERN_NAME, variableDefinitions),
+              parseStringAttr(line, PATTERN_VALUE, variableDefinitions));
         }
       } else if (line.startsWith(TAG_MEDIA_DURATION)) {
-        segmentDurationUs = parseTimeSecondsToUs(line, REGEX_MEDIA_DURATION);
-        segmentTitle = parseOptionalStringAttr(line, REGEX_MEDIA_TITLE, "", variableDefinitions);
+        segmentDurationUs = parseTimeSecondsToUs(line, PATTERN_MEDIA_DURATION);
+        segmentTitle = parseOptionalStringAttr(line, PATTERN_MEDIA_TITLE, "", variableDefinitions);
       } else if (line.startsWith(TAG_SKIP)) {
-        int skippedSegmentCount = parseIntAttr(line, REGEX_SKIPPED_SEGMENTS);
+        int skippedSegmentCount = parseIntAttr(line, PATTERN_SKIPPED_SEGMENTS);
         checkState(previousMediaPlaylist != null && segments.isEmpty());
         int startIndex = (int) (mediaSequence - castNonNull(previousMediaPlaylist).mediaSequence);
         int endIndex = startIndex + skippedSegmentCount;
@@ -810,20 +859,21 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           segmentMediaSequence++;
         }
       } else if (line.startsWith(TAG_KEY)) {
-        String method = parseStringAttr(line, REGEX_METHOD, variableDefinitions);
+        String method = parseStringAttr(line, PATTERN_METHOD, variableDefinitions);
         String keyFormat =
-            parseOptionalStringAttr(line, REGEX_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
+            parseOptionalStringAttr(
+                line, PATTERN_KEYFORMAT, KEYFORMAT_IDENTITY, variableDefinitions);
         fullSegmentEncryptionKeyUri = null;
         fullSegmentEncryptionIV = null;
         if (METHOD_NONE.equals(method)) {
           currentSchemeDatas.clear();
           cachedDrmInitData = null;
         } else /* !METHOD_NONE.equals(method) */ {
-          fullSegmentEncryptionIV = parseOptionalStringAttr(line, REGEX_IV, variableDefinitions);
+          fullSegmentEncryptionIV = parseOptionalStringAttr(line, PATTERN_IV, variableDefinitions);
           if (KEYFORMAT_IDENTITY.equals(keyFormat)) {
             if (METHOD_AES_128.equals(method)) {
               // The segment is fully encrypted using an identity key.
-              fullSegmentEncryptionKeyUri = parseStringAttr(line, REGEX_URI, variableDefinitions);
+              fullSegmentEncryptionKeyUri = parseStringAttr(line, PATTERN_URI, variableDefinitions);
             } else {
               // Do nothing. Samples are encrypted using an identity key, but this is not supported.
               // Hopefully, a traditional DRM alternative is also provided.
@@ -840,7 +890,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           }
         }
       } else if (line.startsWith(TAG_BYTERANGE)) {
-        String byteRange = parseStringAttr(line, REGEX_BYTERANGE, variableDefinitions);
+        String byteRange = parseStringAttr(line, PATTERN_BYTERANGE, variableDefinitions);
         String[] splitByteRange = Util.split(byteRange, "@");
         segmentByteRangeLength = Long.parseLong(splitByteRange[0]);
         if (splitByteRange.length > 1) {
@@ -864,24 +914,26 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
       } else if (line.equals(TAG_ENDLIST)) {
         hasEndTag = true;
       } else if (line.startsWith(TAG_RENDITION_REPORT)) {
-        long lastMediaSequence = parseOptionalLongAttr(line, REGEX_LAST_MSN, C.INDEX_UNSET);
-        int lastPartIndex = parseOptionalIntAttr(line, REGEX_LAST_PART, C.INDEX_UNSET);
-        String uri = parseStringAttr(line, REGEX_URI, variableDefinitions);
+        long lastMediaSequence = parseOptionalLongAttr(line, PATTERN_LAST_MSN, C.INDEX_UNSET);
+        int lastPartIndex = parseOptionalIntAttr(line, PATTERN_LAST_PART, C.INDEX_UNSET);
+        String uri = parseStringAttr(line, PATTERN_URI, variableDefinitions);
         Uri playlistUri = Uri.parse(UriUtil.resolve(baseUri, uri));
         renditionReports.add(new RenditionReport(playlistUri, lastMediaSequence, lastPartIndex));
       } else if (line.startsWith(TAG_PRELOAD_HINT)) {
         if (preloadPart != null) {
           continue;
         }
-        String type = parseStringAttr(line, REGEX_PRELOAD_HINT_TYPE, variableDefinitions);
+        String type = parseStringAttr(line, PATTERN_PRELOAD_HINT_TYPE, variableDefinitions);
         if (!TYPE_PART.equals(type)) {
           continue;
         }
-        String url = parseStringAttr(line, REGEX_URI, variableDefinitions);
+        String url = parseStringAttr(line, PATTERN_URI, variableDefinitions);
         long byteRangeStart =
-            parseOptionalLongAttr(line, REGEX_BYTERANGE_START, /* defaultValue= */ C.LENGTH_UNSET);
+            parseOptionalLongAttr(
+                line, PATTERN_BYTERANGE_START, /* defaultValue= */ C.LENGTH_UNSET);
         long byteRangeLength =
-            parseOptionalLongAttr(line, REGEX_BYTERANGE_LENGTH, /* defaultValue= */ C.LENGTH_UNSET);
+            parseOptionalLongAttr(
+                line, PATTERN_BYTERANGE_LENGTH, /* defaultValue= */ C.LENGTH_UNSET);
         @Nullable
         String segmentEncryptionIV =
             getSegmentEncryptionIV(
@@ -916,16 +968,17 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         String segmentEncryptionIV =
             getSegmentEncryptionIV(
                 segmentMediaSequence, fullSegmentEncryptionKeyUri, fullSegmentEncryptionIV);
-        String url = parseStringAttr(line, REGEX_URI, variableDefinitions);
+        String url = parseStringAttr(line, PATTERN_URI, variableDefinitions);
         long partDurationUs =
-            (long) (parseDoubleAttr(line, REGEX_ATTR_DURATION) * C.MICROS_PER_SECOND);
+            (long) (parseDoubleAttr(line, PATTERN_ATTR_DURATION) * C.MICROS_PER_SECOND);
         boolean isIndependent =
-            parseOptionalBooleanAttribute(line, REGEX_INDEPENDENT, /* defaultValue= */ false);
+            parseOptionalBooleanAttribute(line, PATTERN_INDEPENDENT, /* defaultValue= */ false);
         // The first part of a segment is always independent if the segments are independent.
         isIndependent |= hasIndependentSegmentsTag && trailingParts.isEmpty();
-        boolean isGap = parseOptionalBooleanAttribute(line, REGEX_GAP, /* defaultValue= */ false);
+        boolean isGap = parseOptionalBooleanAttribute(line, PATTERN_GAP, /* defaultValue= */ false);
         @Nullable
-        String byteRange = parseOptionalStringAttr(line, REGEX_ATTR_BYTERANGE, variableDefinitions);
+        String byteRange =
+            parseOptionalStringAttr(line, PATTERN_ATTR_BYTERANGE, variableDefinitions);
         long partByteRangeLength = C.LENGTH_UNSET;
         if (byteRange != null) {
           String[] splitByteRange = Util.split(byteRange, "@");
@@ -998,21 +1051,56 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
           }
         }
 
-        segments.add(
-            new Segment(
-                segmentUri,
-                initializationSegment != null ? initializationSegment : inferredInitSegment,
-                segmentTitle,
-                segmentDurationUs,
-                relativeDiscontinuitySequence,
-                segmentStartTimeUs,
-                cachedDrmInitData,
-                fullSegmentEncryptionKeyUri,
-                segmentEncryptionIV,
-                segmentByteRangeOffset,
-                segmentByteRangeLength,
-                hasGapTag,
-                trailingParts));
+        @Nullable
+        Segment segmentInitializationSegment =
+            initializationSegment != null ? initializationSegment : inferredInitSegment;
+        @Nullable
+        Segment previousSegment =
+            getReusableSegmentOfPreviousPlaylist(
+                previousMediaPlaylist,
+                mediaSequence,
+                playlistDiscontinuitySequence,
+                segmentMediaSequence - 1);
+        if (previousSegment != null
+            && previousSegment.relativeStartTimeUs == segmentStartTimeUs
+            && previousSegment.relativeDiscontinuitySequence == relativeDiscontinuitySequence
+            && previousSegment.url.equals(segmentUri)
+            && previousSegment.title.equals(segmentTitle)
+            && previousSegment.durationUs == segmentDurationUs
+            && previousSegment.byteRangeOffset == segmentByteRangeOffset
+            && previousSegment.byteRangeLength == segmentByteRangeLength
+            && previousSegment.hasGapTag == hasGapTag
+            && haveSameParts(previousSegment.parts, trailingParts)
+            && Util.areEqual(previousSegment.drmInitData, cachedDrmInitData)
+            && Util.areEqual(
+                previousSegment.fullSegmentEncryptionKeyUri, fullSegmentEncryptionKeyUri)
+            && Util.areEqual(previousSegment.encryptionIV, segmentEncryptionIV)
+            && isSameSegmentBase(
+                previousSegment.initializationSegment, segmentInitializationSegment)) {
+          // The segment is unchanged, which is the case for all segments the previous playlist
+          // already contained (RFC 8216, section 6.2.1). Reuse it instead of a new instance.
+          segments.add(previousSegment);
+          if (initializationSegment != null) {
+            // Keep sharing the initialization segment instance with the following segments.
+            initializationSegment = previousSegment.initializationSegment;
+          }
+        } else {
+          segments.add(
+              new Segment(
+                  segmentUri,
+                  segmentInitializationSegment,
+                  segmentTitle,
+                  segmentDurationUs,
+                  relativeDiscontinuitySequence,
+                  segmentStartTimeUs,
+                  cachedDrmInitData,
+                  fullSegmentEncryptionKeyUri,
+                  segmentEncryptionIV,
+                  segmentByteRangeOffset,
+                  segmentByteRangeLength,
+                  hasGapTag,
+                  trailingParts));
+        }
         segmentStartTimeUs += segmentDurationUs;
         partStartTimeUs = segmentStartTimeUs;
         segmentDurationUs = 0;
@@ -1071,6 +1159,66 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         renditionReportMap);
   }
 
+  /**
+   * Returns the segment of the previous playlist with the given media sequence number, or null if
+   * there is no such segment or the segments of the previous playlist can't be reused.
+   *
+   * <p>Segments can only be reused if both playlists start at the same media sequence and
+   * discontinuity sequence numbers, as is the case for EVENT playlists and for live playlists that
+   * are only appended to. Otherwise the segment start times relative to the playlist start differ,
+   * and the segments need to be recreated anyway.
+   */
+  @Nullable
+  private static Segment getReusableSegmentOfPreviousPlaylist(
+      @Nullable HlsMediaPlaylist previousMediaPlaylist,
+      long playlistMediaSequence,
+      int playlistDiscontinuitySequence,
+      long mediaSequence) {
+    if (previousMediaPlaylist == null
+        || previousMediaPlaylist.mediaSequence != playlistMediaSequence
+        || previousMediaPlaylist.discontinuitySequence != playlistDiscontinuitySequence) {
+      return null;
+    }
+    long segmentIndex = mediaSequence - previousMediaPlaylist.mediaSequence;
+    return segmentIndex >= 0 && segmentIndex < previousMediaPlaylist.segments.size()
+        ? previousMediaPlaylist.segments.get((int) segmentIndex)
+        : null;
+  }
+
+  private static boolean haveSameParts(List<Part> parts, List<Part> otherParts) {
+    if (parts.size() != otherParts.size()) {
+      return false;
+    }
+    for (int i = 0; i < parts.size(); i++) {
+      Part part = parts.get(i);
+      Part otherPart = otherParts.get(i);
+      if (part.durationUs != otherPart.durationUs
+          || part.isIndependent != otherPart.isIndependent
+          || part.isPreload != otherPart.isPreload
+          || !isSameSegmentBase(part, otherPart)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSameSegmentBase(
+      @Nullable SegmentBase segmentBase, @Nullable SegmentBase otherSegmentBase) {
+    if (segmentBase == otherSegmentBase) {
+      return true;
+    }
+    if (segmentBase == null || otherSegmentBase == null) {
+      return false;
+    }
+    return segmentBase.url.equals(otherSegmentBase.url)
+        && segmentBase.byteRangeOffset == otherSegmentBase.byteRangeOffset
+        && segmentBase.byteRangeLength == otherSegmentBase.byteRangeLength
+        && segmentBase.hasGapTag == otherSegmentBase.hasGapTag
+        && Util.areEqual(
+            segmentBase.fullSegmentEncryptionKeyUri, otherSegmentBase.fullSegmentEncryptionKeyUri)
+        && Util.areEqual(segmentBase.encryptionIV, otherSegmentBase.encryptionIV);
+  }
+
   private static DrmInitData getPlaylistProtectionSchemes(
       @Nullable String encryptionScheme, SchemeData[] schemeDatas) {
     SchemeData[] playlistSchemeDatas = new SchemeData[schemeDatas.length];
@@ -1095,13 +1243,13 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
   private static @C.SelectionFlags int parseSelectionFlags(String line) {
     int flags = 0;
-    if (parseOptionalBooleanAttribute(line, REGEX_DEFAULT, false)) {
+    if (parseOptionalBooleanAttribute(line, PATTERN_DEFAULT, false)) {
       flags |= C.SELECTION_FLAG_DEFAULT;
     }
-    if (parseOptionalBooleanAttribute(line, REGEX_FORCED, false)) {
+    if (parseOptionalBooleanAttribute(line, PATTERN_FORCED, false)) {
       flags |= C.SELECTION_FLAG_FORCED;
     }
-    if (parseOptionalBooleanAttribute(line, REGEX_AUTOSELECT, false)) {
+    if (parseOptionalBooleanAttribute(line, PATTERN_AUTOSELECT, false)) {
       flags |= C.SELECTION_FLAG_AUTOSELECT;
     }
     return flags;
@@ -1110,7 +1258,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
   private static @C.RoleFlags int parseRoleFlags(
       String line, Map<String, String> variableDefinitions) {
     String concatenatedCharacteristics =
-        parseOptionalStringAttr(line, REGEX_CHARACTERISTICS, variableDefinitions);
+        parseOptionalStringAttr(line, PATTERN_CHARACTERISTICS, variableDefinitions);
     if (TextUtils.isEmpty(concatenatedCharacteristics)) {
       return 0;
     }
@@ -1136,9 +1284,9 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
       String line, String keyFormat, Map<String, String> variableDefinitions)
       throws ParserException {
     String keyFormatVersions =
-        parseOptionalStringAttr(line, REGEX_KEYFORMATVERSIONS, "1", variableDefinitions);
+        parseOptionalStringAttr(line, PATTERN_KEYFORMATVERSIONS, "1", variableDefinitions);
     if (KEYFORMAT_WIDEVINE_PSSH_BINARY.equals(keyFormat)) {
-      String uriString = parseStringAttr(line, REGEX_URI, variableDefinitions);
+      String uriString = parseStringAttr(line, PATTERN_URI, variableDefinitions);
       return new SchemeData(
           C.WIDEVINE_UUID,
           MimeTypes.VIDEO_MP4,
@@ -1146,7 +1294,7 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
     } else if (KEYFORMAT_WIDEVINE_PSSH_JSON.equals(keyFormat)) {
       return new SchemeData(C.WIDEVINE_UUID, "hls", Util.getUtf8Bytes(line));
     } else if (KEYFORMAT_PLAYREADY.equals(keyFormat) && "1".equals(keyFormatVersions)) {
-      String uriString = parseStringAttr(line, REGEX_URI, variableDefinitions);
+      String uriString = parseStringAttr(line, PATTERN_URI, variableDefinitions);
       byte[] data = Base64.decode(uriString.substring(uriString.indexOf(',')), Base64.DEFAULT);
       byte[] psshData = PsshAtomUtil.buildPsshAtom(C.PLAYREADY_UUID, data);
       return new SchemeData(C.PLAYREADY_UUID, MimeTypes.VIDEO_MP4, psshData);
@@ -1156,26 +1304,28 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
   private static HlsMediaPlaylist.ServerControl parseServerControl(String line) {
     double skipUntilSeconds =
-        parseOptionalDoubleAttr(line, REGEX_CAN_SKIP_UNTIL, /* defaultValue= */ C.TIME_UNSET);
+        parseOptionalDoubleAttr(line, PATTERN_CAN_SKIP_UNTIL, /* defaultValue= */ C.TIME_UNSET);
     long skipUntilUs =
         skipUntilSeconds == C.TIME_UNSET
             ? C.TIME_UNSET
             : (long) (skipUntilSeconds * C.MICROS_PER_SECOND);
     boolean canSkipDateRanges =
-        parseOptionalBooleanAttribute(line, REGEX_CAN_SKIP_DATE_RANGES, /* defaultValue= */ false);
+        parseOptionalBooleanAttribute(
+            line, PATTERN_CAN_SKIP_DATE_RANGES, /* defaultValue= */ false);
     double holdBackSeconds =
-        parseOptionalDoubleAttr(line, REGEX_HOLD_BACK, /* defaultValue= */ C.TIME_UNSET);
+        parseOptionalDoubleAttr(line, PATTERN_HOLD_BACK, /* defaultValue= */ C.TIME_UNSET);
     long holdBackUs =
         holdBackSeconds == C.TIME_UNSET
             ? C.TIME_UNSET
             : (long) (holdBackSeconds * C.MICROS_PER_SECOND);
-    double partHoldBackSeconds = parseOptionalDoubleAttr(line, REGEX_PART_HOLD_BACK, C.TIME_UNSET);
+    double partHoldBackSeconds =
+        parseOptionalDoubleAttr(line, PATTERN_PART_HOLD_BACK, C.TIME_UNSET);
     long partHoldBackUs =
         partHoldBackSeconds == C.TIME_UNSET
             ? C.TIME_UNSET
             : (long) (partHoldBackSeconds * C.MICROS_PER_SECOND);
     boolean canBlockReload =
-        parseOptionalBooleanAttribute(line, REGEX_CAN_BLOCK_RELOAD, /* defaultValue= */ false);
+        parseOptionalBooleanAttribute(line, PATTERN_CAN_BLOCK_RELOAD, /* defaultValue= */ false);
 
     return new HlsMediaPlaylist.ServerControl(
         skipUntilUs, canSkipDateRanges, holdBackUs, partHoldBackUs, canBlockReload);
@@ -1187,42 +1337,58 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
         : C.CENC_TYPE_cbcs;
   }
 
-  private static int parseIntAttr(String line, Pattern pattern) throws ParserException {
+  private static int parseIntAttr(String line, AttributePattern pattern) throws ParserException {
     return Integer.parseInt(parseStringAttr(line, pattern, Collections.emptyMap()));
   }
 
-  private static int parseOptionalIntAttr(String line, Pattern pattern, int defaultValue) {
-    Matcher matcher = pattern.matcher(line);
-    if (matcher.find()) {
-      return Integer.parseInt(checkNotNull(matcher.group(1)));
-    }
-    return defaultValue;
+  private static int parseOptionalIntAttr(String line, AttributePattern pattern, int defaultValue) {
+    @Nullable String value = pattern.find(line);
+    return value != null ? Integer.parseInt(value) : defaultValue;
   }
 
-  private static long parseLongAttr(String line, Pattern pattern) throws ParserException {
+  private static long parseLongAttr(String line, AttributePattern pattern) throws ParserException {
     return Long.parseLong(parseStringAttr(line, pattern, Collections.emptyMap()));
   }
 
-  private static long parseOptionalLongAttr(String line, Pattern pattern, long defaultValue) {
-    Matcher matcher = pattern.matcher(line);
-    if (matcher.find()) {
-      return Long.parseLong(checkNotNull(matcher.group(1)));
-    }
-    return defaultValue;
+  private static long parseOptionalLongAttr(
+      String line, AttributePattern pattern, long defaultValue) {
+    @Nullable String value = pattern.find(line);
+    return value != null ? Long.parseLong(value) : defaultValue;
   }
 
-  private static long parseTimeSecondsToUs(String line, Pattern pattern) throws ParserException {
+  private static long parseTimeSecondsToUs(String line, AttributePattern pattern)
+      throws ParserException {
     String timeValueSeconds = parseStringAttr(line, pattern, Collections.emptyMap());
+    int dotIndex = timeValueSeconds.indexOf('.');
+    int integerLength = dotIndex == -1 ? timeValueSeconds.length() : dotIndex;
+    if (integerLength <= 12
+        && (dotIndex == -1 || timeValueSeconds.indexOf('.', dotIndex + 1) == -1)
+        && timeValueSeconds.length() > (dotIndex == -1 ? 0 : 1)) {
+      // Fast path for values with at most one dot and at least one digit, which are exact in
+      // microseconds when truncating the fraction like BigDecimal.longValue() does.
+      long timeValueUs = 0;
+      for (int i = 0; i < integerLength; i++) {
+        timeValueUs = timeValueUs * 10 + (timeValueSeconds.charAt(i) - '0');
+      }
+      long fractionUs = 0;
+      long fractionScale = C.MICROS_PER_SECOND;
+      for (int i = integerLength + 1; i < timeValueSeconds.length() && fractionScale > 1; i++) {
+        fractionScale /= 10;
+        fractionUs += (timeValueSeconds.charAt(i) - '0') * fractionScale;
+      }
+      return timeValueUs * C.MICROS_PER_SECOND + fractionUs;
+    }
     BigDecimal timeValue = new BigDecimal(timeValueSeconds);
     return timeValue.multiply(new BigDecimal(C.MICROS_PER_SECOND)).longValue();
   }
 
-  private static double parseDoubleAttr(String line, Pattern pattern) throws ParserException {
+  private static double parseDoubleAttr(String line, AttributePattern pattern)
+      throws ParserException {
     return Double.parseDouble(parseStringAttr(line, pattern, Collections.emptyMap()));
   }
 
   private static String parseStringAttr(
-      String line, Pattern pattern, Map<String, String> variableDefinitions)
+      String line, AttributePattern pattern, Map<String, String> variableDefinitions)
       throws ParserException {
     String value = parseOptionalStringAttr(line, pattern, variableDefinitions);
     if (value != null) {
@@ -1235,59 +1401,391 @@ public final class HlsPlaylistParser implements ParsingLoadable.Parser<HlsPlayli
 
   @Nullable
   private static String parseOptionalStringAttr(
-      String line, Pattern pattern, Map<String, String> variableDefinitions) {
+      String line, AttributePattern pattern, Map<String, String> variableDefinitions) {
     return parseOptionalStringAttr(line, pattern, null, variableDefinitions);
   }
 
   private static @PolyNull String parseOptionalStringAttr(
       String line,
-      Pattern pattern,
+      AttributePattern pattern,
       @PolyNull String defaultValue,
       Map<String, String> variableDefinitions) {
-    Matcher matcher = pattern.matcher(line);
-    @PolyNull String value = matcher.find() ? checkNotNull(matcher.group(1)) : defaultValue;
+    @Nullable String matchedValue = pattern.find(line);
+    @PolyNull String value = matchedValue != null ? matchedValue : defaultValue;
     return variableDefinitions.isEmpty() || value == null
         ? value
         : replaceVariableReferences(value, variableDefinitions);
   }
 
-  private static double parseOptionalDoubleAttr(String line, Pattern pattern, double defaultValue) {
-    Matcher matcher = pattern.matcher(line);
-    if (matcher.find()) {
-      return Double.parseDouble(checkNotNull(matcher.group(1)));
-    }
-    return defaultValue;
+  private static double parseOptionalDoubleAttr(
+      String line, AttributePattern pattern, double defaultValue) {
+    @Nullable String value = pattern.find(line);
+    return value != null ? Double.parseDouble(value) : defaultValue;
   }
 
   private static String replaceVariableReferences(
       String string, Map<String, String> variableDefinitions) {
-    Matcher matcher = REGEX_VARIABLE_REFERENCE.matcher(string);
-    // TODO: Replace StringBuffer with StringBuilder once Java 9 is available.
-    StringBuffer stringWithReplacements = new StringBuffer();
-    while (matcher.find()) {
-      String groupName = matcher.group(1);
-      if (variableDefinitions.containsKey(groupName)) {
-        matcher.appendReplacement(
-            stringWithReplacements, Matcher.quoteReplacement(variableDefinitions.get(groupName)));
+    int referenceStart = string.indexOf("{$");
+    if (referenceStart == -1) {
+      return string;
+    }
+    StringBuilder stringWithReplacements = new StringBuilder(string.length());
+    int copiedLength = 0;
+    while (referenceStart != -1) {
+      int nameStart = referenceStart + 2;
+      int nameEnd = nameStart;
+      while (nameEnd < string.length() && isVariableNameChar(string.charAt(nameEnd))) {
+        nameEnd++;
+      }
+      if (nameEnd == nameStart || nameEnd == string.length() || string.charAt(nameEnd) != '}') {
+        referenceStart = string.indexOf("{$", referenceStart + 1);
+        continue;
+      }
+      @Nullable String value = variableDefinitions.get(string.substring(nameStart, nameEnd));
+      if (value != null) {
+        stringWithReplacements.append(string, copiedLength, referenceStart).append(value);
+        copiedLength = nameEnd + 1;
       } else {
         // The variable is not defined. The value is ignored.
       }
+      referenceStart = string.indexOf("{$", nameEnd + 1);
     }
-    matcher.appendTail(stringWithReplacements);
-    return stringWithReplacements.toString();
+    return copiedLength == 0
+        ? string
+        : stringWithReplacements.append(string, copiedLength, string.length()).toString();
+  }
+
+  private static boolean isVariableNameChar(char c) {
+    return (c >= 'a' && c <= 'z')
+        || (c >= 'A' && c <= 'Z')
+        || (c >= '0' && c <= '9')
+        || c == '-'
+        || c == '_';
   }
 
   private static boolean parseOptionalBooleanAttribute(
-      String line, Pattern pattern, boolean defaultValue) {
-    Matcher matcher = pattern.matcher(line);
-    if (matcher.find()) {
-      return BOOLEAN_TRUE.equals(matcher.group(1));
-    }
-    return defaultValue;
+      String line, AttributePattern pattern, boolean defaultValue) {
+    @Nullable String value = pattern.find(line);
+    return value != null ? BOOLEAN_TRUE.equals(value) : defaultValue;
   }
 
-  private static Pattern compileBooleanAttrPattern(String attribute) {
-    return Pattern.compile(attribute + "=(" + BOOLEAN_FALSE + "|" + BOOLEAN_TRUE + ")");
+  /**
+   * A pattern that finds the value of a tag attribute in a playlist line.
+   *
+   * <p>Each instance finds the same value as the regular expression returned by {@link
+   * #pattern()}, but scans the line directly instead of using {@link java.util.regex}, which avoids
+   * allocating a matcher and is considerably faster for the many lines of large playlists.
+   */
+  private static final class AttributePattern {
+
+    /** {@code (.+?)"} */
+    private static final int FORMAT_QUOTED_STRING = 0;
+    /** {@code (\d+)\b} */
+    private static final int FORMAT_INTEGER = 1;
+    /** {@code ([\d\.]+)\b} */
+    private static final int FORMAT_DECIMAL = 2;
+    /** {@code (-?[\d\.]+)\b} */
+    private static final int FORMAT_SIGNED_DECIMAL = 3;
+    /** {@code (value1|value2|...)} */
+    private static final int FORMAT_ENUMERATION = 4;
+    /** {@code (value1|value2|...)\s*(?:,|$)} */
+    private static final int FORMAT_ENUMERATION_WITH_SEPARATOR = 5;
+    /** {@code (\d+(?:@\d+)?)\b} */
+    private static final int FORMAT_BYTE_RANGE = 6;
+    /** {@code (\d+(?:@\d+)?)\b"} */
+    private static final int FORMAT_QUOTED_BYTE_RANGE = 7;
+    /** {@code (\d+x\d+)} */
+    private static final int FORMAT_RESOLUTION = 8;
+    /** {@code (.+)\b} */
+    private static final int FORMAT_TEXT = 9;
+    /** {@code ([^,.*]+)} */
+    private static final int FORMAT_UNTIL_SEPARATOR = 10;
+    /** {@code ((?:value1|value2|...)\d+)"} */
+    private static final int FORMAT_QUOTED_NUMBERED_ENUMERATION = 11;
+    /** {@code [\d\.]+\b,(.+)} */
+    private static final int FORMAT_TEXT_AFTER_DECIMAL = 12;
+
+    private final String pattern;
+    @Nullable private final String precedingChars;
+    private final boolean precedingCharsExcluded;
+    private final String prefix;
+    private final int format;
+    private final String[] values;
+
+    /** Returns a pattern for {@code name="(.+?)"}. */
+    public static AttributePattern quotedString(String name) {
+      return new AttributePattern(name + "=\"(.+?)\"", name + "=\"", FORMAT_QUOTED_STRING);
+    }
+
+    /** Returns a pattern for {@code prefix(\d+)\b}. */
+    public static AttributePattern integer(String prefix) {
+      return new AttributePattern(prefix + "(\\d+)\\b", prefix, FORMAT_INTEGER);
+    }
+
+    /** Returns a pattern for {@code prefix([\d\.]+)\b}. */
+    public static AttributePattern decimal(String prefix) {
+      return new AttributePattern(prefix + "([\\d\\.]+)\\b", prefix, FORMAT_DECIMAL);
+    }
+
+    /** Returns a pattern for {@code name=(NO|YES)}. */
+    public static AttributePattern booleanValue(String name) {
+      return enumeration(name + "=", BOOLEAN_FALSE, BOOLEAN_TRUE);
+    }
+
+    /** Returns a pattern for {@code prefix(value1|value2|...)}. */
+    public static AttributePattern enumeration(String prefix, String... values) {
+      return new AttributePattern(
+          prefix + "(" + TextUtils.join("|", values) + ")",
+          /* precedingChars= */ null,
+          /* precedingCharsExcluded= */ false,
+          prefix,
+          FORMAT_ENUMERATION,
+          values);
+    }
+
+    public AttributePattern(String pattern, String prefix, int format, String... values) {
+      this(
+          pattern,
+          /* precedingChars= */ null,
+          /* precedingCharsExcluded= */ false,
+          prefix,
+          format,
+          values);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param pattern The equivalent regular expression.
+     * @param precedingChars The characters of which one must precede the prefix, or the
+     *     characters that must not precede the prefix if {@code precedingCharsExcluded} is true.
+     *     If not null, the prefix must not be at the start of the line in either case.
+     * @param precedingCharsExcluded Whether {@code precedingChars} are excluded.
+     * @param prefix The literal text preceding the value.
+     * @param format The format of the value.
+     * @param values The alternatives of enumerations.
+     */
+    public AttributePattern(
+        String pattern,
+        @Nullable String precedingChars,
+        boolean precedingCharsExcluded,
+        String prefix,
+        int format,
+        String... values) {
+      this.pattern = pattern;
+      this.precedingChars = precedingChars;
+      this.precedingCharsExcluded = precedingCharsExcluded;
+      this.prefix = prefix;
+      this.format = format;
+      this.values = values;
+    }
+
+    /** Returns the equivalent regular expression. */
+    public String pattern() {
+      return pattern;
+    }
+
+    /**
+     * Returns the value of the first match of the pattern in {@code line}, or null if the pattern
+     * doesn't match.
+     */
+    @Nullable
+    public String find(String line) {
+      int prefixIndex = line.indexOf(prefix);
+      while (prefixIndex != -1) {
+        if (isPrecededByValidChar(line, prefixIndex)) {
+          @Nullable String value = findValue(line, prefixIndex + prefix.length());
+          if (value != null) {
+            return value;
+          }
+        }
+        prefixIndex = line.indexOf(prefix, prefixIndex + 1);
+      }
+      return null;
+    }
+
+    private boolean isPrecededByValidChar(String line, int prefixIndex) {
+      if (precedingChars == null) {
+        return true;
+      }
+      return prefixIndex > 0
+          && (precedingChars.indexOf(line.charAt(prefixIndex - 1)) != -1)
+              != precedingCharsExcluded;
+    }
+
+    @Nullable
+    private String findValue(String line, int start) {
+      int end;
+      switch (format) {
+        case FORMAT_QUOTED_STRING:
+          // The value has at least one character, which may be a quote.
+          if (start >= line.length() || isLineTerminator(line.charAt(start))) {
+            return null;
+          }
+          end = start + 1;
+          while (end < line.length() && line.charAt(end) != '"') {
+            if (isLineTerminator(line.charAt(end))) {
+              return null;
+            }
+            end++;
+          }
+          return end < line.length() ? line.substring(start, end) : null;
+        case FORMAT_INTEGER:
+          end = skipDigits(line, start);
+          return end > start && !isWordChar(line, end) ? line.substring(start, end) : null;
+        case FORMAT_DECIMAL:
+          end = findDecimalEnd(line, start);
+          return end != C.INDEX_UNSET ? line.substring(start, end) : null;
+        case FORMAT_SIGNED_DECIMAL:
+          int digitsStart = start < line.length() && line.charAt(start) == '-' ? start + 1 : start;
+          end = findDecimalEnd(line, digitsStart);
+          return end != C.INDEX_UNSET ? line.substring(start, end) : null;
+        case FORMAT_ENUMERATION:
+          for (String value : values) {
+            if (line.startsWith(value, start)) {
+              return value;
+            }
+          }
+          return null;
+        case FORMAT_ENUMERATION_WITH_SEPARATOR:
+          for (String value : values) {
+            if (line.startsWith(value, start)
+                && isFollowedBySeparator(line, start + value.length())) {
+              return value;
+            }
+          }
+          return null;
+        case FORMAT_BYTE_RANGE:
+        case FORMAT_QUOTED_BYTE_RANGE:
+          boolean quoted = format == FORMAT_QUOTED_BYTE_RANGE;
+          int lengthEnd = skipDigits(line, start);
+          if (lengthEnd == start) {
+            return null;
+          }
+          if (lengthEnd < line.length() && line.charAt(lengthEnd) == '@') {
+            int offsetEnd = skipDigits(line, lengthEnd + 1);
+            if (offsetEnd > lengthEnd + 1 && isByteRangeEnd(line, offsetEnd, quoted)) {
+              return line.substring(start, offsetEnd);
+            }
+          }
+          return isByteRangeEnd(line, lengthEnd, quoted) ? line.substring(start, lengthEnd) : null;
+        case FORMAT_RESOLUTION:
+          int widthEnd = skipDigits(line, start);
+          if (widthEnd == start || widthEnd >= line.length() || line.charAt(widthEnd) != 'x') {
+            return null;
+          }
+          end = skipDigits(line, widthEnd + 1);
+          return end > widthEnd + 1 ? line.substring(start, end) : null;
+        case FORMAT_TEXT:
+          end = skipUntilLineTerminator(line, start);
+          while (end > start && !isWordBoundary(line, end)) {
+            end--;
+          }
+          return end > start ? line.substring(start, end) : null;
+        case FORMAT_UNTIL_SEPARATOR:
+          end = start;
+          while (end < line.length() && ",.*".indexOf(line.charAt(end)) == -1) {
+            end++;
+          }
+          return end > start ? line.substring(start, end) : null;
+        case FORMAT_QUOTED_NUMBERED_ENUMERATION:
+          for (String value : values) {
+            if (line.startsWith(value, start)) {
+              int numberStart = start + value.length();
+              end = skipDigits(line, numberStart);
+              if (end > numberStart && end < line.length() && line.charAt(end) == '"') {
+                return line.substring(start, end);
+              }
+            }
+          }
+          return null;
+        case FORMAT_TEXT_AFTER_DECIMAL:
+          end = skipDigitsAndDots(line, start);
+          // Only the longest decimal may be followed by a comma.
+          if (end == start
+              || !isWordBoundary(line, end)
+              || end + 1 >= line.length()
+              || line.charAt(end) != ','
+              || isLineTerminator(line.charAt(end + 1))) {
+            return null;
+          }
+          return line.substring(end + 1, skipUntilLineTerminator(line, end + 1));
+        default:
+          throw new IllegalStateException();
+      }
+    }
+
+    /**
+     * Returns the end of the longest run of digits and dots starting at {@code start} that is
+     * followed by a word boundary, or {@link C#INDEX_UNSET} if there is none.
+     */
+    private static int findDecimalEnd(String line, int start) {
+      int end = skipDigitsAndDots(line, start);
+      while (end > start && !isWordBoundary(line, end)) {
+        end--;
+      }
+      return end > start ? end : C.INDEX_UNSET;
+    }
+
+    private static int skipDigits(String line, int index) {
+      while (index < line.length() && isDigit(line.charAt(index))) {
+        index++;
+      }
+      return index;
+    }
+
+    private static int skipDigitsAndDots(String line, int index) {
+      while (index < line.length() && (isDigit(line.charAt(index)) || line.charAt(index) == '.')) {
+        index++;
+      }
+      return index;
+    }
+
+    private static int skipUntilLineTerminator(String line, int index) {
+      while (index < line.length() && !isLineTerminator(line.charAt(index))) {
+        index++;
+      }
+      return index;
+    }
+
+    private static boolean isByteRangeEnd(String line, int index, boolean quoted) {
+      return quoted
+          ? index < line.length() && line.charAt(index) == '"'
+          : !isWordChar(line, index);
+    }
+
+    private static boolean isFollowedBySeparator(String line, int index) {
+      while (index < line.length() && isWhitespace(line.charAt(index))) {
+        index++;
+      }
+      return index == line.length()
+          || line.charAt(index) == ','
+          || (index == line.length() - 1 && isLineTerminator(line.charAt(index)));
+    }
+
+    private static boolean isWordBoundary(String line, int index) {
+      return isWordChar(line, index - 1) != isWordChar(line, index);
+    }
+
+    private static boolean isWordChar(String line, int index) {
+      if (index < 0 || index >= line.length()) {
+        return false;
+      }
+      char c = line.charAt(index);
+      return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(char c) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+      return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
   }
 
   private static class LineIterator {
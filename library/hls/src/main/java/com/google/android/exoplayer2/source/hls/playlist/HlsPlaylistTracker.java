@@ -233,6 +233,25 @@ public interface HlsPlaylistTracker {
    */
   void refreshPlaylist(Uri url);
 
+  /**
+   * Marks a media playlist as used for playback. While a low-latency live playlist is used for
+   * playback, the tracker keeps a blocking reload request for it in flight.
+   *
+   * <p>Calls must be balanced with calls to {@link #deactivatePlaylistForPlayback(Uri)}.
+   *
+   * @param url The {@link Uri} of the media playlist.
+   */
+  default void activatePlaylistForPlayback(Uri url) {}
+
+  /**
+   * Marks a media playlist that was {@linkplain #activatePlaylistForPlayback(Uri) activated} as no
+   * longer used for playback. Once no user is left, the tracker stops reloading the playlist in the
+   * background, unless it is the primary playlist.
+   *
+   * @param url The {@link Uri} of the media playlist.
+   */
+  default void deactivatePlaylistForPlayback(Uri url) {}
+
   /**
    * Returns whether the tracked playlists describe a live stream.
    *
@@ -20,13 +20,20 @@ import static com.google.common.truth.Truth.assertThat;
 import android.net.Uri;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.testutil.FakeDataSet;
+import com.google.android.exoplayer2.testutil.FakeDataSource;
+import com.google.android.exoplayer2.testutil.TestUtil;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.TransferListener;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -75,6 +82,50 @@ public class Aes128DataSourceTest {
     assertThat(upstream.closedCalled).isTrue();
   }
 
+  @Test
+  public void read_withVariousReadLengths_returnsDataDecryptedByReferenceCipher() throws Exception {
+    byte[] key = TestUtil.buildTestData(/* length= */ 16, /* seed= */ 1);
+    byte[] iv = TestUtil.buildTestData(/* length= */ 16, /* seed= */ 2);
+    // Spans several upstream reads of the maximum length, and doesn't end on a block boundary.
+    byte[] data = TestUtil.buildTestData(/* length= */ 100_005, /* seed= */ 3);
+    Uri uri = Uri.parse("https://example.com/segment.ts");
+    FakeDataSet fakeDataSet = new FakeDataSet().setData(uri, encrypt(data, key, iv));
+
+    for (int readLength : new int[] {1, 15, 16, 17, 100, 4096, 32 * 1024 + 1, 200_000}) {
+      Aes128DataSource dataSource =
+          new TestAes123DataSource(new FakeDataSource(fakeDataSet), key, iv);
+      dataSource.open(new DataSpec(uri));
+      byte[] decryptedData = readToEnd(dataSource, readLength);
+      dataSource.close();
+
+      assertThat(decryptedData).isEqualTo(data);
+    }
+  }
+
+  private static byte[] encrypt(byte[] data, byte[] key, byte[] iv)
+      throws GeneralSecurityException {
+    Cipher cipher;
+    try {
+      cipher = Cipher.getInstance("AES/CBC/PKCS7Padding");
+    } catch (NoSuchAlgorithmException e) {
+      cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+    }
+    cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+    return cipher.doFinal(data);
+  }
+
+  private static byte[] readToEnd(DataSource dataSource, int readLength) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[readLength];
+    int bytesRead;
+    while ((bytesRead = dataSource.read(buffer, /* offset= */ 0, readLength))
+        != C.RESULT_END_OF_INPUT) {
+      assertThat(bytesRead).isAtMost(readLength);
+      output.write(buffer, /* offset= */ 0, bytesRead);
+    }
+    return output.toByteArray();
+  }
+
   private static class TestAes123DataSource extends Aes128DataSource {
 
     public TestAes123DataSource(DataSource upstream, byte[] encryptionKey, byte[] encryptionIv) {
@@ -15,9 +15,14 @@
  */
 package com.google.android.exoplayer2.source.hls;
 
+import static com.google.android.exoplayer2.robolectric.RobolectricUtil.runMainLooperUntil;
+import static com.google.android.exoplayer2.util.Assertions.checkNotNull;
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.net.Uri;
@@ -29,16 +34,21 @@ import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.MediaItem;
 import com.google.android.exoplayer2.SeekParameters;
 import com.google.android.exoplayer2.analytics.PlayerId;
+import com.google.android.exoplayer2.source.chunk.Chunk;
 import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist;
 import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistParser;
 import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistTracker;
 import com.google.android.exoplayer2.testutil.ExoPlayerTestRunner;
+import com.google.android.exoplayer2.testutil.FakeDataSet;
 import com.google.android.exoplayer2.testutil.FakeDataSource;
 import com.google.android.exoplayer2.testutil.TestUtil;
 import com.google.android.exoplayer2.upstream.CmcdConfiguration;
+import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.util.MimeTypes;
+import com.google.android.exoplayer2.util.Util;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import org.junit.Before;
@@ -312,13 +322,110 @@ public class HlsChunkSourceTest {
             "key4=5.0");
   }
 
+  @Test
+  public void getNextChunk_activatesSelectedPlaylistUntilReleased() {
+    HlsChunkSource testChunkSource = createHlsChunkSource(/* cmcdConfiguration= */ null);
+    HlsChunkSource.HlsChunkHolder output = new HlsChunkSource.HlsChunkHolder();
+
+    testChunkSource.getNextChunk(
+        /* playbackPositionUs= */ 0,
+        /* loadPositionUs= */ 0,
+        /* queue= */ ImmutableList.of(),
+        /* allowEndOfStream= */ true,
+        output);
+    testChunkSource.getNextChunk(
+        /* playbackPositionUs= */ 0,
+        /* loadPositionUs= */ 0,
+        /* queue= */ ImmutableList.of(),
+        /* allowEndOfStream= */ true,
+        output);
+    verify(mockPlaylistTracker).activatePlaylistForPlayback(PLAYLIST_URI);
+    verify(mockPlaylistTracker, never()).deactivatePlaylistForPlayback(any());
+    testChunkSource.release();
+
+    verify(mockPlaylistTracker).deactivatePlaylistForPlayback(PLAYLIST_URI);
+    verify(mockPlaylistTracker, never()).activatePlaylistForPlayback(IFRAME_URI);
+  }
+
+  @Test
+  public void getNextChunk_withKeyRotation_prefetchesKeyOfNextSegment() throws Exception {
+    String playlistString =
+        "#EXTM3U\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-MEDIA-SEQUENCE:0\n"
+            + "#EXT-X-KEY:METHOD=AES-128,URI=\"https://example.com/key0\"\n"
+            + "#EXTINF:4.0,\n"
+            + "segment0.ts\n"
+            + "#EXT-X-KEY:METHOD=AES-128,URI=\"https://example.com/key1\"\n"
+            + "#EXTINF:4.0,\n"
+            + "segment1.ts\n"
+            + "#EXT-X-ENDLIST\n";
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist)
+            new HlsPlaylistParser()
+                .parse(PLAYLIST_URI, new ByteArrayInputStream(Util.getUtf8Bytes(playlistString)));
+    when(mockPlaylistTracker.getPlaylistSnapshot(eq(PLAYLIST_URI), anyBoolean()))
+        .thenReturn(playlist);
+    when(mockPlaylistTracker.getInitialStartTimeUs()).thenReturn(playlist.startTimeUs);
+    FakeDataSet fakeDataSet =
+        new FakeDataSet()
+            .setData("https://example.com/key0", new byte[16])
+            .setData("https://example.com/key1", new byte[16]);
+    HlsChunkSource testChunkSource =
+        createHlsChunkSource(
+            new FakeDataSource.Factory().setFakeDataSet(fakeDataSet),
+            /* cmcdConfiguration= */ null);
+    HlsChunkSource.HlsChunkHolder output = new HlsChunkSource.HlsChunkHolder();
+
+    testChunkSource.getNextChunk(
+        /* playbackPositionUs= */ 0,
+        /* loadPositionUs= */ 0,
+        /* queue= */ ImmutableList.of(),
+        /* allowEndOfStream= */ true,
+        output);
+    Chunk keyChunk = checkNotNull(output.chunk);
+    assertThat(keyChunk.dataSpec.uri.toString()).isEqualTo("https://example.com/key0");
+    keyChunk.load();
+    testChunkSource.onChunkLoadCompleted(keyChunk);
+    output.clear();
+    testChunkSource.getNextChunk(
+        /* playbackPositionUs= */ 0,
+        /* loadPositionUs= */ 0,
+        /* queue= */ ImmutableList.of(),
+        /* allowEndOfStream= */ true,
+        output);
+    assertThat(output.chunk).isInstanceOf(HlsMediaChunk.class);
+    // The key of the second segment is loaded in the background, so its media chunk can be loaded
+    // next without loading the key first.
+    runMainLooperUntil(
+        () -> {
+          output.clear();
+          testChunkSource.getNextChunk(
+              /* playbackPositionUs= */ 0,
+              /* loadPositionUs= */ 4_000_000,
+              /* queue= */ ImmutableList.of(),
+              /* allowEndOfStream= */ true,
+              output);
+          return output.chunk != null;
+        });
+
+    assertThat(output.chunk).isInstanceOf(HlsMediaChunk.class);
+    assertThat(checkNotNull(output.chunk).dataSpec.uri.toString()).endsWith("segment1.ts");
+    testChunkSource.release();
+  }
+
   private HlsChunkSource createHlsChunkSource(@Nullable CmcdConfiguration cmcdConfiguration) {
+    return createHlsChunkSource(new FakeDataSource.Factory(), cmcdConfiguration);
+  }
+
+  private HlsChunkSource createHlsChunkSource(
+      DataSource.Factory dataSourceFactory, @Nullable CmcdConfiguration cmcdConfiguration) {
     return new HlsChunkSource(
         HlsExtractorFactory.DEFAULT,
         mockPlaylistTracker,
         new Uri[] {IFRAME_URI, PLAYLIST_URI},
         new Format[] {IFRAME_FORMAT, ExoPlayerTestRunner.VIDEO_FORMAT},
-        new DefaultHlsDataSourceFactory(new FakeDataSource.Factory()),
+        new DefaultHlsDataSourceFactory(dataSourceFactory),
         /* mediaTransferListener= */ null,
         new TimestampAdjusterProvider(),
         /* timestampAdjusterInitializationTimeoutMs= */ 0,
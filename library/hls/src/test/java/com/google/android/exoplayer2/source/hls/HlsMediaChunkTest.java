@@ -0,0 +1,246 @@
+/*
+ * Copyright 2023 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.exoplayer2.source.hls;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import android.net.Uri;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.analytics.PlayerId;
+import com.google.android.exoplayer2.drm.DrmSessionEventListener;
+import com.google.android.exoplayer2.drm.DrmSessionManager;
+import com.google.android.exoplayer2.extractor.ExtractorInput;
+import com.google.android.exoplayer2.extractor.ExtractorOutput;
+import com.google.android.exoplayer2.source.MediaSourceEventListener;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistParser;
+import com.google.android.exoplayer2.testutil.FakeDataSet;
+import com.google.android.exoplayer2.testutil.FakeDataSource;
+import com.google.android.exoplayer2.testutil.TestUtil;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.util.MimeTypes;
+import com.google.android.exoplayer2.util.TimestampAdjuster;
+import com.google.android.exoplayer2.util.Util;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+
+/** Unit tests for {@link HlsMediaChunk}. */
+@RunWith(AndroidJUnit4.class)
+public final class HlsMediaChunkTest {
+
+  private static final Uri PLAYLIST_URI = Uri.parse("https://example.com/playlist.m3u8");
+  private static final Uri SEGMENT_URI = Uri.parse("https://example.com/segment0.ts");
+  private static final String PLAYLIST =
+      "#EXTM3U\n"
+          + "#EXT-X-TARGETDURATION:4\n"
+          + "#EXT-X-MEDIA-SEQUENCE:0\n"
+          + "#EXTINF:4.0,\n"
+          + "segment0.ts\n"
+          + "#EXT-X-ENDLIST\n";
+  private static final long TIMEOUT_MS = 10_000;
+
+  @Test
+  public void load_nonPrimaryBeforeTimestampAdjusterInitialized_feedsBufferedDataOnceInitialized()
+      throws Exception {
+    // Larger than the initial buffer, so that the buffer grows while waiting.
+    byte[] segmentData = TestUtil.buildTestData(/* length= */ 50_000);
+    // Make sure the data isn't taken for an ID3 tag.
+    segmentData[0] = 0;
+    FakeDataSource dataSource =
+        new FakeDataSource(new FakeDataSet().setData(SEGMENT_URI, segmentData));
+    AtomicLong transferredByteCount = new AtomicLong();
+    // Opened once the whole segment is buffered. The adjuster is only initialized by this test, so
+    // the load thread can't pass any data to the extractor before that.
+    CountDownLatch segmentBuffered = new CountDownLatch(1);
+    dataSource.addTransferListener(
+        new TransferListener() {
+          @Override
+          public void onTransferInitializing(
+              DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+          @Override
+          public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+          @Override
+          public void onBytesTransferred(
+              DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+            if (transferredByteCount.addAndGet(bytesTransferred) == segmentData.length) {
+              segmentBuffered.countDown();
+            }
+          }
+
+          @Override
+          public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+        });
+    TimestampAdjusterProvider timestampAdjusterProvider = new TimestampAdjusterProvider();
+    ReadAllExtractor extractor = new ReadAllExtractor();
+    HlsMediaChunk chunk = createNonPrimaryChunk(dataSource, timestampAdjusterProvider, extractor);
+    AtomicReference<IOException> loadError = new AtomicReference<>();
+    Thread loadThread =
+        new Thread(
+            () -> {
+              try {
+                chunk.load();
+              } catch (IOException e) {
+                loadError.set(e);
+              }
+            });
+
+    loadThread.start();
+    assertThat(segmentBuffered.await(TIMEOUT_MS, MILLISECONDS)).isTrue();
+
+    // The whole segment is buffered while waiting, but nothing is passed to the extractor.
+    assertThat(transferredByteCount.get()).isEqualTo(segmentData.length);
+    assertThat(extractor.getReadData()).isEmpty();
+
+    TimestampAdjuster timestampAdjuster =
+        timestampAdjusterProvider.getAdjuster(/* discontinuitySequence= */ 0);
+    timestampAdjuster.sharedInitializeOrWait(
+        /* canInitialize= */ true, /* nextSampleTimestampUs= */ 0, /* timeoutMs= */ 0);
+    timestampAdjuster.adjustSampleTimestamp(/* timeUs= */ 0);
+    loadThread.join(TIMEOUT_MS);
+
+    assertThat(loadThread.isAlive()).isFalse();
+    assertThat(loadError.get()).isNull();
+    assertThat(chunk.isLoadCompleted()).isTrue();
+    assertThat(extractor.getReadData()).isEqualTo(segmentData);
+    assertThat(transferredByteCount.get()).isEqualTo(segmentData.length);
+  }
+
+  private static HlsMediaChunk createNonPrimaryChunk(
+      DataSource dataSource,
+      TimestampAdjusterProvider timestampAdjusterProvider,
+      HlsMediaChunkExtractor extractor)
+      throws IOException {
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist)
+            new HlsPlaylistParser()
+                .parse(PLAYLIST_URI, new ByteArrayInputStream(Util.getUtf8Bytes(PLAYLIST)));
+    HlsMediaChunk chunk =
+        HlsMediaChunk.createInstance(
+            (uri,
+                format,
+                muxedCaptionFormats,
+                timestampAdjuster,
+                responseHeaders,
+                sniffingExtractorInput,
+                playerId) -> extractor,
+            dataSource,
+            new Format.Builder().setSampleMimeType(MimeTypes.AUDIO_AAC).build(),
+            /* startOfPlaylistInPeriodUs= */ 0,
+            playlist,
+            new HlsChunkSource.SegmentBaseHolder(
+                playlist.segments.get(0),
+                playlist.mediaSequence,
+                /* partIndex= */ C.INDEX_UNSET),
+            PLAYLIST_URI,
+            /* muxedCaptionFormats= */ null,
+            C.SELECTION_REASON_UNKNOWN,
+            /* trackSelectionData= */ null,
+            /* isPrimaryTimestampSource= */ false,
+            timestampAdjusterProvider,
+            /* timestampAdjusterInitializationTimeoutMs= */ 0,
+            /* previousChunk= */ null,
+            /* mediaSegmentKey= */ null,
+            /* initSegmentKey= */ null,
+            /* shouldSpliceIn= */ false,
+            PlayerId.UNSET,
+            /* cmcdHeadersFactory= */ null);
+    chunk.init(createOutput(), /* sampleQueueWriteIndices= */ ImmutableList.of());
+    return chunk;
+  }
+
+  private static HlsSampleStreamWrapper createOutput() {
+    return new HlsSampleStreamWrapper(
+        /* uid= */ "0",
+        C.TRACK_TYPE_AUDIO,
+        Mockito.mock(HlsSampleStreamWrapper.Callback.class),
+        Mockito.mock(HlsChunkSource.class),
+        /* overridingDrmInitData= */ ImmutableMap.of(),
+        new DefaultAllocator(/* trimOnReset= */ true, C.DEFAULT_BUFFER_SEGMENT_SIZE),
+        /* positionUs= */ 0,
+        /* muxedAudioFormat= */ null,
+        DrmSessionManager.DRM_UNSUPPORTED,
+        new DrmSessionEventListener.EventDispatcher(),
+        new DefaultLoadErrorHandlingPolicy(),
+        new MediaSourceEventListener.EventDispatcher(),
+        HlsMediaSource.METADATA_TYPE_ID3);
+  }
+
+  /** A fake extractor that records all the data it reads. */
+  private static final class ReadAllExtractor implements HlsMediaChunkExtractor {
+
+    private final ByteArrayOutputStream readData;
+    private final byte[] buffer;
+
+    public ReadAllExtractor() {
+      readData = new ByteArrayOutputStream();
+      // Not a divisor of the segment length, to read across the end of the buffered data.
+      buffer = new byte[1000 + 7];
+    }
+
+    public byte[] getReadData() {
+      return readData.toByteArray();
+    }
+
+    @Override
+    public void init(ExtractorOutput extractorOutput) {}
+
+    @Override
+    public boolean read(ExtractorInput extractorInput) throws IOException {
+      int bytesRead = extractorInput.read(buffer, /* offset= */ 0, buffer.length);
+      if (bytesRead == C.RESULT_END_OF_INPUT) {
+        return false;
+      }
+      readData.write(buffer, /* off= */ 0, bytesRead);
+      return true;
+    }
+
+    @Override
+    public boolean isPackedAudioExtractor() {
+      return false;
+    }
+
+    @Override
+    public boolean isReusable() {
+      return false;
+    }
+
+    @Override
+    public HlsMediaChunkExtractor recreate() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void onTruncatedSegmentParsed() {}
+  }
+}
@@ -28,12 +28,15 @@ import com.google.android.exoplayer2.upstream.DefaultHttpDataSource;
 import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import okio.Buffer;
 import org.junit.After;
 import org.junit.Before;
@@ -395,6 +398,90 @@ public class DefaultHlsPlaylistTrackerTest {
     assertThat(mediaPlaylists.get(2).mediaSequence).isEqualTo(12);
   }
 
+  @Test
+  public void start_withDefaultAudioRendition_loadsAudioPlaylistWithoutWaitingForPrimary()
+      throws TimeoutException {
+    String multivariantPlaylist =
+        "#EXTM3U\n"
+            + "#EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID=\"aud\",NAME=\"English\",DEFAULT=YES,"
+            + "URI=\"audio/playlist.m3u8\"\n"
+            + "#EXT-X-MEDIA:TYPE=AUDIO,GROUP-ID=\"aud\",NAME=\"German\","
+            + "URI=\"audio_de/playlist.m3u8\"\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=2000000,CODECS=\"avc1.640028,mp4a.40.2\",AUDIO=\"aud\"\n"
+            + "media0/playlist.m3u8\n";
+    String mediaPlaylist =
+        "#EXTM3U\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-MEDIA-SEQUENCE:0\n"
+            + "#EXTINF:4.0,\n"
+            + "segment0.ts\n"
+            + "#EXT-X-ENDLIST\n";
+    List<String> requestedPaths = Collections.synchronizedList(new ArrayList<>());
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            requestedPaths.add(request.getPath());
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody(
+                    "/multivariant.m3u8".equals(request.getPath())
+                        ? multivariantPlaylist
+                        : mediaPlaylist);
+          }
+        });
+    DefaultHlsPlaylistTracker defaultHlsPlaylistTracker =
+        new DefaultHlsPlaylistTracker(
+            dataType -> new DefaultHttpDataSource.Factory().createDataSource(),
+            new DefaultLoadErrorHandlingPolicy(),
+            new DefaultHlsPlaylistParserFactory());
+    Uri primaryPlaylistUri = Uri.parse(mockWebServer.url("/media0/playlist.m3u8").toString());
+    Uri audioPlaylistUri = Uri.parse(mockWebServer.url("/audio/playlist.m3u8").toString());
+
+    defaultHlsPlaylistTracker.start(
+        Uri.parse(mockWebServer.url("/multivariant.m3u8").toString()),
+        new MediaSourceEventListener.EventDispatcher(),
+        playlist -> {});
+    RobolectricUtil.runMainLooperUntil(
+        () ->
+            defaultHlsPlaylistTracker.getPlaylistSnapshot(
+                        primaryPlaylistUri, /* isForPlayback= */ false)
+                    != null
+                && defaultHlsPlaylistTracker.getPlaylistSnapshot(
+                        audioPlaylistUri, /* isForPlayback= */ false)
+                    != null);
+    defaultHlsPlaylistTracker.stop();
+
+    assertThat(requestedPaths)
+        .containsExactly("/multivariant.m3u8", "/media0/playlist.m3u8", "/audio/playlist.m3u8");
+  }
+
+  @Test
+  public void refreshPlaylist_withRecentSnapshotThatCanSkip_requestsDeltaUpdate()
+      throws TimeoutException {
+    List<String> requestedPaths =
+        refreshNonPrimaryPlaylistTwiceAndCollectRequestedPaths(/* canSkipUntilSeconds= */ 24);
+
+    // The second refresh is issued one target duration (4s) after the first, which is within half
+    // the skip boundary (12s).
+    assertThat(requestedPaths)
+        .containsExactly("/media1/playlist.m3u8", "/media1/playlist.m3u8?_HLS_skip=YES")
+        .inOrder();
+  }
+
+  @Test
+  public void refreshPlaylist_withSnapshotOlderThanHalfSkipBoundary_requestsFullUpdate()
+      throws TimeoutException {
+    List<String> requestedPaths =
+        refreshNonPrimaryPlaylistTwiceAndCollectRequestedPaths(/* canSkipUntilSeconds= */ 6);
+
+    // The second refresh is issued one target duration (4s) after the first, which is later than
+    // half the skip boundary (3s).
+    assertThat(requestedPaths)
+        .containsExactly("/media1/playlist.m3u8", "/media1/playlist.m3u8")
+        .inOrder();
+  }
+
   private List<HttpUrl> enqueueWebServerResponses(String[] paths, MockResponse... mockResponses) {
     assertThat(paths).hasLength(mockResponses.length);
     for (MockResponse mockResponse : mockResponses) {
@@ -415,6 +502,90 @@ public class DefaultHlsPlaylistTrackerTest {
     }
   }
 
+  /**
+   * Starts a tracker for a live stream with two variants, and refreshes the playlist of the
+   * variant that isn't the primary one twice. The second refresh is requested once the first one
+   * is loaded.
+   *
+   * @param canSkipUntilSeconds The CAN-SKIP-UNTIL attribute of the media playlists.
+   * @return The paths of the requests of the refreshed media playlist.
+   */
+  private List<String> refreshNonPrimaryPlaylistTwiceAndCollectRequestedPaths(
+      int canSkipUntilSeconds) throws TimeoutException {
+    String multivariantPlaylist =
+        "#EXTM3U\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=2000000,CODECS=\"avc1.640028\"\n"
+            + "media0/playlist.m3u8\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=1000000,CODECS=\"avc1.640028\"\n"
+            + "media1/playlist.m3u8\n";
+    String mediaPlaylist =
+        "#EXTM3U\n"
+            + "#EXT-X-SERVER-CONTROL:CAN-SKIP-UNTIL="
+            + canSkipUntilSeconds
+            + "\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-MEDIA-SEQUENCE:10\n"
+            + "#EXTINF:4.0,\n"
+            + "fileSequence10.ts\n"
+            + "#EXTINF:4.0,\n"
+            + "fileSequence11.ts\n";
+    List<String> requestedPaths = Collections.synchronizedList(new ArrayList<>());
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            requestedPaths.add(request.getPath());
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody(
+                    "/multivariant.m3u8".equals(request.getPath())
+                        ? multivariantPlaylist
+                        : mediaPlaylist);
+          }
+        });
+    DefaultHlsPlaylistTracker defaultHlsPlaylistTracker =
+        new DefaultHlsPlaylistTracker(
+            dataType -> new DefaultHttpDataSource.Factory().createDataSource(),
+            new DefaultLoadErrorHandlingPolicy(),
+            new DefaultHlsPlaylistParserFactory());
+    Uri primaryPlaylistUri = Uri.parse(mockWebServer.url("/media0/playlist.m3u8").toString());
+    Uri refreshedPlaylistUri = Uri.parse(mockWebServer.url("/media1/playlist.m3u8").toString());
+
+    defaultHlsPlaylistTracker.start(
+        Uri.parse(mockWebServer.url("/multivariant.m3u8").toString()),
+        new MediaSourceEventListener.EventDispatcher(),
+        playlist -> {});
+    RobolectricUtil.runMainLooperUntil(
+        () ->
+            defaultHlsPlaylistTracker.getPlaylistSnapshot(
+                    primaryPlaylistUri, /* isForPlayback= */ false)
+                != null);
+    defaultHlsPlaylistTracker.refreshPlaylist(refreshedPlaylistUri);
+    RobolectricUtil.runMainLooperUntil(
+        () ->
+            defaultHlsPlaylistTracker.getPlaylistSnapshot(
+                    refreshedPlaylistUri, /* isForPlayback= */ false)
+                != null);
+    defaultHlsPlaylistTracker.refreshPlaylist(refreshedPlaylistUri);
+    RobolectricUtil.runMainLooperUntil(
+        () -> getPathsStartingWith(requestedPaths, "/media1/").size() == 2);
+    defaultHlsPlaylistTracker.stop();
+
+    return getPathsStartingWith(requestedPaths, "/media1/");
+  }
+
+  private static List<String> getPathsStartingWith(List<String> paths, String prefix) {
+    List<String> matchingPaths = new ArrayList<>();
+    synchronized (paths) {
+      for (String path : paths) {
+        if (path.startsWith(prefix)) {
+          matchingPaths.add(path);
+        }
+      }
+    }
+    return matchingPaths;
+  }
+
   private static List<HlsMediaPlaylist> runPlaylistTrackerAndCollectMediaPlaylists(
       DataSource.Factory dataSourceFactory,
       Uri multivariantPlaylistUri,
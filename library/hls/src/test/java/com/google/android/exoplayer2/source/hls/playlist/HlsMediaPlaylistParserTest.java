@@ -207,6 +207,49 @@ public class HlsMediaPlaylistParserTest {
     assertThat(segment.byteRangeLength).isEqualTo(C.LENGTH_UNSET);
   }
 
+  @Test
+  public void parseMediaPlaylist_withManySegments_parsesAllSegmentAttributes() throws Exception {
+    Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
+    StringBuilder playlistString =
+        new StringBuilder(
+            "#EXTM3U\n"
+                + "#EXT-X-VERSION:3\n"
+                + "#EXT-X-TARGETDURATION:7\n"
+                + "#EXT-X-MEDIA-SEQUENCE:100\n");
+    int segmentCount = 5000;
+    for (int i = 0; i < segmentCount; i++) {
+      playlistString
+          .append(i % 2 == 0 ? "#EXTINF:6.0061234,title " + i : "#EXTINF:5.")
+          .append("\n#EXT-X-BYTERANGE:")
+          .append(i + 1)
+          .append("\nsegment")
+          .append(i)
+          .append(".ts\n");
+    }
+    InputStream inputStream =
+        new ByteArrayInputStream(Util.getUtf8Bytes(playlistString.toString()));
+
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist) new HlsPlaylistParser().parse(playlistUri, inputStream);
+
+    assertThat(playlist.mediaSequence).isEqualTo(100);
+    assertThat(playlist.segments).hasSize(segmentCount);
+    long expectedStartTimeUs = 0;
+    long expectedByteRangeOffset = 0;
+    for (int i = 0; i < segmentCount; i++) {
+      Segment segment = playlist.segments.get(i);
+      long expectedDurationUs = i % 2 == 0 ? 6_006_123 : 5_000_000;
+      assertThat(segment.url).isEqualTo("segment" + i + ".ts");
+      assertThat(segment.title).isEqualTo(i % 2 == 0 ? "title " + i : "");
+      assertThat(segment.durationUs).isEqualTo(expectedDurationUs);
+      assertThat(segment.relativeStartTimeUs).isEqualTo(expectedStartTimeUs);
+      assertThat(segment.byteRangeOffset).isEqualTo(expectedByteRangeOffset);
+      assertThat(segment.byteRangeLength).isEqualTo(i + 1);
+      expectedStartTimeUs += expectedDurationUs;
+      expectedByteRangeOffset += i + 1;
+    }
+  }
+
   @Test
   public void parseSampleAesMethod() throws Exception {
     Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
@@ -464,6 +507,127 @@ public class HlsMediaPlaylistParserTest {
     assertThat(playlist.trailingParts.get(0).relativeDiscontinuitySequence).isEqualTo(1);
   }
 
+  @Test
+  public void parseMediaPlaylist_withUnchangedSegmentsOfPreviousPlaylist_reusesSegments()
+      throws IOException {
+    Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
+    String previousPlaylistString =
+        "#EXTM3U\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-VERSION:6\n"
+            + "#EXT-X-MEDIA-SEQUENCE:264\n"
+            + "#EXT-X-MAP:URI=\"init.mp4\"\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence264.mp4\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence265.mp4\n";
+    String playlistString =
+        "#EXTM3U\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-VERSION:6\n"
+            + "#EXT-X-MEDIA-SEQUENCE:264\n"
+            + "#EXT-X-MAP:URI=\"init.mp4\"\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence264.mp4\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence265-changed.mp4\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence266.mp4\n";
+    InputStream previousInputStream =
+        new ByteArrayInputStream(Util.getUtf8Bytes(previousPlaylistString));
+    HlsMediaPlaylist previousPlaylist =
+        (HlsMediaPlaylist) new HlsPlaylistParser().parse(playlistUri, previousInputStream);
+    InputStream inputStream = new ByteArrayInputStream(Util.getUtf8Bytes(playlistString));
+
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist)
+            new HlsPlaylistParser(HlsMultivariantPlaylist.EMPTY, previousPlaylist)
+                .parse(playlistUri, inputStream);
+
+    assertThat(playlist.segments).hasSize(3);
+    assertThat(playlist.segments.get(0)).isSameInstanceAs(previousPlaylist.segments.get(0));
+    assertThat(playlist.segments.get(1)).isNotSameInstanceAs(previousPlaylist.segments.get(1));
+    assertThat(playlist.segments.get(1).url).isEqualTo("fileSequence265-changed.mp4");
+    assertThat(playlist.segments.get(2).url).isEqualTo("fileSequence266.mp4");
+    assertThat(playlist.segments.get(2).initializationSegment)
+        .isSameInstanceAs(previousPlaylist.segments.get(0).initializationSegment);
+  }
+
+  @Test
+  public void parseMediaPlaylist_withAppendedEventPlaylist_reusesAllPreviousSegments()
+      throws IOException {
+    Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
+    String previousPlaylistString =
+        "#EXTM3U\n"
+            + "#EXT-X-PLAYLIST-TYPE:EVENT\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-VERSION:6\n"
+            + "#EXT-X-MEDIA-SEQUENCE:0\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence0.ts\n"
+            + "#EXT-X-DISCONTINUITY\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence1.ts\n";
+    String playlistString =
+        previousPlaylistString + "#EXTINF:4.00008,\n" + "fileSequence2.ts\n";
+    HlsMediaPlaylist previousPlaylist =
+        (HlsMediaPlaylist)
+            new HlsPlaylistParser()
+                .parse(
+                    playlistUri,
+                    new ByteArrayInputStream(Util.getUtf8Bytes(previousPlaylistString)));
+
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist)
+            new HlsPlaylistParser(HlsMultivariantPlaylist.EMPTY, previousPlaylist)
+                .parse(playlistUri, new ByteArrayInputStream(Util.getUtf8Bytes(playlistString)));
+
+    assertThat(playlist.segments).hasSize(3);
+    assertThat(playlist.segments.get(0)).isSameInstanceAs(previousPlaylist.segments.get(0));
+    assertThat(playlist.segments.get(1)).isSameInstanceAs(previousPlaylist.segments.get(1));
+    assertThat(playlist.segments.get(2).relativeDiscontinuitySequence).isEqualTo(1);
+  }
+
+  @Test
+  public void parseMediaPlaylist_withSlidingWindow_doesNotReusePreviousSegments()
+      throws IOException {
+    Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
+    String previousPlaylistString =
+        "#EXTM3U\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-VERSION:6\n"
+            + "#EXT-X-MEDIA-SEQUENCE:264\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence264.ts\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence265.ts\n";
+    String playlistString =
+        "#EXTM3U\n"
+            + "#EXT-X-TARGETDURATION:4\n"
+            + "#EXT-X-VERSION:6\n"
+            + "#EXT-X-MEDIA-SEQUENCE:265\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence265.ts\n"
+            + "#EXTINF:4.00008,\n"
+            + "fileSequence266.ts\n";
+    HlsMediaPlaylist previousPlaylist =
+        (HlsMediaPlaylist)
+            new HlsPlaylistParser()
+                .parse(
+                    playlistUri,
+                    new ByteArrayInputStream(Util.getUtf8Bytes(previousPlaylistString)));
+
+    HlsMediaPlaylist playlist =
+        (HlsMediaPlaylist)
+            new HlsPlaylistParser(HlsMultivariantPlaylist.EMPTY, previousPlaylist)
+                .parse(playlistUri, new ByteArrayInputStream(Util.getUtf8Bytes(playlistString)));
+
+    assertThat(playlist.segments).hasSize(2);
+    assertThat(playlist.segments.get(0)).isNotSameInstanceAs(previousPlaylist.segments.get(1));
+    assertThat(playlist.segments.get(0).url).isEqualTo("fileSequence265.ts");
+    assertThat(playlist.segments.get(0).relativeStartTimeUs).isEqualTo(0);
+  }
+
   @Test
   public void parseMediaPlaylist_withParts_parsesPartWithAllAttributes() throws IOException {
     Uri playlistUri = Uri.parse("https://example.com/test.m3u8");
@@ -53,6 +53,7 @@ public class TestExoPlayerBuilder {
   private long seekBackIncrementMs;
   private long seekForwardIncrementMs;
   private boolean deviceVolumeControlEnabled;
+  private boolean dynamicSchedulingEnabled;
 
   public TestExoPlayerBuilder(Context context) {
     this.context = context;
@@ -294,6 +295,19 @@ public class TestExoPlayerBuilder {
     return this;
   }
 
+  /**
+   * See {@link ExoPlayer.Builder#experimentalSetDynamicSchedulingEnabled(boolean)} for details.
+   *
+   * @param dynamicSchedulingEnabled Whether to enable dynamic scheduling.
+   * @return This builder.
+   */
+  @CanIgnoreReturnValue
+  public TestExoPlayerBuilder experimentalSetDynamicSchedulingEnabled(
+      boolean dynamicSchedulingEnabled) {
+    this.dynamicSchedulingEnabled = dynamicSchedulingEnabled;
+    return this;
+  }
+
   /** Returns the seek forward increment used by the player. */
   public long getSeekForwardIncrementMs() {
     return seekForwardIncrementMs;
@@ -335,7 +349,8 @@ public class TestExoPlayerBuilder {
             .setLooper(looper)
             .setSeekBackIncrementMs(seekBackIncrementMs)
             .setSeekForwardIncrementMs(seekForwardIncrementMs)
-            .setDeviceVolumeControlEnabled(deviceVolumeControlEnabled);
+            .setDeviceVolumeControlEnabled(deviceVolumeControlEnabled)
+            .experimentalSetDynamicSchedulingEnabled(dynamicSchedulingEnabled);
     if (mediaSourceFactory != null) {
       builder.setMediaSourceFactory(mediaSourceFactory);
     }